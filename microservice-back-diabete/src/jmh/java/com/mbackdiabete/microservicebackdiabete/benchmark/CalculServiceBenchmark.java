@@ -0,0 +1,138 @@
+package com.mbackdiabete.microservicebackdiabete.benchmark;
+
+import com.mbackdiabete.microservicebackdiabete.automate.DictionnaireTermesDiabete;
+import com.mbackdiabete.microservicebackdiabete.configuration.CustomProperties;
+import com.mbackdiabete.microservicebackdiabete.depistage.MoteurDepistage;
+import com.mbackdiabete.microservicebackdiabete.depistage.RegleDepistageDiabete;
+import com.mbackdiabete.microservicebackdiabete.regles.ReglesRisque;
+import com.mbackdiabete.microservicebackdiabete.service.CacheRisqueService;
+import com.mbackdiabete.microservicebackdiabete.service.CalculService;
+import com.mbackdiabete.microservicebackdiabete.service.impl.CacheRisqueServiceImpl;
+import com.mbackdiabete.microservicebackdiabete.service.impl.CalculServiceImpl;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks JMH du calcul du risque de diabète : comptage des termes déclencheurs, calcul de l'âge et niveau de risque.
+ * Le dictionnaire et les notes sont générés de façon déterministe selon les paramètres, le dictionnaire étant chargé
+ * depuis un fichier externe comme en production. L'horloge est fixe et les logs du microservice sont limités
+ * aux avertissements, afin de mesurer le calcul seul.
+ * Lancement : mvn -Pbenchmark -DskipTests verify (options JMH via -Djmh.args="...").
+ *
+ * @author Mickael Hayé
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CalculServiceBenchmark {
+
+    private static final String[] MOTS = {"le", "patient", "déclare", "se", "sentir", "bien", "depuis", "la", "dernière",
+            "visite", "tests", "de", "laboratoire", "résultats", "normaux", "il", "elle", "signale", "une", "fatigue"};
+
+    /**
+     * Nombre de notes du patient.
+     */
+    @Param({"1", "10", "100"})
+    public int nbNotes;
+
+    /**
+     * Longueur approximative de chaque note, en caractères.
+     */
+    @Param({"100", "1000"})
+    public int longueurNote;
+
+    /**
+     * Nombre de familles de termes du dictionnaire.
+     */
+    @Param({"11", "1000"})
+    public int tailleDictionnaire;
+
+    private CalculService calculService;
+    private List<String> notes;
+    private Date dateNaissance;
+    private Path fichierDictionnaire;
+
+    /**
+     * Génère le dictionnaire et les notes, puis construit le service de calcul.
+     */
+    @Setup(Level.Trial)
+    public void preparer() throws IOException {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger("com.mbackdiabete")).setLevel(ch.qos.logback.classic.Level.WARN);
+        Random random = new Random(42);
+
+        List<String> termes = new ArrayList<>();
+        StringBuilder dictionnaire = new StringBuilder();
+        for (int famille = 0; famille < tailleDictionnaire; famille++) {
+            int nbSynonymes = 1 + random.nextInt(3);
+            for (int synonyme = 0; synonyme < nbSynonymes; synonyme++) {
+                String terme = "terme" + Integer.toString(famille, 36) + "x" + synonyme;
+                termes.add(terme);
+                dictionnaire.append(synonyme == 0 ? "" : ",").append(terme);
+            }
+            dictionnaire.append(";\n");
+        }
+        fichierDictionnaire = Files.createTempFile("termesDiabete", ".txt");
+        Files.writeString(fichierDictionnaire, dictionnaire, StandardCharsets.UTF_8);
+        CustomProperties prop = new CustomProperties();
+        prop.setTermesDiabeteExternalFilePath(fichierDictionnaire.toString());
+
+        // Environ un mot sur vingt est un terme déclencheur
+        notes = new ArrayList<>(nbNotes);
+        for (int i = 0; i < nbNotes; i++) {
+            StringBuilder note = new StringBuilder(longueurNote + 32);
+            while (note.length() < longueurNote) {
+                note.append(random.nextInt(20) == 0 ? termes.get(random.nextInt(termes.size())) : MOTS[random.nextInt(MOTS.length)]).append(' ');
+            }
+            notes.add(note.toString());
+        }
+
+        ZoneId zone = ZoneId.of("Europe/Paris");
+        Clock clock = Clock.fixed(LocalDate.of(2024, 3, 15).atStartOfDay(zone).toInstant(), zone);
+        dateNaissance = Date.from(LocalDate.of(1948, 7, 21).atStartOfDay(zone).toInstant());
+        CacheRisqueService cacheRisqueService = new CacheRisqueServiceImpl(prop, clock);
+        DictionnaireTermesDiabete dictionnaireTermes = new DictionnaireTermesDiabete(prop, cacheRisqueService);
+        ReglesRisque reglesRisque = new ReglesRisque(prop, cacheRisqueService);
+        MoteurDepistage moteurDepistage = new MoteurDepistage(List.of(new RegleDepistageDiabete(dictionnaireTermes, reglesRisque)));
+        calculService = new CalculServiceImpl(dictionnaireTermes, reglesRisque, moteurDepistage, clock);
+    }
+
+    /**
+     * Supprime le fichier du dictionnaire généré.
+     */
+    @TearDown(Level.Trial)
+    public void nettoyer() throws IOException {
+        Files.deleteIfExists(fichierDictionnaire);
+    }
+
+    @Benchmark
+    public int calculNbrTermesDeclencheurs() {
+        return calculService.calculNbrTermesDeclencheurs(notes);
+    }
+
+    @Benchmark
+    public int calculAge() {
+        return calculService.calculAge(dateNaissance);
+    }
+
+    @Benchmark
+    public String getNiveauxRisque() {
+        return calculService.getNiveauxRisque(dateNaissance, "F", notes);
+    }
+}
@@ -0,0 +1,58 @@
+package com.mbackdiabete.microservicebackdiabete.automate;
+
+import com.mcommun.microservicecommun.automate.AutomateTermesDeclencheurs;
+import com.mcommun.microservicecommun.chargement.RessourceRechargeable;
+import com.mbackdiabete.microservicebackdiabete.configuration.CustomProperties;
+import com.mbackdiabete.microservicebackdiabete.service.CacheRisqueService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+
+/**
+ * Dictionnaire des termes déclencheurs du diabète, compilé en automate.
+ * Le dictionnaire peut être lu depuis un fichier externe ; il est alors surveillé et rechargé périodiquement,
+ * sans redéploiement et sans lecture disque sur le chemin des requêtes.
+ *
+ * @author Mickael Hayé
+ * @version 1.0
+ */
+@Component
+public class DictionnaireTermesDiabete {
+
+    private final CacheRisqueService cacheRisqueService;
+    private final RessourceRechargeable<AutomateTermesDeclencheurs> ressource;
+
+    /**
+     * Charge et compile le dictionnaire selon les propriétés du microservice.
+     *
+     * @param prop               Les propriétés personnalisées du microservice.
+     * @param cacheRisqueService Le cache des niveaux de risque, vidé à chaque rechargement.
+     */
+    public DictionnaireTermesDiabete(CustomProperties prop, CacheRisqueService cacheRisqueService) {
+        this.cacheRisqueService = cacheRisqueService;
+        this.ressource = new RessourceRechargeable<>("Liste des expressions de recherche diabète",
+                prop.getTermesDiabeteFilePath(), prop.getTermesDiabeteExternalFilePath(),
+                AutomateTermesDeclencheurs::lire, AutomateTermesDeclencheurs.compiler(Collections.emptyMap()));
+    }
+
+    /**
+     * Renvoie l'automate actuellement publié.
+     *
+     * @return AutomateTermesDeclencheurs L'automate du dictionnaire.
+     */
+    public AutomateTermesDeclencheurs getAutomate() {
+        return ressource.get();
+    }
+
+    /**
+     * Vérifie périodiquement le fichier externe et publie une nouvelle version de l'automate s'il a changé,
+     * puis vide le cache des niveaux de risque, calculés avec l'ancienne version.
+     */
+    @Scheduled(fixedDelayString = "${com.mbackdiabete.microservicebackdiabete.termesDiabeteReloadDelay:30000}")
+    public void recharger() {
+        if (ressource.verifierModification()) {
+            cacheRisqueService.invaliderTout();
+        }
+    }
+}
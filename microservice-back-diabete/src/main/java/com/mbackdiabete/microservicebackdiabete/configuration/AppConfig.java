@@ -1,30 +1,240 @@
 package com.mbackdiabete.microservicebackdiabete.configuration;
+import com.mcommun.microservicecommun.configuration.AppelsDirectsInterceptor;
+import com.mcommun.microservicecommun.configuration.Echeance;
+import com.mcommun.microservicecommun.configuration.EcheanceFilter;
+import com.mcommun.microservicecommun.configuration.ProtectionAppelsInterceptor;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.context.ContextExecutorService;
+import io.micrometer.context.ContextSnapshot;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+import java.time.Clock;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Classe AppConfig pour configurer les beans nécessaires au fonctionnement du microservice.
  * Cette classe utilise Spring Framework pour définir et configurer les beans.
+ * Elle active également les tâches planifiées, utilisées pour le rechargement à chaud des fichiers de données.
  *
  * @author mickael hayé
  * @version 1.0
  */
 @Configuration
+@EnableScheduling
 public class AppConfig {
     private static final Logger logger = LoggerFactory.getLogger(AppConfig.class);
 
+    /**
+     * Crée le pool de connexions HTTP partagé par tous les appels vers les autres microservices.
+     * Les connexions sont réutilisées d'un appel à l'autre (keep-alive) au lieu d'être ouvertes et fermées à chaque requête.
+     *
+     * @param prop Les propriétés personnalisées du microservice.
+     * @return PoolingHttpClientConnectionManager - le pool de connexions HTTP.
+     */
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager poolConnexionsHttp(CustomProperties prop) {
+        logger.info("Création du pool de connexions HTTP : {} connexions, {} par route.", prop.getHttpConnexionsMax(), prop.getHttpConnexionsMaxParRoute());
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(prop.getHttpConnexionsMax())
+                .setMaxConnPerRoute(prop.getHttpConnexionsMaxParRoute())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(prop.getHttpConnexionTimeout()))
+                        .setSocketTimeout(Timeout.ofMilliseconds(prop.getHttpLectureTimeout()))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+    }
+
+    /**
+     * Crée le client HTTP adossé au pool de connexions.
+     * Chaque requête est bornée (attente d'une connexion libre, établissement, réponse), et les connexions expirées
+     * ou inactives depuis trop longtemps sont fermées en tâche de fond.
+     *
+     * @param poolConnexionsHttp Le pool de connexions HTTP.
+     * @param prop               Les propriétés personnalisées du microservice.
+     * @return CloseableHttpClient - le client HTTP.
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient clientHttp(PoolingHttpClientConnectionManager poolConnexionsHttp, CustomProperties prop) {
+        return HttpClients.custom()
+                .setConnectionManager(poolConnexionsHttp)
+                .setDefaultRequestConfig(configRequete(prop, prop.getHttpLectureTimeout()))
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(prop.getHttpInactiviteMax()))
+                .build();
+    }
+
+    /**
+     * Crée l'intercepteur protégeant les appels vers les autres microservices par un disjoncteur et une cloison
+     * propres à chaque microservice appelé.
+     *
+     * @param circuitBreakerRegistry Le registre des disjoncteurs (propriétés resilience4j.circuitbreaker).
+     * @param bulkheadRegistry       Le registre des cloisons (propriétés resilience4j.bulkhead).
+     * @return ProtectionAppelsInterceptor - l'intercepteur, commun aux microservices.
+     */
+    @Bean
+    public ProtectionAppelsInterceptor protectionAppelsInterceptor(CircuitBreakerRegistry circuitBreakerRegistry, BulkheadRegistry bulkheadRegistry) {
+        return new ProtectionAppelsInterceptor(circuitBreakerRegistry, bulkheadRegistry);
+    }
+
+    /**
+     * Crée le filtre définissant l'échéance de chaque requête à partir de l'en-tête transmis par l'appelant ;
+     * sans en-tête, la requête n'a pas d'échéance.
+     *
+     * @return EcheanceFilter - le filtre, commun aux microservices.
+     */
+    @Bean
+    public EcheanceFilter echeanceFilter() {
+        return new EcheanceFilter(0);
+    }
+
+    /**
+     * Crée l'intercepteur, commun aux microservices, envoyant les lectures directement aux instances des autres microservices
+     * lorsque les appels directs sont activés ; sinon, tous les appels passent par le gateway.
+     *
+     * @param prop Les propriétés personnalisées du microservice.
+     * @return AppelsDirectsInterceptor - l'intercepteur des appels directs.
+     */
+    @Bean
+    public AppelsDirectsInterceptor appelsDirectsInterceptor(CustomProperties prop) {
+        return new AppelsDirectsInterceptor(prop.getGatewayPath(), prop.isAppelsDirects() ? prop.getServicesDirects() : Map.of(), prop.getAppelsDirectsEjection());
+    }
+
     /**
      * Crée et configure un bean RestTemplate pour les appels HTTP.
-     * Le RestTemplate est un client HTTP qui facilite la communication avec les services web.
+     * Le RestTemplate est un client HTTP qui facilite la communication avec les services web ;
+     * il utilise le client HTTP à connexions poolées.
+     * Construit à partir du {@code RestTemplateBuilder} de Spring Boot, ses appels sont mesurés (métrique http.client.requests).
+     * Ses appels passent par des disjoncteurs et des cloisons propres à chaque microservice appelé,
+     * et leur délai de réponse est borné par l'échéance de la requête en cours.
+     * Si les appels directs sont activés, les lectures sont envoyées directement aux instances configurées.
      *
+     * @param builder          Le constructeur de RestTemplate fourni par Spring Boot.
+     * @param clientHttp       Le client HTTP à connexions poolées.
+     * @param protectionAppels L'intercepteur protégeant les appels vers les autres microservices.
+     * @param appelsDirects    L'intercepteur envoyant les lectures directement aux microservices, placé en dernier.
+     * @param prop             Les propriétés personnalisées du microservice.
      * @return RestTemplate - l'instance de RestTemplate configurée pour l'utilisation dans le microservice.
      */
     @Bean
-    public RestTemplate restTemplate() {
+    public RestTemplate restTemplate(RestTemplateBuilder builder, CloseableHttpClient clientHttp, ProtectionAppelsInterceptor protectionAppels,
+                                     AppelsDirectsInterceptor appelsDirects, CustomProperties prop) {
         logger.info("Création du bean RestTemplate pour les appels HTTP.");
-        return new RestTemplate();
+        return builder.requestFactory(() -> {
+                    HttpComponentsClientHttpRequestFactory factory = new HttpComponentsClientHttpRequestFactory(clientHttp);
+                    factory.setHttpContextFactory((methode, uri) -> contexteEcheance(prop));
+                    return factory;
+                })
+                .additionalInterceptors(protectionAppels, appelsDirects)
+                .build();
+    }
+
+    /**
+     * Crée le contexte d'un appel HTTP dont le délai de réponse est borné par le délai d'un appel distant
+     * et réduit au temps restant avant l'échéance de la requête en cours : l'appel bloquant est interrompu
+     * au plus tard lorsque son résultat n'est plus attendu, et ne retient pas le thread du pool au-delà.
+     */
+    private static HttpContext contexteEcheance(CustomProperties prop) {
+        long delaiReponse = Math.min(prop.getHttpLectureTimeout(), prop.getAppelsDistantsTimeout());
+        Long echeance = Echeance.courante();
+        if (echeance != null) {
+            delaiReponse = Math.min(delaiReponse, Echeance.restante(echeance));
+        }
+        HttpClientContext contexte = HttpClientContext.create();
+        contexte.setRequestConfig(configRequete(prop, Math.max(1, delaiReponse)));
+        return contexte;
+    }
+
+    private static RequestConfig configRequete(CustomProperties prop, long delaiReponse) {
+        return RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(prop.getHttpAttenteConnexionTimeout()))
+                .setResponseTimeout(Timeout.ofMilliseconds(delaiReponse))
+                .setDefaultKeepAlive(prop.getHttpKeepAlive(), TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * Fournit l'horloge du microservice, utilisée pour le calcul de l'âge et l'expiration du cache.
+     * Elle peut être remplacée par une horloge fixe dans les tests et les benchmarks.
+     *
+     * @return Clock - l'horloge système dans le fuseau par défaut.
+     */
+    @Bean
+    public Clock clock() {
+        return Clock.systemDefaultZone();
+    }
+
+    /**
+     * Crée le pool de threads borné utilisé pour exécuter en parallèle les appels vers les autres microservices.
+     * Lorsque le pool et sa file d'attente sont saturés, l'appel est refusé immédiatement (503) : il n'est pas exécuté
+     * par le thread de la requête, dont rien ne bornerait alors la durée.
+     * Le contexte de la requête (trace en cours) est transmis aux tâches, afin que les appels distants fassent partie de sa trace.
+     *
+     * @param prop Les propriétés personnalisées du microservice.
+     * @return ExecutorService - le pool de threads dédié aux appels distants.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService appelsDistantsExecutor(CustomProperties prop) {
+        int taille = prop.getAppelsDistantsPoolSize();
+        logger.info("Création du pool de {} threads pour les appels distants.", taille);
+        AtomicInteger compteur = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "appels-distants-" + compteur.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return ContextExecutorService.wrap(new ThreadPoolExecutor(taille, taille, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(taille * 10),
+                threadFactory, new ThreadPoolExecutor.AbortPolicy()), ContextSnapshot::captureAll);
+    }
+
+    /**
+     * Crée le pool fork-join utilisé pour évaluer en parallèle le risque d'un lot de patients.
+     * Un pool dédié évite d'occuper le pool commun de la JVM avec des calculs de longue durée.
+     *
+     * @param prop Les propriétés personnalisées du microservice.
+     * @return ForkJoinPool - le pool dédié à l'évaluation groupée du risque.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool evaluationRisquePool(CustomProperties prop) {
+        logger.info("Création du pool fork-join de parallélisme {} pour l'évaluation du risque.", prop.getEvaluationRisqueParallelisme());
+        return new ForkJoinPool(prop.getEvaluationRisqueParallelisme());
+    }
+
+    /**
+     * Calcule un ETag fort (empreinte du corps) pour les réponses de lecture mises en cache par le gateway :
+     * le niveau de risque et la fiche complète d'un patient.
+     * Une requête portant l'ETag courant dans If-None-Match reçoit une réponse 304 sans corps.
+     * Le parcours streamé /diabeteBack/risque/scan, couvert par le même motif, est exclu de la mise en mémoire
+     * par son contrôleur (ShallowEtagHeaderFilter.disableContentCaching) et n'a donc pas d'ETag.
+     *
+     * @return FilterRegistrationBean - le filtre ETag, limité aux chemins de lecture.
+     */
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> etagReponses() {
+        FilterRegistrationBean<ShallowEtagHeaderFilter> filtre = new FilterRegistrationBean<>(new ShallowEtagHeaderFilter());
+        filtre.addUrlPatterns("/diabeteBack/risque/*", "/diabeteBack/fichePatient/*");
+        return filtre;
     }
 }
@@ -4,6 +4,9 @@ import org.slf4j.LoggerFactory;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  * Classe CustomProperties pour gérer les propriétés personnalisées du microservice.
  * Elle est annotée avec {@link Configuration} pour indiquer qu'elle contient des définitions de bean,
@@ -17,7 +20,29 @@ import org.springframework.context.annotation.Configuration;
 public class CustomProperties {
     private static final Logger logger = LoggerFactory.getLogger(CustomProperties.class);
     private String gatewayPath;
+    private String jwtSecret;
+    private long authCacheDuree = 60;
+    private long authCacheTailleMax = 1000;
     private String termesDiabeteFilePath;
+    private String termesDiabeteExternalFilePath;
+    private String reglesRisqueFilePath = "data/reglesRisque";
+    private String reglesRisqueExternalFilePath;
+    private int appelsDistantsPoolSize = 16;
+    private long appelsDistantsTimeout = 5000;
+    private int risqueLotTaille = 500;
+    private long cacheRisqueTailleMax = 10000;
+    private boolean famillesPrecalculees = true;
+    private int evaluationRisqueParallelisme = Runtime.getRuntime().availableProcessors();
+    private int httpConnexionsMax = 200;
+    private int httpConnexionsMaxParRoute = 50;
+    private long httpConnexionTimeout = 2000;
+    private long httpLectureTimeout = 5000;
+    private long httpAttenteConnexionTimeout = 1000;
+    private long httpKeepAlive = 30000;
+    private long httpInactiviteMax = 60000;
+    private boolean appelsDirects = false;
+    private Map<String, String> servicesDirects = new LinkedHashMap<>();
+    private long appelsDirectsEjection = 30000;
 
     /**
      * Obtient le chemin du fichier de termes liés au diabète.
@@ -38,6 +63,65 @@ public class CustomProperties {
         this.termesDiabeteFilePath = termesDiabeteFilePath;
     }
 
+    /**
+     * Obtient le chemin du fichier externe de termes liés au diabète.
+     * Lorsqu'il est renseigné, ce fichier est prioritaire sur le classpath et rechargé à chaud en cas de modification.
+     *
+     * @return String - Le chemin du fichier externe, ou null si le dictionnaire est lu uniquement depuis le classpath.
+     */
+    public String getTermesDiabeteExternalFilePath() {
+        return termesDiabeteExternalFilePath;
+    }
+
+    /**
+     * Définit le chemin du fichier externe de termes liés au diabète.
+     *
+     * @param termesDiabeteExternalFilePath Le chemin du fichier externe à surveiller.
+     */
+    public void setTermesDiabeteExternalFilePath(String termesDiabeteExternalFilePath) {
+        logger.info("Mise à jour du chemin du fichier externe termesDiabete : {}", termesDiabeteExternalFilePath);
+        this.termesDiabeteExternalFilePath = termesDiabeteExternalFilePath;
+    }
+
+    /**
+     * Obtient le chemin de la table de décision du risque dans le classpath.
+     *
+     * @return String - Le chemin de la table de décision.
+     */
+    public String getReglesRisqueFilePath() {
+        return reglesRisqueFilePath;
+    }
+
+    /**
+     * Définit le chemin de la table de décision du risque dans le classpath.
+     *
+     * @param reglesRisqueFilePath Le chemin de la table de décision à définir.
+     */
+    public void setReglesRisqueFilePath(String reglesRisqueFilePath) {
+        logger.info("Mise à jour du chemin de la table de décision du risque : {}", reglesRisqueFilePath);
+        this.reglesRisqueFilePath = reglesRisqueFilePath;
+    }
+
+    /**
+     * Obtient le chemin du fichier externe de la table de décision du risque.
+     * Lorsqu'il est renseigné, ce fichier est prioritaire sur le classpath et rechargé à chaud en cas de modification.
+     *
+     * @return String - Le chemin du fichier externe, ou null si la table est lue uniquement depuis le classpath.
+     */
+    public String getReglesRisqueExternalFilePath() {
+        return reglesRisqueExternalFilePath;
+    }
+
+    /**
+     * Définit le chemin du fichier externe de la table de décision du risque.
+     *
+     * @param reglesRisqueExternalFilePath Le chemin du fichier externe à surveiller.
+     */
+    public void setReglesRisqueExternalFilePath(String reglesRisqueExternalFilePath) {
+        logger.info("Mise à jour du chemin du fichier externe de la table de décision du risque : {}", reglesRisqueExternalFilePath);
+        this.reglesRisqueExternalFilePath = reglesRisqueExternalFilePath;
+    }
+
     /**
      * Obtient le chemin du gateway.
      *
@@ -57,4 +141,367 @@ public class CustomProperties {
         logger.info("Mise à jour du chemin du gateway : {}", gatewayPath);
         this.gatewayPath = gatewayPath;
     }
+
+    /**
+     * Obtient le nombre de threads dédiés aux appels vers les autres microservices.
+     *
+     * @return int - La taille du pool de threads.
+     */
+    public int getAppelsDistantsPoolSize() {
+        return appelsDistantsPoolSize;
+    }
+
+    /**
+     * Définit le nombre de threads dédiés aux appels vers les autres microservices.
+     *
+     * @param appelsDistantsPoolSize La taille du pool de threads.
+     */
+    public void setAppelsDistantsPoolSize(int appelsDistantsPoolSize) {
+        logger.info("Mise à jour de la taille du pool des appels distants : {}", appelsDistantsPoolSize);
+        this.appelsDistantsPoolSize = appelsDistantsPoolSize;
+    }
+
+    /**
+     * Obtient le délai maximal de réponse d'un appel vers un autre microservice.
+     *
+     * @return long - Le délai en millisecondes.
+     */
+    public long getAppelsDistantsTimeout() {
+        return appelsDistantsTimeout;
+    }
+
+    /**
+     * Définit le délai maximal de réponse d'un appel vers un autre microservice.
+     *
+     * @param appelsDistantsTimeout Le délai en millisecondes.
+     */
+    public void setAppelsDistantsTimeout(long appelsDistantsTimeout) {
+        logger.info("Mise à jour du délai des appels distants : {} ms", appelsDistantsTimeout);
+        this.appelsDistantsTimeout = appelsDistantsTimeout;
+    }
+
+    /**
+     * Obtient le nombre de patients récupérés et évalués par lot lors d'une évaluation groupée du risque.
+     *
+     * @return int - La taille d'un lot.
+     */
+    public int getRisqueLotTaille() {
+        return risqueLotTaille;
+    }
+
+    /**
+     * Définit le nombre de patients récupérés et évalués par lot lors d'une évaluation groupée du risque.
+     *
+     * @param risqueLotTaille La taille d'un lot.
+     */
+    public void setRisqueLotTaille(int risqueLotTaille) {
+        logger.info("Mise à jour de la taille des lots d'évaluation du risque : {}", risqueLotTaille);
+        this.risqueLotTaille = risqueLotTaille;
+    }
+
+    /**
+     * Obtient le parallélisme du pool fork-join dédié à l'évaluation groupée du risque.
+     *
+     * @return int - Le nombre de threads du pool.
+     */
+    public int getEvaluationRisqueParallelisme() {
+        return evaluationRisqueParallelisme;
+    }
+
+    /**
+     * Définit le parallélisme du pool fork-join dédié à l'évaluation groupée du risque.
+     *
+     * @param evaluationRisqueParallelisme Le nombre de threads du pool.
+     */
+    public void setEvaluationRisqueParallelisme(int evaluationRisqueParallelisme) {
+        logger.info("Mise à jour du parallélisme de l'évaluation du risque : {}", evaluationRisqueParallelisme);
+        this.evaluationRisqueParallelisme = evaluationRisqueParallelisme;
+    }
+
+    /**
+     * Obtient le nombre maximal de niveaux de risque conservés dans le cache.
+     *
+     * @return long - La taille maximale du cache.
+     */
+    public long getCacheRisqueTailleMax() {
+        return cacheRisqueTailleMax;
+    }
+
+    /**
+     * Définit le nombre maximal de niveaux de risque conservés dans le cache.
+     *
+     * @param cacheRisqueTailleMax La taille maximale du cache.
+     */
+    public void setCacheRisqueTailleMax(long cacheRisqueTailleMax) {
+        logger.info("Mise à jour de la taille maximale du cache des niveaux de risque : {}", cacheRisqueTailleMax);
+        this.cacheRisqueTailleMax = cacheRisqueTailleMax;
+    }
+
+    /**
+     * Indique si le risque est calculé à partir des familles de termes détectées à l'écriture des notes
+     * par le microservice back-note, plutôt qu'à partir du texte des notes.
+     * Les notes annotées avec une autre version du dictionnaire sont toujours analysées à partir de leur texte.
+     *
+     * @return boolean - true si les familles précalculées sont utilisées.
+     */
+    public boolean isFamillesPrecalculees() {
+        return famillesPrecalculees;
+    }
+
+    /**
+     * Active ou désactive l'utilisation des familles de termes précalculées par le microservice back-note.
+     *
+     * @param famillesPrecalculees true pour utiliser les familles précalculées.
+     */
+    public void setFamillesPrecalculees(boolean famillesPrecalculees) {
+        logger.info("Mise à jour de l'utilisation des familles de termes précalculées : {}", famillesPrecalculees);
+        this.famillesPrecalculees = famillesPrecalculees;
+    }
+
+    /**
+     * Obtient le nombre maximal de connexions HTTP ouvertes par le pool, toutes routes confondues.
+     *
+     * @return int - Le nombre maximal de connexions.
+     */
+    public int getHttpConnexionsMax() {
+        return httpConnexionsMax;
+    }
+
+    /**
+     * Définit le nombre maximal de connexions HTTP ouvertes par le pool, toutes routes confondues.
+     *
+     * @param httpConnexionsMax Le nombre maximal de connexions.
+     */
+    public void setHttpConnexionsMax(int httpConnexionsMax) {
+        logger.info("Mise à jour du nombre maximal de connexions HTTP : {}", httpConnexionsMax);
+        this.httpConnexionsMax = httpConnexionsMax;
+    }
+
+    /**
+     * Obtient le nombre maximal de connexions HTTP ouvertes vers un même hôte.
+     *
+     * @return int - Le nombre maximal de connexions par route.
+     */
+    public int getHttpConnexionsMaxParRoute() {
+        return httpConnexionsMaxParRoute;
+    }
+
+    /**
+     * Définit le nombre maximal de connexions HTTP ouvertes vers un même hôte.
+     *
+     * @param httpConnexionsMaxParRoute Le nombre maximal de connexions par route.
+     */
+    public void setHttpConnexionsMaxParRoute(int httpConnexionsMaxParRoute) {
+        logger.info("Mise à jour du nombre maximal de connexions HTTP par route : {}", httpConnexionsMaxParRoute);
+        this.httpConnexionsMaxParRoute = httpConnexionsMaxParRoute;
+    }
+
+    /**
+     * Obtient le délai maximal d'établissement d'une connexion HTTP.
+     *
+     * @return long - Le délai en millisecondes.
+     */
+    public long getHttpConnexionTimeout() {
+        return httpConnexionTimeout;
+    }
+
+    /**
+     * Définit le délai maximal d'établissement d'une connexion HTTP.
+     *
+     * @param httpConnexionTimeout Le délai en millisecondes.
+     */
+    public void setHttpConnexionTimeout(long httpConnexionTimeout) {
+        logger.info("Mise à jour du délai de connexion HTTP : {} ms", httpConnexionTimeout);
+        this.httpConnexionTimeout = httpConnexionTimeout;
+    }
+
+    /**
+     * Obtient le délai maximal d'attente de la réponse à une requête HTTP.
+     *
+     * @return long - Le délai en millisecondes.
+     */
+    public long getHttpLectureTimeout() {
+        return httpLectureTimeout;
+    }
+
+    /**
+     * Définit le délai maximal d'attente de la réponse à une requête HTTP.
+     *
+     * @param httpLectureTimeout Le délai en millisecondes.
+     */
+    public void setHttpLectureTimeout(long httpLectureTimeout) {
+        logger.info("Mise à jour du délai de lecture HTTP : {} ms", httpLectureTimeout);
+        this.httpLectureTimeout = httpLectureTimeout;
+    }
+
+    /**
+     * Obtient le délai maximal d'attente d'une connexion libre lorsque le pool est saturé.
+     *
+     * @return long - Le délai en millisecondes.
+     */
+    public long getHttpAttenteConnexionTimeout() {
+        return httpAttenteConnexionTimeout;
+    }
+
+    /**
+     * Définit le délai maximal d'attente d'une connexion libre lorsque le pool est saturé.
+     *
+     * @param httpAttenteConnexionTimeout Le délai en millisecondes.
+     */
+    public void setHttpAttenteConnexionTimeout(long httpAttenteConnexionTimeout) {
+        logger.info("Mise à jour du délai d'attente d'une connexion HTTP : {} ms", httpAttenteConnexionTimeout);
+        this.httpAttenteConnexionTimeout = httpAttenteConnexionTimeout;
+    }
+
+    /**
+     * Obtient la durée de conservation d'une connexion HTTP inutilisée lorsque le serveur ne l'indique pas.
+     *
+     * @return long - La durée en millisecondes.
+     */
+    public long getHttpKeepAlive() {
+        return httpKeepAlive;
+    }
+
+    /**
+     * Définit la durée de conservation d'une connexion HTTP inutilisée lorsque le serveur ne l'indique pas.
+     *
+     * @param httpKeepAlive La durée en millisecondes.
+     */
+    public void setHttpKeepAlive(long httpKeepAlive) {
+        logger.info("Mise à jour du keep-alive HTTP : {} ms", httpKeepAlive);
+        this.httpKeepAlive = httpKeepAlive;
+    }
+
+    /**
+     * Obtient la durée d'inactivité au-delà de laquelle une connexion HTTP est fermée par le pool.
+     *
+     * @return long - La durée en millisecondes.
+     */
+    public long getHttpInactiviteMax() {
+        return httpInactiviteMax;
+    }
+
+    /**
+     * Définit la durée d'inactivité au-delà de laquelle une connexion HTTP est fermée par le pool.
+     *
+     * @param httpInactiviteMax La durée en millisecondes.
+     */
+    public void setHttpInactiviteMax(long httpInactiviteMax) {
+        logger.info("Mise à jour de la durée d'inactivité maximale des connexions HTTP : {} ms", httpInactiviteMax);
+        this.httpInactiviteMax = httpInactiviteMax;
+    }
+
+    /**
+     * Obtient le secret partagé avec le gateway, utilisé pour vérifier la signature des jetons qu'il transmet.
+     *
+     * @return String - Le secret partagé.
+     */
+    public String getJwtSecret() {
+        return jwtSecret;
+    }
+
+    /**
+     * Définit le secret partagé avec le gateway, utilisé pour vérifier la signature des jetons qu'il transmet.
+     *
+     * @param jwtSecret Le secret partagé.
+     */
+    public void setJwtSecret(String jwtSecret) {
+        logger.info("Mise à jour du secret de vérification des jetons");
+        this.jwtSecret = jwtSecret;
+    }
+
+    /**
+     * Obtient la durée de conservation d'une authentification HTTP Basic réussie.
+     *
+     * @return long - La durée en secondes.
+     */
+    public long getAuthCacheDuree() {
+        return authCacheDuree;
+    }
+
+    /**
+     * Définit la durée de conservation d'une authentification HTTP Basic réussie.
+     *
+     * @param authCacheDuree La durée en secondes.
+     */
+    public void setAuthCacheDuree(long authCacheDuree) {
+        logger.info("Mise à jour de la durée du cache d'authentification : {} s", authCacheDuree);
+        this.authCacheDuree = authCacheDuree;
+    }
+
+    /**
+     * Obtient le nombre maximal d'authentifications HTTP Basic réussies conservées.
+     *
+     * @return long - La taille maximale du cache.
+     */
+    public long getAuthCacheTailleMax() {
+        return authCacheTailleMax;
+    }
+
+    /**
+     * Définit le nombre maximal d'authentifications HTTP Basic réussies conservées.
+     *
+     * @param authCacheTailleMax La taille maximale du cache.
+     */
+    public void setAuthCacheTailleMax(long authCacheTailleMax) {
+        logger.info("Mise à jour de la taille maximale du cache d'authentification : {}", authCacheTailleMax);
+        this.authCacheTailleMax = authCacheTailleMax;
+    }
+
+    /**
+     * Indique si les lectures adressées aux autres microservices leur sont envoyées directement, sans passer par le gateway.
+     *
+     * @return boolean - true si les appels directs sont activés.
+     */
+    public boolean isAppelsDirects() {
+        return appelsDirects;
+    }
+
+    /**
+     * Active ou désactive les appels directs aux autres microservices.
+     *
+     * @param appelsDirects true pour envoyer les lectures directement aux instances configurées.
+     */
+    public void setAppelsDirects(boolean appelsDirects) {
+        logger.info("Mise à jour de l'activation des appels directs : {}", appelsDirects);
+        this.appelsDirects = appelsDirects;
+    }
+
+    /**
+     * Obtient les instances de chaque microservice appelé directement.
+     *
+     * @return Map - Les adresses des instances, séparées par des virgules, par nom de microservice (ex. "patientBack").
+     */
+    public Map<String, String> getServicesDirects() {
+        return servicesDirects;
+    }
+
+    /**
+     * Définit les instances de chaque microservice appelé directement.
+     *
+     * @param servicesDirects Les adresses des instances par nom de microservice.
+     */
+    public void setServicesDirects(Map<String, String> servicesDirects) {
+        logger.info("Mise à jour des instances appelées directement : {}", servicesDirects);
+        this.servicesDirects = servicesDirects;
+    }
+
+    /**
+     * Obtient la durée d'éviction d'une instance appelée directement et en échec.
+     *
+     * @return long - La durée en millisecondes.
+     */
+    public long getAppelsDirectsEjection() {
+        return appelsDirectsEjection;
+    }
+
+    /**
+     * Définit la durée d'éviction d'une instance appelée directement et en échec.
+     *
+     * @param appelsDirectsEjection La durée en millisecondes.
+     */
+    public void setAppelsDirectsEjection(long appelsDirectsEjection) {
+        logger.info("Mise à jour de la durée d'éviction des instances appelées directement : {} ms", appelsDirectsEjection);
+        this.appelsDirectsEjection = appelsDirectsEjection;
+    }
 }
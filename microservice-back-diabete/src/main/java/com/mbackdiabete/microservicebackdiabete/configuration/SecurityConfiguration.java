@@ -1,11 +1,14 @@
 package com.mbackdiabete.microservicebackdiabete.configuration;
 
+import com.mcommun.microservicecommun.configuration.CacheAuthentificationProvider;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -16,8 +19,18 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
 import org.springframework.security.web.SecurityFilterChain;
 
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
 /**
  * Classe de configuration pour les paramètres de sécurité de l'application.
  * Cette configuration définit divers beans liés à la sécurité tels que UserDetailsService,
@@ -34,6 +47,9 @@ public class SecurityConfiguration {
 
     /**
      * Configure les paramètres HttpSecurity pour l'application.
+     * Les requêtes routées par le gateway portent un jeton signé, vérifié sans hachage du mot de passe ;
+     * l'authentification HTTP Basic reste possible pour les appels directs.
+     * L'état de santé reste accessible sans authentification, pour les vérifications de la répartition de charge du gateway.
      *
      * @param http L'instance HttpSecurity à configurer.
      * @return SecurityFilterChain configuré.
@@ -44,8 +60,10 @@ public class SecurityConfiguration {
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         logger.info("Configuration de HttpSecurity.");
         http.authorizeHttpRequests((authorizeHttpRequests) -> authorizeHttpRequests
+                        .requestMatchers("/actuator/health").permitAll()
                         .anyRequest().authenticated())
                 .httpBasic(Customizer.withDefaults())
+                .oauth2ResourceServer(oauth2 -> oauth2.jwt(Customizer.withDefaults()))
                 .csrf().disable();
         logger.info("HttpSecurity configuré avec succès.");
         return http.build();
@@ -93,4 +111,52 @@ public class SecurityConfiguration {
         logger.info("Configuration du BCryptPasswordEncoder.");
         return new BCryptPasswordEncoder();
     }
-}
\ No newline at end of file
+
+    /**
+     * Fournit le fournisseur d'authentification HTTP Basic : les identifiants sont vérifiés par BCrypt
+     * auprès des utilisateurs en mémoire, puis la vérification réussie est conservée brièvement en cache.
+     *
+     * @param users Le service des utilisateurs en mémoire.
+     * @param prop  Les propriétés personnalisées du microservice.
+     * @return AuthenticationProvider configuré.
+     */
+    @Bean
+    public AuthenticationProvider authenticationProvider(UserDetailsService users, CustomProperties prop) {
+        DaoAuthenticationProvider verification = new DaoAuthenticationProvider(passwordEncoder());
+        verification.setUserDetailsService(users);
+        return new CacheAuthentificationProvider(verification, Duration.ofSeconds(prop.getAuthCacheDuree()), prop.getAuthCacheTailleMax());
+    }
+
+    /**
+     * Fournit le décodeur vérifiant la signature HMAC-SHA256, l'émetteur et l'expiration des jetons émis par le gateway.
+     *
+     * @param prop Les propriétés personnalisées du microservice.
+     * @return JwtDecoder configuré.
+     */
+    @Bean
+    public JwtDecoder jwtDecoder(CustomProperties prop) {
+        if (prop.getJwtSecret() == null || prop.getJwtSecret().getBytes(StandardCharsets.UTF_8).length < 32) {
+            throw new IllegalStateException("Le secret de vérification des jetons doit comporter au moins 32 octets (variable JWT_SECRET)");
+        }
+        NimbusJwtDecoder decoder = NimbusJwtDecoder.withSecretKey(new SecretKeySpec(prop.getJwtSecret().getBytes(StandardCharsets.UTF_8), "HmacSHA256"))
+                .macAlgorithm(MacAlgorithm.HS256)
+                .build();
+        decoder.setJwtValidator(JwtValidators.createDefaultWithIssuer("microservice-gateway"));
+        return decoder;
+    }
+
+    /**
+     * Convertit les rôles portés par le jeton en autorités ROLE_*, comme pour un utilisateur authentifié en HTTP Basic.
+     *
+     * @return JwtAuthenticationConverter configuré.
+     */
+    @Bean
+    public JwtAuthenticationConverter jwtAuthenticationConverter() {
+        JwtGrantedAuthoritiesConverter roles = new JwtGrantedAuthoritiesConverter();
+        roles.setAuthoritiesClaimName("roles");
+        roles.setAuthorityPrefix("ROLE_");
+        JwtAuthenticationConverter converter = new JwtAuthenticationConverter();
+        converter.setJwtGrantedAuthoritiesConverter(roles);
+        return converter;
+    }
+}
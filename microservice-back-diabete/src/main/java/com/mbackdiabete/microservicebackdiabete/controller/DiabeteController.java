@@ -1,21 +1,38 @@
 package com.mbackdiabete.microservicebackdiabete.controller;
 
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mbackdiabete.microservicebackdiabete.configuration.CustomProperties;
+import com.mbackdiabete.microservicebackdiabete.exceptions.DelaiDepasseException;
+import com.mbackdiabete.microservicebackdiabete.exceptions.LotTropGrandException;
+import com.mbackdiabete.microservicebackdiabete.exceptions.ServiceDistantException;
+import com.mbackdiabete.microservicebackdiabete.exceptions.ServiceIndisponibleException;
+import com.mbackdiabete.microservicebackdiabete.model.dto.FamillesTermesDTO;
+import com.mbackdiabete.microservicebackdiabete.model.dto.FichePatientDTO;
 import com.mbackdiabete.microservicebackdiabete.model.dto.PatientInfoDTO;
+import com.mbackdiabete.microservicebackdiabete.service.CacheRisqueService;
 import com.mbackdiabete.microservicebackdiabete.service.CalculService;
+import com.mbackdiabete.microservicebackdiabete.service.DonneesPatientService;
+import com.mbackdiabete.microservicebackdiabete.service.EvaluationRisqueService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.core5.pool.PoolStats;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 
 /**
@@ -30,26 +47,49 @@ import java.util.List;
 public class DiabeteController {
 
     private static final Logger logger = LoggerFactory.getLogger(DiabeteController.class);
-    private final RestTemplate restTemplate;
+    /**
+     * Nombre maximal de patients renvoyés par page par le microservice back-patient.
+     */
+    private static final int TAILLE_PAGE_PATIENTS_MAX = 5000;
+    /**
+     * Nombre maximal d'identifiants acceptés par une requête groupée.
+     */
+    private static final int NB_IDS_LOT_MAX = 10000;
+    private final DonneesPatientService donneesPatientService;
+    private final EvaluationRisqueService evaluationRisqueService;
+    private final CacheRisqueService cacheRisqueService;
     private final CustomProperties prop;
+    private final ObjectMapper objectMapper;
+    private final PoolingHttpClientConnectionManager poolConnexionsHttp;
     @Autowired
     private CalculService CalculService;
 
     /**
      * Constructeur pour injecter les dépendances nécessaires dans le contrôleur.
      *
-     * @param restTemplate Le RestTemplate utilisé pour les appels HTTP.
-     * @param prop         Les propriétés personnalisées du microservice.
+     * @param donneesPatientService   Le service d'accès aux données des patients des autres microservices.
+     * @param evaluationRisqueService Le service d'évaluation groupée du risque.
+     * @param cacheRisqueService      Le cache des niveaux de risque.
+     * @param prop                    Les propriétés personnalisées du microservice.
+     * @param objectMapper            L'ObjectMapper utilisé pour écrire les réponses streamées.
+     * @param poolConnexionsHttp      Le pool de connexions HTTP vers les autres microservices.
      */
     @Autowired
-    public DiabeteController(RestTemplate restTemplate, CustomProperties prop) {
-        this.restTemplate = restTemplate;
+    public DiabeteController(DonneesPatientService donneesPatientService, EvaluationRisqueService evaluationRisqueService,
+                             CacheRisqueService cacheRisqueService, CustomProperties prop, ObjectMapper objectMapper,
+                             PoolingHttpClientConnectionManager poolConnexionsHttp) {
+        this.donneesPatientService = donneesPatientService;
+        this.evaluationRisqueService = evaluationRisqueService;
+        this.cacheRisqueService = cacheRisqueService;
         this.prop = prop;
+        this.objectMapper = objectMapper;
+        this.poolConnexionsHttp = poolConnexionsHttp;
     }
 
     /**
      * Endpoint pour obtenir le risque de diabète d'un patient.
-     * Récupère les informations du patient et ses notes médicales, puis calcule le risque de diabète.
+     * Le niveau de risque est lu dans le cache ; s'il est absent, les informations du patient et ses notes médicales
+     * sont récupérées en parallèle, puis le risque de diabète est calculé et mis en cache.
      *
      * @param id         L'identifiant unique du patient.
      * @param authHeader L'en-tête d'autorisation pour les requêtes HTTP.
@@ -57,19 +97,241 @@ public class DiabeteController {
      */
     @GetMapping(value = "/risque/{id}")
     public String risqueDiabete(@PathVariable String id, @RequestHeader("Authorization") String authHeader) {
-        logger.info("Récupération de la date d'anniversaire et du genre pour le patient avec l'ID: {}", id);
-        String url = prop.getGatewayPath() + "/patientBack/getInfoDiabete/" + id;
-        HttpHeaders headers = new HttpHeaders();
-        headers.set("Authorization", authHeader);
-        HttpEntity<String> entity = new HttpEntity<>("body", headers);
-        ResponseEntity<PatientInfoDTO> responseDate = restTemplate.exchange(url, HttpMethod.GET, entity, PatientInfoDTO.class);
-        PatientInfoDTO patientInfoDTO = responseDate.getBody();
-
-        logger.info("Récupération de la liste de notes pour le patient avec l'ID: {}", id);
-        url = prop.getGatewayPath() + "/noteBack/getListeNotes/" + id;
-        ResponseEntity<String[]> responseNotes = restTemplate.exchange(url, HttpMethod.GET, entity, String[].class);
-        List<String> notes = Arrays.asList(responseNotes.getBody());
-
-        return CalculService.getNiveauxRisque(patientInfoDTO.getDateDeNaissance(), patientInfoDTO.getGenre(), notes);
+        return cacheRisqueService.getRisque(id, cle -> calculerRisque(cle, authHeader));
+    }
+
+    /**
+     * Endpoint pour retirer du cache le niveau de risque d'un patient.
+     * Appelé par les microservices patient et note lorsque les données d'un patient changent.
+     *
+     * @param id L'identifiant unique du patient.
+     */
+    @DeleteMapping(value = "/cache/{id}")
+    public void invaliderCache(@PathVariable String id) {
+        cacheRisqueService.invalider(id);
+    }
+
+    /**
+     * Endpoint pour obtenir les statistiques du cache des niveaux de risque.
+     *
+     * @return Map des statistiques du cache (succès, échecs, taux de succès, évictions, nombre d'entrées).
+     */
+    @GetMapping(value = "/cache/stats")
+    public Map<String, Object> statistiquesCache() {
+        return cacheRisqueService.getStatistiques();
+    }
+
+    /**
+     * Endpoint pour obtenir l'état du pool de connexions HTTP vers les autres microservices.
+     *
+     * @return Map de l'état du pool (connexions utilisées, requêtes en attente, connexions libres, maximum).
+     */
+    @GetMapping(value = "/httpPool/stats")
+    public Map<String, Object> statistiquesPoolHttp() {
+        PoolStats stats = poolConnexionsHttp.getTotalStats();
+        Map<String, Object> statistiques = new LinkedHashMap<>();
+        statistiques.put("leased", stats.getLeased());
+        statistiques.put("pending", stats.getPending());
+        statistiques.put("available", stats.getAvailable());
+        statistiques.put("max", stats.getMax());
+        return statistiques;
+    }
+
+    /**
+     * Récupère en parallèle les informations du patient et ses notes médicales, ou les familles de termes
+     * déjà détectées dans ses notes si elles sont précalculées, puis calcule le risque de diabète.
+     * Les familles précalculées ne sont reprises que pour les notes annotées avec la version du dictionnaire de ce
+     * microservice ; les autres notes sont analysées ici, comme en l'absence de précalcul.
+     */
+    private String calculerRisque(String id, String authHeader) {
+        logger.info("Calcul du risque de diabète pour le patient avec l'ID: {}", id);
+        CompletableFuture<PatientInfoDTO> patientFuture = donneesPatientService.getInfoDiabete(id, authHeader);
+        if (prop.isFamillesPrecalculees()) {
+            // Familles précalculées : seules les familles du patient sont transférées, et le texte des notes d'une autre version
+            CompletableFuture<FamillesTermesDTO> famillesFuture = donneesPatientService.getFamillesTermes(id, CalculService.getVersionDictionnaire(), authHeader);
+            PatientInfoDTO patientInfoDTO = attendrePatient(patientFuture, famillesFuture);
+            FamillesTermesDTO familles = attendre(famillesFuture);
+            int nbrTermesDeclencheurs = CalculService.calculNbrTermesDeclencheurs(familles.getFamilles(), familles.getNotes());
+            return CalculService.getNiveauxRisque(patientInfoDTO.getDateDeNaissance(), patientInfoDTO.getGenre(), nbrTermesDeclencheurs);
+        }
+        CompletableFuture<List<String>> notesFuture = donneesPatientService.getListeNotes(id, authHeader);
+        PatientInfoDTO patientInfoDTO = attendrePatient(patientFuture, notesFuture);
+        return CalculService.getNiveauxRisque(patientInfoDTO.getDateDeNaissance(), patientInfoDTO.getGenre(), attendre(notesFuture));
+    }
+
+    /**
+     * Endpoint pour dépister toutes les pathologies enregistrées (diabète, etc.) chez un patient.
+     * Les informations du patient et ses notes médicales sont récupérées en parallèle, puis les notes sont analysées
+     * une seule fois par le moteur de dépistage pour l'ensemble des règles.
+     *
+     * @param id         L'identifiant unique du patient.
+     * @param authHeader L'en-tête d'autorisation pour les requêtes HTTP.
+     * @return Map nom de la pathologie → niveau de risque.
+     */
+    @GetMapping(value = "/depistage/{id}")
+    public Map<String, String> depistage(@PathVariable String id, @RequestHeader("Authorization") String authHeader) {
+        logger.info("Dépistage pour le patient avec l'ID: {}", id);
+        CompletableFuture<PatientInfoDTO> patientFuture = donneesPatientService.getInfoDiabete(id, authHeader);
+        CompletableFuture<List<String>> notesFuture = donneesPatientService.getListeNotes(id, authHeader);
+        PatientInfoDTO patientInfoDTO = attendrePatient(patientFuture, notesFuture);
+        return CalculService.depister(patientInfoDTO.getDateDeNaissance(), patientInfoDTO.getGenre(), attendre(notesFuture));
+    }
+
+    /**
+     * Endpoint regroupant les données de la page de détail d'un patient : sa fiche, ses notes et son risque de diabète.
+     * La fiche et les notes sont récupérées une seule fois, en parallèle, et servent aussi au calcul du risque
+     * lorsqu'il n'est pas en cache ; le front n'a ainsi plus qu'un appel à faire.
+     * Si les notes ne peuvent être obtenues (microservice back-note lent ou indisponible), la fiche est renvoyée
+     * sans notes, avec le risque seulement s'il est en cache, afin que la page reste affichable.
+     *
+     * @param id         L'identifiant unique du patient.
+     * @param authHeader L'en-tête d'autorisation pour les requêtes HTTP.
+     * @return FichePatientDTO - La fiche, les notes et le niveau de risque du patient.
+     */
+    @GetMapping(value = "/fichePatient/{id}")
+    public FichePatientDTO fichePatient(@PathVariable String id, @RequestHeader("Authorization") String authHeader) {
+        logger.info("Récupération de la fiche complète du patient avec l'ID: {}", id);
+        CompletableFuture<Map<String, Object>> patientFuture = donneesPatientService.getPatient(id, authHeader);
+        CompletableFuture<List<Map<String, Object>>> notesFuture = donneesPatientService.getNotesPatient(id, authHeader);
+        Map<String, Object> patient = attendrePatient(patientFuture, notesFuture);
+        List<Map<String, Object>> notes;
+        try {
+            notes = attendre(notesFuture);
+        } catch (DelaiDepasseException | ServiceDistantException | ServiceIndisponibleException e) {
+            logger.warn("Notes indisponibles pour le patient avec l'ID: {}, fiche renvoyée sans les notes", id);
+            return new FichePatientDTO(patient, null, cacheRisqueService.getRisqueEnCache(id));
+        }
+
+        String risque = cacheRisqueService.getRisque(id, cle -> {
+            PatientInfoDTO patientInfoDTO = objectMapper.convertValue(patient, PatientInfoDTO.class);
+            List<String> textes = notes.stream().map(note -> note.get("note")).filter(String.class::isInstance).map(String.class::cast).toList();
+            return CalculService.getNiveauxRisque(patientInfoDTO.getDateDeNaissance(), patientInfoDTO.getGenre(), textes);
+        });
+        return new FichePatientDTO(patient, notes, risque);
+    }
+
+    /**
+     * Attend les informations du patient ; en cas d'échec, l'appel des notes lancé en parallèle est annulé.
+     */
+    private static <T> T attendrePatient(CompletableFuture<T> patientFuture, CompletableFuture<?> notesFuture) {
+        try {
+            return attendre(patientFuture);
+        } catch (RuntimeException e) {
+            notesFuture.cancel(true);
+            throw e;
+        }
+    }
+
+    /**
+     * Endpoint pour obtenir le risque de diabète d'un ensemble de patients.
+     * Les identifiants sont traités par lots : chaque lot est récupéré en un appel par microservice,
+     * le lot suivant étant récupéré pendant le calcul du lot courant. La réponse est un objet JSON
+     * identifiant → niveau de risque ; les patients inconnus en sont absents.
+     * Le nombre d'identifiants est borné, ce qui borne aussi la réponse : tous les lots sont évalués avant d'écrire
+     * la réponse, afin qu'une erreur des microservices sur n'importe quel lot renvoie son code HTTP plutôt qu'un JSON tronqué.
+     *
+     * @param ids        Les identifiants des patients.
+     * @param authHeader L'en-tête d'autorisation pour les requêtes HTTP.
+     * @return Map identifiant → niveau de risque.
+     * @throws LotTropGrandException si la requête contient plus de {@value #NB_IDS_LOT_MAX} identifiants.
+     */
+    @PostMapping(value = "/risque/batch")
+    public Map<String, String> risqueDiabeteLot(@RequestBody List<String> ids, @RequestHeader("Authorization") String authHeader) {
+        logger.info("Calcul groupé du risque de diabète pour {} patients", ids.size());
+        if (ids.size() > NB_IDS_LOT_MAX) {
+            throw new LotTropGrandException("Trop d'identifiants dans la requête : " + ids.size() + ", maximum " + NB_IDS_LOT_MAX);
+        }
+        List<String> distincts = ids.stream().distinct().toList();
+        int taille = Math.max(1, prop.getRisqueLotTaille());
+        List<List<String>> lots = new ArrayList<>();
+        for (int debut = 0; debut < distincts.size(); debut += taille) {
+            lots.add(distincts.subList(debut, Math.min(debut + taille, distincts.size())));
+        }
+
+        Map<String, String> risques = new LinkedHashMap<>();
+        CompletableFuture<Map<String, String>> courant = lots.isEmpty() ? null : evaluationRisqueService.evaluerLot(lots.get(0), authHeader);
+        for (int i = 0; i < lots.size(); i++) {
+            CompletableFuture<Map<String, String>> suivant = i + 1 < lots.size() ? evaluationRisqueService.evaluerLot(lots.get(i + 1), authHeader) : null;
+            try {
+                risques.putAll(attendre(courant));
+            } catch (RuntimeException e) {
+                if (suivant != null) {
+                    suivant.cancel(true);
+                }
+                throw e;
+            }
+            courant = suivant;
+        }
+        logger.info("Calcul groupé du risque terminé pour {} patients", distincts.size());
+        return risques;
+    }
+
+    /**
+     * Endpoint pour évaluer le risque de diabète de l'ensemble des patients.
+     * Les patients sont parcourus page par page (pagination par identifiant) et chaque page est jointe à ses notes
+     * en un seul appel ; la réponse est écrite au format NDJSON, une ligne {"id":..,"risk":..} par patient.
+     * Une seule page est préparée en avance : si le client lit lentement, l'écriture bloque et le parcours ralentit,
+     * la mémoire utilisée ne dépend donc que de la taille d'une page, pas du nombre de patients.
+     * Le parcours s'arrête sur une page vide : une page plus courte que demandé, si le microservice back-patient
+     * réduit la taille des pages, ne termine pas le parcours.
+     * La réponse est explicitement soustraite au filtre ETag, qui sinon la conserverait entièrement en mémoire avant de l'envoyer
+     * (le parcours reste ainsi non mis en mémoire même si son type de retour change).
+     *
+     * @param authHeader L'en-tête d'autorisation pour les requêtes HTTP.
+     * @param request    La requête HTTP, exclue de la mise en mémoire du filtre ETag.
+     * @return ResponseEntity du corps NDJSON streamé.
+     */
+    @GetMapping(value = "/risque/scan")
+    public ResponseEntity<StreamingResponseBody> risqueDiabeteScan(@RequestHeader("Authorization") String authHeader, HttpServletRequest request) {
+        logger.info("Parcours de l'ensemble des patients pour le calcul du risque de diabète");
+        ShallowEtagHeaderFilter.disableContentCaching(request);
+        int taille = Math.max(1, Math.min(prop.getRisqueLotTaille(), TAILLE_PAGE_PATIENTS_MAX));
+        // Première page récupérée avant de répondre : une erreur des microservices renvoie son code HTTP
+        Map<String, PatientInfoDTO> premierePage = attendre(donneesPatientService.getInfoDiabetePage(0, taille, authHeader));
+
+        StreamingResponseBody corps = sortie -> {
+            long nbPatients = 0;
+            try (JsonGenerator generateur = objectMapper.getFactory().createGenerator(sortie)) {
+                generateur.setRootValueSeparator(null);
+                Map<String, PatientInfoDTO> page = premierePage;
+                while (!page.isEmpty()) {
+                    CompletableFuture<Map<String, String>> risquesFuture = evaluationRisqueService.evaluerPatients(page, authHeader);
+                    CompletableFuture<Map<String, PatientInfoDTO>> suivante = donneesPatientService.getInfoDiabetePage(dernierId(page), taille, authHeader);
+                    for (Map.Entry<String, String> risque : attendre(risquesFuture).entrySet()) {
+                        generateur.writeStartObject();
+                        generateur.writeStringField("id", risque.getKey());
+                        generateur.writeStringField("risk", risque.getValue());
+                        generateur.writeEndObject();
+                        generateur.writeRaw('\n');
+                        nbPatients++;
+                    }
+                    generateur.flush();
+                    page = attendre(suivante);
+                }
+            }
+            logger.info("Parcours terminé, risque de diabète calculé pour {} patients", nbPatients);
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(corps);
+    }
+
+    /**
+     * Renvoie le plus grand identifiant d'une page de patients, point de départ de la page suivante.
+     */
+    private static int dernierId(Map<String, PatientInfoDTO> page) {
+        return page.keySet().stream().mapToInt(Integer::parseInt).max().orElse(0);
+    }
+
+    /**
+     * Attend le résultat d'un appel distant et relance l'exception métier en cas d'échec.
+     */
+    private static <T> T attendre(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
     }
 }
\ No newline at end of file
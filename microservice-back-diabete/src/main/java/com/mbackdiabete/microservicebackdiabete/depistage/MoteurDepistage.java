@@ -0,0 +1,139 @@
+package com.mbackdiabete.microservicebackdiabete.depistage;
+
+import com.mcommun.microservicecommun.automate.AutomateTermesDeclencheurs;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Moteur de dépistage commun à toutes les règles enregistrées.
+ * Les dictionnaires des règles sont fusionnés en un seul automate, chaque règle occupant une plage contiguë
+ * d'identifiants de familles : les notes d'un patient sont parcourues une seule fois, quel que soit le nombre de règles,
+ * puis les familles trouvées sont réparties entre les règles. L'automate fusionné est recompilé lorsqu'un dictionnaire
+ * est rechargé.
+ *
+ * @author Mickael Hayé
+ * @version 1.0
+ */
+@Component
+public class MoteurDepistage {
+
+    private static final Logger logger = LoggerFactory.getLogger(MoteurDepistage.class);
+    private final RegleDepistage[] regles;
+    private volatile Fusion fusion;
+
+    /**
+     * Construit le moteur à partir des règles déclarées dans le contexte.
+     *
+     * @param regles Les règles de dépistage.
+     * @throws IllegalStateException si deux règles portent le même nom.
+     */
+    public MoteurDepistage(List<RegleDepistage> regles) {
+        Set<String> noms = new HashSet<>();
+        for (RegleDepistage regle : regles) {
+            if (!noms.add(regle.getNom())) {
+                throw new IllegalStateException("Deux règles de dépistage portent le nom " + regle.getNom());
+            }
+        }
+        this.regles = regles.toArray(new RegleDepistage[0]);
+        this.fusion = fusionner(dictionnairesCourants());
+    }
+
+    /**
+     * Dépiste toutes les pathologies enregistrées à partir d'un unique parcours des notes.
+     *
+     * @param age   L'âge du patient en années.
+     * @param genre Le genre du patient.
+     * @param notes Les notes médicales du patient.
+     * @return Map nom de la règle → niveau de risque, dans l'ordre des règles.
+     */
+    public Map<String, String> depister(int age, String genre, Collection<String> notes) {
+        Fusion courante = fusionCourante();
+        BitSet famillesTrouvees = new BitSet(courante.automate.getNombreFamilles());
+        for (String note : notes) {
+            courante.automate.rechercher(note, famillesTrouvees);
+        }
+        Map<String, String> resultats = new LinkedHashMap<>();
+        for (int i = 0; i < regles.length; i++) {
+            int nbrFamilles = 0;
+            for (int famille = famillesTrouvees.nextSetBit(courante.debuts[i]);
+                 famille >= 0 && famille < courante.debuts[i + 1]; famille = famillesTrouvees.nextSetBit(famille + 1)) {
+                nbrFamilles++;
+            }
+            resultats.put(regles[i].getNom(), regles[i].evaluer(age, genre, nbrFamilles));
+        }
+        return resultats;
+    }
+
+    /**
+     * @return List Les noms des règles enregistrées.
+     */
+    public List<String> getNomsRegles() {
+        return Arrays.stream(regles).map(RegleDepistage::getNom).toList();
+    }
+
+    /**
+     * Renvoie l'automate fusionné, recompilé si l'un des dictionnaires a été rechargé depuis la dernière fusion.
+     * La vérification compare seulement les références des dictionnaires, sans allocation : seule une recompilation,
+     * après un rechargement, alloue de nouvelles structures.
+     */
+    private Fusion fusionCourante() {
+        Fusion courante = fusion;
+        if (courante.estAJour(regles)) {
+            return courante;
+        }
+        synchronized (this) {
+            if (!fusion.estAJour(regles)) {
+                fusion = fusionner(dictionnairesCourants());
+            }
+            return fusion;
+        }
+    }
+
+    private AutomateTermesDeclencheurs[] dictionnairesCourants() {
+        AutomateTermesDeclencheurs[] dictionnaires = new AutomateTermesDeclencheurs[regles.length];
+        for (int i = 0; i < regles.length; i++) {
+            dictionnaires[i] = regles[i].getDictionnaire();
+        }
+        return dictionnaires;
+    }
+
+    private Fusion fusionner(AutomateTermesDeclencheurs[] dictionnaires) {
+        Map<String, List<String>> fusionne = new LinkedHashMap<>();
+        int[] debuts = new int[regles.length + 1];
+        for (int i = 0; i < regles.length; i++) {
+            debuts[i] = fusionne.size();
+            String prefixe = regles[i].getNom() + ":";
+            dictionnaires[i].getDictionnaire().forEach((famille, synonymes) -> fusionne.put(prefixe + famille, synonymes));
+        }
+        debuts[regles.length] = fusionne.size();
+        logger.info("Compilation de l'automate de dépistage : {} règles, {} familles de termes", regles.length, fusionne.size());
+        return new Fusion(dictionnaires, AutomateTermesDeclencheurs.compiler(fusionne), debuts);
+    }
+
+    /**
+     * Automate fusionné et dictionnaires des règles à partir desquels il a été compilé.
+     */
+    private static final class Fusion {
+        private final AutomateTermesDeclencheurs[] sources;
+        private final AutomateTermesDeclencheurs automate;
+        private final int[] debuts;
+
+        private Fusion(AutomateTermesDeclencheurs[] sources, AutomateTermesDeclencheurs automate, int[] debuts) {
+            this.sources = sources;
+            this.automate = automate;
+            this.debuts = debuts;
+        }
+
+        private boolean estAJour(RegleDepistage[] regles) {
+            for (int i = 0; i < sources.length; i++) {
+                if (sources[i] != regles[i].getDictionnaire()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
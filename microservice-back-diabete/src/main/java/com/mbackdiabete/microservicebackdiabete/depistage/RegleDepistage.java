@@ -0,0 +1,38 @@
+package com.mbackdiabete.microservicebackdiabete.depistage;
+
+import com.mcommun.microservicecommun.automate.AutomateTermesDeclencheurs;
+
+/**
+ * Règle de dépistage d'une pathologie, enregistrée auprès du {@link MoteurDepistage}.
+ * Chaque règle fournit son propre dictionnaire de termes déclencheurs et sa propre table de décision ;
+ * le moteur analyse les notes une seule fois pour toutes les règles, puis transmet à chacune son nombre de familles trouvées.
+ * Une nouvelle pathologie s'ajoute en déclarant un bean implémentant cette interface.
+ *
+ * @author Mickael Hayé
+ * @version 1.0
+ */
+public interface RegleDepistage {
+
+    /**
+     * @return String Le nom de la pathologie dépistée, unique parmi les règles (ex. "diabete").
+     */
+    String getNom();
+
+    /**
+     * Renvoie la version courante du dictionnaire de la règle.
+     * Le moteur recompile son automate fusionné lorsque l'instance renvoyée change.
+     *
+     * @return AutomateTermesDeclencheurs Le dictionnaire des termes déclencheurs de la pathologie.
+     */
+    AutomateTermesDeclencheurs getDictionnaire();
+
+    /**
+     * Évalue le niveau de risque de la pathologie.
+     *
+     * @param age          L'âge du patient en années.
+     * @param genre        Le genre du patient.
+     * @param nbrFamilles Le nombre de familles du dictionnaire de la règle trouvées dans les notes du patient.
+     * @return String Le libellé du niveau de risque.
+     */
+    String evaluer(int age, String genre, int nbrFamilles);
+}
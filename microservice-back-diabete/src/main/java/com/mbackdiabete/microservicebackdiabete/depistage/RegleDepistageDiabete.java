@@ -0,0 +1,50 @@
+package com.mbackdiabete.microservicebackdiabete.depistage;
+
+import com.mcommun.microservicecommun.automate.AutomateTermesDeclencheurs;
+import com.mbackdiabete.microservicebackdiabete.automate.DictionnaireTermesDiabete;
+import com.mbackdiabete.microservicebackdiabete.regles.ReglesRisque;
+import org.springframework.stereotype.Component;
+
+/**
+ * Règle de dépistage du diabète de type 2 : dictionnaire termesDiabete et table de décision reglesRisque.
+ *
+ * @author Mickael Hayé
+ * @version 1.0
+ */
+@Component
+public class RegleDepistageDiabete implements RegleDepistage {
+
+    /**
+     * Nom de la règle, clé de son résultat dans le dépistage.
+     */
+    public static final String NOM = "diabete";
+
+    private final DictionnaireTermesDiabete dictionnaire;
+    private final ReglesRisque reglesRisque;
+
+    /**
+     * Constructeur pour injecter le dictionnaire et la table de décision du diabète.
+     *
+     * @param dictionnaire Le dictionnaire des termes déclencheurs du diabète.
+     * @param reglesRisque La table de décision du risque de diabète.
+     */
+    public RegleDepistageDiabete(DictionnaireTermesDiabete dictionnaire, ReglesRisque reglesRisque) {
+        this.dictionnaire = dictionnaire;
+        this.reglesRisque = reglesRisque;
+    }
+
+    @Override
+    public String getNom() {
+        return NOM;
+    }
+
+    @Override
+    public AutomateTermesDeclencheurs getDictionnaire() {
+        return dictionnaire.getAutomate();
+    }
+
+    @Override
+    public String evaluer(int age, String genre, int nbrFamilles) {
+        return reglesRisque.getTable().evaluer(age, genre, nbrFamilles).getLibelle();
+    }
+}
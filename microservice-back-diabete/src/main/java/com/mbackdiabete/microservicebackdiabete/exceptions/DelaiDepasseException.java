@@ -0,0 +1,24 @@
+package com.mbackdiabete.microservicebackdiabete.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception lancée lorsqu'un microservice appelé ne répond pas dans le délai imparti.
+ * Elle retourne un code HTTP "GATEWAY_TIMEOUT" lorsque cette exception est lancée.
+ *
+ * @author mickael hayé
+ * @version 1.0
+ */
+@ResponseStatus(HttpStatus.GATEWAY_TIMEOUT)
+public class DelaiDepasseException extends RuntimeException {
+
+    /**
+     * Construit une nouvelle instance de {@link DelaiDepasseException}.
+     *
+     * @param message Le message d'erreur à associer à l'exception.
+     */
+    public DelaiDepasseException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,24 @@
+package com.mbackdiabete.microservicebackdiabete.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception lancée lorsqu'une requête groupée contient plus d'identifiants que le maximum accepté.
+ * Elle retourne un code HTTP "BAD_REQUEST" lorsque cette exception est lancée.
+ *
+ * @author Mickael Hayé
+ * @version 1.0
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class LotTropGrandException extends RuntimeException {
+
+    /**
+     * Construit une nouvelle instance de {@link LotTropGrandException}.
+     *
+     * @param message Le message d'erreur à associer à l'exception.
+     */
+    public LotTropGrandException(String message) {
+        super(message);
+    }
+}
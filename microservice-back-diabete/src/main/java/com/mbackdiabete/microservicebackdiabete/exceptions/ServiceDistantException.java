@@ -0,0 +1,25 @@
+package com.mbackdiabete.microservicebackdiabete.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception lancée lorsqu'un microservice appelé répond en erreur ou n'est pas joignable.
+ * Elle retourne un code HTTP "BAD_GATEWAY" lorsque cette exception est lancée.
+ *
+ * @author mickael hayé
+ * @version 1.0
+ */
+@ResponseStatus(HttpStatus.BAD_GATEWAY)
+public class ServiceDistantException extends RuntimeException {
+
+    /**
+     * Construit une nouvelle instance de {@link ServiceDistantException}.
+     *
+     * @param message Le message d'erreur à associer à l'exception.
+     * @param cause   L'erreur d'origine.
+     */
+    public ServiceDistantException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,26 @@
+package com.mbackdiabete.microservicebackdiabete.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception lancée lorsqu'un appel vers un microservice est refusé sans être émis,
+ * parce que ce microservice est dégradé (disjoncteur ouvert, trop d'appels simultanés) ou que l'échéance est dépassée.
+ * Elle retourne un code HTTP "SERVICE_UNAVAILABLE" lorsque cette exception est lancée.
+ *
+ * @author mickael hayé
+ * @version 1.0
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ServiceIndisponibleException extends RuntimeException {
+
+    /**
+     * Construit une nouvelle instance de {@link ServiceIndisponibleException}.
+     *
+     * @param message Le message d'erreur à associer à l'exception.
+     * @param cause   L'erreur d'origine.
+     */
+    public ServiceIndisponibleException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
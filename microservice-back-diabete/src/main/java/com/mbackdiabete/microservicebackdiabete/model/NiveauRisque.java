@@ -0,0 +1,44 @@
+package com.mbackdiabete.microservicebackdiabete.model;
+
+/**
+ * Niveaux de risque de diabète d'un patient.
+ * Le libellé de chaque niveau est celui renvoyé par les endpoints du microservice.
+ *
+ * @author Mickael Hayé
+ * @version 1.0
+ */
+public enum NiveauRisque {
+
+    /**
+     * Aucun risque.
+     */
+    NONE("None"),
+
+    /**
+     * Risque limité.
+     */
+    BORDERLINE("Borderline"),
+
+    /**
+     * Danger.
+     */
+    IN_DANGER("In Danger"),
+
+    /**
+     * Apparition précoce.
+     */
+    EARLY_ONSET("Early onset");
+
+    private final String libelle;
+
+    NiveauRisque(String libelle) {
+        this.libelle = libelle;
+    }
+
+    /**
+     * @return String Le libellé du niveau de risque.
+     */
+    public String getLibelle() {
+        return libelle;
+    }
+}
@@ -0,0 +1,31 @@
+package com.mbackdiabete.microservicebackdiabete.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Classe DTO (Data Transfer Object) représentant les familles de termes déclencheurs des notes d'un patient,
+ * détectées à l'écriture par le microservice back-note avec la version du dictionnaire de ce microservice.
+ * Les notes annotées avec une autre version, ou pas encore annotées, sont transmises en texte pour être analysées ici.
+ *
+ * @author Mickael Hayé
+ * @version 1.0
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FamillesTermesDTO {
+
+    /**
+     * Familles de termes distinctes des notes annotées avec la version du dictionnaire de ce microservice.
+     */
+    private List<String> familles;
+
+    /**
+     * Texte des notes annotées avec une autre version du dictionnaire, ou pas encore annotées.
+     */
+    private List<String> notes;
+}
@@ -0,0 +1,37 @@
+package com.mbackdiabete.microservicebackdiabete.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Classe DTO (Data Transfer Object) regroupant en une seule réponse tout ce qu'affiche la page de détail d'un patient :
+ * sa fiche, ses notes médicales et son niveau de risque de diabète.
+ * La fiche et les notes sont transmises telles que renvoyées par les microservices back-patient et back-note.
+ *
+ * @author Mickael Hayé
+ * @version 1.0
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FichePatientDTO {
+
+    /**
+     * Fiche du patient.
+     */
+    private Map<String, Object> patient;
+
+    /**
+     * Notes médicales du patient, null si elles n'ont pas pu être obtenues.
+     */
+    private List<Map<String, Object>> notes;
+
+    /**
+     * Niveau de risque de diabète du patient, null s'il n'a pas pu être calculé.
+     */
+    private String risque;
+}
@@ -0,0 +1,58 @@
+package com.mbackdiabete.microservicebackdiabete.regles;
+
+import com.mcommun.microservicecommun.chargement.RessourceRechargeable;
+import com.mbackdiabete.microservicebackdiabete.configuration.CustomProperties;
+import com.mbackdiabete.microservicebackdiabete.service.CacheRisqueService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Table de décision du risque de diabète, lue depuis un fichier et compilée en tableau.
+ * La table est validée au démarrage : une table invalide ou absente empêche le démarrage du microservice.
+ * Lorsqu'elle est lue depuis un fichier externe, elle est rechargée à chaud ; une nouvelle version invalide est ignorée.
+ *
+ * @author Mickael Hayé
+ * @version 1.0
+ */
+@Component
+public class ReglesRisque {
+
+    private final CacheRisqueService cacheRisqueService;
+    private final RessourceRechargeable<TableRisque> ressource;
+
+    /**
+     * Charge, valide et compile la table selon les propriétés du microservice.
+     *
+     * @param prop               Les propriétés personnalisées du microservice.
+     * @param cacheRisqueService Le cache des niveaux de risque, vidé à chaque rechargement.
+     * @throws IllegalStateException si aucune table valide n'a pu être chargée.
+     */
+    public ReglesRisque(CustomProperties prop, CacheRisqueService cacheRisqueService) {
+        this.cacheRisqueService = cacheRisqueService;
+        this.ressource = new RessourceRechargeable<>("Table de décision du risque",
+                prop.getReglesRisqueFilePath(), prop.getReglesRisqueExternalFilePath(), TableRisque::lire, null);
+        if (ressource.get() == null) {
+            throw new IllegalStateException("Table de décision du risque introuvable : " + prop.getReglesRisqueFilePath());
+        }
+    }
+
+    /**
+     * Renvoie la table actuellement publiée.
+     *
+     * @return TableRisque La table de décision compilée.
+     */
+    public TableRisque getTable() {
+        return ressource.get();
+    }
+
+    /**
+     * Vérifie périodiquement le fichier externe et publie une nouvelle version de la table s'il a changé,
+     * puis vide le cache des niveaux de risque, calculés avec l'ancienne version.
+     */
+    @Scheduled(fixedDelayString = "${com.mbackdiabete.microservicebackdiabete.reglesRisqueReloadDelay:30000}")
+    public void recharger() {
+        if (ressource.verifierModification()) {
+            cacheRisqueService.invaliderTout();
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.mbackdiabete.microservicebackdiabete.regles;
+
+import com.mbackdiabete.microservicebackdiabete.model.NiveauRisque;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Table de décision du risque de diabète, compilée en tableau dense.
+ * Les règles (intervalle d'âge, genre, intervalle du nombre de termes déclencheurs, niveau) sont validées à la compilation :
+ * chaque combinaison doit être couverte par exactement une règle. Les âges donnant les mêmes niveaux sont regroupés
+ * en tranches, et l'évaluation se résume à une lecture dans un tableau indexé par [tranche d'âge][genre][nombre de termes].
+ *
+ * @author Mickael Hayé
+ * @version 1.0
+ */
+public final class TableRisque {
+
+    /**
+     * Genres distingués par la table, dans l'ordre de leur index ; AUTRE regroupe les genres non renseignés ou inconnus.
+     */
+    public static final List<String> GENRES = List.of("H", "F", "AUTRE");
+    private static final int NB_GENRES = GENRES.size();
+    private static final int OUVERT = Integer.MAX_VALUE;
+
+    private final int[] trancheParAge;
+    private final int nbTermes;
+    private final NiveauRisque[] niveaux;
+    private final int nbRegles;
+
+    private TableRisque(int[] trancheParAge, int nbTermes, NiveauRisque[] niveaux, int nbRegles) {
+        this.trancheParAge = trancheParAge;
+        this.nbTermes = nbTermes;
+        this.niveaux = niveaux;
+        this.nbRegles = nbRegles;
+    }
+
+    /**
+     * Lit et compile une table de décision au format du fichier reglesRisque :
+     * une règle par ligne "âge;genre;termes;niveau", les lignes vides ou commençant par '#' étant ignorées.
+     *
+     * @param reader Le lecteur positionné au début de la table.
+     * @return La table compilée.
+     * @throws IOException              si la lecture échoue.
+     * @throws IllegalArgumentException si une règle est invalide, si deux règles se chevauchent ou si une combinaison n'est pas couverte.
+     */
+    public static TableRisque lire(BufferedReader reader) throws IOException {
+        List<Regle> regles = new ArrayList<>();
+        String line;
+        int numero = 0;
+        while ((line = reader.readLine()) != null) {
+            numero++;
+            String regle = line.trim();
+            if (regle.isEmpty() || regle.startsWith("#")) {
+                continue;
+            }
+            regles.add(Regle.lire(regle, numero));
+        }
+        return compiler(regles);
+    }
+
+    /**
+     * Évalue le niveau de risque d'un patient par une lecture dans la table.
+     *
+     * @param age                    L'âge du patient en années.
+     * @param genre                  Le genre du patient ("H", "F", tout autre valeur étant traitée comme AUTRE).
+     * @param nbrTermesDeclencheurs Le nombre de familles de termes déclencheurs.
+     * @return NiveauRisque Le niveau de risque de diabète.
+     */
+    public NiveauRisque evaluer(int age, String genre, int nbrTermesDeclencheurs) {
+        int tranche = trancheParAge[Math.min(Math.max(age, 0), trancheParAge.length - 1)];
+        int termes = Math.min(Math.max(nbrTermesDeclencheurs, 0), nbTermes - 1);
+        return niveaux[(tranche * NB_GENRES + indexGenre(genre)) * nbTermes + termes];
+    }
+
+    /**
+     * @return int Le nombre de règles de la table.
+     */
+    public int getNombreRegles() {
+        return nbRegles;
+    }
+
+    /**
+     * @return int Le nombre de tranches d'âge distinctes après compilation.
+     */
+    public int getNombreTranchesAge() {
+        return niveaux.length / (NB_GENRES * nbTermes);
+    }
+
+    private static int indexGenre(String genre) {
+        if ("H".equals(genre)) {
+            return 0;
+        }
+        return "F".equals(genre) ? 1 : 2;
+    }
+
+    private static TableRisque compiler(List<Regle> regles) {
+        if (regles.isEmpty()) {
+            throw new IllegalArgumentException("La table de décision du risque ne contient aucune règle");
+        }
+        // Au-delà de la plus grande borne finie, tous les âges (resp. nombres de termes) sont traités de la même façon
+        int ageMax = 0;
+        int termesMax = 0;
+        for (Regle regle : regles) {
+            ageMax = Math.max(ageMax, borneSuperieure(regle.ageMin, regle.ageMax));
+            termesMax = Math.max(termesMax, borneSuperieure(regle.termesMin, regle.termesMax));
+        }
+        int nbAges = ageMax + 1;
+        int nbTermes = termesMax + 1;
+
+        // Remplissage de la grille complète, en détectant chevauchements et trous
+        Regle[] grille = new Regle[nbAges * NB_GENRES * nbTermes];
+        for (Regle regle : regles) {
+            for (int age = regle.ageMin; age <= Math.min(regle.ageMax, ageMax); age++) {
+                for (int genre = 0; genre < NB_GENRES; genre++) {
+                    if (!regle.genres[genre]) {
+                        continue;
+                    }
+                    for (int termes = regle.termesMin; termes <= Math.min(regle.termesMax, termesMax); termes++) {
+                        int index = (age * NB_GENRES + genre) * nbTermes + termes;
+                        if (grille[index] != null) {
+                            throw new IllegalArgumentException("Les règles des lignes " + grille[index].ligne + " et " + regle.ligne
+                                    + " se chevauchent (" + combinaison(age, ageMax, genre, termes, termesMax) + ")");
+                        }
+                        grille[index] = regle;
+                    }
+                }
+            }
+        }
+        for (int index = 0; index < grille.length; index++) {
+            if (grille[index] == null) {
+                int termes = index % nbTermes;
+                int genre = (index / nbTermes) % NB_GENRES;
+                int age = index / (nbTermes * NB_GENRES);
+                throw new IllegalArgumentException("Aucune règle ne couvre la combinaison " + combinaison(age, ageMax, genre, termes, termesMax));
+            }
+        }
+
+        // Regroupement des âges consécutifs de mêmes niveaux en tranches
+        int taille = NB_GENRES * nbTermes;
+        int[] trancheParAge = new int[nbAges];
+        List<NiveauRisque> niveaux = new ArrayList<>();
+        NiveauRisque[] precedente = null;
+        for (int age = 0; age < nbAges; age++) {
+            NiveauRisque[] ligne = new NiveauRisque[taille];
+            for (int i = 0; i < taille; i++) {
+                ligne[i] = grille[age * taille + i].niveau;
+            }
+            if (precedente == null || !Arrays.equals(precedente, ligne)) {
+                niveaux.addAll(Arrays.asList(ligne));
+                precedente = ligne;
+            }
+            trancheParAge[age] = niveaux.size() / taille - 1;
+        }
+        return new TableRisque(trancheParAge, nbTermes, niveaux.toArray(new NiveauRisque[0]), regles.size());
+    }
+
+    private static int borneSuperieure(int min, int max) {
+        return max == OUVERT ? min : max + 1;
+    }
+
+    private static String combinaison(int age, int ageMax, int genre, int termes, int termesMax) {
+        return "âge " + age + (age == ageMax ? " et plus" : "") + ", genre " + GENRES.get(genre)
+                + ", " + termes + (termes == termesMax ? " termes et plus" : " termes");
+    }
+
+    /**
+     * Règle de la table de décision, avant compilation.
+     */
+    private static final class Regle {
+        private final int ligne;
+        private final int ageMin;
+        private final int ageMax;
+        private final boolean[] genres = new boolean[NB_GENRES];
+        private final int termesMin;
+        private final int termesMax;
+        private final NiveauRisque niveau;
+
+        private Regle(int ligne, int[] ages, int[] termes, NiveauRisque niveau) {
+            this.ligne = ligne;
+            this.ageMin = ages[0];
+            this.ageMax = ages[1];
+            this.termesMin = termes[0];
+            this.termesMax = termes[1];
+            this.niveau = niveau;
+        }
+
+        private static Regle lire(String texte, int ligne) {
+            String[] champs = texte.split(";");
+            if (champs.length != 4) {
+                throw new IllegalArgumentException("Ligne " + ligne + " : 4 champs attendus (âge;genre;termes;niveau) : " + texte);
+            }
+            NiveauRisque niveau;
+            try {
+                niveau = NiveauRisque.valueOf(champs[3].trim());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Ligne " + ligne + " : niveau de risque inconnu : " + champs[3].trim());
+            }
+            Regle regle = new Regle(ligne, intervalle(champs[0], ligne), intervalle(champs[2], ligne), niveau);
+            String genre = champs[1].trim();
+            if (genre.equals("*")) {
+                Arrays.fill(regle.genres, true);
+            } else if (GENRES.contains(genre)) {
+                regle.genres[GENRES.indexOf(genre)] = true;
+            } else {
+                throw new IllegalArgumentException("Ligne " + ligne + " : genre inconnu : " + genre);
+            }
+            return regle;
+        }
+
+        /**
+         * Lit un intervalle "min-max" inclusif, "min-*" ouvert ou "*" pour toutes les valeurs.
+         */
+        private static int[] intervalle(String texte, int ligne) {
+            String intervalle = texte.trim();
+            if (intervalle.equals("*")) {
+                return new int[]{0, OUVERT};
+            }
+            String[] bornes = intervalle.split("-");
+            try {
+                int min = Integer.parseInt(bornes[0].trim());
+                int max = bornes.length == 1 ? min : bornes[1].trim().equals("*") ? OUVERT : Integer.parseInt(bornes[1].trim());
+                if (bornes.length > 2 || min < 0 || max < min) {
+                    throw new IllegalArgumentException("Ligne " + ligne + " : intervalle invalide : " + intervalle);
+                }
+                return new int[]{min, max};
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Ligne " + ligne + " : intervalle invalide : " + intervalle);
+            }
+        }
+    }
+}
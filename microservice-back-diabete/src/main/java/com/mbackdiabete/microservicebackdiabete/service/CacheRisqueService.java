@@ -0,0 +1,52 @@
+package com.mbackdiabete.microservicebackdiabete.service;
+
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Interface définissant le cache des niveaux de risque de diabète, indexé par identifiant de patient.
+ * Une entrée est invalidée lorsque les notes ou les informations du patient changent,
+ * le cache est vidé lorsque le dictionnaire des termes ou la table de décision est rechargé, et une entrée expire au plus tard à minuit afin de prendre en compte le changement d'âge du patient.
+ *
+ * @author Mickael Hayé
+ * @version 1.0
+ */
+public interface CacheRisqueService {
+
+    /**
+     * Renvoie le niveau de risque d'un patient depuis le cache, ou le calcule et le mémorise s'il est absent.
+     * Un calcul en échec n'est pas mémorisé.
+     *
+     * @param id     L'identifiant du patient.
+     * @param calcul La fonction de calcul du niveau de risque.
+     * @return String Le niveau de risque du patient.
+     */
+    String getRisque(String id, Function<String, String> calcul);
+
+    /**
+     * Renvoie le niveau de risque d'un patient s'il est en cache, sans le calculer.
+     *
+     * @param id L'identifiant du patient.
+     * @return String Le niveau de risque du patient, null s'il n'est pas en cache.
+     */
+    String getRisqueEnCache(String id);
+
+    /**
+     * Retire le niveau de risque d'un patient du cache.
+     *
+     * @param id L'identifiant du patient.
+     */
+    void invalider(String id);
+
+    /**
+     * Vide le cache, lorsque le dictionnaire des termes ou la table de décision du risque est rechargé.
+     */
+    void invaliderTout();
+
+    /**
+     * Renvoie les statistiques du cache : succès, échecs, taux de succès, évictions et nombre d'entrées.
+     *
+     * @return Map des statistiques du cache.
+     */
+    Map<String, Object> getStatistiques();
+}
@@ -1,7 +1,10 @@
 package com.mbackdiabete.microservicebackdiabete.service;
 
+import com.mbackdiabete.microservicebackdiabete.model.NiveauRisque;
+
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Interface définissant les services de calcul pour le microservice back-diabete.
@@ -22,6 +25,37 @@ public interface CalculService {
      */
     String getNiveauxRisque(Date dateNaissance, String genre, List<String> notes);
 
+    /**
+     * Dépiste toutes les pathologies enregistrées (diabète, etc.) pour un patient donné.
+     * Les notes médicales sont analysées une seule fois, quel que soit le nombre de pathologies.
+     *
+     * @param dateNaissance La date de naissance du patient.
+     * @param genre         Le genre du patient (ex. "H" pour homme, "F" pour femme).
+     * @param notes         Une liste de notes médicales concernant le patient.
+     * @return Map nom de la pathologie → niveau de risque.
+     */
+    Map<String, String> depister(Date dateNaissance, String genre, List<String> notes);
+
+    /**
+     * Calcule le niveau de risque de diabète pour un patient dont le nombre de termes déclencheurs est déjà connu.
+     *
+     * @param dateNaissance          La date de naissance du patient.
+     * @param genre                  Le genre du patient (ex. "H" pour homme, "F" pour femme).
+     * @param nbrTermesDeclencheurs Le nombre de familles de termes déclencheurs présentes dans les notes du patient.
+     * @return String représentant le niveau de risque de diabète du patient.
+     */
+    String getNiveauxRisque(Date dateNaissance, String genre, int nbrTermesDeclencheurs);
+
+    /**
+     * Évalue le niveau de risque de diabète à partir de l'âge, du genre et du nombre de termes déclencheurs.
+     *
+     * @param age                    L'âge du patient en années.
+     * @param genre                  Le genre du patient (ex. "H" pour homme, "F" pour femme).
+     * @param nbrTermesDeclencheurs Le nombre de familles de termes déclencheurs présentes dans les notes du patient.
+     * @return NiveauRisque Le niveau de risque de diabète du patient.
+     */
+    NiveauRisque evaluerRisque(int age, String genre, int nbrTermesDeclencheurs);
+
     /**
      * Calcule le nombre de termes déclencheurs de diabète présents dans les notes médicales du patient.
      * Cette méthode est utile pour déterminer le niveau de risque basé sur la fréquence de certains termes.
@@ -31,6 +65,23 @@ public interface CalculService {
      */
     int calculNbrTermesDeclencheurs(List<String> notes);
 
+    /**
+     * Calcule le nombre de familles de termes déclencheurs d'un patient à partir des familles précalculées par le microservice
+     * back-note avec la version courante du dictionnaire, complétées par l'analyse des notes annotées avec une autre version.
+     *
+     * @param famillesPrecalculees Les familles de termes détectées à l'écriture des notes avec la version courante du dictionnaire.
+     * @param notes                Le texte des notes annotées avec une autre version du dictionnaire, ou pas encore annotées.
+     * @return int Le nombre de familles de termes déclencheurs distinctes.
+     */
+    int calculNbrTermesDeclencheurs(List<String> famillesPrecalculees, List<String> notes);
+
+    /**
+     * Renvoie la version du dictionnaire des termes déclencheurs actuellement publié.
+     *
+     * @return String La version du dictionnaire, empreinte SHA-256 de son contenu.
+     */
+    String getVersionDictionnaire();
+
     /**
      * Calcule l'âge du patient à partir de sa date de naissance.
      * Cette méthode est essentielle pour évaluer les risques de santé liés à l'âge.
@@ -0,0 +1,95 @@
+package com.mbackdiabete.microservicebackdiabete.service;
+
+import com.mbackdiabete.microservicebackdiabete.model.dto.FamillesTermesDTO;
+import com.mbackdiabete.microservicebackdiabete.model.dto.PatientInfoDTO;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Interface définissant l'accès aux données des patients détenues par les autres microservices.
+ * Les appels sont asynchrones afin de pouvoir interroger plusieurs microservices en parallèle.
+ * Les futurs échouent avec une exception du package exceptions lorsque l'appel distant échoue ou dépasse son délai.
+ *
+ * @author Mickael Hayé
+ * @version 1.0
+ */
+public interface DonneesPatientService {
+
+    /**
+     * Récupère la date de naissance et le genre d'un patient auprès du microservice back-patient.
+     *
+     * @param id         L'identifiant unique du patient.
+     * @param authHeader L'en-tête d'autorisation à transmettre.
+     * @return CompletableFuture des informations du patient.
+     */
+    CompletableFuture<PatientInfoDTO> getInfoDiabete(String id, String authHeader);
+
+    /**
+     * Récupère le texte des notes d'un patient auprès du microservice back-note.
+     *
+     * @param id         L'identifiant unique du patient.
+     * @param authHeader L'en-tête d'autorisation à transmettre.
+     * @return CompletableFuture de la liste des notes du patient.
+     */
+    CompletableFuture<List<String>> getListeNotes(String id, String authHeader);
+
+    /**
+     * Récupère la fiche complète d'un patient auprès du microservice back-patient.
+     *
+     * @param id         L'identifiant unique du patient.
+     * @param authHeader L'en-tête d'autorisation à transmettre.
+     * @return CompletableFuture de la fiche du patient, telle que renvoyée par le microservice back-patient.
+     */
+    CompletableFuture<Map<String, Object>> getPatient(String id, String authHeader);
+
+    /**
+     * Récupère les notes complètes d'un patient auprès du microservice back-note.
+     *
+     * @param id         L'identifiant unique du patient.
+     * @param authHeader L'en-tête d'autorisation à transmettre.
+     * @return CompletableFuture de la liste des notes du patient, telles que renvoyées par le microservice back-note.
+     */
+    CompletableFuture<List<Map<String, Object>>> getNotesPatient(String id, String authHeader);
+
+    /**
+     * Récupère les familles de termes déclencheurs détectées à l'écriture des notes d'un patient, auprès du microservice back-note.
+     * Seules les familles détectées avec la version demandée du dictionnaire sont reprises ; les autres notes sont renvoyées en texte.
+     *
+     * @param id         L'identifiant unique du patient.
+     * @param version    La version du dictionnaire des termes de ce microservice.
+     * @param authHeader L'en-tête d'autorisation à transmettre.
+     * @return CompletableFuture des familles de termes distinctes des notes annotées avec cette version, et du texte des autres notes.
+     */
+    CompletableFuture<FamillesTermesDTO> getFamillesTermes(String id, String version, String authHeader);
+
+    /**
+     * Récupère en un seul appel la date de naissance et le genre de plusieurs patients auprès du microservice back-patient.
+     * Les patients inconnus sont absents de la map renvoyée.
+     *
+     * @param ids        Les identifiants des patients.
+     * @param authHeader L'en-tête d'autorisation à transmettre.
+     * @return CompletableFuture de la map identifiant → informations du patient.
+     */
+    CompletableFuture<Map<String, PatientInfoDTO>> getInfoDiabeteLot(List<String> ids, String authHeader);
+
+    /**
+     * Récupère une page des informations diabète de tous les patients, triés par identifiant.
+     *
+     * @param apresId    L'identifiant du dernier patient de la page précédente (0 pour la première page).
+     * @param taille     Le nombre maximal de patients de la page.
+     * @param authHeader L'en-tête d'autorisation à transmettre.
+     * @return CompletableFuture de la map ordonnée identifiant → informations du patient, vide après le dernier patient.
+     */
+    CompletableFuture<Map<String, PatientInfoDTO>> getInfoDiabetePage(int apresId, int taille, String authHeader);
+
+    /**
+     * Récupère en un seul appel le texte des notes de plusieurs patients auprès du microservice back-note.
+     *
+     * @param ids        Les identifiants des patients.
+     * @param authHeader L'en-tête d'autorisation à transmettre.
+     * @return CompletableFuture de la map identifiant → liste des notes du patient.
+     */
+    CompletableFuture<Map<String, List<String>>> getListeNotesLot(List<String> ids, String authHeader);
+}
@@ -0,0 +1,37 @@
+package com.mbackdiabete.microservicebackdiabete.service;
+
+import com.mbackdiabete.microservicebackdiabete.model.dto.PatientInfoDTO;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Interface définissant l'évaluation groupée du risque de diabète d'un lot de patients.
+ * Les données d'un lot sont récupérées en un appel par microservice, puis le risque est calculé en parallèle.
+ *
+ * @author Mickael Hayé
+ * @version 1.0
+ */
+public interface EvaluationRisqueService {
+
+    /**
+     * Récupère les données d'un lot de patients et évalue le risque de diabète de chacun.
+     * Les patients inconnus du microservice back-patient sont absents du résultat.
+     *
+     * @param ids        Les identifiants des patients du lot.
+     * @param authHeader L'en-tête d'autorisation à transmettre.
+     * @return CompletableFuture de la map identifiant → niveau de risque, dans l'ordre des identifiants.
+     */
+    CompletableFuture<Map<String, String>> evaluerLot(List<String> ids, String authHeader);
+
+    /**
+     * Evalue le risque de diabète de patients dont les informations sont déjà connues ;
+     * seules leurs notes sont récupérées, en un seul appel.
+     *
+     * @param patients   Les informations des patients, par identifiant.
+     * @param authHeader L'en-tête d'autorisation à transmettre.
+     * @return CompletableFuture de la map identifiant → niveau de risque, dans l'ordre des patients.
+     */
+    CompletableFuture<Map<String, String>> evaluerPatients(Map<String, PatientInfoDTO> patients, String authHeader);
+}
@@ -0,0 +1,162 @@
+package com.mbackdiabete.microservicebackdiabete.service.impl;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.mbackdiabete.microservicebackdiabete.configuration.CustomProperties;
+import com.mbackdiabete.microservicebackdiabete.service.CacheRisqueService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Implémentation du cache des niveaux de risque basée sur Caffeine.
+ * Le cache est borné en nombre d'entrées et chaque entrée expire au prochain minuit.
+ * <p>
+ * Le cache mémorise le calcul en cours de chaque patient : le premier appelant calcule le risque sur son propre thread,
+ * hors du verrou de Caffeine, et les appelants concurrents pour le même patient attendent ce calcul.
+ * Les appels HTTP d'un calcul lent ne bloquent ainsi pas les autres patients.
+ * </p>
+ *
+ * @author Mickael Hayé
+ * @version 1.0
+ */
+@Service
+public class CacheRisqueServiceImpl implements CacheRisqueService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheRisqueServiceImpl.class);
+    private final AsyncCache<String, String> cache;
+
+    /**
+     * Construit le cache selon les propriétés du microservice.
+     *
+     * @param prop  Les propriétés personnalisées du microservice.
+     * @param clock L'horloge du microservice, qui détermine le prochain minuit.
+     */
+    public CacheRisqueServiceImpl(CustomProperties prop, Clock clock) {
+        logger.info("Création du cache des niveaux de risque, taille maximale : {}", prop.getCacheRisqueTailleMax());
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(prop.getCacheRisqueTailleMax())
+                .expireAfter(new ExpirationMinuit(clock))
+                .recordStats()
+                .buildAsync();
+    }
+
+    /**
+     * Renvoie le niveau de risque d'un patient depuis le cache, ou le calcule et le mémorise s'il est absent.
+     *
+     * @param id     L'identifiant du patient.
+     * @param calcul La fonction de calcul du niveau de risque.
+     * @return String Le niveau de risque du patient.
+     */
+    @Override
+    public String getRisque(String id, Function<String, String> calcul) {
+        CompletableFuture<String> calculEnCours = new CompletableFuture<>();
+        CompletableFuture<String> risque = cache.get(id, (cle, executor) -> calculEnCours);
+        if (risque == calculEnCours) {
+            try {
+                calculEnCours.complete(calcul.apply(id));
+            } catch (RuntimeException | Error e) {
+                // Caffeine retire du cache le calcul en échec
+                calculEnCours.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return risque.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Renvoie le niveau de risque d'un patient s'il est en cache, sans le calculer.
+     *
+     * @param id L'identifiant du patient.
+     * @return String Le niveau de risque du patient, null s'il n'est pas en cache.
+     */
+    @Override
+    public String getRisqueEnCache(String id) {
+        CompletableFuture<String> risque = cache.getIfPresent(id);
+        return risque != null && risque.isDone() && !risque.isCompletedExceptionally() ? risque.join() : null;
+    }
+
+    /**
+     * Retire le niveau de risque d'un patient du cache.
+     *
+     * @param id L'identifiant du patient.
+     */
+    @Override
+    public void invalider(String id) {
+        logger.info("Invalidation du niveau de risque en cache pour le patient avec l'ID: {}", id);
+        cache.synchronous().invalidate(id);
+    }
+
+    /**
+     * Vide le cache des niveaux de risque.
+     */
+    @Override
+    public void invaliderTout() {
+        logger.info("Invalidation de tous les niveaux de risque en cache");
+        cache.synchronous().invalidateAll();
+    }
+
+    /**
+     * Renvoie les statistiques du cache.
+     *
+     * @return Map des statistiques du cache.
+     */
+    @Override
+    public Map<String, Object> getStatistiques() {
+        CacheStats stats = cache.synchronous().stats();
+        Map<String, Object> statistiques = new LinkedHashMap<>();
+        statistiques.put("hits", stats.hitCount());
+        statistiques.put("misses", stats.missCount());
+        statistiques.put("hitRate", stats.hitRate());
+        statistiques.put("evictions", stats.evictionCount());
+        statistiques.put("size", cache.synchronous().estimatedSize());
+        return statistiques;
+    }
+
+    /**
+     * Fait expirer chaque entrée au prochain minuit, qu'elle soit créée ou mise à jour ; une lecture ne prolonge pas l'entrée.
+     */
+    private static class ExpirationMinuit implements Expiry<String, String> {
+
+        private final Clock clock;
+
+        ExpirationMinuit(Clock clock) {
+            this.clock = clock;
+        }
+
+        @Override
+        public long expireAfterCreate(String id, String risque, long currentTime) {
+            ZonedDateTime maintenant = ZonedDateTime.now(clock);
+            ZonedDateTime minuit = maintenant.toLocalDate().plusDays(1).atStartOfDay(maintenant.getZone());
+            return Duration.between(maintenant, minuit).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String id, String risque, long currentTime, long currentDuration) {
+            return expireAfterCreate(id, risque, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String id, String risque, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
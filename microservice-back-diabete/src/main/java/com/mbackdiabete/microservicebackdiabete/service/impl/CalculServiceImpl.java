@@ -1,21 +1,26 @@
 package com.mbackdiabete.microservicebackdiabete.service.impl;
 
-import com.mbackdiabete.microservicebackdiabete.configuration.CustomProperties;
+import com.mcommun.microservicecommun.automate.AutomateTermesDeclencheurs;
+import com.mbackdiabete.microservicebackdiabete.automate.DictionnaireTermesDiabete;
 import com.mbackdiabete.microservicebackdiabete.controller.DiabeteController;
+import com.mbackdiabete.microservicebackdiabete.depistage.MoteurDepistage;
+import com.mbackdiabete.microservicebackdiabete.depistage.RegleDepistageDiabete;
+import com.mbackdiabete.microservicebackdiabete.model.NiveauRisque;
+import com.mbackdiabete.microservicebackdiabete.regles.ReglesRisque;
 import com.mbackdiabete.microservicebackdiabete.service.CalculService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.*;
-import java.util.stream.Collectors;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Implémentation du service de calcul pour le microservice back-diabete.
@@ -26,20 +31,30 @@ import java.util.stream.Collectors;
  */
 @Service
 public class CalculServiceImpl implements CalculService {
-    private final CustomProperties prop;
     private static final Logger logger = LoggerFactory.getLogger(DiabeteController.class);
+    private final DictionnaireTermesDiabete dictionnaire;
+    private final ReglesRisque reglesRisque;
+    private final MoteurDepistage moteurDepistage;
+    private final Clock clock;
 
     /**
-     * Constructeur pour initialiser les propriétés du service.
+     * Constructeur pour initialiser les dépendances du service.
      *
-     * @param prop Les propriétés personnalisées utilisées par le service.
+     * @param dictionnaire Le dictionnaire compilé des termes déclencheurs.
+     * @param reglesRisque    La table de décision du risque.
+     * @param moteurDepistage Le moteur de dépistage commun à toutes les règles enregistrées.
+     * @param clock           L'horloge donnant la date du jour pour le calcul de l'âge.
      */
-    public CalculServiceImpl(CustomProperties prop) {
-        this.prop = prop;
+    public CalculServiceImpl(DictionnaireTermesDiabete dictionnaire, ReglesRisque reglesRisque, MoteurDepistage moteurDepistage, Clock clock) {
+        this.dictionnaire = dictionnaire;
+        this.reglesRisque = reglesRisque;
+        this.moteurDepistage = moteurDepistage;
+        this.clock = clock;
     }
 
     /**
      * Évalue le niveau de risque de diabète d'un patient en fonction de son âge, son genre, et ses notes médicales.
+     * Le diabète étant une règle du moteur de dépistage, les notes sont analysées en un seul passage pour toutes les règles.
      *
      * @param dateNaissance La date de naissance du patient.
      * @param genre         Le genre du patient.
@@ -48,54 +63,58 @@ public class CalculServiceImpl implements CalculService {
      */
     @Override
     public String getNiveauxRisque(Date dateNaissance, String genre, List<String> notes) {
+        return depister(dateNaissance, genre, notes).get(RegleDepistageDiabete.NOM);
+    }
+
+    /**
+     * Dépiste toutes les pathologies enregistrées auprès du moteur de dépistage, en un seul passage sur les notes.
+     *
+     * @param dateNaissance La date de naissance du patient.
+     * @param genre         Le genre du patient.
+     * @param notes         Liste des notes médicales du patient.
+     * @return Map nom de la pathologie → niveau de risque.
+     */
+    @Override
+    public Map<String, String> depister(Date dateNaissance, String genre, List<String> notes) {
+        logger.info("Dépistage pour la date de naissance: {} et le genre: {}", dateNaissance, genre);
+        Map<String, String> niveaux = moteurDepistage.depister(calculAge(dateNaissance), genre, notes);
+        logger.info("Niveaux de risque calculés: {}", niveaux);
+        return niveaux;
+    }
+
+    /**
+     * Évalue le niveau de risque de diabète d'un patient en fonction de son âge, son genre, et du nombre de termes déclencheurs.
+     *
+     * @param dateNaissance          La date de naissance du patient.
+     * @param genre                  Le genre du patient.
+     * @param nbrTermesDeclencheurs Le nombre de familles de termes déclencheurs présentes dans les notes du patient.
+     * @return String représentant le niveau de risque de diabète.
+     */
+    @Override
+    public String getNiveauxRisque(Date dateNaissance, String genre, int nbrTermesDeclencheurs) {
         logger.info("Calcul du niveau de risque de diabète pour la date de naissance: {} et le genre: {}", dateNaissance, genre);
-        //Par défaut aucun risque
-        String niveauxRisque = "None";
-        int age = calculAge(dateNaissance);
-        int nbrTermesDeclencheurs = calculNbrTermesDeclencheurs(notes);
+        NiveauRisque niveauRisque = evaluerRisque(calculAge(dateNaissance), genre, nbrTermesDeclencheurs);
+        logger.info("Niveau de risque calculé: {}", niveauRisque);
+        return niveauRisque.getLibelle();
+    }
 
-        if (age >= 30) {
-            //si supérieur à 30 ans et Entre 2 et 5 notes = Risque Limité
-            if (nbrTermesDeclencheurs >= 2 && nbrTermesDeclencheurs <= 5) {
-                niveauxRisque = "Borderline";
-            }
-            //si supérieur à 30 ans et Entre 6 et 7 notes = Danger
-            if (nbrTermesDeclencheurs >= 6 && nbrTermesDeclencheurs <= 7) {
-                niveauxRisque = "In Danger";
-            }
-            //si supérieur à 30 ans et Entre 8 et + notes = Apparition Précoce
-            if (nbrTermesDeclencheurs >= 8) {
-                niveauxRisque = "Early onset";
-            }
-        }
-        if (age < 30) {
-            if (genre.equals("H")) {
-                //si inférieur à 30 ans et Homme et Entre 3 et 4 notes = Danger
-                if (nbrTermesDeclencheurs >= 3 && nbrTermesDeclencheurs <= 4) {
-                    niveauxRisque = "In Danger";
-                }
-                //si inférieur à 30 ans et Homme et Entre 5 et + notes = Apparition Précoce
-                if (nbrTermesDeclencheurs >= 5) {
-                    niveauxRisque = "Early onset";
-                }
-            }
-            if (genre.equals("F")) {
-                //si inférieur à 30 ans et Femme et Entre 4 et 7 notes = Danger
-                if (nbrTermesDeclencheurs >= 4 && nbrTermesDeclencheurs <= 7) {
-                    niveauxRisque = "In Danger";
-                }
-                //si inférieur à 30 ans et Femme et Entre 7 et + notes = Apparition Précoce
-                if (nbrTermesDeclencheurs >= 7) {
-                    niveauxRisque = "Early onset";
-                }
-            }
-        }
-        logger.info("Niveau de risque calculé: {}", niveauxRisque);
-        return niveauxRisque;
+    /**
+     * Évalue le niveau de risque de diabète à partir de l'âge, du genre et du nombre de termes déclencheurs,
+     * par une lecture dans la table de décision compilée.
+     *
+     * @param age                    L'âge du patient en années.
+     * @param genre                  Le genre du patient.
+     * @param nbrTermesDeclencheurs Le nombre de familles de termes déclencheurs.
+     * @return NiveauRisque Le niveau de risque de diabète.
+     */
+    @Override
+    public NiveauRisque evaluerRisque(int age, String genre, int nbrTermesDeclencheurs) {
+        return reglesRisque.getTable().evaluer(age, genre, nbrTermesDeclencheurs);
     }
 
     /**
      * Calcule le nombre de termes déclencheurs trouvés dans les notes médicales du patient.
+     * Chaque note est parcourue une seule fois par la version courante de l'automate.
      *
      * @param notes Liste des notes médicales du patient.
      * @return int Le nombre de termes déclencheurs trouvés.
@@ -103,85 +122,64 @@ public class CalculServiceImpl implements CalculService {
     @Override
     public int calculNbrTermesDeclencheurs(List<String> notes) {
         logger.info("Calcul du nombre de termes déclencheurs dans les notes médicales.");
-        //Mise en minuscule de la liste des notes
-        List<String> notesInLowerCase = notes.stream().map(String::toLowerCase).collect(Collectors.toList());
-        //Chargement Liste des expressions à rechercher
-        String filePath = prop.getTermesDiabeteFilePath();
-        ClassPathResource resource = new ClassPathResource(filePath);
-
-        List<String> ExpressionsInLowerCase = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream()))) {
-            String line;
-
-            // Lecture du fichier ligne par ligne
-            while ((line = reader.readLine()) != null) {
-                // Ajout en minuscule des termes à la liste, en les séparant par le point-virgule
-                ExpressionsInLowerCase.addAll(Arrays.asList(line.toLowerCase().split(";")));
-            }
-
-            // Fermeture du BufferedReader
-            reader.close();
-        } catch (IOException e) {
-            logger.info("Problème avec l'accès au fichier contenant la liste des expressions de recherche diabète");
-        }
+        int nbrTermesDeclencheurs = dictionnaire.getAutomate().compterFamilles(notes);
+        logger.info("Nombre de termes déclencheurs trouvés: {}", nbrTermesDeclencheurs);
+        return nbrTermesDeclencheurs;
+    }
 
-        //Les familles d'expression contenues dans la liste de notes sont chargées dans la liste ExpressionsContenus
-        Set<String> ExpressionsContenus = new HashSet<>();
-        for (String note : notesInLowerCase) {
-            for (String expressionFamille : ExpressionsInLowerCase) {
-                List<String> expressionList = Arrays.stream(expressionFamille.split(",")).collect(Collectors.toList());
-                for (String expression2 : expressionList) {
-                    if (note.contains(expression2)) {
-                        ExpressionsContenus.add(expressionFamille);
-                        break;
-                    }
+    /**
+     * Calcule le nombre de familles de termes déclencheurs à partir des familles précalculées avec la version courante
+     * du dictionnaire : seules les notes annotées avec une autre version sont parcourues par l'automate.
+     *
+     * @param famillesPrecalculees Les familles de termes détectées à l'écriture des notes avec la version courante du dictionnaire.
+     * @param notes                Le texte des notes annotées avec une autre version du dictionnaire, ou pas encore annotées.
+     * @return int Le nombre de familles de termes déclencheurs distinctes.
+     */
+    @Override
+    public int calculNbrTermesDeclencheurs(List<String> famillesPrecalculees, List<String> notes) {
+        AutomateTermesDeclencheurs automate = dictionnaire.getAutomate();
+        Set<String> familles = new HashSet<>(famillesPrecalculees);
+        if (!notes.isEmpty()) {
+            logger.info("Analyse de {} notes annotées avec une autre version du dictionnaire", notes.size());
+            BitSet famillesTrouvees = new BitSet(automate.getNombreFamilles());
+            for (String note : notes) {
+                if (note != null) {
+                    automate.rechercher(note, famillesTrouvees);
                 }
             }
+            for (int famille = famillesTrouvees.nextSetBit(0); famille >= 0; famille = famillesTrouvees.nextSetBit(famille + 1)) {
+                familles.add(automate.getFamille(famille));
+            }
         }
-        logger.info("Nombre de termes déclencheurs trouvés: {}", ExpressionsContenus.size());
-        return ExpressionsContenus.size();
+        return familles.size();
+    }
+
+    /**
+     * Renvoie la version du dictionnaire des termes déclencheurs actuellement publié.
+     *
+     * @return String La version du dictionnaire.
+     */
+    @Override
+    public String getVersionDictionnaire() {
+        return dictionnaire.getAutomate().getVersion();
     }
 
     /**
-     * Calcule l'âge du patient à partir de sa date de naissance.
+     * Calcule l'âge du patient à partir de sa date de naissance, en temps constant.
+     * L'âge augmente le jour de l'anniversaire ; la date du jour est donnée par l'horloge du microservice.
      *
      * @param dateNaissance La date de naissance du patient.
      * @return int L'âge du patient en années.
      */
     @Override
     public int calculAge(Date dateNaissance) {
-        logger.info("Calcul de l'âge pour la date de naissance: {}", dateNaissance);
-        // calcul de l'age
-        // récupération date actuelle
-        Calendar calendar = new GregorianCalendar();
-        calendar.setTime(new Date());
-        String formatDate = "dd/MM/yyyy";
-        SimpleDateFormat sdf = new SimpleDateFormat(formatDate);
-        String dateActuelle = sdf.format(calendar.getTime());
-
-        Calendar calStr1 = Calendar.getInstance();
-        Calendar calStr2 = Calendar.getInstance();
-
-        Date date2;
-        int nbMois=0;
-        int nbAnnees=0;
-
-        try {
-            date2 = new SimpleDateFormat("dd/MM/yyyy").parse(dateActuelle);
-        } catch (ParseException e) {
-            return -999;
-        }
-        calStr1.setTime(dateNaissance);
-        calStr2.setTime(date2);
-
-        while (calStr1.before(calStr2)) {
-            calStr1.add(GregorianCalendar.MONTH, 1);
-            if (calStr1.before(calStr2) || calStr1.equals(calStr2)) {
-                nbMois++;
-            }
+        LocalDate naissance = Instant.ofEpochMilli(dateNaissance.getTime()).atZone(clock.getZone()).toLocalDate();
+        LocalDate aujourdhui = LocalDate.now(clock);
+        int age = aujourdhui.getYear() - naissance.getYear();
+        if (aujourdhui.getMonthValue() < naissance.getMonthValue()
+                || (aujourdhui.getMonthValue() == naissance.getMonthValue() && aujourdhui.getDayOfMonth() < naissance.getDayOfMonth())) {
+            age--;
         }
-        nbAnnees = (nbMois / 12);
-        logger.info("Âge calculé: {}", nbAnnees);
-        return nbAnnees;
+        return age;
     }
 }
@@ -0,0 +1,276 @@
+package com.mbackdiabete.microservicebackdiabete.service.impl;
+
+import com.mbackdiabete.microservicebackdiabete.configuration.CustomProperties;
+import com.mbackdiabete.microservicebackdiabete.exceptions.DelaiDepasseException;
+import com.mbackdiabete.microservicebackdiabete.exceptions.PatientNotFoundException;
+import com.mbackdiabete.microservicebackdiabete.exceptions.ServiceDistantException;
+import com.mbackdiabete.microservicebackdiabete.exceptions.ServiceIndisponibleException;
+import com.mbackdiabete.microservicebackdiabete.model.dto.FamillesTermesDTO;
+import com.mbackdiabete.microservicebackdiabete.model.dto.PatientInfoDTO;
+import com.mbackdiabete.microservicebackdiabete.service.DonneesPatientService;
+import com.mcommun.microservicecommun.configuration.Echeance;
+import com.mcommun.microservicecommun.configuration.ProtectionAppelsInterceptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Implémentation de l'accès aux données des patients via le gateway.
+ * Chaque appel est exécuté sur un pool de threads borné, avec un délai maximal de réponse réduit au temps restant
+ * avant l'échéance de la requête, et ses erreurs sont converties en exceptions portant le code HTTP à renvoyer au client.
+ *
+ * @author Mickael Hayé
+ * @version 1.0
+ */
+@Service
+public class DonneesPatientServiceImpl implements DonneesPatientService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DonneesPatientServiceImpl.class);
+    private final RestTemplate restTemplate;
+    private final CustomProperties prop;
+    private final ExecutorService executor;
+
+    /**
+     * Constructeur pour injecter les dépendances nécessaires au service.
+     *
+     * @param restTemplate     Le RestTemplate utilisé pour les appels HTTP.
+     * @param prop             Les propriétés personnalisées du microservice.
+     * @param executor         Le pool de threads dédié aux appels distants.
+     */
+    public DonneesPatientServiceImpl(RestTemplate restTemplate, CustomProperties prop, @Qualifier("appelsDistantsExecutor") ExecutorService executor) {
+        this.restTemplate = restTemplate;
+        this.prop = prop;
+        this.executor = executor;
+    }
+
+    /**
+     * Récupère la date de naissance et le genre d'un patient auprès du microservice back-patient.
+     *
+     * @param id         L'identifiant unique du patient.
+     * @param authHeader L'en-tête d'autorisation à transmettre.
+     * @return CompletableFuture des informations du patient.
+     */
+    @Override
+    public CompletableFuture<PatientInfoDTO> getInfoDiabete(String id, String authHeader) {
+        return appelAsynchrone("patient", id, () -> {
+            logger.info("Récupération de la date d'anniversaire et du genre pour le patient avec l'ID: {}", id);
+            String url = prop.getGatewayPath() + "/patientBack/getInfoDiabete/" + id;
+            ResponseEntity<PatientInfoDTO> responseDate = restTemplate.exchange(url, HttpMethod.GET, entite(authHeader), PatientInfoDTO.class);
+            if (responseDate.getBody() == null) {
+                throw new PatientNotFoundException("Le patient correspondant à l'id " + id + " n'existe pas");
+            }
+            return responseDate.getBody();
+        });
+    }
+
+    /**
+     * Récupère le texte des notes d'un patient auprès du microservice back-note.
+     *
+     * @param id         L'identifiant unique du patient.
+     * @param authHeader L'en-tête d'autorisation à transmettre.
+     * @return CompletableFuture de la liste des notes du patient.
+     */
+    @Override
+    public CompletableFuture<List<String>> getListeNotes(String id, String authHeader) {
+        return appelAsynchrone("note", id, () -> {
+            logger.info("Récupération de la liste de notes pour le patient avec l'ID: {}", id);
+            String url = prop.getGatewayPath() + "/noteBack/getListeNotes/" + id;
+            ResponseEntity<String[]> responseNotes = restTemplate.exchange(url, HttpMethod.GET, entite(authHeader), String[].class);
+            return responseNotes.getBody() == null ? List.of() : Arrays.asList(responseNotes.getBody());
+        });
+    }
+
+    /**
+     * Récupère la fiche complète d'un patient auprès du microservice back-patient.
+     *
+     * @param id         L'identifiant unique du patient.
+     * @param authHeader L'en-tête d'autorisation à transmettre.
+     * @return CompletableFuture de la fiche du patient.
+     */
+    @Override
+    public CompletableFuture<Map<String, Object>> getPatient(String id, String authHeader) {
+        return appelAsynchrone("patient", id, () -> {
+            logger.info("Récupération de la fiche du patient avec l'ID: {}", id);
+            String url = prop.getGatewayPath() + "/patientBack/updateForm/" + id;
+            ResponseEntity<Map<String, Object>> reponse = restTemplate.exchange(url, HttpMethod.GET, entite(authHeader),
+                    new ParameterizedTypeReference<Map<String, Object>>() {
+                    });
+            if (reponse.getBody() == null) {
+                throw new PatientNotFoundException("Le patient correspondant à l'id " + id + " n'existe pas");
+            }
+            return reponse.getBody();
+        });
+    }
+
+    /**
+     * Récupère les notes complètes d'un patient auprès du microservice back-note.
+     *
+     * @param id         L'identifiant unique du patient.
+     * @param authHeader L'en-tête d'autorisation à transmettre.
+     * @return CompletableFuture de la liste des notes du patient.
+     */
+    @Override
+    public CompletableFuture<List<Map<String, Object>>> getNotesPatient(String id, String authHeader) {
+        return appelAsynchrone("note", id, () -> {
+            logger.info("Récupération des notes pour le patient avec l'ID: {}", id);
+            String url = prop.getGatewayPath() + "/noteBack/list/" + id;
+            ResponseEntity<List<Map<String, Object>>> reponse = restTemplate.exchange(url, HttpMethod.GET, entite(authHeader),
+                    new ParameterizedTypeReference<List<Map<String, Object>>>() {
+                    });
+            return reponse.getBody() == null ? List.of() : reponse.getBody();
+        });
+    }
+
+    /**
+     * Récupère les familles de termes déclencheurs détectées à l'écriture des notes d'un patient.
+     *
+     * @param id         L'identifiant unique du patient.
+     * @param version    La version du dictionnaire des termes de ce microservice.
+     * @param authHeader L'en-tête d'autorisation à transmettre.
+     * @return CompletableFuture des familles de termes distinctes des notes annotées avec cette version, et du texte des autres notes.
+     */
+    @Override
+    public CompletableFuture<FamillesTermesDTO> getFamillesTermes(String id, String version, String authHeader) {
+        return appelAsynchrone("note", id, () -> {
+            logger.info("Récupération des familles de termes déclencheurs pour le patient avec l'ID: {}", id);
+            String url = prop.getGatewayPath() + "/noteBack/triggerFamilies/" + id + "?version=" + version;
+            ResponseEntity<FamillesTermesDTO> responseFamilles = restTemplate.exchange(url, HttpMethod.GET, entite(authHeader), FamillesTermesDTO.class);
+            return responseFamilles.getBody() == null ? new FamillesTermesDTO(List.of(), List.of()) : responseFamilles.getBody();
+        });
+    }
+
+    /**
+     * Récupère en un seul appel la date de naissance et le genre de plusieurs patients auprès du microservice back-patient.
+     *
+     * @param ids        Les identifiants des patients.
+     * @param authHeader L'en-tête d'autorisation à transmettre.
+     * @return CompletableFuture de la map identifiant → informations du patient.
+     */
+    @Override
+    public CompletableFuture<Map<String, PatientInfoDTO>> getInfoDiabeteLot(List<String> ids, String authHeader) {
+        return appelAsynchrone("patient", ids.size() + " patients", () -> {
+            logger.info("Récupération groupée de la date d'anniversaire et du genre pour {} patients", ids.size());
+            String url = prop.getGatewayPath() + "/patientBack/getInfoDiabete/batch";
+            ResponseEntity<Map<String, PatientInfoDTO>> reponse = restTemplate.exchange(url, HttpMethod.POST, entite(ids, authHeader),
+                    new ParameterizedTypeReference<Map<String, PatientInfoDTO>>() {
+                    });
+            return reponse.getBody() == null ? Map.of() : reponse.getBody();
+        });
+    }
+
+    /**
+     * Récupère une page des informations diabète de tous les patients, triés par identifiant.
+     *
+     * @param apresId    L'identifiant du dernier patient de la page précédente.
+     * @param taille     Le nombre maximal de patients de la page.
+     * @param authHeader L'en-tête d'autorisation à transmettre.
+     * @return CompletableFuture de la map ordonnée identifiant → informations du patient.
+     */
+    @Override
+    public CompletableFuture<Map<String, PatientInfoDTO>> getInfoDiabetePage(int apresId, int taille, String authHeader) {
+        return appelAsynchrone("patient", "après " + apresId, () -> {
+            logger.info("Récupération d'une page de {} patients après l'ID: {}", taille, apresId);
+            String url = prop.getGatewayPath() + "/patientBack/getInfoDiabete/page?apresId=" + apresId + "&taille=" + taille;
+            ResponseEntity<LinkedHashMap<String, PatientInfoDTO>> reponse = restTemplate.exchange(url, HttpMethod.GET, entite(authHeader),
+                    new ParameterizedTypeReference<LinkedHashMap<String, PatientInfoDTO>>() {
+                    });
+            return reponse.getBody() == null ? Map.of() : reponse.getBody();
+        });
+    }
+
+    /**
+     * Récupère en un seul appel le texte des notes de plusieurs patients auprès du microservice back-note.
+     *
+     * @param ids        Les identifiants des patients.
+     * @param authHeader L'en-tête d'autorisation à transmettre.
+     * @return CompletableFuture de la map identifiant → liste des notes du patient.
+     */
+    @Override
+    public CompletableFuture<Map<String, List<String>>> getListeNotesLot(List<String> ids, String authHeader) {
+        return appelAsynchrone("note", ids.size() + " patients", () -> {
+            logger.info("Récupération groupée des notes pour {} patients", ids.size());
+            String url = prop.getGatewayPath() + "/noteBack/getListeNotes/batch";
+            ResponseEntity<Map<String, List<String>>> reponse = restTemplate.exchange(url, HttpMethod.POST, entite(ids, authHeader),
+                    new ParameterizedTypeReference<Map<String, List<String>>>() {
+                    });
+            return reponse.getBody() == null ? Map.of() : reponse.getBody();
+        });
+    }
+
+    private <T> CompletableFuture<T> appelAsynchrone(String service, String id, Supplier<T> appel) {
+        // L'échéance de la requête est transmise au thread de l'appel et borne le délai d'attente
+        Long echeance = Echeance.courante();
+        long delai = echeance == null ? prop.getAppelsDistantsTimeout() : Math.max(0, Math.min(prop.getAppelsDistantsTimeout(), Echeance.restante(echeance)));
+        CompletableFuture<T> future;
+        try {
+            future = CompletableFuture.supplyAsync(() -> Echeance.executer(echeance, appel), executor);
+        } catch (RejectedExecutionException e) {
+            // Pool et file saturés : l'appel est refusé plutôt qu'exécuté sans limite par le thread de la requête
+            logger.error("Pool des appels distants saturé, appel au microservice {} refusé pour le patient avec l'ID: {}", service, id);
+            return CompletableFuture.failedFuture(new ServiceIndisponibleException("Le microservice " + service + " est indisponible", e));
+        }
+        return future.orTimeout(delai, TimeUnit.MILLISECONDS)
+                .exceptionally(e -> {
+                    throw convertir(service, id, e);
+                });
+    }
+
+    private static HttpEntity<String> entite(String authHeader) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", authHeader);
+        return new HttpEntity<>("body", headers);
+    }
+
+    private static HttpEntity<List<String>> entite(List<String> ids, String authHeader) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", authHeader);
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return new HttpEntity<>(ids, headers);
+    }
+
+    /**
+     * Convertit l'erreur d'un appel distant en exception portant le code HTTP à renvoyer.
+     */
+    private static RuntimeException convertir(String service, String id, Throwable erreur) {
+        Throwable cause = erreur instanceof CompletionException && erreur.getCause() != null ? erreur.getCause() : erreur;
+        if (cause instanceof PatientNotFoundException || cause instanceof ServiceDistantException || cause instanceof DelaiDepasseException
+                || cause instanceof ServiceIndisponibleException) {
+            return (RuntimeException) cause;
+        }
+        if (cause instanceof ProtectionAppelsInterceptor.AppelRefuseException) {
+            return new ServiceIndisponibleException("Le microservice " + service + " est indisponible", cause);
+        }
+        if (cause instanceof TimeoutException) {
+            logger.error("Délai dépassé lors de l'appel au microservice {} pour le patient avec l'ID: {}", service, id);
+            return new DelaiDepasseException("Le microservice " + service + " n'a pas répondu à temps");
+        }
+        if (cause instanceof HttpStatusCodeException httpErreur && httpErreur.getStatusCode().value() == HttpStatus.NOT_FOUND.value() && "patient".equals(service)) {
+            logger.error("Patient avec ID: {} non trouvé", id);
+            return new PatientNotFoundException("Le patient correspondant à l'id " + id + " n'existe pas");
+        }
+        logger.error("Erreur lors de l'appel au microservice {} pour le patient avec l'ID: {} : {}", service, id, cause.getMessage());
+        return new ServiceDistantException("Erreur lors de l'appel au microservice " + service, cause);
+    }
+}
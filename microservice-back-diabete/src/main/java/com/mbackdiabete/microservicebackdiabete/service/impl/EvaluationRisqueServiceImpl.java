@@ -0,0 +1,96 @@
+package com.mbackdiabete.microservicebackdiabete.service.impl;
+
+import com.mbackdiabete.microservicebackdiabete.model.dto.PatientInfoDTO;
+import com.mbackdiabete.microservicebackdiabete.service.CalculService;
+import com.mbackdiabete.microservicebackdiabete.service.DonneesPatientService;
+import com.mbackdiabete.microservicebackdiabete.service.EvaluationRisqueService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * Implémentation de l'évaluation groupée du risque de diabète.
+ * Les deux appels groupés vers les microservices patient et note sont lancés en parallèle ;
+ * le calcul, confié à CalculService, est ensuite réparti sur un pool fork-join dédié.
+ *
+ * @author Mickael Hayé
+ * @version 1.0
+ */
+@Service
+public class EvaluationRisqueServiceImpl implements EvaluationRisqueService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EvaluationRisqueServiceImpl.class);
+    private final DonneesPatientService donneesPatientService;
+    private final CalculService calculService;
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructeur pour injecter les dépendances nécessaires au service.
+     *
+     * @param donneesPatientService Le service d'accès aux données des patients des autres microservices.
+     * @param calculService         Le service de calcul du niveau de risque.
+     * @param pool                  Le pool fork-join dédié à l'évaluation du risque.
+     */
+    public EvaluationRisqueServiceImpl(DonneesPatientService donneesPatientService, CalculService calculService,
+                                       @Qualifier("evaluationRisquePool") ForkJoinPool pool) {
+        this.donneesPatientService = donneesPatientService;
+        this.calculService = calculService;
+        this.pool = pool;
+    }
+
+    /**
+     * Récupère les données d'un lot de patients et évalue le risque de diabète de chacun.
+     *
+     * @param ids        Les identifiants des patients du lot.
+     * @param authHeader L'en-tête d'autorisation à transmettre.
+     * @return CompletableFuture de la map identifiant → niveau de risque, dans l'ordre des identifiants.
+     */
+    @Override
+    public CompletableFuture<Map<String, String>> evaluerLot(List<String> ids, String authHeader) {
+        logger.info("Evaluation groupée du risque de diabète pour {} patients", ids.size());
+        CompletableFuture<Map<String, PatientInfoDTO>> patientsFuture = donneesPatientService.getInfoDiabeteLot(ids, authHeader);
+        CompletableFuture<Map<String, List<String>>> notesFuture = donneesPatientService.getListeNotesLot(ids, authHeader);
+        patientsFuture.whenComplete((patients, erreur) -> {
+            if (erreur != null) {
+                notesFuture.cancel(true);
+            }
+        });
+        return patientsFuture.thenCombineAsync(notesFuture, (patients, notes) -> evaluer(ids, patients, notes), pool);
+    }
+
+    /**
+     * Evalue le risque de diabète de patients dont les informations sont déjà connues.
+     *
+     * @param patients   Les informations des patients, par identifiant.
+     * @param authHeader L'en-tête d'autorisation à transmettre.
+     * @return CompletableFuture de la map identifiant → niveau de risque, dans l'ordre des patients.
+     */
+    @Override
+    public CompletableFuture<Map<String, String>> evaluerPatients(Map<String, PatientInfoDTO> patients, String authHeader) {
+        List<String> ids = List.copyOf(patients.keySet());
+        return donneesPatientService.getListeNotesLot(ids, authHeader)
+                .thenApplyAsync(notes -> evaluer(ids, patients, notes), pool);
+    }
+
+    /**
+     * Calcule le risque de chaque patient connu. Exécuté sur un thread du pool : le flux parallèle se répartit sur ce même pool.
+     */
+    private Map<String, String> evaluer(List<String> ids, Map<String, PatientInfoDTO> patients, Map<String, List<String>> notes) {
+        return ids.parallelStream()
+                .filter(patients::containsKey)
+                .collect(Collectors.toMap(id -> id, id -> evaluer(patients.get(id), notes.getOrDefault(id, List.of())),
+                        (premier, second) -> premier, LinkedHashMap::new));
+    }
+
+    private String evaluer(PatientInfoDTO patient, List<String> notes) {
+        return calculService.getNiveauxRisque(patient.getDateDeNaissance(), patient.getGenre(), notes);
+    }
+}
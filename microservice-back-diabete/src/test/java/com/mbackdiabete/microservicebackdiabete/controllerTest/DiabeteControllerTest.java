@@ -1,32 +1,79 @@
 package com.mbackdiabete.microservicebackdiabete.controllerTest;
 
+import com.mbackdiabete.microservicebackdiabete.configuration.CustomProperties;
+import com.mbackdiabete.microservicebackdiabete.model.dto.FamillesTermesDTO;
 import com.mbackdiabete.microservicebackdiabete.model.dto.PatientInfoDTO;
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
 import com.mbackdiabete.microservicebackdiabete.service.CalculService;
+import com.mcommun.microservicecommun.configuration.Echeance;
+import io.micrometer.tracing.Tracer;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.GregorianCalendar;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
@@ -36,8 +83,9 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * @author Mickael Hayé
  * @version 1.0
  */
-@SpringBootTest
+@SpringBootTest(properties = "management.tracing.enabled=true")
 @AutoConfigureMockMvc
+@AutoConfigureObservability
 public class DiabeteControllerTest {
     /**
      * Un utilisateur de test pour les besoins d'authentification.
@@ -50,9 +98,32 @@ public class DiabeteControllerTest {
     @Autowired
     private CalculService calculService;
 
+    @Autowired
+    private CustomProperties prop;
+
     @MockBean
     private RestTemplate restTemplate;
 
+    @Autowired
+    private Tracer tracer;
+
+    @Autowired
+    private SdkTracerProvider tracerProvider;
+
+    @Autowired
+    private InMemorySpanExporter spansExportes;
+
+    /**
+     * Exporteur de traces en mémoire, remplaçant le collecteur pendant les tests.
+     */
+    @TestConfiguration
+    static class TracesConfiguration {
+        @Bean
+        InMemorySpanExporter spansExportes() {
+            return InMemorySpanExporter.create();
+        }
+    }
+
     @BeforeEach
     public void setup() {
         userTest.setName("user1");
@@ -77,12 +148,383 @@ public class DiabeteControllerTest {
         patientInfoDTO.setGenre("H");
         when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class), eq(PatientInfoDTO.class))).thenReturn(new ResponseEntity<>(patientInfoDTO, HttpStatus.OK));
 
-        //Mock de restTemplate.exchange(url, HttpMethod.GET, entity, String[].class);
-        String[] experesponseNotes = {"anormal", "fumeur", "poids"};
-        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class), eq(String[].class))).thenReturn(new ResponseEntity<>(experesponseNotes, HttpStatus.OK));
+        //Mock de restTemplate.exchange(url, HttpMethod.GET, entity, FamillesTermesDTO.class);
+        FamillesTermesDTO familles = new FamillesTermesDTO(List.of("anormal", "fumeur"), List.of());
+        when(restTemplate.exchange(contains("/noteBack/triggerFamilies/1234?version=" + calculService.getVersionDictionnaire()), eq(HttpMethod.GET), any(HttpEntity.class), eq(FamillesTermesDTO.class))).thenReturn(new ResponseEntity<>(familles, HttpStatus.OK));
 
 
         mockMvc.perform(get("/diabeteBack/risque/1234").with(user("user1")).header("Authorization", "")).andExpect(status().isOk()).andExpect(MockMvcResultMatchers.content().string(containsString("Borderline"))).andDo(print());
+    }
+
+    /**
+     * Teste la méthode 'risqueDiabete' du contrôleur lorsque des notes ont été annotées avec une autre version du dictionnaire.
+     * Vérifie que ces notes sont analysées à partir de leur texte, en plus des familles précalculées.
+     *
+     * @throws Exception si le test échoue
+     */
+    @Test
+    public void risqueDiabeteAutreVersionDictionnaire() throws Exception {
+        Calendar calendar = new GregorianCalendar();
+        calendar.setTime(new Date());
+        calendar.add(Calendar.YEAR, -31);
+        when(restTemplate.exchange(contains("/getInfoDiabete/1235"), eq(HttpMethod.GET), any(HttpEntity.class), eq(PatientInfoDTO.class))).thenReturn(new ResponseEntity<>(new PatientInfoDTO(calendar.getTime(), "H"), HttpStatus.OK));
+        FamillesTermesDTO familles = new FamillesTermesDTO(List.of("anormal,anormale,anormales"), List.of("Fumeur, anormal", "Taille, poids, cholestérol, vertiges"));
+        when(restTemplate.exchange(contains("/noteBack/triggerFamilies/1235"), eq(HttpMethod.GET), any(HttpEntity.class), eq(FamillesTermesDTO.class))).thenReturn(new ResponseEntity<>(familles, HttpStatus.OK));
+
+        mockMvc.perform(get("/diabeteBack/risque/1235").with(user("user1")).header("Authorization", "")).andExpect(status().isOk()).andExpect(MockMvcResultMatchers.content().string("In Danger"));
+
+    }
+
+    /**
+     * Teste la méthode 'depistage' du contrôleur.
+     * Vérifie que le diabète figure parmi les pathologies dépistées.
+     *
+     * @throws Exception si le test échoue
+     */
+    @Test
+    public void depistage() throws Exception {
+        Calendar calendar = new GregorianCalendar();
+        calendar.setTime(new Date());
+        calendar.add(Calendar.YEAR, -31);
+
+        PatientInfoDTO patientInfoDTO = new PatientInfoDTO();
+        patientInfoDTO.setDateDeNaissance(calendar.getTime());
+        patientInfoDTO.setGenre("F");
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class), eq(PatientInfoDTO.class))).thenReturn(new ResponseEntity<>(patientInfoDTO, HttpStatus.OK));
+        String[] experesponseNotes = {"anormal", "fumeur", "poids", "taille", "cholestérol", "vertiges"};
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class), eq(String[].class))).thenReturn(new ResponseEntity<>(experesponseNotes, HttpStatus.OK));
+
+        mockMvc.perform(get("/diabeteBack/depistage/4321").with(user("user1")).header("Authorization", ""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.diabete").value("In Danger"));
+    }
+
+    /**
+     * Teste la méthode 'fichePatient' du contrôleur.
+     * Vérifie que la fiche et les notes ne sont récupérées qu'une fois et que le risque en est déduit.
+     *
+     * @throws Exception si le test échoue
+     */
+    @Test
+    public void fichePatient() throws Exception {
+        Map<String, Object> patient = new LinkedHashMap<>();
+        patient.put("id", "77");
+        patient.put("nom", "TestBorderline");
+        patient.put("dateDeNaissance", LocalDate.now().minusYears(31).toString());
+        patient.put("genre", "H");
+        when(restTemplate.exchange(contains("/patientBack/updateForm/77"), eq(HttpMethod.GET), any(HttpEntity.class), any(ParameterizedTypeReference.class))).thenReturn(new ResponseEntity<>(patient, HttpStatus.OK));
+        List<Map<String, Object>> notes = List.of(Map.of("id", "a", "idPatient", "77", "note", "Patient fumeur, cholestérol anormal"));
+        when(restTemplate.exchange(contains("/noteBack/list/77"), eq(HttpMethod.GET), any(HttpEntity.class), any(ParameterizedTypeReference.class))).thenReturn(new ResponseEntity<>(notes, HttpStatus.OK));
+
+        mockMvc.perform(get("/diabeteBack/fichePatient/77").with(user("user1")).header("Authorization", "")).andExpect(status().isOk())
+                .andExpect(jsonPath("$.patient.nom").value("TestBorderline"))
+                .andExpect(jsonPath("$.notes[0].note").value("Patient fumeur, cholestérol anormal"))
+                .andExpect(jsonPath("$.risque").value("Borderline"));
+        verify(restTemplate, times(1)).exchange(contains("/patientBack/updateForm/77"), eq(HttpMethod.GET), any(HttpEntity.class), any(ParameterizedTypeReference.class));
+        verify(restTemplate, times(0)).exchange(contains("/getInfoDiabete/77"), eq(HttpMethod.GET), any(HttpEntity.class), eq(PatientInfoDTO.class));
+    }
+
+    /**
+     * Teste la méthode 'fichePatient' du contrôleur lorsque le microservice back-note est trop lent pour l'échéance reçue.
+     * Vérifie que la fiche est renvoyée sans attendre les notes, sans notes ni risque.
+     *
+     * @throws Exception si le test échoue
+     */
+    @Test
+    public void fichePatientPartielle() throws Exception {
+        Map<String, Object> patient = new LinkedHashMap<>();
+        patient.put("id", "78");
+        patient.put("nom", "TestPartiel");
+        patient.put("dateDeNaissance", LocalDate.now().minusYears(31).toString());
+        patient.put("genre", "F");
+        when(restTemplate.exchange(contains("/patientBack/updateForm/78"), eq(HttpMethod.GET), any(HttpEntity.class), any(ParameterizedTypeReference.class))).thenReturn(new ResponseEntity<>(patient, HttpStatus.OK));
+        when(restTemplate.exchange(contains("/noteBack/list/78"), eq(HttpMethod.GET), any(HttpEntity.class), any(ParameterizedTypeReference.class))).thenAnswer(invocation -> {
+            Thread.sleep(2000);
+            return new ResponseEntity<>(List.of(), HttpStatus.OK);
+        });
+
+        long debut = System.nanoTime();
+        mockMvc.perform(get("/diabeteBack/fichePatient/78").with(user("user1")).header("Authorization", "").header(Echeance.ENTETE, "300"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.patient.nom").value("TestPartiel"))
+                .andExpect(jsonPath("$.notes").doesNotExist())
+                .andExpect(jsonPath("$.risque").doesNotExist());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - debut) < 1500);
+    }
+
+    /**
+     * Teste le mapping des erreurs de la méthode 'risqueDiabete' lorsque l'un des microservices appelés échoue.
+     * Un patient inconnu renvoie 404, un microservice en erreur renvoie 502.
+     *
+     * @throws Exception si le test échoue
+     */
+    @Test
+    public void risqueDiabeteErreurs() throws Exception {
+        FamillesTermesDTO familles = new FamillesTermesDTO(List.of("anormal"), List.of());
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class), eq(FamillesTermesDTO.class))).thenReturn(new ResponseEntity<>(familles, HttpStatus.OK));
+
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class), eq(PatientInfoDTO.class))).thenThrow(new HttpClientErrorException(HttpStatus.NOT_FOUND));
+        mockMvc.perform(get("/diabeteBack/risque/999").with(user("user1")).header("Authorization", "")).andExpect(status().isNotFound());
+
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class), eq(PatientInfoDTO.class))).thenThrow(new ResourceAccessException("Connection refused"));
+        mockMvc.perform(get("/diabeteBack/risque/5678").with(user("user1")).header("Authorization", "")).andExpect(status().isBadGateway());
+    }
 
+    /**
+     * Teste la méthode 'risqueDiabeteLot' du contrôleur.
+     * Simule les appels groupés RestTemplate et vérifie la réponse, sans le patient inconnu.
+     *
+     * @throws Exception si le test échoue
+     */
+    @Test
+    public void risqueDiabeteLot() throws Exception {
+        Calendar calendar = new GregorianCalendar();
+        calendar.setTime(new Date());
+        calendar.add(Calendar.YEAR, -31);
+        Map<String, PatientInfoDTO> patients = Map.of("1", new PatientInfoDTO(calendar.getTime(), "H"), "2", new PatientInfoDTO(calendar.getTime(), "F"));
+        when(restTemplate.exchange(contains("/patientBack/getInfoDiabete/batch"), eq(HttpMethod.POST), any(HttpEntity.class), any(ParameterizedTypeReference.class))).thenReturn(new ResponseEntity<>(patients, HttpStatus.OK));
+        Map<String, List<String>> notes = Map.of("1", List.of("anormal", "fumeur", "poids"), "2", List.of(), "3", List.of());
+        when(restTemplate.exchange(contains("/noteBack/getListeNotes/batch"), eq(HttpMethod.POST), any(HttpEntity.class), any(ParameterizedTypeReference.class))).thenReturn(new ResponseEntity<>(notes, HttpStatus.OK));
+
+        mockMvc.perform(post("/diabeteBack/risque/batch").with(user("user1")).header("Authorization", "").contentType(MediaType.APPLICATION_JSON).content("[\"1\",\"2\",\"3\",\"1\"]")).andExpect(status().isOk()).andExpect(jsonPath("$.1").value("Borderline")).andExpect(jsonPath("$.2").value("None")).andExpect(jsonPath("$.3").doesNotExist());
+    }
+
+    /**
+     * Teste la méthode 'risqueDiabeteLot' du contrôleur avec trop d'identifiants.
+     * Vérifie que la requête est refusée (400) sans appeler les autres microservices.
+     *
+     * @throws Exception si le test échoue
+     */
+    @Test
+    public void risqueDiabeteLotTropGrand() throws Exception {
+        String ids = IntStream.rangeClosed(1, 10001).mapToObj(id -> "\"" + id + "\"").collect(Collectors.joining(",", "[", "]"));
+
+        mockMvc.perform(post("/diabeteBack/risque/batch").with(user("user1")).header("Authorization", "").contentType(MediaType.APPLICATION_JSON).content(ids)).andExpect(status().isBadRequest());
+        verify(restTemplate, never()).exchange(contains("/getInfoDiabete/batch"), eq(HttpMethod.POST), any(HttpEntity.class), any(ParameterizedTypeReference.class));
+    }
+
+    /**
+     * Teste la méthode 'risqueDiabeteScan' du contrôleur.
+     * Simule deux pages de patients, la première plus courte que demandé, puis une page vide,
+     * et vérifie qu'une ligne NDJSON est écrite par patient.
+     *
+     * @throws Exception si le test échoue
+     */
+    @Test
+    public void risqueDiabeteScan() throws Exception {
+        Calendar calendar = new GregorianCalendar();
+        calendar.setTime(new Date());
+        calendar.add(Calendar.YEAR, -31);
+        Map<String, PatientInfoDTO> premierePage = new LinkedHashMap<>();
+        for (int id = 1; id <= 300; id++) {
+            premierePage.put(String.valueOf(id), new PatientInfoDTO(calendar.getTime(), "F"));
+        }
+        Map<String, PatientInfoDTO> dernierePage = Map.of("301", new PatientInfoDTO(calendar.getTime(), "H"));
+        when(restTemplate.exchange(contains("apresId=0&"), eq(HttpMethod.GET), any(HttpEntity.class), any(ParameterizedTypeReference.class))).thenReturn(new ResponseEntity<>(premierePage, HttpStatus.OK));
+        when(restTemplate.exchange(contains("apresId=300&"), eq(HttpMethod.GET), any(HttpEntity.class), any(ParameterizedTypeReference.class))).thenReturn(new ResponseEntity<>(dernierePage, HttpStatus.OK));
+        when(restTemplate.exchange(contains("apresId=301&"), eq(HttpMethod.GET), any(HttpEntity.class), any(ParameterizedTypeReference.class))).thenReturn(new ResponseEntity<>(Map.of(), HttpStatus.OK));
+        Map<String, List<String>> notes = Map.of("301", List.of("anormal", "fumeur", "poids"));
+        when(restTemplate.exchange(contains("/noteBack/getListeNotes/batch"), eq(HttpMethod.POST), any(HttpEntity.class), any(ParameterizedTypeReference.class))).thenReturn(new ResponseEntity<>(notes, HttpStatus.OK));
+
+        MvcResult mvcResult = mockMvc.perform(get("/diabeteBack/risque/scan").with(user("user1")).header("Authorization", "")).andExpect(request().asyncStarted()).andReturn();
+        String[] lignes = mockMvc.perform(asyncDispatch(mvcResult)).andExpect(status().isOk()).andReturn().getResponse().getContentAsString().split("\n");
+        assertEquals(301, lignes.length);
+        assertEquals("{\"id\":\"301\",\"risk\":\"Borderline\"}", lignes[300]);
+    }
+
+    /**
+     * Teste que le parcours n'est pas mis en mémoire par le filtre ETag : la première page parvient au client
+     * alors que la page suivante est encore attendue, et la réponse n'a pas d'ETag.
+     *
+     * @throws Exception si le test échoue
+     */
+    @Test
+    public void risqueDiabeteScanNonMisEnMemoire() throws Exception {
+        Calendar calendar = new GregorianCalendar();
+        calendar.setTime(new Date());
+        calendar.add(Calendar.YEAR, -31);
+        Map<String, PatientInfoDTO> premierePage = new LinkedHashMap<>();
+        for (int id = 1; id <= 10; id++) {
+            premierePage.put(String.valueOf(id), new PatientInfoDTO(calendar.getTime(), "F"));
+        }
+        CountDownLatch pageSuivante = new CountDownLatch(1);
+        when(restTemplate.exchange(contains("apresId=0&"), eq(HttpMethod.GET), any(HttpEntity.class), any(ParameterizedTypeReference.class))).thenReturn(new ResponseEntity<>(premierePage, HttpStatus.OK));
+        when(restTemplate.exchange(contains("apresId=10&"), eq(HttpMethod.GET), any(HttpEntity.class), any(ParameterizedTypeReference.class))).thenAnswer(invocation -> {
+            pageSuivante.await(10, TimeUnit.SECONDS);
+            return new ResponseEntity<>(Map.of(), HttpStatus.OK);
+        });
+        when(restTemplate.exchange(contains("/noteBack/getListeNotes/batch"), eq(HttpMethod.POST), any(HttpEntity.class), any(ParameterizedTypeReference.class))).thenReturn(new ResponseEntity<>(Map.of(), HttpStatus.OK));
+
+        MvcResult mvcResult = mockMvc.perform(get("/diabeteBack/risque/scan").with(user("user1")).header("Authorization", "")).andExpect(request().asyncStarted()).andReturn();
+        try {
+            long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (mvcResult.getResponse().getContentAsString().split("\n").length < 10 && System.nanoTime() < limite) {
+                Thread.sleep(20);
+            }
+            assertEquals(10, mvcResult.getResponse().getContentAsString().split("\n").length);
+        } finally {
+            pageSuivante.countDown();
+        }
+        MvcResult resultat = mockMvc.perform(asyncDispatch(mvcResult)).andExpect(status().isOk()).andReturn();
+        assertNull(resultat.getResponse().getHeader(HttpHeaders.ETAG));
+    }
+
+    /**
+     * Teste le cache des niveaux de risque.
+     * Vérifie qu'un second appel ne sollicite pas les autres microservices, puis qu'une invalidation force un nouveau calcul.
+     *
+     * @throws Exception si le test échoue
+     */
+    @Test
+    public void risqueDiabeteCache() throws Exception {
+        Calendar calendar = new GregorianCalendar();
+        calendar.setTime(new Date());
+        calendar.add(Calendar.YEAR, -31);
+        when(restTemplate.exchange(contains("/getInfoDiabete/42"), eq(HttpMethod.GET), any(HttpEntity.class), eq(PatientInfoDTO.class))).thenReturn(new ResponseEntity<>(new PatientInfoDTO(calendar.getTime(), "H"), HttpStatus.OK));
+        when(restTemplate.exchange(contains("/triggerFamilies/42"), eq(HttpMethod.GET), any(HttpEntity.class), eq(FamillesTermesDTO.class))).thenReturn(new ResponseEntity<>(new FamillesTermesDTO(List.of("anormal", "fumeur"), List.of()), HttpStatus.OK));
+
+        mockMvc.perform(get("/diabeteBack/risque/42").with(user("user1")).header("Authorization", "")).andExpect(status().isOk()).andExpect(MockMvcResultMatchers.content().string("Borderline"));
+        mockMvc.perform(get("/diabeteBack/risque/42").with(user("user1")).header("Authorization", "")).andExpect(status().isOk()).andExpect(MockMvcResultMatchers.content().string("Borderline"));
+        verify(restTemplate, times(1)).exchange(contains("/getInfoDiabete/42"), eq(HttpMethod.GET), any(HttpEntity.class), eq(PatientInfoDTO.class));
+
+        mockMvc.perform(delete("/diabeteBack/cache/42").with(user("user1"))).andExpect(status().isOk());
+        mockMvc.perform(get("/diabeteBack/risque/42").with(user("user1")).header("Authorization", "")).andExpect(status().isOk());
+        verify(restTemplate, times(2)).exchange(contains("/getInfoDiabete/42"), eq(HttpMethod.GET), any(HttpEntity.class), eq(PatientInfoDTO.class));
+
+        mockMvc.perform(get("/diabeteBack/cache/stats").with(user("user1"))).andExpect(status().isOk()).andExpect(jsonPath("$.hits").isNumber()).andExpect(jsonPath("$.misses").isNumber());
+    }
+
+    /**
+     * Teste l'ETag des niveaux de risque.
+     * Vérifie que la réponse porte un ETag fort, et qu'une requête présentant cet ETag reçoit une réponse 304 sans corps.
+     *
+     * @throws Exception si le test échoue
+     */
+    @Test
+    public void risqueDiabeteEtag() throws Exception {
+        Calendar calendar = new GregorianCalendar();
+        calendar.setTime(new Date());
+        calendar.add(Calendar.YEAR, -31);
+        when(restTemplate.exchange(contains("/getInfoDiabete/77"), eq(HttpMethod.GET), any(HttpEntity.class), eq(PatientInfoDTO.class))).thenReturn(new ResponseEntity<>(new PatientInfoDTO(calendar.getTime(), "H"), HttpStatus.OK));
+        when(restTemplate.exchange(contains("/triggerFamilies/77"), eq(HttpMethod.GET), any(HttpEntity.class), eq(FamillesTermesDTO.class))).thenReturn(new ResponseEntity<>(new FamillesTermesDTO(List.of("anormal", "fumeur"), List.of()), HttpStatus.OK));
+
+        MvcResult mvcResult = mockMvc.perform(get("/diabeteBack/risque/77").with(user("user1")).header("Authorization", "")).andExpect(status().isOk()).andReturn();
+        String etag = mvcResult.getResponse().getHeader("ETag");
+        assertTrue(etag != null && etag.startsWith("\""));
+
+        mockMvc.perform(get("/diabeteBack/risque/77").with(user("user1")).header("Authorization", "").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(MockMvcResultMatchers.content().string(""));
+    }
+
+    /**
+     * Teste la méthode 'statistiquesPoolHttp' du contrôleur.
+     *
+     * @throws Exception si le test échoue
+     */
+    @Test
+    public void statistiquesPoolHttp() throws Exception {
+        mockMvc.perform(get("/diabeteBack/httpPool/stats").with(user("user1")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.leased").value(0))
+                .andExpect(jsonPath("$.pending").value(0))
+                .andExpect(jsonPath("$.max").value(200));
+    }
+
+    /**
+     * Teste l'export des métriques au format Prometheus.
+     * Vérifie que les requêtes sont mesurées par endpoint (étiquette uri), avec les seuils des objectifs de service.
+     *
+     * @throws Exception si le test échoue
+     */
+    @Test
+    public void metriquesPrometheus() throws Exception {
+        mockMvc.perform(get("/diabeteBack/httpPool/stats").with(user("user1"))).andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/prometheus").with(user("user1")))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.content().string(containsString("uri=\"/diabeteBack/httpPool/stats\"")))
+                .andExpect(MockMvcResultMatchers.content().string(containsString("http_server_requests_seconds_bucket{application=\"microservice-back-diabete\"")))
+                .andExpect(MockMvcResultMatchers.content().string(containsString("le=\"0.25\"")));
+        mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isUnauthorized());
+    }
+
+    /**
+     * Teste la propagation de la trace de la requête jusqu'aux appels distants, exécutés sur le pool dédié.
+     *
+     * @throws Exception si le test échoue
+     */
+    @Test
+    public void propagationTrace() throws Exception {
+        Map<String, String> tracesAppels = new ConcurrentHashMap<>();
+        when(restTemplate.exchange(contains("/getInfoDiabete/8888"), eq(HttpMethod.GET), any(HttpEntity.class), eq(PatientInfoDTO.class))).thenAnswer(appel -> {
+            tracesAppels.put("patient", tracer.currentSpan() == null ? "" : tracer.currentSpan().context().traceId());
+            return new ResponseEntity<>(new PatientInfoDTO(new Date(), "F"), HttpStatus.OK);
+        });
+        when(restTemplate.exchange(contains("/triggerFamilies/8888"), eq(HttpMethod.GET), any(HttpEntity.class), eq(FamillesTermesDTO.class))).thenAnswer(appel -> {
+            tracesAppels.put("note", tracer.currentSpan() == null ? "" : tracer.currentSpan().context().traceId());
+            return new ResponseEntity<>(new FamillesTermesDTO(List.of(), List.of()), HttpStatus.OK);
+        });
+
+        mockMvc.perform(get("/diabeteBack/risque/8888").with(user("user1")).header("Authorization", "")).andExpect(status().isOk());
+        tracerProvider.forceFlush().join(5, TimeUnit.SECONDS);
+
+        String traceRequete = spansExportes.getFinishedSpanItems().stream()
+                .filter(span -> "/diabeteBack/risque/{id}".equals(span.getAttributes().get(AttributeKey.stringKey("uri"))))
+                .map(SpanData::getTraceId)
+                .reduce((premiere, derniere) -> derniere)
+                .orElseThrow();
+        assertEquals(traceRequete, tracesAppels.get("patient"));
+        assertEquals(traceRequete, tracesAppels.get("note"));
+    }
+
+    /**
+     * Teste l'authentification par le jeton signé transmis par le gateway.
+     * Un jeton valide est accepté ; un jeton expiré, d'un autre émetteur ou signé avec un autre secret est refusé.
+     *
+     * @throws Exception si le test échoue
+     */
+    @Test
+    public void authentificationJeton() throws Exception {
+        Instant maintenant = Instant.now();
+        String jeton = jeton(prop.getJwtSecret(), "microservice-gateway", maintenant.plusSeconds(300));
+        mockMvc.perform(get("/diabeteBack/cache/stats").header("Authorization", "Bearer " + jeton)).andExpect(status().isOk());
+
+        String expire = jeton(prop.getJwtSecret(), "microservice-gateway", maintenant.minusSeconds(300));
+        mockMvc.perform(get("/diabeteBack/cache/stats").header("Authorization", "Bearer " + expire)).andExpect(status().isUnauthorized());
+
+        String autreEmetteur = jeton(prop.getJwtSecret(), "autre", maintenant.plusSeconds(300));
+        mockMvc.perform(get("/diabeteBack/cache/stats").header("Authorization", "Bearer " + autreEmetteur)).andExpect(status().isUnauthorized());
+
+        String autreSecret = jeton("un-autre-secret-de-signature-de-32-octets-au-moins", "microservice-gateway", maintenant.plusSeconds(300));
+        mockMvc.perform(get("/diabeteBack/cache/stats").header("Authorization", "Bearer " + autreSecret)).andExpect(status().isUnauthorized());
+    }
+
+    /**
+     * Teste l'authentification HTTP Basic au travers du cache des vérifications réussies.
+     *
+     * @throws Exception si le test échoue
+     */
+    @Test
+    public void authentificationBasic() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/diabeteBack/cache/stats").with(httpBasic("user1", "0241585915"))).andExpect(status().isOk());
+        }
+        mockMvc.perform(get("/diabeteBack/cache/stats").with(httpBasic("user1", "mauvais"))).andExpect(status().isUnauthorized());
+    }
+
+    /**
+     * Émet un jeton comme le gateway, signé avec le secret donné.
+     */
+    private static String jeton(String secret, String emetteur, Instant expiration) {
+        NimbusJwtEncoder encoder = new NimbusJwtEncoder(new ImmutableSecret<>(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256")));
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .issuer(emetteur)
+                .subject("user1")
+                .issuedAt(expiration.minusSeconds(600))
+                .expiresAt(expiration)
+                .claim("roles", List.of("USER"))
+                .build();
+        return encoder.encode(JwtEncoderParameters.from(JwsHeader.with(MacAlgorithm.HS256).build(), claims)).getTokenValue();
     }
-}
\ No newline at end of file
+}
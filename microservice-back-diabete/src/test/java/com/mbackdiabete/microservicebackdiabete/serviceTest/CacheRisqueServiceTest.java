@@ -0,0 +1,92 @@
+package com.mbackdiabete.microservicebackdiabete.serviceTest;
+
+import com.mbackdiabete.microservicebackdiabete.configuration.CustomProperties;
+import com.mbackdiabete.microservicebackdiabete.service.CacheRisqueService;
+import com.mbackdiabete.microservicebackdiabete.service.impl.CacheRisqueServiceImpl;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe de test pour CacheRisqueServiceImpl.
+ * Vérifie que les calculs sont effectués hors du cache, une seule fois par patient, et que les échecs ne sont pas mémorisés.
+ *
+ * @author Mickael Hayé
+ * @version 1.0
+ */
+public class CacheRisqueServiceTest {
+
+    private final CacheRisqueService cacheRisqueService = new CacheRisqueServiceImpl(new CustomProperties(), Clock.systemDefaultZone());
+
+    /**
+     * Teste qu'un calcul lent ne bloque pas les autres patients, et que les appels concurrents
+     * pour le même patient attendent le calcul en cours au lieu de le relancer.
+     */
+    @Test
+    void calculLentTest() throws Exception {
+        CountDownLatch calculCommence = new CountDownLatch(1);
+        CountDownLatch finCalcul = new CountDownLatch(1);
+        AtomicInteger nbCalculs = new AtomicInteger();
+
+        CompletableFuture<String> premier = CompletableFuture.supplyAsync(() -> cacheRisqueService.getRisque("1", id -> {
+            nbCalculs.incrementAndGet();
+            calculCommence.countDown();
+            attendre(finCalcul);
+            return "Borderline";
+        }));
+        assertTrue(calculCommence.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> cacheRisqueService.getRisque("1", id -> {
+            nbCalculs.incrementAndGet();
+            return "None";
+        }));
+
+        assertEquals("In Danger", cacheRisqueService.getRisque("2", id -> "In Danger"));
+        assertNull(cacheRisqueService.getRisqueEnCache("1"));
+        assertFalse(second.isDone());
+
+        finCalcul.countDown();
+        assertEquals("Borderline", premier.get(5, TimeUnit.SECONDS));
+        assertEquals("Borderline", second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, nbCalculs.get());
+        assertEquals("Borderline", cacheRisqueService.getRisqueEnCache("1"));
+    }
+
+    /**
+     * Teste qu'un calcul en échec est propagé sans être mémorisé.
+     */
+    @Test
+    void calculEnEchecTest() {
+        IllegalStateException erreur = new IllegalStateException("patient injoignable");
+        assertSame(erreur, assertThrows(IllegalStateException.class, () -> cacheRisqueService.getRisque("1", id -> {
+            throw erreur;
+        })));
+        assertNull(cacheRisqueService.getRisqueEnCache("1"));
+        assertEquals("None", cacheRisqueService.getRisque("1", id -> "None"));
+    }
+
+    /**
+     * Teste que le cache est entièrement vidé.
+     */
+    @Test
+    void invaliderToutTest() {
+        cacheRisqueService.getRisque("1", id -> "None");
+        cacheRisqueService.getRisque("2", id -> "Borderline");
+        cacheRisqueService.invaliderTout();
+        assertNull(cacheRisqueService.getRisqueEnCache("1"));
+        assertNull(cacheRisqueService.getRisqueEnCache("2"));
+    }
+
+    private static void attendre(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,10 +1,18 @@
 package com.mbackdiabete.microservicebackdiabete.serviceTest;
 
+import com.mbackdiabete.microservicebackdiabete.automate.DictionnaireTermesDiabete;
+import com.mbackdiabete.microservicebackdiabete.depistage.MoteurDepistage;
+import com.mbackdiabete.microservicebackdiabete.model.NiveauRisque;
+import com.mbackdiabete.microservicebackdiabete.regles.ReglesRisque;
 import com.mbackdiabete.microservicebackdiabete.service.CalculService;
+import com.mbackdiabete.microservicebackdiabete.service.impl.CalculServiceImpl;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -22,6 +30,15 @@ public class CalculServiceTest {
     @Autowired
     private CalculService calculService;
 
+    @Autowired
+    private DictionnaireTermesDiabete dictionnaire;
+
+    @Autowired
+    private ReglesRisque reglesRisque;
+
+    @Autowired
+    private MoteurDepistage moteurDepistage;
+
     /**
      * Teste la méthode getNiveauxRisque pour les patients de plus de 30 ans.
      * Vérifie les différents niveaux de risque basés sur les notes des patients.
@@ -120,4 +137,60 @@ public class CalculServiceTest {
         notes.add("LE PATIENT DÉCLARE QU'IL EST FUMEUR ET QU'IL A CESSÉ DE FUMER L'ANNÉE DERNIÈRE. IL SE PLAINT ÉGALEMENT DE CRISES D’APNÉE RESPIRATOIRE ANORMALES. TESTS DE LABORATOIRE INDIQUANT UN TAUX DE CHOLESTÉROL LDL ÉLEVÉ");
         assertEquals(3, calculService.calculNbrTermesDeclencheurs(notes));
     }
-}
\ No newline at end of file
+
+    /**
+     * Teste que les synonymes d'une même famille ne sont comptés qu'une seule fois,
+     * y compris lorsqu'ils se chevauchent dans le texte ou se répètent d'une note à l'autre.
+     */
+    @Test
+    void calculNbrTermesDeclencheursFamilleTest() {
+        List<String> notes = new ArrayList<String>();
+        notes.add("Fumeuse depuis longtemps, elle souhaite arrêter de fumer");
+        notes.add("Résultats anormales, poids stable");
+        notes.add("Poids en hausse");
+        assertEquals(3, calculService.calculNbrTermesDeclencheurs(notes));
+
+        notes.clear();
+        assertEquals(0, calculService.calculNbrTermesDeclencheurs(notes));
+    }
+
+    /**
+     * Teste la méthode calculAge avec une horloge fixe.
+     * Vérifie que l'âge augmente le jour de l'anniversaire, y compris pour une naissance un 29 février.
+     */
+    @Test
+    void calculAgeTest() {
+        ZoneId zone = ZoneId.of("Europe/Paris");
+        Clock clock = Clock.fixed(LocalDate.of(2024, 3, 15).atTime(10, 0).atZone(zone).toInstant(), zone);
+        CalculService calculServiceHorlogeFixe = new CalculServiceImpl(dictionnaire, reglesRisque, moteurDepistage, clock);
+
+        assertEquals(30, calculServiceHorlogeFixe.calculAge(date(1994, 3, 15, zone)));
+        assertEquals(29, calculServiceHorlogeFixe.calculAge(date(1994, 3, 16, zone)));
+        assertEquals(90, calculServiceHorlogeFixe.calculAge(date(1933, 12, 31, zone)));
+        assertEquals(4, calculServiceHorlogeFixe.calculAge(date(2020, 2, 29, zone)));
+        assertEquals(0, calculServiceHorlogeFixe.calculAge(date(2024, 3, 15, zone)));
+    }
+
+    /**
+     * Teste la méthode evaluerRisque aux bornes de chaque niveau de risque.
+     */
+    @Test
+    void evaluerRisqueTest() {
+        assertEquals(NiveauRisque.NONE, calculService.evaluerRisque(30, "F", 1));
+        assertEquals(NiveauRisque.BORDERLINE, calculService.evaluerRisque(30, "F", 2));
+        assertEquals(NiveauRisque.BORDERLINE, calculService.evaluerRisque(45, "H", 5));
+        assertEquals(NiveauRisque.IN_DANGER, calculService.evaluerRisque(45, "H", 7));
+        assertEquals(NiveauRisque.EARLY_ONSET, calculService.evaluerRisque(45, "H", 8));
+        assertEquals(NiveauRisque.NONE, calculService.evaluerRisque(29, "H", 2));
+        assertEquals(NiveauRisque.IN_DANGER, calculService.evaluerRisque(29, "H", 4));
+        assertEquals(NiveauRisque.EARLY_ONSET, calculService.evaluerRisque(29, "H", 5));
+        assertEquals(NiveauRisque.NONE, calculService.evaluerRisque(29, "F", 3));
+        assertEquals(NiveauRisque.IN_DANGER, calculService.evaluerRisque(29, "F", 6));
+        assertEquals(NiveauRisque.EARLY_ONSET, calculService.evaluerRisque(29, "F", 7));
+        assertEquals("In Danger", NiveauRisque.IN_DANGER.getLibelle());
+    }
+
+    private static Date date(int annee, int mois, int jour, ZoneId zone) {
+        return Date.from(LocalDate.of(annee, mois, jour).atStartOfDay(zone).toInstant());
+    }
+}
@@ -0,0 +1,72 @@
+package com.mbackdiabete.microservicebackdiabete.serviceTest;
+
+import com.mbackdiabete.microservicebackdiabete.automate.DictionnaireTermesDiabete;
+import com.mbackdiabete.microservicebackdiabete.configuration.CustomProperties;
+import com.mbackdiabete.microservicebackdiabete.service.CacheRisqueService;
+import com.mbackdiabete.microservicebackdiabete.service.impl.CacheRisqueServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Clock;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe de test pour DictionnaireTermesDiabete.
+ * Vérifie le chargement depuis un fichier externe et son rechargement à chaud, qui vide le cache des niveaux de risque.
+ *
+ * @author Mickael Hayé
+ * @version 1.0
+ */
+public class DictionnaireTermesDiabeteTest {
+
+    @TempDir
+    Path repertoire;
+
+    /**
+     * Teste que le dictionnaire externe n'est republié qu'une fois sa modification stabilisée,
+     * et que la version précédente reste utilisée jusque-là, puis que le cache des niveaux de risque est vidé.
+     */
+    @Test
+    void rechargementFichierExterneTest() throws Exception {
+        Path fichier = repertoire.resolve("termesDiabete");
+        Files.writeString(fichier, "Poids;\nTaille;", StandardCharsets.UTF_8);
+
+        CustomProperties prop = new CustomProperties();
+        prop.setTermesDiabeteFilePath("data/termesDiabete");
+        prop.setTermesDiabeteExternalFilePath(fichier.toString());
+        CacheRisqueService cacheRisqueService = new CacheRisqueServiceImpl(prop, Clock.systemDefaultZone());
+        DictionnaireTermesDiabete dictionnaire = new DictionnaireTermesDiabete(prop, cacheRisqueService);
+        List<String> notes = List.of("Poids et taille normaux, fumeur");
+        assertEquals(2, dictionnaire.getAutomate().compterFamilles(notes));
+        cacheRisqueService.getRisque("1", id -> "None");
+
+        Files.writeString(fichier, "Poids;\nTaille;\nFumeur,Fumeuse;", StandardCharsets.UTF_8);
+        Files.setLastModifiedTime(fichier, FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+        dictionnaire.recharger();
+        assertEquals(2, dictionnaire.getAutomate().compterFamilles(notes));
+        assertEquals("None", cacheRisqueService.getRisqueEnCache("1"));
+        dictionnaire.recharger();
+        assertEquals(3, dictionnaire.getAutomate().compterFamilles(notes));
+        assertNull(cacheRisqueService.getRisqueEnCache("1"));
+    }
+
+    /**
+     * Teste que le classpath est utilisé lorsque le fichier externe n'existe pas.
+     */
+    @Test
+    void fichierExterneAbsentTest() {
+        CustomProperties prop = new CustomProperties();
+        prop.setTermesDiabeteFilePath("classpath:data/termesDiabete");
+        prop.setTermesDiabeteExternalFilePath(repertoire.resolve("absent").toString());
+        DictionnaireTermesDiabete dictionnaire = new DictionnaireTermesDiabete(prop, new CacheRisqueServiceImpl(prop, Clock.systemDefaultZone()));
+        assertEquals(11, dictionnaire.getAutomate().getNombreFamilles());
+        dictionnaire.recharger();
+        assertEquals(11, dictionnaire.getAutomate().getNombreFamilles());
+    }
+}
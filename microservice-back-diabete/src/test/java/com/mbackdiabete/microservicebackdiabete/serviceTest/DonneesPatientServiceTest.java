@@ -0,0 +1,55 @@
+package com.mbackdiabete.microservicebackdiabete.serviceTest;
+
+import com.mbackdiabete.microservicebackdiabete.configuration.CustomProperties;
+import com.mbackdiabete.microservicebackdiabete.exceptions.ServiceIndisponibleException;
+import com.mbackdiabete.microservicebackdiabete.service.impl.DonneesPatientServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * Classe de test pour DonneesPatientServiceImpl.
+ * Vérifie le comportement des appels distants lorsque leur pool de threads est saturé.
+ *
+ * @author Mickael Hayé
+ * @version 1.0
+ */
+public class DonneesPatientServiceTest {
+
+    /**
+     * Teste qu'un appel est refusé (service indisponible) quand le pool et sa file sont pleins,
+     * sans être exécuté par le thread appelant.
+     */
+    @Test
+    void poolSatureTest() throws Exception {
+        CustomProperties prop = new CustomProperties();
+        prop.setGatewayPath("http://localhost:9000");
+        RestTemplate restTemplate = mock(RestTemplate.class);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 60L, TimeUnit.SECONDS, new SynchronousQueue<>(), new ThreadPoolExecutor.AbortPolicy());
+        CountDownLatch liberation = new CountDownLatch(1);
+        try {
+            executor.execute(() -> {
+                try {
+                    liberation.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            DonneesPatientServiceImpl service = new DonneesPatientServiceImpl(restTemplate, prop, executor);
+
+            CompletableFuture<?> future = service.getInfoDiabete("1", "");
+
+            ExecutionException erreur = assertThrows(ExecutionException.class, () -> future.get(1, TimeUnit.SECONDS));
+            assertInstanceOf(ServiceIndisponibleException.class, erreur.getCause());
+            verifyNoInteractions(restTemplate);
+        } finally {
+            liberation.countDown();
+            executor.shutdown();
+        }
+    }
+}
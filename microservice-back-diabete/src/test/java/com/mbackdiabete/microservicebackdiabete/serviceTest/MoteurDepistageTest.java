@@ -0,0 +1,99 @@
+package com.mbackdiabete.microservicebackdiabete.serviceTest;
+
+import com.mcommun.microservicecommun.automate.AutomateTermesDeclencheurs;
+import com.mbackdiabete.microservicebackdiabete.automate.DictionnaireTermesDiabete;
+import com.mbackdiabete.microservicebackdiabete.configuration.CustomProperties;
+import com.mbackdiabete.microservicebackdiabete.depistage.MoteurDepistage;
+import com.mbackdiabete.microservicebackdiabete.depistage.RegleDepistage;
+import com.mbackdiabete.microservicebackdiabete.depistage.RegleDepistageDiabete;
+import com.mbackdiabete.microservicebackdiabete.regles.ReglesRisque;
+import com.mbackdiabete.microservicebackdiabete.service.CacheRisqueService;
+import com.mbackdiabete.microservicebackdiabete.service.impl.CacheRisqueServiceImpl;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Classe de test pour MoteurDepistage.
+ * Vérifie la répartition des familles trouvées entre plusieurs règles et la recompilation après rechargement d'un dictionnaire.
+ *
+ * @author Mickael Hayé
+ * @version 1.0
+ */
+public class MoteurDepistageTest {
+
+    /**
+     * Teste que chaque règle ne compte que les familles de son propre dictionnaire,
+     * y compris lorsqu'un même terme figure dans plusieurs dictionnaires.
+     */
+    @Test
+    void depisterPlusieursReglesTest() {
+        CustomProperties prop = new CustomProperties();
+        prop.setTermesDiabeteFilePath("data/termesDiabete");
+        CacheRisqueService cacheRisqueService = new CacheRisqueServiceImpl(prop, Clock.systemDefaultZone());
+        RegleDepistage diabete = new RegleDepistageDiabete(new DictionnaireTermesDiabete(prop, cacheRisqueService), new ReglesRisque(prop, cacheRisqueService));
+        RegleTest hypertension = new RegleTest("hypertension", Map.of("tension", List.of("tension"), "sel", List.of("sel"), "fumeur", List.of("fumeur")));
+        MoteurDepistage moteur = new MoteurDepistage(List.of(diabete, hypertension));
+
+        Map<String, String> niveaux = moteur.depister(45, "H", List.of("Fumeur, tension élevée", "Poids et taille normaux, anormal"));
+        assertEquals(List.of("diabete", "hypertension"), List.copyOf(niveaux.keySet()));
+        assertEquals("Borderline", niveaux.get("diabete"));
+        assertEquals("2", niveaux.get("hypertension"));
+    }
+
+    /**
+     * Teste que l'automate fusionné est recompilé lorsqu'une règle publie un nouveau dictionnaire.
+     */
+    @Test
+    void rechargementDictionnaireTest() {
+        RegleTest regle = new RegleTest("test", Map.of("tension", List.of("tension")));
+        MoteurDepistage moteur = new MoteurDepistage(List.of(regle));
+        List<String> notes = List.of("Tension et sel");
+        assertEquals("1", moteur.depister(40, "F", notes).get("test"));
+
+        regle.dictionnaire = AutomateTermesDeclencheurs.compiler(Map.of("tension", List.of("tension"), "sel", List.of("sel")));
+        assertEquals("2", moteur.depister(40, "F", notes).get("test"));
+    }
+
+    /**
+     * Teste que deux règles de même nom sont refusées.
+     */
+    @Test
+    void nomsDupliquesTest() {
+        RegleTest regle = new RegleTest("test", Map.of());
+        assertThrows(IllegalStateException.class, () -> new MoteurDepistage(List.of(regle, regle)));
+    }
+
+    /**
+     * Règle de test renvoyant comme niveau le nombre de familles trouvées.
+     */
+    private static final class RegleTest implements RegleDepistage {
+        private final String nom;
+        private AutomateTermesDeclencheurs dictionnaire;
+
+        private RegleTest(String nom, Map<String, List<String>> familles) {
+            this.nom = nom;
+            this.dictionnaire = AutomateTermesDeclencheurs.compiler(familles);
+        }
+
+        @Override
+        public String getNom() {
+            return nom;
+        }
+
+        @Override
+        public AutomateTermesDeclencheurs getDictionnaire() {
+            return dictionnaire;
+        }
+
+        @Override
+        public String evaluer(int age, String genre, int nbrFamilles) {
+            return String.valueOf(nbrFamilles);
+        }
+    }
+}
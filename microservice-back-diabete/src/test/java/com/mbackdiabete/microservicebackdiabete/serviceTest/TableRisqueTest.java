@@ -0,0 +1,126 @@
+package com.mbackdiabete.microservicebackdiabete.serviceTest;
+
+import com.mbackdiabete.microservicebackdiabete.configuration.CustomProperties;
+import com.mbackdiabete.microservicebackdiabete.model.NiveauRisque;
+import com.mbackdiabete.microservicebackdiabete.regles.ReglesRisque;
+import com.mbackdiabete.microservicebackdiabete.regles.TableRisque;
+import com.mbackdiabete.microservicebackdiabete.service.CacheRisqueService;
+import com.mbackdiabete.microservicebackdiabete.service.impl.CacheRisqueServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Clock;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe de test pour TableRisque.
+ * Vérifie la validation et la compilation de la table de décision du risque, et son rechargement à chaud.
+ *
+ * @author Mickael Hayé
+ * @version 1.0
+ */
+public class TableRisqueTest {
+
+    @TempDir
+    Path repertoire;
+
+    /**
+     * Teste la compilation de la table fournie : deux tranches d'âge, et des âges ou nombres de termes
+     * hors des bornes traités comme la valeur limite la plus proche.
+     */
+    @Test
+    void tableParDefautTest() {
+        CustomProperties prop = new CustomProperties();
+        TableRisque table = new ReglesRisque(prop, new CacheRisqueServiceImpl(prop, Clock.systemDefaultZone())).getTable();
+        assertEquals(11, table.getNombreRegles());
+        assertEquals(2, table.getNombreTranchesAge());
+        assertEquals(NiveauRisque.EARLY_ONSET, table.evaluer(120, "H", 50));
+        assertEquals(NiveauRisque.NONE, table.evaluer(-1, "F", 0));
+        assertEquals(NiveauRisque.NONE, table.evaluer(20, null, 12));
+    }
+
+    /**
+     * Teste que deux règles qui se chevauchent sont refusées, avec les lignes en cause.
+     */
+    @Test
+    void chevauchementTest() {
+        IllegalArgumentException erreur = assertThrows(IllegalArgumentException.class, () -> lire("""
+                *;*;0-4;NONE
+                *;F;4-*;IN_DANGER
+                *;H;5-*;IN_DANGER
+                *;AUTRE;5-*;IN_DANGER
+                """));
+        assertTrue(erreur.getMessage().contains("lignes 1 et 2"), erreur.getMessage());
+    }
+
+    /**
+     * Teste qu'une combinaison non couverte est refusée.
+     */
+    @Test
+    void trouTest() {
+        IllegalArgumentException erreur = assertThrows(IllegalArgumentException.class, () -> lire("""
+                # les femmes de 30 ans et plus ne sont pas couvertes
+                0-29;*;*;NONE
+                30-*;H;*;BORDERLINE
+                30-*;AUTRE;*;BORDERLINE
+                """));
+        assertTrue(erreur.getMessage().contains("âge 30 et plus, genre F"), erreur.getMessage());
+    }
+
+    /**
+     * Teste qu'une ligne mal formée est refusée.
+     */
+    @Test
+    void regleInvalideTest() {
+        assertThrows(IllegalArgumentException.class, () -> lire("*;X;*;NONE"));
+        assertThrows(IllegalArgumentException.class, () -> lire("*;*;5-2;NONE"));
+        assertThrows(IllegalArgumentException.class, () -> lire("*;*;*;FAIBLE"));
+    }
+
+    /**
+     * Teste que le rechargement d'une table externe vide le cache des niveaux de risque,
+     * et qu'une nouvelle version invalide est ignorée sans toucher au cache.
+     */
+    @Test
+    void rechargementFichierExterneTest() throws Exception {
+        Path fichier = repertoire.resolve("reglesRisque");
+        Files.writeString(fichier, "*;*;*;NONE", StandardCharsets.UTF_8);
+
+        CustomProperties prop = new CustomProperties();
+        prop.setReglesRisqueExternalFilePath(fichier.toString());
+        CacheRisqueService cacheRisqueService = new CacheRisqueServiceImpl(prop, Clock.systemDefaultZone());
+        ReglesRisque regles = new ReglesRisque(prop, cacheRisqueService);
+        assertEquals(NiveauRisque.NONE, regles.getTable().evaluer(45, "H", 8));
+        cacheRisqueService.getRisque("1", id -> "None");
+
+        modifier(fichier, "*;*;0-1;NONE\n*;*;2-*;BORDERLINE", 10_000);
+        regles.recharger();
+        assertEquals("None", cacheRisqueService.getRisqueEnCache("1"));
+        regles.recharger();
+        assertEquals(NiveauRisque.BORDERLINE, regles.getTable().evaluer(45, "H", 8));
+        assertNull(cacheRisqueService.getRisqueEnCache("1"));
+
+        cacheRisqueService.getRisque("1", id -> "Borderline");
+        modifier(fichier, "*;*;0-1;NONE", 20_000);
+        regles.recharger();
+        regles.recharger();
+        assertEquals(NiveauRisque.BORDERLINE, regles.getTable().evaluer(45, "H", 8));
+        assertEquals("Borderline", cacheRisqueService.getRisqueEnCache("1"));
+    }
+
+    private static void modifier(Path fichier, String regles, long decalage) throws Exception {
+        Files.writeString(fichier, regles, StandardCharsets.UTF_8);
+        Files.setLastModifiedTime(fichier, FileTime.fromMillis(System.currentTimeMillis() + decalage));
+    }
+
+    private static TableRisque lire(String regles) throws Exception {
+        return TableRisque.lire(new BufferedReader(new StringReader(regles)));
+    }
+}
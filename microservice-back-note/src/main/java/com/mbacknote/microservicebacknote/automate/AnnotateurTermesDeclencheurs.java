@@ -0,0 +1,84 @@
+package com.mbacknote.microservicebacknote.automate;
+
+import com.mbacknote.microservicebacknote.configuration.CustomProperties;
+import com.mbacknote.microservicebacknote.model.entity.NoteModel;
+import com.mcommun.microservicecommun.automate.AutomateTermesDeclencheurs;
+import com.mcommun.microservicecommun.chargement.RessourceRechargeable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Annote les notes avec les familles de termes déclencheurs du diabète qu'elles contiennent.
+ * Les familles sont détectées une seule fois, à l'écriture de la note, par l'automate du dictionnaire ;
+ * chaque note mémorise aussi la version du dictionnaire utilisée, ce qui permet de réannoter
+ * les notes existantes lorsque le dictionnaire change.
+ * L'automate et le dictionnaire sont ceux du microservice back-diabete (module commun) : le même fichier externe
+ * peut être configuré pour les deux microservices, il est alors rechargé à chaud de la même façon.
+ *
+ * @author mickael hayé
+ * @version 1.0
+ */
+@Component
+public class AnnotateurTermesDeclencheurs {
+
+    private final RessourceRechargeable<AutomateTermesDeclencheurs> ressource;
+    private final ApplicationEventPublisher publisher;
+
+    /**
+     * Charge et compile le dictionnaire des termes déclencheurs selon les propriétés du microservice.
+     *
+     * @param prop      Les propriétés personnalisées du microservice.
+     * @param publisher L'émetteur des événements, signalant le rechargement du dictionnaire.
+     */
+    public AnnotateurTermesDeclencheurs(CustomProperties prop, ApplicationEventPublisher publisher) {
+        this.ressource = new RessourceRechargeable<>("Liste des expressions de recherche diabète",
+                prop.getTermesDiabeteFilePath(), prop.getTermesDiabeteExternalFilePath(),
+                AutomateTermesDeclencheurs::lire, AutomateTermesDeclencheurs.compiler(Collections.emptyMap()));
+        this.publisher = publisher;
+    }
+
+    /**
+     * Détecte les familles de termes déclencheurs d'une note et les enregistre sur la note, avec la version du dictionnaire.
+     *
+     * @param note La note à annoter.
+     * @return NoteModel La note annotée.
+     */
+    public NoteModel annoter(NoteModel note) {
+        AutomateTermesDeclencheurs automate = ressource.get();
+        BitSet famillesTrouvees = new BitSet(automate.getNombreFamilles());
+        if (note.getNote() != null) {
+            automate.rechercher(note.getNote(), famillesTrouvees);
+        }
+        List<String> familles = new ArrayList<>(famillesTrouvees.cardinality());
+        for (int famille = famillesTrouvees.nextSetBit(0); famille >= 0; famille = famillesTrouvees.nextSetBit(famille + 1)) {
+            familles.add(automate.getFamille(famille));
+        }
+        note.setFamillesTermes(familles);
+        note.setVersionFamilles(automate.getVersion());
+        return note;
+    }
+
+    /**
+     * @return String La version courante du dictionnaire, enregistrée sur chaque note annotée.
+     */
+    public String getVersion() {
+        return ressource.get().getVersion();
+    }
+
+    /**
+     * Vérifie périodiquement le fichier externe et publie une nouvelle version de l'automate s'il a changé ;
+     * un {@link DictionnaireRechargeEvent} est alors émis afin de réannoter les notes existantes.
+     */
+    @Scheduled(fixedDelayString = "${com.mbacknote.microservicebacknote.termesDiabeteReloadDelay:30000}")
+    public void recharger() {
+        if (ressource.verifierModification()) {
+            publisher.publishEvent(new DictionnaireRechargeEvent(this));
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.mbacknote.microservicebacknote.automate;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Événement émis lorsqu'une nouvelle version du dictionnaire des termes déclencheurs a été chargée.
+ *
+ * @author mickael hayé
+ * @version 1.0
+ */
+public class DictionnaireRechargeEvent extends ApplicationEvent {
+
+    /**
+     * Construit l'événement.
+     *
+     * @param source L'annotateur ayant rechargé le dictionnaire.
+     */
+    public DictionnaireRechargeEvent(Object source) {
+        super(source);
+    }
+}
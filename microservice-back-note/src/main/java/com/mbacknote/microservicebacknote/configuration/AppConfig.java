@@ -0,0 +1,74 @@
+package com.mbacknote.microservicebacknote.configuration;
+import com.mcommun.microservicecommun.service.InvalidationRisqueService;
+import com.mcommun.microservicecommun.service.impl.InvalidationRisqueServiceImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+import java.time.Duration;
+
+/**
+ * Classe AppConfig pour configurer les beans nécessaires au fonctionnement du microservice.
+ * Elle active également les tâches planifiées, utilisées pour le rechargement à chaud du dictionnaire des termes déclencheurs,
+ * et les traitements asynchrones, utilisés pour annoter les notes existantes en arrière-plan.
+ *
+ * @author mickael hayé
+ * @version 1.0
+ */
+@Configuration
+@EnableScheduling
+@EnableAsync
+public class AppConfig {
+    private static final Logger logger = LoggerFactory.getLogger(AppConfig.class);
+
+    /**
+     * Crée et configure un bean RestTemplate pour les appels HTTP vers les autres microservices.
+     * Construit à partir du {@code RestTemplateBuilder} de Spring Boot, ses appels sont mesurés (métrique http.client.requests).
+     * Ses délais sont bornés, l'invalidation du risque étant attendue avant de répondre à une écriture.
+     *
+     * @param builder Le constructeur de RestTemplate fourni par Spring Boot.
+     * @return RestTemplate - l'instance de RestTemplate configurée pour l'utilisation dans le microservice.
+     */
+    @Bean
+    public RestTemplate restTemplate(RestTemplateBuilder builder) {
+        logger.info("Création du bean RestTemplate pour les appels HTTP.");
+        return builder
+                .setConnectTimeout(Duration.ofSeconds(1))
+                .setReadTimeout(Duration.ofSeconds(2))
+                .build();
+    }
+
+    /**
+     * Crée le service, commun aux microservices back-note et back-patient, qui invalide le niveau de risque
+     * en cache d'un patient après une écriture le concernant.
+     *
+     * @param restTemplate Le RestTemplate utilisé pour appeler le gateway.
+     * @param prop         Les propriétés personnalisées, dont l'adresse du gateway.
+     * @return InvalidationRisqueService - le service d'invalidation, synchrone.
+     */
+    @Bean
+    public InvalidationRisqueService invalidationRisqueService(RestTemplate restTemplate, CustomProperties prop) {
+        return new InvalidationRisqueServiceImpl(restTemplate, prop.getGatewayPath());
+    }
+
+    /**
+     * Calcule un ETag fort (empreinte du corps) pour les réponses de lecture mises en cache par le gateway :
+     * la liste des notes d'un patient.
+     * Une requête portant l'ETag courant dans If-None-Match reçoit une réponse 304 sans corps.
+     *
+     * @return FilterRegistrationBean - le filtre ETag, limité aux chemins de lecture.
+     */
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> etagReponses() {
+        FilterRegistrationBean<ShallowEtagHeaderFilter> filtre = new FilterRegistrationBean<>(new ShallowEtagHeaderFilter());
+        filtre.addUrlPatterns("/noteBack/list/*");
+        return filtre;
+    }
+}
@@ -0,0 +1,141 @@
+package com.mbacknote.microservicebacknote.configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Classe CustomProperties pour gérer les propriétés personnalisées du microservice.
+ * Elle est annotée avec {@link Configuration} pour indiquer qu'elle contient des définitions de bean,
+ * et {@link ConfigurationProperties} pour lier et valider les propriétés de configuration externes.
+ *
+ * @author mickael hayé
+ * @version 1.0
+ */
+@Configuration
+@ConfigurationProperties(prefix = "com.mbacknote.microservicebacknote")
+public class CustomProperties {
+    private static final Logger logger = LoggerFactory.getLogger(CustomProperties.class);
+    private String gatewayPath;
+    private String jwtSecret;
+    private long authCacheDuree = 60;
+    private long authCacheTailleMax = 1000;
+    private String termesDiabeteFilePath = "data/termesDiabete";
+    private String termesDiabeteExternalFilePath;
+
+    /**
+     * Obtient le chemin du gateway.
+     *
+     * @return String - Le chemin actuel du gateway.
+     */
+    public String getGatewayPath() {
+        return gatewayPath;
+    }
+
+    /**
+     * Définit le chemin du gateway.
+     * Enregistre également cette action dans les logs.
+     *
+     * @param gatewayPath Le nouveau chemin du gateway à définir.
+     */
+    public void setGatewayPath(String gatewayPath) {
+        logger.info("Mise à jour du chemin du gateway : {}", gatewayPath);
+        this.gatewayPath = gatewayPath;
+    }
+
+    /**
+     * Obtient le chemin du fichier de termes liés au diabète.
+     *
+     * @return String - Le chemin du fichier de termes du diabète.
+     */
+    public String getTermesDiabeteFilePath() {
+        return termesDiabeteFilePath;
+    }
+
+    /**
+     * Définit le chemin du fichier de termes liés au diabète.
+     *
+     * @param termesDiabeteFilePath Le chemin du fichier de termes du diabète à définir.
+     */
+    public void setTermesDiabeteFilePath(String termesDiabeteFilePath) {
+        logger.info("Mise à jour du chemin du fichier termesDiabete : {}", termesDiabeteFilePath);
+        this.termesDiabeteFilePath = termesDiabeteFilePath;
+    }
+
+    /**
+     * Obtient le chemin du fichier externe de termes liés au diabète.
+     * Lorsqu'il est renseigné, ce fichier est prioritaire sur le classpath et rechargé à chaud en cas de modification.
+     *
+     * @return String - Le chemin du fichier externe, ou null si le dictionnaire est lu uniquement depuis le classpath.
+     */
+    public String getTermesDiabeteExternalFilePath() {
+        return termesDiabeteExternalFilePath;
+    }
+
+    /**
+     * Définit le chemin du fichier externe de termes liés au diabète.
+     *
+     * @param termesDiabeteExternalFilePath Le chemin du fichier externe à surveiller.
+     */
+    public void setTermesDiabeteExternalFilePath(String termesDiabeteExternalFilePath) {
+        logger.info("Mise à jour du chemin du fichier externe termesDiabete : {}", termesDiabeteExternalFilePath);
+        this.termesDiabeteExternalFilePath = termesDiabeteExternalFilePath;
+    }
+
+    /**
+     * Obtient le secret partagé avec le gateway, utilisé pour vérifier la signature des jetons qu'il transmet.
+     *
+     * @return String - Le secret partagé.
+     */
+    public String getJwtSecret() {
+        return jwtSecret;
+    }
+
+    /**
+     * Définit le secret partagé avec le gateway, utilisé pour vérifier la signature des jetons qu'il transmet.
+     *
+     * @param jwtSecret Le secret partagé.
+     */
+    public void setJwtSecret(String jwtSecret) {
+        logger.info("Mise à jour du secret de vérification des jetons");
+        this.jwtSecret = jwtSecret;
+    }
+
+    /**
+     * Obtient la durée de conservation d'une authentification HTTP Basic réussie.
+     *
+     * @return long - La durée en secondes.
+     */
+    public long getAuthCacheDuree() {
+        return authCacheDuree;
+    }
+
+    /**
+     * Définit la durée de conservation d'une authentification HTTP Basic réussie.
+     *
+     * @param authCacheDuree La durée en secondes.
+     */
+    public void setAuthCacheDuree(long authCacheDuree) {
+        logger.info("Mise à jour de la durée du cache d'authentification : {} s", authCacheDuree);
+        this.authCacheDuree = authCacheDuree;
+    }
+
+    /**
+     * Obtient le nombre maximal d'authentifications HTTP Basic réussies conservées.
+     *
+     * @return long - La taille maximale du cache.
+     */
+    public long getAuthCacheTailleMax() {
+        return authCacheTailleMax;
+    }
+
+    /**
+     * Définit le nombre maximal d'authentifications HTTP Basic réussies conservées.
+     *
+     * @param authCacheTailleMax La taille maximale du cache.
+     */
+    public void setAuthCacheTailleMax(long authCacheTailleMax) {
+        logger.info("Mise à jour de la taille maximale du cache d'authentification : {}", authCacheTailleMax);
+        this.authCacheTailleMax = authCacheTailleMax;
+    }
+}
@@ -0,0 +1,33 @@
+package com.mbacknote.microservicebacknote.configuration;
+
+import com.mongodb.MongoClientSettings;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.observability.ContextProviderFactory;
+import org.springframework.data.mongodb.observability.MongoObservationCommandListener;
+
+/**
+ * Classe MetriquesConfiguration pour configurer les métriques et les traces exposées par le microservice.
+ * Les commandes MongoDB sont observées : chacune produit une mesure et un span dans la trace de la requête.
+ *
+ * @author mickael hayé
+ * @version 1.0
+ */
+@Configuration
+public class MetriquesConfiguration {
+
+    /**
+     * Observe les commandes envoyées à MongoDB, rattachées à la requête en cours.
+     *
+     * @param observationRegistry Le registre des observations du microservice.
+     * @return MongoClientSettingsBuilderCustomizer - la personnalisation du client MongoDB.
+     */
+    @Bean
+    public MongoClientSettingsBuilderCustomizer observationMongo(ObservationRegistry observationRegistry) {
+        return (MongoClientSettings.Builder builder) -> builder
+                .contextProvider(ContextProviderFactory.create(observationRegistry))
+                .addCommandListener(new MongoObservationCommandListener(observationRegistry));
+    }
+}
@@ -1,6 +1,8 @@
 package com.mbacknote.microservicebacknote.controller;
 
+import com.mcommun.microservicecommun.service.InvalidationRisqueService;
 import com.mbacknote.microservicebacknote.exceptions.NoteNotFoundException;
+import com.mbacknote.microservicebacknote.model.dto.FamillesTermesDTO;
 import com.mbacknote.microservicebacknote.model.entity.NoteModel;
 import com.mbacknote.microservicebacknote.service.NoteService;
 import org.slf4j.Logger;
@@ -8,7 +10,10 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -27,6 +32,9 @@ public class NoteController {
     @Autowired
     private NoteService noteService;
 
+    @Autowired
+    private InvalidationRisqueService invalidationRisqueService;
+
     /**
      * Liste toutes les notes associées à un patient spécifique.
      *
@@ -58,45 +66,68 @@ public class NoteController {
     /**
      * Met à jour une note spécifique.
      *
+     * Le niveau de risque du patient, et de l'ancien patient si la note change de patient, est invalidé.
+     *
      * @param updatedNote la note mise à jour.
+     * @param authHeader  l'en-tête d'autorisation, transmis au microservice back-diabete.
      * @return la note mise à jour.
      */
     @PostMapping(value = "/update/{id}")
-    public NoteModel updateNote(@RequestBody NoteModel updatedNote) {
-        return noteService.updateNote(updatedNote);
+    public NoteModel updateNote(@RequestBody NoteModel updatedNote, @RequestHeader(value = "Authorization", required = false) String authHeader) {
+        Optional<NoteModel> ancienneNote = updatedNote.getId() == null ? Optional.empty() : noteService.getNoteById(updatedNote.getId());
+        NoteModel note = noteService.updateNote(updatedNote);
+        invalidationRisqueService.invaliderRisque(note.getIdPatient(), authHeader);
+        ancienneNote.map(NoteModel::getIdPatient)
+                .filter(idPatient -> !idPatient.equals(note.getIdPatient()))
+                .ifPresent(idPatient -> invalidationRisqueService.invaliderRisque(idPatient, authHeader));
+        return note;
     }
 
     /**
      * Ajoute une nouvelle note.
      *
-     * @param newNote la nouvelle note à ajouter.
+     * Le niveau de risque du patient est invalidé.
+     *
+     * @param newNote    la nouvelle note à ajouter.
+     * @param authHeader l'en-tête d'autorisation, transmis au microservice back-diabete.
      * @return la note nouvellement créée.
      */
     @PostMapping(value = "/add")
-    public NoteModel addNote(@RequestBody NoteModel newNote) {
-        return noteService.insertNote(newNote);
+    public NoteModel addNote(@RequestBody NoteModel newNote, @RequestHeader(value = "Authorization", required = false) String authHeader) {
+        NoteModel note = noteService.insertNote(newNote);
+        invalidationRisqueService.invaliderRisque(note.getIdPatient(), authHeader);
+        return note;
     }
 
     /**
      * Supprime une note spécifique.
      *
-     * @param id l'identifiant de la note à supprimer.
+     * Le niveau de risque du patient de la note est invalidé.
+     *
+     * @param id         l'identifiant de la note à supprimer.
+     * @param authHeader l'en-tête d'autorisation, transmis au microservice back-diabete.
      */
     @DeleteMapping(value = "/delete/{id}")
-    public void deleteNote(@PathVariable String id) {
+    public void deleteNote(@PathVariable String id, @RequestHeader(value = "Authorization", required = false) String authHeader) {
         logger.info("Suppression de la note ID: {}", id);
+        Optional<NoteModel> note = noteService.getNoteById(id);
         noteService.deleteNote(id);
+        note.ifPresent(noteSupprimee -> invalidationRisqueService.invaliderRisque(noteSupprimee.getIdPatient(), authHeader));
     }
 
     /**
      * Supprime toutes les notes associées à un patient spécifique.
      *
-     * @param id l'identifiant du patient dont les notes doivent être supprimées.
+     * Le niveau de risque du patient est invalidé.
+     *
+     * @param id         l'identifiant du patient dont les notes doivent être supprimées.
+     * @param authHeader l'en-tête d'autorisation, transmis au microservice back-diabete.
      */
     @DeleteMapping(value = "/deleteAll/{id}")
-    public void deleteNoteByPatientId(@PathVariable String id) {
+    public void deleteNoteByPatientId(@PathVariable String id, @RequestHeader(value = "Authorization", required = false) String authHeader) {
         logger.info("Suppression des notes du patient ID: {}", id);
         noteService.deleteNoteByPatientId(id);
+        invalidationRisqueService.invaliderRisque(id, authHeader);
     }
 
     /**
@@ -116,4 +147,40 @@ public class NoteController {
         logger.info("Liste des notes récupérée avec succès pour le patient avec l'ID: {}", id);
         return notes;
     }
-}
\ No newline at end of file
+
+    /**
+     * Gère la requête POST pour obtenir en une seule fois les notes de plusieurs patients.
+     * Chaque patient demandé est présent dans la réponse, avec une liste vide s'il n'a pas de note.
+     *
+     * @param ids Les identifiants des patients pour lesquels les notes doivent être récupérées.
+     * @return Map associant l'identifiant de chaque patient à la liste du texte de ses notes.
+     */
+    @PostMapping(value = "/getListeNotes/batch")
+    public Map<String, List<String>> getListeNotesLot(@RequestBody List<String> ids) {
+        logger.info("Requête reçue pour obtenir la liste des notes de {} patients", ids.size());
+        Map<String, List<String>> notes = new LinkedHashMap<>();
+        for (String id : ids) {
+            notes.put(id, new ArrayList<>());
+        }
+        for (NoteModel note : noteService.getNoteByIdsPatient(ids)) {
+            notes.get(note.getIdPatient()).add(note.getNote());
+        }
+        logger.info("Liste des notes récupérée avec succès pour {} patients", notes.size());
+        return notes;
+    }
+
+    /**
+     * Gère la requête GET pour obtenir les familles de termes déclencheurs présentes dans les notes d'un patient.
+     * Les familles sont détectées à l'écriture des notes : seul le texte des notes annotées avec une autre version
+     * du dictionnaire que celle de l'appelant est transféré, afin que l'appelant les analyse lui-même.
+     *
+     * @param idPatient L'identifiant unique du patient.
+     * @param version   La version du dictionnaire de l'appelant.
+     * @return Les familles de termes distinctes des notes annotées avec cette version, et le texte des autres notes.
+     */
+    @GetMapping(value = "/triggerFamilies/{idPatient}")
+    public FamillesTermesDTO getFamillesTermes(@PathVariable String idPatient, @RequestParam String version) {
+        logger.info("Requête reçue pour obtenir les familles de termes déclencheurs du patient avec l'ID: {}", idPatient);
+        return noteService.getFamillesTermes(idPatient, version);
+    }
+}
@@ -4,9 +4,12 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
+import java.util.List;
+
 /**
  * Modèle représentant une note dans l'application.
  * Mappé à la collection 'notes' dans MongoDB.
@@ -29,6 +32,7 @@ public class NoteModel {
      * Identifiant du patient associé à la note.
      * Stocké dans le champ 'patid' de la base de données.
      */
+    @Indexed
     @Field("patid")
     private String idPatient;
 
@@ -38,4 +42,18 @@ public class NoteModel {
      */
     @Field("note")
     private String note;
-}
\ No newline at end of file
+
+    /**
+     * Familles de termes déclencheurs du diabète présentes dans la note, détectées à l'écriture.
+     * Stockées dans le champ 'familles'.
+     */
+    @Field("familles")
+    private List<String> famillesTermes;
+
+    /**
+     * Version du dictionnaire des termes déclencheurs utilisée pour détecter les familles.
+     * Stockée dans le champ 'versionFamilles'.
+     */
+    @Field("versionFamilles")
+    private String versionFamilles;
+}
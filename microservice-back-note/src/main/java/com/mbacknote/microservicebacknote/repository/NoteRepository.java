@@ -3,6 +3,7 @@ package com.mbacknote.microservicebacknote.repository;
 import com.mbacknote.microservicebacknote.model.entity.NoteModel;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -21,10 +22,18 @@ public interface NoteRepository extends MongoRepository<NoteModel, String> {
      */
     List<NoteModel> findByIdPatient(String idPatient);
 
+    /**
+     * Trouve en une seule requête toutes les notes associées à un ensemble de patients.
+     *
+     * @param idsPatient les identifiants des patients.
+     * @return une liste de NoteModel correspondant aux patients spécifiés.
+     */
+    List<NoteModel> findByIdPatientIn(Collection<String> idsPatient);
+
     /**
      * Supprime toutes les notes associées à un patient spécifique.
      *
      * @param idPatient l'identifiant du patient dont les notes doivent être supprimées.
      */
     void deleteByIdPatient(String idPatient);
-}
\ No newline at end of file
+}
@@ -1,5 +1,6 @@
 package com.mbacknote.microservicebacknote.service;
 
+import com.mbacknote.microservicebacknote.model.dto.FamillesTermesDTO;
 import com.mbacknote.microservicebacknote.model.entity.NoteModel;
 import java.util.List;
 import java.util.Optional;
@@ -20,6 +21,14 @@ public interface NoteService {
      */
     List<NoteModel> getNoteByIdPatient(String idPatient);
 
+    /**
+     * Récupère en une seule requête les notes associées à plusieurs patients.
+     *
+     * @param idsPatient Les identifiants des patients pour lesquels les notes sont recherchées.
+     * @return Une liste de NoteModel correspondant aux patients spécifiés.
+     */
+    List<NoteModel> getNoteByIdsPatient(List<String> idsPatient);
+
     /**
      * Récupère une note spécifique par son identifiant.
      *
@@ -58,4 +67,27 @@ public interface NoteService {
      */
     void deleteNoteByPatientId(String patientId);
 
+    /**
+     * Récupère l'union des familles de termes déclencheurs des notes d'un patient annotées avec une version du dictionnaire,
+     * et le texte des notes annotées avec une autre version.
+     *
+     * @param idPatient L'identifiant du patient.
+     * @param version   La version du dictionnaire de l'appelant.
+     * @return Les familles de termes distinctes détectées à l'écriture des notes, et les notes à analyser par l'appelant.
+     */
+    FamillesTermesDTO getFamillesTermes(String idPatient, String version);
+
+    /**
+     * Annote les notes existantes qui ne l'ont pas encore été avec la version courante du dictionnaire,
+     * sans écraser une note modifiée pendant l'annotation.
+     *
+     * @return Le nombre de notes annotées.
+     */
+    long annoterNotesExistantes();
+
+    /**
+     * Lance en arrière-plan l'annotation des notes existantes.
+     */
+    void lancerAnnotationNotesExistantes();
+
 }
\ No newline at end of file
@@ -1,11 +1,24 @@
 package com.mbacknote.microservicebacknote.service.impl;
 
+import com.mbacknote.microservicebacknote.automate.AnnotateurTermesDeclencheurs;
+import com.mbacknote.microservicebacknote.automate.DictionnaireRechargeEvent;
+import com.mbacknote.microservicebacknote.model.dto.FamillesTermesDTO;
 import com.mbacknote.microservicebacknote.model.entity.NoteModel;
 import com.mbacknote.microservicebacknote.repository.NoteRepository;
 import com.mbacknote.microservicebacknote.service.NoteService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -22,9 +35,20 @@ public class NoteServiceImpl implements NoteService {
 
     private static final Logger logger = LoggerFactory.getLogger(NoteServiceImpl.class);
 
+    /**
+     * Nombre de notes lues puis réannotées en une seule requête.
+     */
+    private static final int TAILLE_LOT_ANNOTATION = 500;
+
     @Autowired
     private NoteRepository noteRepository;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private AnnotateurTermesDeclencheurs annotateur;
+
     /**
      * Récupère une liste de notes basée sur l'identifiant du patient.
      *
@@ -37,6 +61,18 @@ public class NoteServiceImpl implements NoteService {
         return noteRepository.findByIdPatient(idPatient);
     }
 
+    /**
+     * Récupère en une seule requête les notes associées à plusieurs patients.
+     *
+     * @param idsPatient Les identifiants des patients.
+     * @return Liste des NoteModel correspondantes aux identifiants des patients.
+     */
+    @Override
+    public List<NoteModel> getNoteByIdsPatient(List<String> idsPatient) {
+        logger.info("getNoteByIdsPatient pour {} patients", idsPatient.size());
+        return noteRepository.findByIdPatientIn(idsPatient);
+    }
+
     /**
      * Obtient une note spécifique par son identifiant.
      *
@@ -58,7 +94,7 @@ public class NoteServiceImpl implements NoteService {
     @Override
     public NoteModel insertNote(NoteModel insertNote) {
         logger.info("insertNote");
-        return noteRepository.insert(insertNote);
+        return noteRepository.insert(annotateur.annoter(insertNote));
     }
 
     /**
@@ -70,7 +106,7 @@ public class NoteServiceImpl implements NoteService {
     @Override
     public NoteModel updateNote(NoteModel updatedNote) {
         logger.info("updateNote pour la note ID: {}", updatedNote.getId());
-        return noteRepository.save(updatedNote);
+        return noteRepository.save(annotateur.annoter(updatedNote));
     }
 
     /**
@@ -94,4 +130,75 @@ public class NoteServiceImpl implements NoteService {
         logger.info("deleteNoteByPatientId pour l'ID patient: {}", idPatient);
         noteRepository.deleteByIdPatient(idPatient);
     }
-}
\ No newline at end of file
+
+    /**
+     * Récupère l'union des familles de termes déclencheurs des notes d'un patient annotées avec la version demandée,
+     * en une requête distinct sur le champ indexé 'patid', puis le seul texte des notes annotées avec une autre version.
+     *
+     * @param idPatient L'identifiant du patient.
+     * @param version   La version du dictionnaire de l'appelant.
+     * @return Les familles de termes distinctes et le texte des notes à analyser par l'appelant.
+     */
+    @Override
+    public FamillesTermesDTO getFamillesTermes(String idPatient, String version) {
+        logger.info("getFamillesTermes pour l'ID patient: {}, version du dictionnaire: {}", idPatient, version);
+        List<String> familles = mongoTemplate.findDistinct(new Query(Criteria.where("patid").is(idPatient).and("versionFamilles").is(version)),
+                "familles", NoteModel.class, String.class);
+        Query autresVersions = new Query(Criteria.where("patid").is(idPatient).and("versionFamilles").ne(version));
+        autresVersions.fields().include("note");
+        List<String> notes = mongoTemplate.find(autresVersions, NoteModel.class).stream().map(NoteModel::getNote).toList();
+        return new FamillesTermesDTO(familles, notes);
+    }
+
+    /**
+     * Lance en arrière-plan l'annotation des notes existantes, au démarrage du microservice et après chaque
+     * rechargement du dictionnaire, afin de ne retarder ni le démarrage ni le rechargement.
+     */
+    @Override
+    @Async
+    @EventListener({ApplicationReadyEvent.class, DictionnaireRechargeEvent.class})
+    public void lancerAnnotationNotesExistantes() {
+        annoterNotesExistantes();
+    }
+
+    /**
+     * Annote par lots les notes écrites avant l'annotation, ou avec une autre version du dictionnaire.
+     * Les notes sont parcourues par identifiant croissant, un lot à la fois, sans curseur ouvert entre deux lots.
+     * Seuls les champs d'annotation sont écrits, et uniquement si le texte de la note est inchangé depuis sa lecture :
+     * une note modifiée entre-temps n'est pas écrasée, elle a déjà été annotée par sa mise à jour.
+     * Les exécutions se succèdent sans se chevaucher ; une erreur d'accès à la base est journalisée.
+     *
+     * @return Le nombre de notes annotées.
+     */
+    @Override
+    public synchronized long annoterNotesExistantes() {
+        String version = annotateur.getVersion();
+        long nbNotes = 0;
+        String dernierId = null;
+        try {
+            List<NoteModel> lot;
+            do {
+                Criteria criteres = Criteria.where("versionFamilles").ne(version);
+                if (dernierId != null) {
+                    criteres = criteres.and("id").gt(dernierId);
+                }
+                lot = mongoTemplate.find(new Query(criteres).with(Sort.by("id")).limit(TAILLE_LOT_ANNOTATION), NoteModel.class);
+                if (!lot.isEmpty()) {
+                    BulkOperations ecritures = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, NoteModel.class);
+                    for (NoteModel note : lot) {
+                        String texte = note.getNote();
+                        annotateur.annoter(note);
+                        ecritures.updateOne(new Query(Criteria.where("id").is(note.getId()).and("note").is(texte)),
+                                new Update().set("familles", note.getFamillesTermes()).set("versionFamilles", note.getVersionFamilles()));
+                    }
+                    nbNotes += ecritures.execute().getModifiedCount();
+                    dernierId = lot.get(lot.size() - 1).getId();
+                }
+            } while (lot.size() == TAILLE_LOT_ANNOTATION);
+            logger.info("annoterNotesExistantes : {} notes annotées", nbNotes);
+        } catch (DataAccessException e) {
+            logger.error("annoterNotesExistantes interrompu après {} notes : {}", nbNotes, e.getMessage());
+        }
+        return nbNotes;
+    }
+}
@@ -1,6 +1,7 @@
 package com.mbacknote.microservicebacknote.controllerTest;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mbacknote.microservicebacknote.automate.AnnotateurTermesDeclencheurs;
 import com.mbacknote.microservicebacknote.model.entity.NoteModel;
 import com.mbacknote.microservicebacknote.service.NoteService;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,7 +14,10 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
+import java.util.List;
+
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.hasItems;
 import static org.hamcrest.Matchers.hasSize;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -42,6 +46,9 @@ public class NoteControllerTest {
     @Autowired
     private NoteService noteService;
 
+    @Autowired
+    private AnnotateurTermesDeclencheurs annotateur;
+
     /**
      * Configuration initiale avant chaque test.
      */
@@ -161,4 +168,26 @@ public class NoteControllerTest {
         // Exécution de la requête GET pour récupérer la liste des notes
         mockMvc.perform(get("/noteBack/getListeNotes/" + patientId).with(user("user1"))).andExpect(status().isOk()).andExpect(jsonPath("$", hasSize(3))).andExpect(jsonPath("$[0]", is("Le patient déclare qu'il lui est devenu difficile de monter les escaliers Il se plaint également d’être essoufflé Tests de laboratoire indiquant que les anticorps sont élevés Réaction aux médicaments")));
     }
-}
\ No newline at end of file
+
+    /**
+     * Teste la récupération groupée des notes de plusieurs patients.
+     * Vérifie que chaque patient demandé est présent, y compris sans note.
+     */
+    @Test
+    public void getListeNotesLotTest() throws Exception {
+        mockMvc.perform(post("/noteBack/getListeNotes/batch").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(List.of("4", "patientSansNote"))).with(user("user1"))).andExpect(status().isOk()).andExpect(jsonPath("$.4", hasSize(3))).andExpect(jsonPath("$.patientSansNote", hasSize(0)));
+    }
+
+    /**
+     * Teste la récupération des familles de termes déclencheurs détectées à l'écriture des notes d'un patient.
+     * Vérifie que les notes annotées avec une autre version du dictionnaire que celle de l'appelant sont renvoyées en texte.
+     */
+    @Test
+    public void getFamillesTermesTest() throws Exception {
+        noteService.annoterNotesExistantes();
+        mockMvc.perform(get("/noteBack/triggerFamilies/4").param("version", annotateur.getVersion()).with(user("user1"))).andExpect(status().isOk())
+                .andExpect(jsonPath("$.familles", hasItems("anticorps", "réaction"))).andExpect(jsonPath("$.notes", hasSize(0)));
+        mockMvc.perform(get("/noteBack/triggerFamilies/4").param("version", "autreVersion").with(user("user1"))).andExpect(status().isOk())
+                .andExpect(jsonPath("$.familles", hasSize(0))).andExpect(jsonPath("$.notes", hasSize(3)));
+    }
+}
@@ -0,0 +1,39 @@
+package com.mbacknote.microservicebacknote.serviceTest;
+
+import com.mbacknote.microservicebacknote.automate.AnnotateurTermesDeclencheurs;
+import com.mbacknote.microservicebacknote.configuration.CustomProperties;
+import com.mbacknote.microservicebacknote.model.entity.NoteModel;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Classe de test pour AnnotateurTermesDeclencheurs.
+ * Vérifie la détection des familles de termes déclencheurs à l'écriture d'une note.
+ *
+ * @author mickael hayé
+ * @version 1.0
+ */
+public class AnnotateurTermesDeclencheursTest {
+
+    /**
+     * Teste qu'une famille n'est enregistrée qu'une fois, quel que soit le synonyme ou la casse rencontrés,
+     * et que la version du dictionnaire est enregistrée sur la note.
+     */
+    @Test
+    public void annoterTest() {
+        CustomProperties prop = new CustomProperties();
+        prop.setTermesDiabeteFilePath("classpath:data/termesDiabete");
+        AnnotateurTermesDeclencheurs annotateur = new AnnotateurTermesDeclencheurs(prop, evenement -> { });
+
+        NoteModel note = new NoteModel();
+        note.setIdPatient("1");
+        note.setNote("Fumeur depuis 10 ans, FUMER aggrave son Cholestérol ; poids anormal");
+        annotateur.annoter(note);
+
+        assertEquals(List.of("poids", "fumeur,fumeuse,fumer", "anormal,anormale,anormales", "cholestérol"), note.getFamillesTermes());
+        assertEquals(annotateur.getVersion(), note.getVersionFamilles());
+    }
+}
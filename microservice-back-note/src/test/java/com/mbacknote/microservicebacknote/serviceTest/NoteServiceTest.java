@@ -0,0 +1,47 @@
+package com.mbacknote.microservicebacknote.serviceTest;
+
+import com.mbacknote.microservicebacknote.model.entity.NoteModel;
+import com.mbacknote.microservicebacknote.service.NoteService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Classe de test pour l'annotation des notes existantes du NoteService.
+ * @author mickael hayé
+ * @version 1.0
+ */
+@SpringBootTest
+public class NoteServiceTest {
+
+    @Autowired
+    private NoteService noteService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * Teste que les notes annotées avec une ancienne version du dictionnaire sont réannotées, sans modifier leur texte.
+     */
+    @Test
+    public void annoterNotesExistantesTest() {
+        NoteModel note = mongoTemplate.insert(new NoteModel(null, "annotationTest", "Hémoglobine A1C élevée, Fumeur", List.of(), "ancienne"));
+        try {
+            assertTrue(noteService.annoterNotesExistantes() >= 1);
+
+            NoteModel annotee = mongoTemplate.findById(note.getId(), NoteModel.class);
+            assertNotEquals("ancienne", annotee.getVersionFamilles());
+            assertEquals("Hémoglobine A1C élevée, Fumeur", annotee.getNote());
+            assertEquals(2, annotee.getFamillesTermes().size());
+        } finally {
+            mongoTemplate.remove(note);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.mbackpatient.microservicebackpatient.controller;
 
+import com.mcommun.microservicecommun.service.InvalidationRisqueService;
 import com.mbackpatient.microservicebackpatient.exceptions.PatientNotFoundException;
+import com.mbackpatient.microservicebackpatient.model.dto.PagePatientsDTO;
 import com.mbackpatient.microservicebackpatient.model.dto.PatientInfoDTO;
 import com.mbackpatient.microservicebackpatient.model.entity.PatientModel;
 import com.mbackpatient.microservicebackpatient.service.PatientService;
@@ -8,7 +10,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 
@@ -22,22 +30,54 @@ import java.util.Optional;
 public class PatientController {
 
     private static final Logger logger = LoggerFactory.getLogger(PatientController.class);
+    /**
+     * Nombre maximal de patients renvoyés par page.
+     */
+    private static final int TAILLE_PAGE_MAX = 5000;
+    /**
+     * Nombre maximal de patients par page de la liste des patients.
+     */
+    private static final int TAILLE_PAGE_LISTE_MAX = 100;
     /**
      * Service pour les opérations liées au patient.
      */
     @Autowired
     private PatientService patientService;
 
+    /**
+     * Service de notification du microservice back-diabete.
+     */
+    @Autowired
+    private InvalidationRisqueService invalidationRisqueService;
+
     /**
      * Récupère la liste de tous les patients.
+     * Conservé pour les clients existants : la réponse grandit avec le nombre de patients, utiliser "/page".
      *
      * @return La liste des patients.
      */
+    @Deprecated
     @GetMapping(value = "/list")
     public List<PatientModel> listPatient() {
         return (List<PatientModel>) patientService.getPatients();
     }
 
+    /**
+     * Récupère une page de la liste des patients, triée par identifiant ou par nom.
+     * La page suivante est obtenue en renvoyant le jeton "suite" reçu avec la page, avec le même tri.
+     *
+     * @param tri    Le tri de la liste : "id" (par défaut) ou "nom".
+     * @param taille Le nombre maximal de patients de la page, limité à 100.
+     * @param suite  Le jeton de suite de la page précédente, absent pour la première page.
+     * @return La page de patients et le jeton de la page suivante, null sur la dernière page.
+     * @throws com.mbackpatient.microservicebackpatient.exceptions.SuiteInvalideException si le tri ou le jeton est invalide.
+     */
+    @GetMapping(value = "/page")
+    public PagePatientsDTO pagePatients(@RequestParam(defaultValue = "id") String tri, @RequestParam(defaultValue = "20") int taille,
+                                        @RequestParam(required = false) String suite) {
+        return patientService.getPagePatients(tri, Math.max(1, Math.min(taille, TAILLE_PAGE_LISTE_MAX)), suite);
+    }
+
     /**
      * Récupère le formulaire de mise à jour pour un patient spécifique.
      *
@@ -58,12 +98,24 @@ public class PatientController {
     /**
      * Met à jour les informations d'un patient.
      *
+     * Si la date de naissance ou le genre change, le niveau de risque du patient est invalidé.
+     *
      * @param updatedPatient Les nouvelles informations du patient.
+     * @param authHeader     L'en-tête d'autorisation, transmis au microservice back-diabete.
      * @return Le patient mis à jour.
      */
     @PostMapping(value = "/update/{id}")
-    public PatientModel updatePatient(@RequestBody PatientModel updatedPatient) {
-        return patientService.savePatient(updatedPatient);
+    public PatientModel updatePatient(@RequestBody PatientModel updatedPatient, @RequestHeader(value = "Authorization", required = false) String authHeader) {
+        Optional<PatientModel> ancienPatient = patientService.getPatientById(String.valueOf(updatedPatient.getId()));
+        boolean infoDiabeteModifiee = ancienPatient
+                .map(ancien -> !Objects.equals(ancien.getGenre(), updatedPatient.getGenre())
+                        || !memeJour(ancien.getDateDeNaissance(), updatedPatient.getDateDeNaissance()))
+                .orElse(false);
+        PatientModel patient = patientService.savePatient(updatedPatient);
+        if (infoDiabeteModifiee) {
+            invalidationRisqueService.invaliderRisque(String.valueOf(patient.getId()), authHeader);
+        }
+        return patient;
     }
 
     /**
@@ -80,12 +132,16 @@ public class PatientController {
     /**
      * Supprime un patient spécifique.
      *
+     * Le niveau de risque du patient est invalidé.
+     *
      * @param id         L'identifiant du patient à supprimer.
+     * @param authHeader L'en-tête d'autorisation, transmis au microservice back-diabete.
      */
     @DeleteMapping(value = "/delete/{id}")
-    public void deletePatient(@PathVariable String id) {
+    public void deletePatient(@PathVariable String id, @RequestHeader(value = "Authorization", required = false) String authHeader) {
         logger.info("Suppression du patient ID: {}", id);
         patientService.deletePatient(id);
+        invalidationRisqueService.invaliderRisque(id, authHeader);
     }
 
     /**
@@ -111,4 +167,51 @@ public class PatientController {
         logger.info("Informations sur le patient avec l'ID: {} récupérées avec succès", id);
         return patientInfoDTO;
     }
-}
\ No newline at end of file
+
+    /**
+     * Gère la requête POST pour obtenir en une seule fois les informations diabète de plusieurs patients.
+     * Les patients inconnus sont absents de la réponse.
+     *
+     * @param ids Les identifiants des patients pour lesquels les informations sont demandées.
+     * @return Map associant l'identifiant de chaque patient trouvé à sa date de naissance et son genre.
+     */
+    @PostMapping(value = "/getInfoDiabete/batch")
+    public Map<String, PatientInfoDTO> getInfoDiabeteLot(@RequestBody List<String> ids) {
+        logger.info("Requête reçue pour obtenir des informations sur le diabète pour {} patients", ids.size());
+        Map<String, PatientInfoDTO> infos = new LinkedHashMap<>();
+        for (PatientModel patient : patientService.getPatientsByIds(ids)) {
+            infos.put(String.valueOf(patient.getId()), new PatientInfoDTO(patient.getDateDeNaissance(), patient.getGenre()));
+        }
+        logger.info("Informations sur {} patients récupérées avec succès", infos.size());
+        return infos;
+    }
+
+    /**
+     * Gère la requête GET pour parcourir page par page les informations diabète de tous les patients.
+     * Les patients sont triés par identifiant ; la page suivante est obtenue en passant le dernier identifiant reçu.
+     *
+     * @param apresId L'identifiant du dernier patient de la page précédente (0 pour la première page).
+     * @param taille  Le nombre maximal de patients de la page.
+     * @return Map ordonnée associant l'identifiant de chaque patient de la page à sa date de naissance et son genre.
+     */
+    @GetMapping(value = "/getInfoDiabete/page")
+    public Map<String, PatientInfoDTO> getInfoDiabetePage(@RequestParam(defaultValue = "0") int apresId, @RequestParam(defaultValue = "500") int taille) {
+        logger.info("Requête reçue pour obtenir une page de {} patients après l'ID: {}", taille, apresId);
+        Map<String, PatientInfoDTO> infos = new LinkedHashMap<>();
+        for (PatientModel patient : patientService.getPatientsApres(apresId, Math.max(1, Math.min(taille, TAILLE_PAGE_MAX)))) {
+            infos.put(String.valueOf(patient.getId()), new PatientInfoDTO(patient.getDateDeNaissance(), patient.getGenre()));
+        }
+        return infos;
+    }
+
+    /**
+     * Compare deux dates au jour près : la date lue en base et la date reçue du front n'ont pas forcément le même type.
+     */
+    private static boolean memeJour(Date premiere, Date seconde) {
+        if (premiere == null || seconde == null) {
+            return premiere == seconde;
+        }
+        return Instant.ofEpochMilli(premiere.getTime()).atZone(ZoneId.systemDefault()).toLocalDate()
+                .equals(Instant.ofEpochMilli(seconde.getTime()).atZone(ZoneId.systemDefault()).toLocalDate());
+    }
+}
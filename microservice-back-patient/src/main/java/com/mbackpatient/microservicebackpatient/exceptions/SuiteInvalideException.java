@@ -0,0 +1,25 @@
+package com.mbackpatient.microservicebackpatient.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception lancée lorsque les paramètres de pagination de la liste des patients sont invalides
+ * (tri inconnu, jeton de suite illisible ou émis pour un autre tri).
+ * Elle retourne un code HTTP "BAD_REQUEST" lorsque cette exception est lancée.
+ *
+ * @author mickael hayé
+ * @version 1.0
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class SuiteInvalideException extends RuntimeException {
+
+    /**
+     * Construit une nouvelle instance de {@link SuiteInvalideException}.
+     *
+     * @param message Le message d'erreur à associer à l'exception.
+     */
+    public SuiteInvalideException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,30 @@
+package com.mbackpatient.microservicebackpatient.model.dto;
+
+import com.mbackpatient.microservicebackpatient.model.entity.PatientModel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Page de la liste des patients, avec le jeton permettant d'obtenir la page suivante.
+ *
+ * @author mickael hayé
+ * @version 1.0
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PagePatientsDTO {
+
+    /**
+     * Les patients de la page, dans l'ordre du tri demandé.
+     */
+    private List<PatientModel> patients;
+
+    /**
+     * Jeton opaque à renvoyer pour obtenir la page suivante, null sur la dernière page.
+     */
+    private String suite;
+}
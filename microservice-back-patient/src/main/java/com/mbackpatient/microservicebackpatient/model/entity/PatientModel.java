@@ -14,6 +14,7 @@ import java.util.Date;
  * Classe représentant un patient dans le système de gestion de patients.
  * Utilise Lombok pour générer automatiquement les getters, setters, et le constructeur.
  * Cette classe est mappée à une table nommée 'patient' dans la base de données.
+ * L'index sur (nom, patient_id) sert la pagination de la liste des patients triée par nom.
  *
  * @author mickael hayé
  * @version 1.0
@@ -23,7 +24,7 @@ import java.util.Date;
 @NoArgsConstructor
 @Entity
 @DynamicUpdate
-@Table(name = "patients")
+@Table(name = "patients", indexes = @Index(name = "idx_patients_nom_id", columnList = "nom, patient_id"))
 public class PatientModel {
 
     /**
@@ -4,7 +4,12 @@
 package com.mbackpatient.microservicebackpatient.repository;
 
 import com.mbackpatient.microservicebackpatient.model.entity.PatientModel;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
 
 /**
  * Interface de dépôt pour {@link PatientModel}.
@@ -16,4 +21,38 @@ import org.springframework.data.repository.CrudRepository;
  * @version 1.0
  */
 public interface PatientRepository extends CrudRepository<PatientModel, Integer> {
-}
\ No newline at end of file
+
+    /**
+     * Récupère une page de patients dont l'identifiant est strictement supérieur à celui donné, triés par identifiant.
+     * La pagination par clé ne relit pas les lignes déjà parcourues, quel que soit le rang de la page.
+     *
+     * @param id       l'identifiant du dernier patient de la page précédente
+     * @param pageable la taille de la page
+     * @return la liste des patients de la page
+     */
+    List<PatientModel> findByIdGreaterThanOrderByIdAsc(Integer id, Pageable pageable);
+
+    /**
+     * Récupère une page de patients triés par nom puis par identifiant, placée après le patient (nom, id) donné.
+     * La condition porte sur le couple (nom, identifiant), couvert par l'index "idx_patients_nom_id".
+     *
+     * @param nom      le nom du dernier patient de la page précédente
+     * @param id       l'identifiant du dernier patient de la page précédente
+     * @param pageable la taille de la page
+     * @return la liste des patients de la page
+     */
+    @Query("select p from PatientModel p where p.nom > :nom or (p.nom = :nom and p.id > :id) order by p.nom asc, p.id asc")
+    List<PatientModel> findPageParNomApres(@Param("nom") String nom, @Param("id") int id, Pageable pageable);
+
+    /**
+     * Récupère une page de patients triés par nom puis par identifiant, placée après le patient sans nom d'identifiant donné.
+     * MySQL place les noms nuls en tête du tri croissant : la page se poursuit par les patients sans nom d'identifiant
+     * supérieur, puis par tous les patients nommés. Avec l'identifiant 0, la requête renvoie la première page.
+     *
+     * @param id       l'identifiant du dernier patient sans nom de la page précédente
+     * @param pageable la taille de la page
+     * @return la liste des patients de la page
+     */
+    @Query("select p from PatientModel p where p.nom is not null or p.id > :id order by p.nom asc, p.id asc")
+    List<PatientModel> findPageParNomApresSansNom(@Param("id") int id, Pageable pageable);
+}
@@ -4,8 +4,10 @@
  */
 package com.mbackpatient.microservicebackpatient.service;
 
+import com.mbackpatient.microservicebackpatient.model.dto.PagePatientsDTO;
 import com.mbackpatient.microservicebackpatient.model.entity.PatientModel;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -32,6 +34,37 @@ public interface PatientService {
      */
     Optional<PatientModel> getPatientById(String id);
 
+    /**
+     * Récupère en une seule requête les patients correspondant à une liste d'identifiants.
+     * Les identifiants non numériques ou inconnus sont ignorés.
+     *
+     * @param ids les identifiants des patients à récupérer
+     * @return une collection iterable des patients trouvés
+     */
+    Iterable<PatientModel> getPatientsByIds(List<String> ids);
+
+    /**
+     * Récupère une page de patients triés par identifiant, à partir d'un identifiant exclu.
+     *
+     * @param apresId l'identifiant du dernier patient de la page précédente
+     * @param taille  le nombre maximal de patients de la page
+     * @return la liste des patients de la page, vide lorsque tous les patients ont été parcourus
+     */
+    List<PatientModel> getPatientsApres(int apresId, int taille);
+
+    /**
+     * Récupère une page de la liste des patients, triée par identifiant ("id") ou par nom puis identifiant ("nom").
+     * La page est repérée par la clé du dernier patient de la page précédente, portée par le jeton de suite.
+     *
+     * @param tri    le tri de la liste, "id" ou "nom"
+     * @param taille le nombre maximal de patients de la page
+     * @param suite  le jeton de suite reçu avec la page précédente, null pour la première page
+     * @return la page de patients, avec le jeton de la page suivante (null sur la dernière page)
+     * @throws com.mbackpatient.microservicebackpatient.exceptions.SuiteInvalideException si le tri est inconnu
+     *         ou si le jeton est invalide pour ce tri
+     */
+    PagePatientsDTO getPagePatients(String tri, int taille, String suite);
+
     /**
      * Ajoute un patient.
      *
@@ -4,13 +4,21 @@
  */
 package com.mbackpatient.microservicebackpatient.service.impl;
 
+import com.mbackpatient.microservicebackpatient.exceptions.SuiteInvalideException;
+import com.mbackpatient.microservicebackpatient.model.dto.PagePatientsDTO;
 import com.mbackpatient.microservicebackpatient.model.entity.PatientModel;
 import com.mbackpatient.microservicebackpatient.repository.PatientRepository;
 import com.mbackpatient.microservicebackpatient.service.PatientService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -25,6 +33,8 @@ import java.util.Optional;
 public class PatientServiceImpl implements PatientService {
 
     private static final Logger logger = LoggerFactory.getLogger(PatientServiceImpl.class);
+    private static final String TRI_ID = "id";
+    private static final String TRI_NOM = "nom";
 
     @Autowired
     private PatientRepository patientRepository;
@@ -52,6 +62,102 @@ public class PatientServiceImpl implements PatientService {
         return patientRepository.findById(Integer.parseInt(id));
     }
 
+    /**
+     * Récupère en une seule requête les patients correspondant à une liste d'identifiants.
+     *
+     * @param ids Les identifiants des patients.
+     * @return Iterable de PatientModel représentant les patients trouvés.
+     */
+    @Override
+    public Iterable<PatientModel> getPatientsByIds(List<String> ids) {
+        logger.info("Récupération de {} patients par identifiant.", ids.size());
+        List<Integer> idsNumeriques = new ArrayList<>();
+        for (String id : ids) {
+            try {
+                idsNumeriques.add(Integer.parseInt(id));
+            } catch (NumberFormatException e) {
+                logger.warn("Identifiant de patient invalide ignoré : {}", id);
+            }
+        }
+        return patientRepository.findAllById(idsNumeriques);
+    }
+
+    /**
+     * Récupère une page de patients triés par identifiant, à partir d'un identifiant exclu.
+     *
+     * @param apresId L'identifiant du dernier patient de la page précédente.
+     * @param taille  Le nombre maximal de patients de la page.
+     * @return Liste de PatientModel représentant la page.
+     */
+    @Override
+    public List<PatientModel> getPatientsApres(int apresId, int taille) {
+        logger.info("Récupération de {} patients après l'ID : {}", taille, apresId);
+        return patientRepository.findByIdGreaterThanOrderByIdAsc(apresId, PageRequest.of(0, taille));
+    }
+
+    /**
+     * Récupère une page de la liste des patients par pagination par clé : la requête reprend après la clé du dernier
+     * patient de la page précédente, au lieu de sauter les lignes déjà parcourues.
+     * Un patient de plus que la taille demandée est lu pour savoir s'il existe une page suivante.
+     *
+     * @param tri    Le tri de la liste, "id" ou "nom".
+     * @param taille Le nombre maximal de patients de la page.
+     * @param suite  Le jeton de suite reçu avec la page précédente, null pour la première page.
+     * @return PagePatientsDTO représentant la page et le jeton de la page suivante.
+     */
+    @Override
+    public PagePatientsDTO getPagePatients(String tri, int taille, String suite) {
+        logger.info("Récupération d'une page de {} patients triés par {}", taille, tri);
+        Pageable limite = PageRequest.of(0, taille + 1);
+        List<PatientModel> patients;
+        if (TRI_ID.equals(tri)) {
+            int apresId = suite == null ? 0 : Integer.parseInt(lireSuite(tri, suite)[1]);
+            patients = patientRepository.findByIdGreaterThanOrderByIdAsc(apresId, limite);
+        } else if (TRI_NOM.equals(tri)) {
+            String[] cle = suite == null ? new String[]{TRI_NOM, "0"} : lireSuite(tri, suite);
+            patients = cle.length == 3
+                    ? patientRepository.findPageParNomApres(cle[2], Integer.parseInt(cle[1]), limite)
+                    : patientRepository.findPageParNomApresSansNom(Integer.parseInt(cle[1]), limite);
+        } else {
+            throw new SuiteInvalideException("Tri de la liste des patients inconnu : " + tri);
+        }
+        if (patients.size() <= taille) {
+            return new PagePatientsDTO(patients, null);
+        }
+        List<PatientModel> page = new ArrayList<>(patients.subList(0, taille));
+        return new PagePatientsDTO(page, ecrireSuite(tri, page.get(taille - 1)));
+    }
+
+    /**
+     * Encode la clé du dernier patient de la page dans un jeton opaque "tri:id[:nom]" en Base64 URL.
+     * Le nom est absent pour un patient sans nom.
+     */
+    private static String ecrireSuite(String tri, PatientModel dernier) {
+        String cle = tri + ':' + dernier.getId();
+        if (TRI_NOM.equals(tri) && dernier.getNom() != null) {
+            cle += ':' + dernier.getNom();
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cle.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Décode un jeton de suite et vérifie qu'il a été émis pour le tri demandé.
+     *
+     * @return le tri, l'identifiant et, le cas échéant, le nom du dernier patient de la page précédente.
+     */
+    private static String[] lireSuite(String tri, String suite) {
+        try {
+            String[] cle = new String(Base64.getUrlDecoder().decode(suite), StandardCharsets.UTF_8).split(":", 3);
+            if (cle.length < 2 || !tri.equals(cle[0]) || (TRI_ID.equals(tri) && cle.length > 2)) {
+                throw new SuiteInvalideException("Jeton de suite invalide pour le tri " + tri);
+            }
+            Integer.parseInt(cle[1]);
+            return cle;
+        } catch (IllegalArgumentException e) {
+            throw new SuiteInvalideException("Jeton de suite illisible : " + suite);
+        }
+    }
+
     /**
      * Insère un nouveau patient dans la base de données.
      *
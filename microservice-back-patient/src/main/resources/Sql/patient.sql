@@ -30,7 +30,8 @@ CREATE TABLE `patients` (
   `nom` varchar(255) DEFAULT NULL,
   `prenom` varchar(255) DEFAULT NULL,
   `telephone` varchar(255) DEFAULT NULL,
-  PRIMARY KEY (`patient_id`)
+  PRIMARY KEY (`patient_id`),
+  KEY `idx_patients_nom_id` (`nom`,`patient_id`)
 ) ENGINE=InnoDB AUTO_INCREMENT=6 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
 /*!40101 SET character_set_client = @saved_cs_client */;
 
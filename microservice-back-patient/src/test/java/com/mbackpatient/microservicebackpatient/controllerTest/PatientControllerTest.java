@@ -1,6 +1,7 @@
 package com.mbackpatient.microservicebackpatient.controllerTest;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
 import com.mbackpatient.microservicebackpatient.model.entity.PatientModel;
 import com.mbackpatient.microservicebackpatient.service.PatientService;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,6 +14,8 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
+import java.util.List;
+
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.Matchers.hasSize;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
@@ -126,4 +129,40 @@ public class PatientControllerTest {
         mockMvc.perform(get("/patientBack/getInfoDiabete/" + patientId).with(user("user1"))).andExpect(status().isNotFound());
 
     }
-}
\ No newline at end of file
+
+    /**
+     * Teste la récupération groupée des informations liées au diabète de plusieurs patients.
+     * Vérifie que les patients inconnus ou les identifiants invalides sont ignorés.
+     */
+    @Test
+    public void getInfoDiabeteLotTest() throws Exception {
+        mockMvc.perform(post("/patientBack/getInfoDiabete/batch").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(List.of("1", "999", "abc"))).with(user("user1"))).andExpect(status().isOk()).andExpect(jsonPath("$.length()").value(1)).andExpect(jsonPath("$.1.genre").value("F"));
+    }
+
+    /**
+     * Teste le parcours paginé par identifiant des informations diabète.
+     * Vérifie que la page suivante commence après le dernier identifiant reçu.
+     */
+    @Test
+    public void getInfoDiabetePageTest() throws Exception {
+        mockMvc.perform(get("/patientBack/getInfoDiabete/page").param("taille", "2").with(user("user1"))).andExpect(status().isOk()).andExpect(jsonPath("$.length()").value(2)).andExpect(jsonPath("$.1").exists()).andExpect(jsonPath("$.2").exists());
+        mockMvc.perform(get("/patientBack/getInfoDiabete/page").param("apresId", "2").param("taille", "2").with(user("user1"))).andExpect(status().isOk()).andExpect(jsonPath("$.1").doesNotExist()).andExpect(jsonPath("$.3").exists());
+    }
+
+    /**
+     * Teste la pagination par clé de la liste des patients.
+     * Vérifie que la page suivante reprend après le dernier patient reçu, que le jeton de suite n'est valable
+     * que pour le tri qui l'a émis et qu'un jeton illisible est refusé.
+     */
+    @Test
+    public void pagePatientsTest() throws Exception {
+        MvcResult premiere = mockMvc.perform(get("/patientBack/page").param("taille", "3").with(user("user1"))).andExpect(status().isOk()).andExpect(jsonPath("$.patients", hasSize(3))).andExpect(jsonPath("$.patients[0].id").value(1)).andExpect(jsonPath("$.suite").exists()).andReturn();
+        String suite = JsonPath.read(premiere.getResponse().getContentAsString(), "$.suite");
+
+        mockMvc.perform(get("/patientBack/page").param("taille", "3").param("suite", suite).with(user("user1"))).andExpect(status().isOk()).andExpect(jsonPath("$.patients", hasSize(1))).andExpect(jsonPath("$.patients[0].id").value(4)).andExpect(jsonPath("$.suite").doesNotExist());
+
+        mockMvc.perform(get("/patientBack/page").param("tri", "nom").param("taille", "2").with(user("user1"))).andExpect(status().isOk()).andExpect(jsonPath("$.patients", hasSize(2))).andExpect(jsonPath("$.suite").exists());
+        mockMvc.perform(get("/patientBack/page").param("tri", "nom").param("suite", suite).with(user("user1"))).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/patientBack/page").param("suite", "pas-un-jeton").with(user("user1"))).andExpect(status().isBadRequest());
+    }
+}
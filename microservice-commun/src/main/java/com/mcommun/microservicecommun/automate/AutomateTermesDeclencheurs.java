@@ -0,0 +1,258 @@
+package com.mcommun.microservicecommun.automate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Automate d'Aho-Corasick immuable reconnaissant les familles de termes déclencheurs.
+ * Le dictionnaire est compilé une seule fois, puis chaque note est parcourue en une seule passe linéaire
+ * qui signale les familles de termes rencontrées. La recherche est insensible à la casse.
+ * Il est partagé par le microservice back-diabete (dépistage) et le microservice back-note (annotation des notes).
+ *
+ * @author Mickael Hayé
+ * @version 1.0
+ */
+public final class AutomateTermesDeclencheurs {
+
+    private static final int[] AUCUNE_SORTIE = new int[0];
+
+    /**
+     * Familles de termes indexées par leur identifiant, clé = famille normalisée, valeur = synonymes normalisés.
+     */
+    private final Map<String, List<String>> dictionnaire;
+    private final String[] familles;
+    private final char[][] caracteres;
+    private final int[][] cibles;
+    private final int[] echecs;
+    private final int[][] sorties;
+    private final String version;
+
+    private AutomateTermesDeclencheurs(Map<String, List<String>> dictionnaire, char[][] caracteres, int[][] cibles, int[] echecs, int[][] sorties) {
+        this.dictionnaire = dictionnaire;
+        this.familles = dictionnaire.keySet().toArray(new String[0]);
+        this.caracteres = caracteres;
+        this.cibles = cibles;
+        this.echecs = echecs;
+        this.sorties = sorties;
+        this.version = empreinte(dictionnaire);
+    }
+
+    /**
+     * Lit un dictionnaire au format du fichier termesDiabete : une famille par segment terminé par ';',
+     * les synonymes d'une même famille étant séparés par ','.
+     *
+     * @param reader Le lecteur positionné au début du dictionnaire.
+     * @return L'automate compilé.
+     * @throws IOException si la lecture échoue.
+     */
+    public static AutomateTermesDeclencheurs lire(BufferedReader reader) throws IOException {
+        Map<String, List<String>> dictionnaire = new LinkedHashMap<>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            for (String famille : line.split(";")) {
+                String cle = normaliser(famille);
+                if (cle.isEmpty() || dictionnaire.containsKey(cle)) {
+                    continue;
+                }
+                List<String> synonymes = new ArrayList<>();
+                for (String synonyme : cle.split(",")) {
+                    if (!synonyme.isEmpty()) {
+                        synonymes.add(synonyme);
+                    }
+                }
+                dictionnaire.put(cle, synonymes);
+            }
+        }
+        return compiler(dictionnaire);
+    }
+
+    /**
+     * Compile un dictionnaire de familles de termes en automate.
+     * Les termes vides sont ignorés : ils ne peuvent caractériser aucune note.
+     *
+     * @param dictionnaire Les familles de termes, clé = nom de la famille, valeur = synonymes.
+     * @return L'automate compilé.
+     */
+    public static AutomateTermesDeclencheurs compiler(Map<String, List<String>> dictionnaire) {
+        Map<String, List<String>> copie = new LinkedHashMap<>();
+        dictionnaire.forEach((famille, synonymes) -> copie.put(famille, List.copyOf(synonymes)));
+
+        // Construction du trie
+        List<Map<Character, Integer>> transitions = new ArrayList<>();
+        List<List<Integer>> sortiesTrie = new ArrayList<>();
+        transitions.add(new HashMap<>());
+        sortiesTrie.add(new ArrayList<>());
+        int idFamille = 0;
+        for (List<String> synonymes : copie.values()) {
+            for (String synonyme : synonymes) {
+                String terme = normaliser(synonyme);
+                if (terme.isEmpty()) {
+                    continue;
+                }
+                int etat = 0;
+                for (int i = 0; i < terme.length(); i++) {
+                    Integer suivant = transitions.get(etat).get(terme.charAt(i));
+                    if (suivant == null) {
+                        suivant = transitions.size();
+                        transitions.add(new HashMap<>());
+                        sortiesTrie.add(new ArrayList<>());
+                        transitions.get(etat).put(terme.charAt(i), suivant);
+                    }
+                    etat = suivant;
+                }
+                if (!sortiesTrie.get(etat).contains(idFamille)) {
+                    sortiesTrie.get(etat).add(idFamille);
+                }
+            }
+            idFamille++;
+        }
+
+        // Liens d'échec calculés en largeur, les sorties héritent de celles de l'état d'échec
+        int nbEtats = transitions.size();
+        int[] echecs = new int[nbEtats];
+        Deque<Integer> file = new ArrayDeque<>(transitions.get(0).values());
+        while (!file.isEmpty()) {
+            int etat = file.poll();
+            for (Map.Entry<Character, Integer> transition : transitions.get(etat).entrySet()) {
+                int suivant = transition.getValue();
+                if (etat != 0) {
+                    int repli = echecs[etat];
+                    while (repli != 0 && !transitions.get(repli).containsKey(transition.getKey())) {
+                        repli = echecs[repli];
+                    }
+                    echecs[suivant] = transitions.get(repli).getOrDefault(transition.getKey(), 0);
+                }
+                for (Integer herite : sortiesTrie.get(echecs[suivant])) {
+                    if (!sortiesTrie.get(suivant).contains(herite)) {
+                        sortiesTrie.get(suivant).add(herite);
+                    }
+                }
+                file.add(suivant);
+            }
+        }
+
+        // Passage à des tableaux triés pour une recherche sans allocation
+        char[][] caracteres = new char[nbEtats][];
+        int[][] cibles = new int[nbEtats][];
+        int[][] sorties = new int[nbEtats][];
+        for (int etat = 0; etat < nbEtats; etat++) {
+            List<Character> cles = new ArrayList<>(transitions.get(etat).keySet());
+            Collections.sort(cles);
+            caracteres[etat] = new char[cles.size()];
+            cibles[etat] = new int[cles.size()];
+            for (int i = 0; i < cles.size(); i++) {
+                caracteres[etat][i] = cles.get(i);
+                cibles[etat][i] = transitions.get(etat).get(cles.get(i));
+            }
+            List<Integer> sortie = sortiesTrie.get(etat);
+            sorties[etat] = sortie.isEmpty() ? AUCUNE_SORTIE : sortie.stream().mapToInt(Integer::intValue).toArray();
+        }
+        return new AutomateTermesDeclencheurs(Collections.unmodifiableMap(copie), caracteres, cibles, echecs, sorties);
+    }
+
+    /**
+     * Parcourt un texte en une seule passe et marque les familles de termes qu'il contient.
+     *
+     * @param texte             Le texte à analyser.
+     * @param famillesTrouvees  L'ensemble des identifiants de familles, complété par la recherche.
+     */
+    public void rechercher(String texte, BitSet famillesTrouvees) {
+        int etat = 0;
+        for (int i = 0; i < texte.length(); i++) {
+            etat = transiter(etat, Character.toLowerCase(texte.charAt(i)));
+            for (int famille : sorties[etat]) {
+                famillesTrouvees.set(famille);
+            }
+        }
+    }
+
+    /**
+     * Compte le nombre de familles distinctes présentes dans un ensemble de notes.
+     *
+     * @param notes Les notes à analyser.
+     * @return int Le nombre de familles de termes distinctes trouvées.
+     */
+    public int compterFamilles(Collection<String> notes) {
+        BitSet famillesTrouvees = new BitSet(familles.length);
+        for (String note : notes) {
+            rechercher(note, famillesTrouvees);
+        }
+        return famillesTrouvees.cardinality();
+    }
+
+    /**
+     * @return int Le nombre de familles de termes du dictionnaire.
+     */
+    public int getNombreFamilles() {
+        return familles.length;
+    }
+
+    /**
+     * @param idFamille L'identifiant de la famille.
+     * @return String Le nom normalisé de la famille.
+     */
+    public String getFamille(int idFamille) {
+        return familles[idFamille];
+    }
+
+    /**
+     * @return Map Le dictionnaire compilé, clé = famille normalisée, valeur = synonymes.
+     */
+    public Map<String, List<String>> getDictionnaire() {
+        return dictionnaire;
+    }
+
+    /**
+     * @return String La version du dictionnaire, empreinte SHA-256 de son contenu normalisé : deux automates compilés
+     * à partir du même dictionnaire ont la même version, y compris dans deux microservices différents.
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * Calcule l'empreinte SHA-256 du dictionnaire normalisé : familles dans leur ordre, synonymes en minuscules.
+     * Deux microservices lisant le même dictionnaire obtiennent la même version, quelle que soit la JVM.
+     */
+    private static String empreinte(Map<String, List<String>> dictionnaire) {
+        StringBuilder contenu = new StringBuilder();
+        dictionnaire.forEach((famille, synonymes) -> {
+            contenu.append(normaliser(famille)).append('=');
+            for (String synonyme : synonymes) {
+                contenu.append(normaliser(synonyme)).append(',');
+            }
+            contenu.append('\n');
+        });
+        try {
+            byte[] empreinte = MessageDigest.getInstance("SHA-256").digest(contenu.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(empreinte);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Algorithme SHA-256 indisponible", e);
+        }
+    }
+
+    private int transiter(int etat, char c) {
+        while (true) {
+            int index = Arrays.binarySearch(caracteres[etat], c);
+            if (index >= 0) {
+                return cibles[etat][index];
+            }
+            if (etat == 0) {
+                return 0;
+            }
+            etat = echecs[etat];
+        }
+    }
+
+    private static String normaliser(String texte) {
+        char[] normalise = new char[texte.length()];
+        for (int i = 0; i < texte.length(); i++) {
+            normalise[i] = Character.toLowerCase(texte.charAt(i));
+        }
+        return new String(normalise);
+    }
+}
@@ -0,0 +1,139 @@
+package com.mcommun.microservicecommun.chargement;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Ressource chargée depuis un fichier texte, compilée hors du chemin des requêtes et publiée par échange atomique.
+ * La ressource est d'abord lue depuis un fichier externe s'il est configuré et présent, sinon depuis le classpath.
+ * En mode fichier externe, {@link #verifierModification()} recharge le fichier lorsqu'il a changé :
+ * les lecteurs obtiennent toujours une version complète, l'ancienne ou la nouvelle, sans jamais attendre d'entrée/sortie.
+ *
+ * @param <T> Le type de la ressource compilée.
+ * @author Mickael Hayé
+ * @version 1.0
+ */
+public class RessourceRechargeable<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(RessourceRechargeable.class);
+
+    /**
+     * Fonction de lecture et de compilation du contenu du fichier.
+     *
+     * @param <T> Le type de la ressource compilée.
+     */
+    @FunctionalInterface
+    public interface Lecteur<T> {
+        T lire(BufferedReader reader) throws IOException;
+    }
+
+    private final String nom;
+    private final Path fichierExterne;
+    private final Lecteur<T> lecteur;
+    private final AtomicReference<T> courante;
+    private String empreinteChargee;
+    private String empreinteCandidate;
+
+    /**
+     * Construit la ressource et effectue le chargement initial.
+     *
+     * @param nom             Le nom de la ressource, utilisé dans les logs.
+     * @param cheminClasspath Le chemin de la ressource dans le classpath (le préfixe 'classpath:' est accepté).
+     * @param cheminExterne   Le chemin d'un fichier externe surveillé, ou null/vide pour le seul mode classpath.
+     * @param lecteur         La fonction de lecture et de compilation du fichier.
+     * @param valeurParDefaut La valeur publiée si aucun fichier ne peut être lu.
+     */
+    public RessourceRechargeable(String nom, String cheminClasspath, String cheminExterne, Lecteur<T> lecteur, T valeurParDefaut) {
+        this.nom = nom;
+        this.lecteur = lecteur;
+        this.fichierExterne = cheminExterne == null || cheminExterne.isBlank() ? null : Paths.get(cheminExterne);
+        T initiale = null;
+        if (fichierExterne != null && Files.isRegularFile(fichierExterne)) {
+            try {
+                empreinteChargee = empreinte();
+                initiale = lireFichierExterne();
+                logger.info("{} chargé depuis le fichier externe {}", nom, fichierExterne);
+            } catch (IOException | RuntimeException e) {
+                logger.error("{} : lecture du fichier externe {} impossible, utilisation du classpath", nom, fichierExterne, e);
+            }
+        }
+        if (initiale == null && cheminClasspath != null) {
+            ClassPathResource resource = new ClassPathResource(cheminClasspath.replaceFirst("^classpath:", ""));
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+                initiale = lecteur.lire(reader);
+                logger.info("{} chargé depuis le classpath {}", nom, cheminClasspath);
+            } catch (IOException e) {
+                logger.info("Problème avec l'accès au fichier {} : {}", nom, cheminClasspath);
+            }
+        }
+        this.courante = new AtomicReference<>(initiale != null ? initiale : valeurParDefaut);
+    }
+
+    /**
+     * Renvoie la version actuellement publiée de la ressource.
+     *
+     * @return T La ressource compilée.
+     */
+    public T get() {
+        return courante.get();
+    }
+
+    /**
+     * Vérifie si le fichier externe a changé et le recharge le cas échéant.
+     * Un changement n'est pris en compte que lorsque la taille et la date de modification sont restées stables
+     * entre deux vérifications, afin de ne pas lire un fichier en cours d'écriture.
+     * En cas d'erreur de lecture, la version précédente reste publiée.
+     *
+     * @return boolean true si une nouvelle version a été publiée.
+     */
+    public synchronized boolean verifierModification() {
+        if (fichierExterne == null || !Files.isRegularFile(fichierExterne)) {
+            return false;
+        }
+        String empreinte;
+        try {
+            empreinte = empreinte();
+        } catch (IOException e) {
+            logger.warn("{} : impossible de lire les attributs de {}", nom, fichierExterne);
+            return false;
+        }
+        if (empreinte.equals(empreinteChargee)) {
+            return false;
+        }
+        if (!empreinte.equals(empreinteCandidate)) {
+            empreinteCandidate = empreinte;
+            return false;
+        }
+        empreinteChargee = empreinte;
+        try {
+            courante.set(lireFichierExterne());
+            logger.info("{} rechargé depuis le fichier externe {}", nom, fichierExterne);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            logger.error("{} : rechargement de {} impossible, la version précédente est conservée", nom, fichierExterne, e);
+            return false;
+        }
+    }
+
+    private T lireFichierExterne() throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(fichierExterne, StandardCharsets.UTF_8)) {
+            return lecteur.lire(reader);
+        }
+    }
+
+    private String empreinte() throws IOException {
+        BasicFileAttributes attributs = Files.readAttributes(fichierExterne, BasicFileAttributes.class);
+        return attributs.lastModifiedTime().toMillis() + ":" + attributs.size();
+    }
+}
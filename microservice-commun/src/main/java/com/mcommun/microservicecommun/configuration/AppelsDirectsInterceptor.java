@@ -0,0 +1,162 @@
+package com.mcommun.microservicecommun.configuration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.support.HttpRequestWrapper;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Intercepteur envoyant directement aux microservices concernés les lectures adressées au gateway,
+ * afin d'économiser le passage par le gateway pour les appels internes.
+ * <p>
+ * Seules les lectures (GET, HEAD) dont le microservice (premier segment du chemin, ex. "patientBack") a des instances
+ * configurées sont concernées ; les écritures passent toujours par le gateway, qui purge son cache des réponses
+ * et diffuse l'invalidation du risque à toutes les instances. Les instances d'un microservice sont choisies
+ * à tour de rôle ; une instance injoignable ou répondant 502, 503 ou 504 est écartée pendant la durée d'éviction,
+ * puis de nouveau essayée. Lorsque la connexion à l'instance échoue, ou lorsqu'elle répond 502, 503 ou 504,
+ * la lecture est aussitôt renvoyée au gateway, de même que lorsque toutes les instances sont écartées.
+ * </p>
+ * <p>
+ * L'intercepteur doit être le dernier du RestTemplate : le renvoi au gateway réémet la requête sans repasser
+ * par les intercepteurs suivants.
+ * </p>
+ *
+ * @author Mickael Hayé
+ * @version 1.0
+ */
+public class AppelsDirectsInterceptor implements ClientHttpRequestInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(AppelsDirectsInterceptor.class);
+
+    private final String gatewayPath;
+    private final Map<String, Instances> services = new LinkedHashMap<>();
+    private final long dureeEjection;
+
+    /**
+     * Construit l'intercepteur à partir des instances de chaque microservice.
+     *
+     * @param gatewayPath   L'adresse du gateway, préfixe des URL construites par les appelants.
+     * @param services      Les adresses des instances de chaque microservice, séparées par des virgules
+     *                      (ex. "patientBack" : "http://localhost:9001") ; vide pour tout envoyer au gateway.
+     * @param dureeEjection La durée d'éviction d'une instance en échec, en millisecondes.
+     */
+    public AppelsDirectsInterceptor(String gatewayPath, Map<String, String> services, long dureeEjection) {
+        this.gatewayPath = gatewayPath;
+        this.dureeEjection = dureeEjection;
+        services.forEach((service, adresses) -> {
+            List<Instance> instances = new ArrayList<>();
+            for (String adresse : adresses.split(",")) {
+                if (!adresse.isBlank()) {
+                    instances.add(new Instance(URI.create(adresse.trim())));
+                }
+            }
+            if (!instances.isEmpty()) {
+                this.services.put(service.trim(), new Instances(instances));
+                logger.info("Appels directs au microservice {} : {} instances", service.trim(), instances.size());
+            }
+        });
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        URI uri = request.getURI();
+        Instances instances = lecture(request) && uri.toString().startsWith(gatewayPath) ? services.get(service(uri)) : null;
+        Instance instance = instances == null ? null : instances.choisir(System.nanoTime());
+        if (instance == null) {
+            return execution.execute(request, body);
+        }
+        URI directe = instance.adresse.resolve(uri.getRawPath() + (uri.getRawQuery() == null ? "" : "?" + uri.getRawQuery()));
+        HttpRequest requeteDirecte = new HttpRequestWrapper(request) {
+            @Override
+            public URI getURI() {
+                return directe;
+            }
+        };
+        ClientHttpResponse reponse;
+        try {
+            reponse = execution.execute(requeteDirecte, body);
+        } catch (ConnectException e) {
+            ecarter(instance, e.getMessage());
+            return execution.execute(request, body);
+        } catch (IOException e) {
+            ecarter(instance, e.getMessage());
+            throw e;
+        }
+        int statut = reponse.getStatusCode().value();
+        if (statut == 502 || statut == 503 || statut == 504) {
+            reponse.close();
+            ecarter(instance, "réponse " + statut);
+            return execution.execute(request, body);
+        }
+        return reponse;
+    }
+
+    private void ecarter(Instance instance, String raison) {
+        logger.warn("Instance {} écartée pendant {} ms, lecture renvoyée au gateway si possible : {}", instance.adresse, dureeEjection, raison);
+        instance.ecarteeJusqua = System.nanoTime() + dureeEjection * 1_000_000;
+    }
+
+    private static boolean lecture(HttpRequest request) {
+        return HttpMethod.GET.equals(request.getMethod()) || HttpMethod.HEAD.equals(request.getMethod());
+    }
+
+    /**
+     * Renvoie le nom du microservice appelé, premier segment du chemin de l'URL.
+     */
+    private static String service(URI uri) {
+        String chemin = uri.getPath() == null ? "" : uri.getPath();
+        int debut = chemin.startsWith("/") ? 1 : 0;
+        int fin = chemin.indexOf('/', debut);
+        return fin < 0 ? chemin.substring(debut) : chemin.substring(debut, fin);
+    }
+
+    /**
+     * Instances d'un microservice, choisies à tour de rôle parmi celles qui ne sont pas écartées.
+     */
+    private static final class Instances {
+
+        private final List<Instance> liste;
+        private final AtomicInteger suivante = new AtomicInteger();
+
+        private Instances(List<Instance> liste) {
+            this.liste = liste;
+        }
+
+        private Instance choisir(long maintenant) {
+            int depart = Math.floorMod(suivante.getAndIncrement(), liste.size());
+            for (int i = 0; i < liste.size(); i++) {
+                Instance instance = liste.get((depart + i) % liste.size());
+                if (instance.ecarteeJusqua - maintenant <= 0) {
+                    return instance;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Instance d'un microservice, avec l'instant jusqu'auquel elle est écartée (horloge System.nanoTime).
+     */
+    private static final class Instance {
+
+        private final URI adresse;
+        private volatile long ecarteeJusqua = System.nanoTime();
+
+        private Instance(URI adresse) {
+            this.adresse = adresse;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.mcommun.microservicecommun.configuration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * Fournisseur d'authentification HTTP Basic mémorisant les vérifications réussies.
+ * Les identifiants déjà vérifiés sont reconnus sans nouveau hachage BCrypt pendant une courte durée ;
+ * un mot de passe révoqué ou modifié cesse donc d'être accepté au plus tard à l'expiration de l'entrée.
+ * Le cache est indexé par un HMAC-SHA256 du nom d'utilisateur et du mot de passe, calculé avec une clé aléatoire
+ * tirée au démarrage : aucun mot de passe n'est conservé en mémoire. Les échecs ne sont pas mémorisés.
+ * Partagé par les microservices back-diabete, back-note, back-patient et front.
+ *
+ * @author Mickael Hayé
+ * @version 1.0
+ */
+public class CacheAuthentificationProvider implements AuthenticationProvider {
+
+    private final AuthenticationProvider delegue;
+    private final Cache<String, Authentication> cache;
+    private final SecretKeySpec cle;
+    private final ThreadLocal<Mac> mac;
+
+    /**
+     * Construit le fournisseur autour du fournisseur vérifiant réellement les identifiants.
+     *
+     * @param delegue   Le fournisseur vérifiant les identifiants (UserDetailsService et BCrypt).
+     * @param duree     La durée de conservation d'une vérification réussie.
+     * @param tailleMax Le nombre maximal de vérifications conservées.
+     */
+    public CacheAuthentificationProvider(AuthenticationProvider delegue, Duration duree, long tailleMax) {
+        this(delegue, duree, tailleMax, Ticker.systemTicker());
+    }
+
+    /**
+     * Construit le fournisseur avec une source de temps donnée, utilisée par les tests.
+     *
+     * @param delegue   Le fournisseur vérifiant les identifiants (UserDetailsService et BCrypt).
+     * @param duree     La durée de conservation d'une vérification réussie.
+     * @param tailleMax Le nombre maximal de vérifications conservées.
+     * @param ticker    La source de temps du cache.
+     */
+    public CacheAuthentificationProvider(AuthenticationProvider delegue, Duration duree, long tailleMax, Ticker ticker) {
+        this.delegue = delegue;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(tailleMax)
+                .expireAfterWrite(duree)
+                .ticker(ticker)
+                .build();
+        byte[] octets = new byte[32];
+        new SecureRandom().nextBytes(octets);
+        this.cle = new SecretKeySpec(octets, "HmacSHA256");
+        this.mac = ThreadLocal.withInitial(this::creerMac);
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        if (!(authentication instanceof UsernamePasswordAuthenticationToken) || authentication.getCredentials() == null) {
+            return delegue.authenticate(authentication);
+        }
+        String empreinte = empreinte(authentication.getName(), authentication.getCredentials().toString());
+        Authentication verifiee = cache.getIfPresent(empreinte);
+        if (verifiee != null) {
+            return verifiee;
+        }
+        verifiee = delegue.authenticate(authentication);
+        if (verifiee != null && verifiee.isAuthenticated()) {
+            cache.put(empreinte, verifiee);
+        }
+        return verifiee;
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return delegue.supports(authentication);
+    }
+
+    /**
+     * Calcule la clé de cache des identifiants : HMAC-SHA256 du nom d'utilisateur et du mot de passe.
+     */
+    private String empreinte(String utilisateur, String motDePasse) {
+        Mac hmac = mac.get();
+        hmac.update(utilisateur.getBytes(StandardCharsets.UTF_8));
+        hmac.update((byte) 0);
+        return Base64.getEncoder().encodeToString(hmac.doFinal(motDePasse.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private Mac creerMac() {
+        try {
+            Mac hmac = Mac.getInstance("HmacSHA256");
+            hmac.init(cle);
+            return hmac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 indisponible", e);
+        }
+    }
+}
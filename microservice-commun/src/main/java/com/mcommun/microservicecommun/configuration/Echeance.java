@@ -0,0 +1,87 @@
+package com.mcommun.microservicecommun.configuration;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Échéance de la requête en cours, au-delà de laquelle sa réponse n'est plus attendue par l'appelant.
+ * Elle est reçue dans l'en-tête {@link #ENTETE} (temps restant en millisecondes) ou fixée par le microservice
+ * (voir {@link EcheanceFilter}), borne les appels vers les autres microservices, et leur est transmise avec le temps
+ * restant au moment de chaque appel.
+ * L'échéance est propre au thread : elle est définie pour le thread de la requête et doit être transmise
+ * explicitement aux tâches exécutées sur d'autres threads.
+ *
+ * @author Mickael Hayé
+ * @version 1.0
+ */
+public final class Echeance {
+
+    /**
+     * En-tête portant le temps restant avant l'échéance, en millisecondes.
+     */
+    public static final String ENTETE = "X-Request-Timeout";
+
+    private static final ThreadLocal<Long> ECHEANCE = new ThreadLocal<>();
+
+    private Echeance() {
+    }
+
+    /**
+     * Définit l'échéance du thread courant.
+     *
+     * @param delai Le temps restant avant l'échéance, en millisecondes.
+     */
+    public static void definir(long delai) {
+        ECHEANCE.set(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delai));
+    }
+
+    /**
+     * Retire l'échéance du thread courant.
+     */
+    public static void effacer() {
+        ECHEANCE.remove();
+    }
+
+    /**
+     * @return Long L'échéance du thread courant (horloge {@link System#nanoTime()}), null en l'absence d'échéance.
+     */
+    public static Long courante() {
+        return ECHEANCE.get();
+    }
+
+    /**
+     * Calcule le temps restant avant une échéance.
+     *
+     * @param echeance L'échéance (horloge {@link System#nanoTime()}).
+     * @return long Le temps restant en millisecondes, nul ou négatif si l'échéance est dépassée.
+     */
+    public static long restante(long echeance) {
+        return TimeUnit.NANOSECONDS.toMillis(echeance - System.nanoTime());
+    }
+
+    /**
+     * Exécute une tâche avec l'échéance donnée, puis rétablit l'échéance précédente du thread.
+     *
+     * @param echeance L'échéance à appliquer, null pour aucune.
+     * @param tache    La tâche à exécuter.
+     * @param <T>      Le type du résultat.
+     * @return T Le résultat de la tâche.
+     */
+    public static <T> T executer(Long echeance, Supplier<T> tache) {
+        Long precedente = ECHEANCE.get();
+        if (echeance == null) {
+            ECHEANCE.remove();
+        } else {
+            ECHEANCE.set(echeance);
+        }
+        try {
+            return tache.get();
+        } finally {
+            if (precedente == null) {
+                ECHEANCE.remove();
+            } else {
+                ECHEANCE.set(precedente);
+            }
+        }
+    }
+}
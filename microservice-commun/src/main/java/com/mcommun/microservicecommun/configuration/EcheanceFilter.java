@@ -0,0 +1,54 @@
+package com.mcommun.microservicecommun.configuration;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Filtre définissant l'échéance de chaque requête à partir de l'en-tête {@link Echeance#ENTETE} transmis par l'appelant.
+ * Sans en-tête, une lecture (GET, HEAD) reçoit le délai par défaut du microservice, s'il en a un ; une écriture
+ * n'a pas d'échéance, afin de ne pas être abandonnée après avoir été appliquée : ses appels distants ne sont bornés
+ * que par leur délai maximal.
+ *
+ * @author Mickael Hayé
+ * @version 1.0
+ */
+public class EcheanceFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(EcheanceFilter.class);
+    private final long delaiLecture;
+
+    /**
+     * Constructeur définissant le délai par défaut des lectures.
+     *
+     * @param delaiLecture Le délai accordé aux lectures reçues sans en-tête, en millisecondes (0 = aucune échéance).
+     */
+    public EcheanceFilter(long delaiLecture) {
+        this.delaiLecture = delaiLecture;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        String delai = request.getHeader(Echeance.ENTETE);
+        if (delai != null) {
+            try {
+                Echeance.definir(Long.parseLong(delai.trim()));
+            } catch (NumberFormatException e) {
+                logger.warn("En-tête {} invalide : {}", Echeance.ENTETE, delai);
+            }
+        } else if (delaiLecture > 0 && ("GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod()))) {
+            Echeance.definir(delaiLecture);
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            Echeance.effacer();
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.mcommun.microservicecommun.configuration;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestClientException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Intercepteur protégeant les appels vers les autres microservices, afin qu'un microservice dégradé échoue vite
+ * au lieu de bloquer les threads du microservice appelant.
+ * <p>
+ * Chaque microservice appelé (premier segment du chemin, ex. "noteBack") dispose de son disjoncteur et de sa cloison :
+ * le disjoncteur s'ouvre lorsque trop d'appels récents ont échoué (erreur réseau, délai, réponse 5xx) ou ont été lents,
+ * et la cloison borne le nombre d'appels simultanés, sans attente ; un appel occupe la cloison jusqu'à la fermeture
+ * de sa réponse, une fois son corps lu. Un appel est aussi refusé lorsque l'échéance
+ * de la requête en cours est dépassée ; sinon le temps restant, diminué d'une marge, est transmis dans l'en-tête {@link Echeance#ENTETE}.
+ * Les seuils sont définis dans les propriétés resilience4j.circuitbreaker et resilience4j.bulkhead.
+ * </p>
+ *
+ * @author Mickael Hayé
+ * @version 1.0
+ */
+public class ProtectionAppelsInterceptor implements ClientHttpRequestInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProtectionAppelsInterceptor.class);
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final BulkheadRegistry bulkheadRegistry;
+
+    /**
+     * Constructeur pour injecter les registres des disjoncteurs et des cloisons.
+     *
+     * @param circuitBreakerRegistry Le registre des disjoncteurs.
+     * @param bulkheadRegistry       Le registre des cloisons.
+     */
+    public ProtectionAppelsInterceptor(CircuitBreakerRegistry circuitBreakerRegistry, BulkheadRegistry bulkheadRegistry) {
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.bulkheadRegistry = bulkheadRegistry;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        String service = service(request.getURI());
+        Long echeance = Echeance.courante();
+        if (echeance != null) {
+            long restant = Echeance.restante(echeance);
+            if (restant <= 0) {
+                throw refuser(service, "échéance de la requête dépassée");
+            }
+            // Un dixième du temps restant est réservé au traitement de la réponse par ce microservice
+            request.getHeaders().set(Echeance.ENTETE, String.valueOf(restant * 9 / 10));
+        }
+
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(service);
+        Bulkhead bulkhead = bulkheadRegistry.bulkhead(service);
+        if (!circuitBreaker.tryAcquirePermission()) {
+            throw refuser(service, "disjoncteur ouvert");
+        }
+        if (!bulkhead.tryAcquirePermission()) {
+            circuitBreaker.releasePermission();
+            throw refuser(service, "trop d'appels simultanés");
+        }
+        long debut = System.nanoTime();
+        ClientHttpResponse reponse;
+        try {
+            reponse = execution.execute(request, body);
+            long duree = System.nanoTime() - debut;
+            if (reponse.getStatusCode().is5xxServerError()) {
+                circuitBreaker.onError(duree, TimeUnit.NANOSECONDS, new HttpServerErrorException(reponse.getStatusCode()));
+            } else {
+                circuitBreaker.onSuccess(duree, TimeUnit.NANOSECONDS);
+            }
+        } catch (IOException | RuntimeException e) {
+            circuitBreaker.onError(System.nanoTime() - debut, TimeUnit.NANOSECONDS, e);
+            bulkhead.onComplete();
+            throw e;
+        }
+        return new ReponseCloisonnee(reponse, bulkhead);
+    }
+
+    private static AppelRefuseException refuser(String service, String raison) {
+        logger.warn("Appel au microservice {} refusé : {}", service, raison);
+        return new AppelRefuseException("Appel au microservice " + service + " refusé : " + raison);
+    }
+
+    /**
+     * Renvoie le nom du microservice appelé, premier segment du chemin de l'URL.
+     */
+    private static String service(URI uri) {
+        String chemin = uri.getPath() == null ? "" : uri.getPath();
+        int debut = chemin.startsWith("/") ? 1 : 0;
+        int fin = chemin.indexOf('/', debut);
+        return fin < 0 ? chemin.substring(debut) : chemin.substring(debut, fin);
+    }
+
+    /**
+     * Réponse libérant sa place dans la cloison à sa fermeture, c'est-à-dire une fois son corps lu par le RestTemplate.
+     */
+    private static final class ReponseCloisonnee implements ClientHttpResponse {
+
+        private final ClientHttpResponse reponse;
+        private final Bulkhead bulkhead;
+        private final AtomicBoolean fermee = new AtomicBoolean();
+
+        private ReponseCloisonnee(ClientHttpResponse reponse, Bulkhead bulkhead) {
+            this.reponse = reponse;
+            this.bulkhead = bulkhead;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return reponse.getStatusCode();
+        }
+
+        @Override
+        @Deprecated
+        @SuppressWarnings("removal")
+        public int getRawStatusCode() throws IOException {
+            return reponse.getRawStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return reponse.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return reponse.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return reponse.getBody();
+        }
+
+        @Override
+        public void close() {
+            try {
+                reponse.close();
+            } finally {
+                if (fermee.compareAndSet(false, true)) {
+                    bulkhead.onComplete();
+                }
+            }
+        }
+    }
+
+    /**
+     * Exception levée lorsqu'un appel est refusé sans être émis (disjoncteur ouvert, cloison pleine ou échéance dépassée).
+     */
+    public static class AppelRefuseException extends RestClientException {
+
+        /**
+         * Construit une nouvelle instance de {@link AppelRefuseException}.
+         *
+         * @param message Le message d'erreur à associer à l'exception.
+         */
+        public AppelRefuseException(String message) {
+            super(message);
+        }
+    }
+}
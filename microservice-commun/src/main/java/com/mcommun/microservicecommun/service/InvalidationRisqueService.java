@@ -0,0 +1,19 @@
+package com.mcommun.microservicecommun.service;
+
+/**
+ * Interface de service pour signaler au microservice back-diabete que les données d'un patient ont changé,
+ * afin que son niveau de risque en cache soit recalculé.
+ *
+ * @author mickael hayé
+ * @version 1.0
+ */
+public interface InvalidationRisqueService {
+
+    /**
+     * Invalide le niveau de risque en cache d'un patient, avant de rendre la main.
+     *
+     * @param idPatient  l'identifiant du patient
+     * @param authHeader l'en-tête d'autorisation de la requête d'origine, transmis au microservice back-diabete
+     */
+    void invaliderRisque(String idPatient, String authHeader);
+}
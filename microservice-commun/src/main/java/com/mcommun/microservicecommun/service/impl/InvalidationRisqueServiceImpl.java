@@ -0,0 +1,64 @@
+package com.mcommun.microservicecommun.service.impl;
+
+import com.mcommun.microservicecommun.service.InvalidationRisqueService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Implémentation de l'invalidation du cache des niveaux de risque via le gateway, partagée par les microservices
+ * back-note et back-patient.
+ * L'appel est synchrone : la réponse à l'écriture n'est rendue qu'une fois le risque invalidé, de sorte qu'une lecture
+ * qui la suit ne renvoie plus l'ancien niveau de risque.
+ * Un échec est journalisé en erreur sans annuler l'écriture déjà enregistrée ; l'entrée en cache expire de toute façon
+ * au plus tard à minuit.
+ *
+ * @author mickael hayé
+ * @version 1.0
+ */
+public class InvalidationRisqueServiceImpl implements InvalidationRisqueService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InvalidationRisqueServiceImpl.class);
+    private final RestTemplate restTemplate;
+    private final String gatewayPath;
+
+    /**
+     * Constructeur pour injecter les dépendances nécessaires au service.
+     *
+     * @param restTemplate Le RestTemplate utilisé pour les appels HTTP.
+     * @param gatewayPath  L'adresse du gateway.
+     */
+    public InvalidationRisqueServiceImpl(RestTemplate restTemplate, String gatewayPath) {
+        this.restTemplate = restTemplate;
+        this.gatewayPath = gatewayPath;
+    }
+
+    /**
+     * Invalide le niveau de risque en cache d'un patient.
+     *
+     * @param idPatient  L'identifiant du patient.
+     * @param authHeader L'en-tête d'autorisation de la requête d'origine.
+     */
+    @Override
+    public void invaliderRisque(String idPatient, String authHeader) {
+        if (idPatient == null) {
+            return;
+        }
+        if (authHeader == null) {
+            logger.error("Invalidation du risque impossible pour le patient avec l'ID: {} : requête sans en-tête d'autorisation, le risque en cache reste valable jusqu'à minuit", idPatient);
+            return;
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.AUTHORIZATION, authHeader);
+        try {
+            restTemplate.exchange(gatewayPath + "/diabeteBack/cache/" + idPatient, HttpMethod.DELETE, new HttpEntity<>(headers), Void.class);
+            logger.info("Risque en cache invalidé pour le patient avec l'ID: {}", idPatient);
+        } catch (RestClientException e) {
+            logger.error("Invalidation du risque en cache impossible pour le patient avec l'ID: {}, le risque en cache reste valable jusqu'à minuit : {}", idPatient, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.mcommun.microservicecommun.automateTest;
+
+import com.mcommun.microservicecommun.automate.AutomateTermesDeclencheurs;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Classe de test pour AutomateTermesDeclencheurs.
+ * Vérifie la version du dictionnaire, partagée par les microservices back-note et back-diabete.
+ *
+ * @author Mickael Hayé
+ * @version 1.0
+ */
+public class AutomateTermesDeclencheursTest {
+
+    /**
+     * Teste que la version est l'empreinte SHA-256 du dictionnaire normalisé :
+     * identique pour un même dictionnaire à la casse près, différente dès qu'un synonyme change.
+     */
+    @Test
+    void versionTest() throws Exception {
+        String version = lire("Poids;\nFumeur,Fumeuse;").getVersion();
+
+        assertEquals(64, version.length());
+        assertEquals(version, lire("poids;fumeur,fumeuse;").getVersion());
+        assertNotEquals(version, lire("Poids;\nFumeur,Fumeuse,Fumer;").getVersion());
+    }
+
+    private static AutomateTermesDeclencheurs lire(String dictionnaire) throws Exception {
+        return AutomateTermesDeclencheurs.lire(new BufferedReader(new StringReader(dictionnaire)));
+    }
+}
@@ -0,0 +1,95 @@
+package com.mcommun.microservicecommun.configurationTest;
+
+import com.mcommun.microservicecommun.configuration.AppelsDirectsInterceptor;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import java.net.ConnectException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Classe de test pour AppelsDirectsInterceptor.
+ * Vérifie que les lectures sont envoyées directement aux instances saines, et les écritures au gateway.
+ *
+ * @author Mickael Hayé
+ * @version 1.0
+ */
+public class AppelsDirectsInterceptorTest {
+
+    private static final String GATEWAY = "http://localhost:9000";
+
+    private final List<String> appels = new ArrayList<>();
+
+    /**
+     * Teste que les lectures sont réparties entre les instances, et que les écritures
+     * et les microservices sans instance configurée passent par le gateway.
+     */
+    @Test
+    void repartitionTest() throws Exception {
+        AppelsDirectsInterceptor interceptor = new AppelsDirectsInterceptor(GATEWAY, Map.of("noteBack", "http://localhost:9003, http://localhost:9013"), 30000);
+
+        appeler(interceptor, HttpMethod.GET, "/noteBack/list/1?page=2", HttpStatus.OK);
+        appeler(interceptor, HttpMethod.GET, "/noteBack/list/1", HttpStatus.OK);
+        appeler(interceptor, HttpMethod.DELETE, "/noteBack/delete/1", HttpStatus.OK);
+        appeler(interceptor, HttpMethod.GET, "/patientBack/list", HttpStatus.OK);
+
+        assertEquals(List.of("http://localhost:9003/noteBack/list/1?page=2", "http://localhost:9013/noteBack/list/1",
+                GATEWAY + "/noteBack/delete/1", GATEWAY + "/patientBack/list"), appels);
+    }
+
+    /**
+     * Teste qu'une instance injoignable est écartée, la lecture étant renvoyée au gateway, puis évitée par les lectures suivantes.
+     */
+    @Test
+    void instanceInjoignableTest() throws Exception {
+        AppelsDirectsInterceptor interceptor = new AppelsDirectsInterceptor(GATEWAY, Map.of("noteBack", "http://localhost:9003,http://localhost:9013"), 30000);
+        ClientHttpRequestExecution execution = (requete, corps) -> {
+            appels.add(requete.getURI().toString());
+            if (requete.getURI().getPort() == 9003) {
+                throw new ConnectException("Connection refused");
+            }
+            return new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+        };
+
+        for (int i = 0; i < 3; i++) {
+            interceptor.intercept(new MockClientHttpRequest(HttpMethod.GET, URI.create(GATEWAY + "/noteBack/list/" + i)), new byte[0], execution);
+        }
+
+        assertEquals(List.of("http://localhost:9003/noteBack/list/0", GATEWAY + "/noteBack/list/0",
+                "http://localhost:9013/noteBack/list/1", "http://localhost:9013/noteBack/list/2"), appels);
+    }
+
+    /**
+     * Teste qu'une instance répondant 503 est écartée et la lecture renvoyée au gateway,
+     * puis que toutes les instances étant écartées, les lectures passent par le gateway.
+     */
+    @Test
+    void instanceIndisponibleTest() throws Exception {
+        AppelsDirectsInterceptor interceptor = new AppelsDirectsInterceptor(GATEWAY, Map.of("noteBack", "http://localhost:9003"), 30000);
+
+        assertEquals(HttpStatus.OK, appeler(interceptor, HttpMethod.GET, "/noteBack/list/1", HttpStatus.SERVICE_UNAVAILABLE));
+        appeler(interceptor, HttpMethod.GET, "/noteBack/list/2", HttpStatus.OK);
+
+        assertEquals(List.of("http://localhost:9003/noteBack/list/1", GATEWAY + "/noteBack/list/1", GATEWAY + "/noteBack/list/2"), appels);
+    }
+
+    /**
+     * Émet un appel adressé au gateway ; une instance directe répond le statut indiqué, le gateway répond 200.
+     */
+    private HttpStatus appeler(AppelsDirectsInterceptor interceptor, HttpMethod methode, String chemin, HttpStatus statutInstance) throws Exception {
+        MockClientHttpRequest requete = new MockClientHttpRequest(methode, URI.create(GATEWAY + chemin));
+        return (HttpStatus) interceptor.intercept(requete, new byte[0], (r, corps) -> {
+            appels.add(r.getURI().toString());
+            return new MockClientHttpResponse(new byte[0], r.getURI().toString().startsWith(GATEWAY) ? HttpStatus.OK : statutInstance);
+        }).getStatusCode();
+    }
+}
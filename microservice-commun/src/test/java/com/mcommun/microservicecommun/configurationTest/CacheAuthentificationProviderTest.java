@@ -0,0 +1,81 @@
+package com.mcommun.microservicecommun.configurationTest;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.mcommun.microservicecommun.configuration.CacheAuthentificationProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe de test pour CacheAuthentificationProvider.
+ * Vérifie que BCrypt n'est exécuté qu'une fois par identifiants pendant la durée du cache.
+ *
+ * @author Mickael Hayé
+ * @version 1.0
+ */
+public class CacheAuthentificationProviderTest {
+
+    private final AtomicInteger nbVerifications = new AtomicInteger();
+    private final AtomicLong temps = new AtomicLong();
+    private CacheAuthentificationProvider provider;
+
+    @BeforeEach
+    void setup() {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(4) {
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                nbVerifications.incrementAndGet();
+                return super.matches(rawPassword, encodedPassword);
+            }
+        };
+        DaoAuthenticationProvider verification = new DaoAuthenticationProvider(bcrypt);
+        verification.setUserDetailsService(new InMemoryUserDetailsManager(
+                User.builder().username("user1").password(bcrypt.encode("0241585915")).roles("USER").build()));
+        Ticker ticker = temps::get;
+        provider = new CacheAuthentificationProvider(verification, Duration.ofSeconds(60), 100, ticker);
+    }
+
+    /**
+     * Teste qu'une vérification réussie est réutilisée jusqu'à son expiration.
+     */
+    @Test
+    void verificationMemoriseeTest() {
+        Authentication premiere = provider.authenticate(identifiants("user1", "0241585915"));
+        Authentication seconde = provider.authenticate(identifiants("user1", "0241585915"));
+        assertTrue(seconde.isAuthenticated());
+        assertEquals("user1", seconde.getName());
+        assertSame(premiere, seconde);
+        assertEquals(1, nbVerifications.get());
+
+        temps.addAndGet(Duration.ofSeconds(61).toNanos());
+        provider.authenticate(identifiants("user1", "0241585915"));
+        assertEquals(2, nbVerifications.get());
+    }
+
+    /**
+     * Teste qu'un mauvais mot de passe est toujours vérifié et jamais mémorisé.
+     */
+    @Test
+    void echecNonMemoriseTest() {
+        provider.authenticate(identifiants("user1", "0241585915"));
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(identifiants("user1", "mauvais")));
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(identifiants("user1", "mauvais")));
+        assertEquals(3, nbVerifications.get());
+    }
+
+    private static UsernamePasswordAuthenticationToken identifiants(String utilisateur, String motDePasse) {
+        return UsernamePasswordAuthenticationToken.unauthenticated(utilisateur, motDePasse);
+    }
+}
@@ -0,0 +1,52 @@
+package com.mcommun.microservicecommun.configurationTest;
+
+import com.mcommun.microservicecommun.configuration.Echeance;
+import com.mcommun.microservicecommun.configuration.EcheanceFilter;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe de test pour EcheanceFilter.
+ * Vérifie l'échéance reçue de l'appelant, le délai par défaut des lectures et l'absence d'échéance des écritures.
+ *
+ * @author Mickael Hayé
+ * @version 1.0
+ */
+public class EcheanceFilterTest {
+
+    private final EcheanceFilter filtre = new EcheanceFilter(3000);
+
+    /**
+     * Teste que l'échéance transmise par l'appelant est appliquée, quelle que soit la méthode.
+     */
+    @Test
+    void echeanceRecueTest() throws Exception {
+        MockHttpServletRequest requete = new MockHttpServletRequest("POST", "/patientBack/update/1");
+        requete.addHeader(Echeance.ENTETE, "500");
+        long restant = Echeance.restante(echeancePendant(requete));
+        assertTrue(restant > 0 && restant <= 500);
+        assertNull(Echeance.courante());
+    }
+
+    /**
+     * Teste qu'une lecture sans en-tête reçoit le délai par défaut, et qu'une écriture n'a pas d'échéance.
+     */
+    @Test
+    void lectureEtEcritureTest() throws Exception {
+        long restant = Echeance.restante(echeancePendant(new MockHttpServletRequest("GET", "/patientFront/list")));
+        assertTrue(restant > 500 && restant <= 3000);
+
+        assertNull(echeancePendant(new MockHttpServletRequest("POST", "/patientFront/update/1")));
+    }
+
+    private Long echeancePendant(MockHttpServletRequest requete) throws Exception {
+        AtomicReference<Long> echeance = new AtomicReference<>();
+        filtre.doFilter(requete, new MockHttpServletResponse(), (req, rep) -> echeance.set(Echeance.courante()));
+        return echeance.get();
+    }
+}
@@ -0,0 +1,113 @@
+package com.mcommun.microservicecommun.configurationTest;
+
+import com.mcommun.microservicecommun.configuration.Echeance;
+import com.mcommun.microservicecommun.configuration.ProtectionAppelsInterceptor;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe de test pour ProtectionAppelsInterceptor.
+ * Vérifie le disjoncteur et la cloison propres à chaque microservice appelé, ainsi que la transmission de l'échéance.
+ *
+ * @author Mickael Hayé
+ * @version 1.0
+ */
+public class ProtectionAppelsInterceptorTest {
+
+    private final AtomicInteger appels = new AtomicInteger();
+
+    private final ProtectionAppelsInterceptor interceptor = new ProtectionAppelsInterceptor(
+            CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                    .slidingWindowSize(4)
+                    .minimumNumberOfCalls(4)
+                    .failureRateThreshold(50)
+                    .waitDurationInOpenState(Duration.ofMinutes(1))
+                    .build()),
+            BulkheadRegistry.of(BulkheadConfig.custom().maxConcurrentCalls(1).maxWaitDuration(Duration.ZERO).build()));
+
+    /**
+     * Teste que le disjoncteur d'un microservice s'ouvre après des réponses 5xx,
+     * refusant ensuite les appels sans les émettre, sans affecter les autres microservices.
+     */
+    @Test
+    void disjoncteurTest() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            appeler("/noteBack/list/1", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+        assertThrows(ProtectionAppelsInterceptor.AppelRefuseException.class, () -> appeler("/noteBack/list/1", HttpStatus.OK));
+        assertEquals(4, appels.get());
+
+        assertEquals(HttpStatus.OK, appeler("/patientBack/updateForm/1", HttpStatus.OK));
+    }
+
+    /**
+     * Teste qu'un appel est refusé lorsque la cloison du microservice est pleine, y compris tant que le corps
+     * de la réponse en cours n'a pas été lu, et accepté une fois cette réponse fermée.
+     */
+    @Test
+    void cloisonTest() throws Exception {
+        MockClientHttpRequest requete = new MockClientHttpRequest(HttpMethod.GET, URI.create("http://localhost:9003/noteBack/list/1"));
+        ClientHttpResponse enCours = interceptor.intercept(requete, new byte[0], (r, corps) -> {
+            assertThrows(ProtectionAppelsInterceptor.AppelRefuseException.class, () -> appeler("/noteBack/list/2", HttpStatus.OK));
+            return new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+        });
+        assertThrows(ProtectionAppelsInterceptor.AppelRefuseException.class, () -> appeler("/noteBack/list/2", HttpStatus.OK));
+
+        enCours.close();
+        enCours.close();
+        assertEquals(HttpStatus.OK, appeler("/noteBack/list/2", HttpStatus.OK));
+        assertEquals(HttpStatus.OK, appeler("/noteBack/list/3", HttpStatus.OK));
+    }
+
+    /**
+     * Teste que le temps restant avant l'échéance est transmis au microservice appelé,
+     * et qu'un appel n'est pas émis une fois l'échéance dépassée.
+     */
+    @Test
+    void echeanceTest() {
+        MockClientHttpRequest requete = new MockClientHttpRequest(HttpMethod.GET, URI.create("http://localhost:9001/patientBack/updateForm/1"));
+        Echeance.executer(System.nanoTime() + TimeUnit.SECONDS.toNanos(2), () -> intercepter(requete, HttpStatus.OK));
+        long restant = Long.parseLong(requete.getHeaders().getFirst(Echeance.ENTETE));
+        assertTrue(restant > 0 && restant <= 2000);
+
+        assertThrows(ProtectionAppelsInterceptor.AppelRefuseException.class,
+                () -> Echeance.executer(System.nanoTime() - 1, () -> appeler("/patientBack/updateForm/1", HttpStatus.OK)));
+        assertNull(Echeance.courante());
+        assertEquals(1, appels.get());
+    }
+
+    private HttpStatusCode appeler(String chemin, HttpStatus statut) {
+        return intercepter(new MockClientHttpRequest(HttpMethod.GET, URI.create("http://localhost:9000" + chemin)), statut);
+    }
+
+    /**
+     * Émet l'appel puis ferme sa réponse, comme le fait le RestTemplate après en avoir lu le corps.
+     */
+    private HttpStatusCode intercepter(MockClientHttpRequest requete, HttpStatus statut) {
+        try (ClientHttpResponse reponse = interceptor.intercept(requete, new byte[0], (r, corps) -> {
+            appels.incrementAndGet();
+            return new MockClientHttpResponse(new byte[0], statut);
+        })) {
+            return reponse.getStatusCode();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.mcommun.microservicecommun.serviceTest;
+
+import com.mcommun.microservicecommun.service.impl.InvalidationRisqueServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Classe de test pour InvalidationRisqueServiceImpl.
+ *
+ * @author mickael hayé
+ * @version 1.0
+ */
+public class InvalidationRisqueServiceTest {
+
+    /**
+     * Teste que l'invalidation appelle le gateway, avec l'en-tête d'autorisation, avant de rendre la main.
+     */
+    @Test
+    void invaliderRisqueTest() {
+        RestTemplate restTemplate = mock(RestTemplate.class);
+        new InvalidationRisqueServiceImpl(restTemplate, "http://localhost:9000").invaliderRisque("1", "Bearer jeton");
+
+        verify(restTemplate).exchange(eq("http://localhost:9000/diabeteBack/cache/1"), eq(HttpMethod.DELETE),
+                argThat((HttpEntity<?> entite) -> "Bearer jeton".equals(entite.getHeaders().getFirst("Authorization"))), eq(Void.class));
+    }
+
+    /**
+     * Teste qu'aucun appel n'est tenté sans en-tête d'autorisation.
+     */
+    @Test
+    void invaliderRisqueSansAutorisationTest() {
+        RestTemplate restTemplate = mock(RestTemplate.class);
+        new InvalidationRisqueServiceImpl(restTemplate, "http://localhost:9000").invaliderRisque("1", null);
+
+        verifyNoInteractions(restTemplate);
+    }
+
+    /**
+     * Teste qu'un échec de l'invalidation ne fait pas échouer l'écriture qui l'a déclenchée.
+     */
+    @Test
+    void invaliderRisqueEchecTest() {
+        RestTemplate restTemplate = mock(RestTemplate.class);
+        when(restTemplate.exchange(any(String.class), eq(HttpMethod.DELETE), any(HttpEntity.class), eq(Void.class)))
+                .thenThrow(new ResourceAccessException("gateway indisponible"));
+
+        assertDoesNotThrow(() -> new InvalidationRisqueServiceImpl(restTemplate, "http://localhost:9000").invaliderRisque("1", "Bearer jeton"));
+    }
+}
@@ -3,12 +3,33 @@
  */
 package com.mfront.microservicefront.configuration;
 
+import com.mcommun.microservicecommun.configuration.AppelsDirectsInterceptor;
+import com.mcommun.microservicecommun.configuration.Echeance;
+import com.mcommun.microservicecommun.configuration.EcheanceFilter;
+import com.mcommun.microservicecommun.configuration.ProtectionAppelsInterceptor;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
 
 /**
  * Classe de configuration pour le microservice front.
@@ -22,16 +43,130 @@ import org.slf4j.LoggerFactory;
 public class AppConfig {
     private static final Logger logger = LoggerFactory.getLogger(AppConfig.class);
 
+    /**
+     * Crée le pool de connexions HTTP vers le gateway.
+     * Les connexions sont réutilisées d'une requête à l'autre (keep-alive) au lieu d'être ouvertes à chaque appel.
+     *
+     * @param prop les propriétés personnalisées du microservice.
+     * @return le pool de connexions HTTP.
+     */
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager poolConnexionsHttp(CustomProperties prop) {
+        logger.info("Création du pool de connexions HTTP : {} connexions, {} par route.", prop.getHttpConnexionsMax(), prop.getHttpConnexionsMaxParRoute());
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(prop.getHttpConnexionsMax())
+                .setMaxConnPerRoute(prop.getHttpConnexionsMaxParRoute())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(prop.getHttpConnexionTimeout()))
+                        .setSocketTimeout(Timeout.ofMilliseconds(prop.getHttpLectureTimeout()))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+    }
+
+    /**
+     * Crée le client HTTP adossé au pool de connexions, avec des délais bornés
+     * et la fermeture en tâche de fond des connexions expirées ou inactives.
+     *
+     * @param poolConnexionsHttp le pool de connexions HTTP.
+     * @param prop               les propriétés personnalisées du microservice.
+     * @return le client HTTP.
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient clientHttp(PoolingHttpClientConnectionManager poolConnexionsHttp, CustomProperties prop) {
+        return HttpClients.custom()
+                .setConnectionManager(poolConnexionsHttp)
+                .setDefaultRequestConfig(configRequete(prop, prop.getHttpLectureTimeout()))
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(prop.getHttpInactiviteMax()))
+                .build();
+    }
+
+    /**
+     * Crée l'intercepteur protégeant les appels vers les autres microservices par un disjoncteur et une cloison
+     * propres à chaque microservice appelé.
+     *
+     * @param circuitBreakerRegistry le registre des disjoncteurs (propriétés resilience4j.circuitbreaker).
+     * @param bulkheadRegistry       le registre des cloisons (propriétés resilience4j.bulkhead).
+     * @return l'intercepteur, commun aux microservices.
+     */
+    @Bean
+    public ProtectionAppelsInterceptor protectionAppelsInterceptor(CircuitBreakerRegistry circuitBreakerRegistry, BulkheadRegistry bulkheadRegistry) {
+        return new ProtectionAppelsInterceptor(circuitBreakerRegistry, bulkheadRegistry);
+    }
+
+    /**
+     * Crée le filtre définissant l'échéance de chaque requête : les appels effectués pour afficher une page
+     * doivent se terminer dans le délai configuré (propriété delaiRequete), les écritures n'ont pas d'échéance.
+     *
+     * @param prop les propriétés personnalisées du microservice.
+     * @return le filtre, commun aux microservices.
+     */
+    @Bean
+    public EcheanceFilter echeanceFilter(CustomProperties prop) {
+        return new EcheanceFilter(prop.getDelaiRequete());
+    }
+
+    /**
+     * Crée l'intercepteur, commun aux microservices, envoyant les lectures directement aux instances des autres microservices
+     * lorsque les appels directs sont activés ; sinon, tous les appels passent par le gateway.
+     *
+     * @param prop les propriétés personnalisées du microservice.
+     * @return l'intercepteur des appels directs.
+     */
+    @Bean
+    public AppelsDirectsInterceptor appelsDirectsInterceptor(CustomProperties prop) {
+        return new AppelsDirectsInterceptor(prop.getGatewayPath(), prop.isAppelsDirects() ? prop.getServicesDirects() : Map.of(), prop.getAppelsDirectsEjection());
+    }
+
     /**
      * Crée et configure un bean RestTemplate pour les appels HTTP.
      * Le RestTemplate est un client HTTP centralisé utilisé pour effectuer des requêtes et consommer des services RESTful.
-     * Cette méthode met en place un RestTemplate standard qui peut être injecté et réutilisé dans toute l'application.
+     * Il utilise le client HTTP à connexions poolées et peut être injecté et réutilisé dans toute l'application.
+     * Construit à partir du {@code RestTemplateBuilder} de Spring Boot, ses appels sont mesurés (métrique http.client.requests).
+     * Ses appels passent par des disjoncteurs et des cloisons propres à chaque microservice appelé,
+     * et leur délai de réponse est borné par l'échéance de la requête en cours.
+     * Si les appels directs sont activés, les lectures sont envoyées directement aux instances configurées.
      *
+     * @param builder          le constructeur de RestTemplate fourni par Spring Boot.
+     * @param clientHttp       le client HTTP à connexions poolées.
+     * @param protectionAppels l'intercepteur protégeant les appels vers les autres microservices.
+     * @param appelsDirects    l'intercepteur envoyant les lectures directement aux microservices, placé en dernier.
+     * @param prop             les propriétés personnalisées du microservice.
      * @return une nouvelle instance de {@code RestTemplate}.
      */
     @Bean
-    public RestTemplate restTemplate() {
+    public RestTemplate restTemplate(RestTemplateBuilder builder, CloseableHttpClient clientHttp, ProtectionAppelsInterceptor protectionAppels,
+                                     AppelsDirectsInterceptor appelsDirects, CustomProperties prop) {
         logger.info("Création du bean RestTemplate pour les appels HTTP.");
-        return new RestTemplate();
+        return builder.requestFactory(() -> {
+                    HttpComponentsClientHttpRequestFactory factory = new HttpComponentsClientHttpRequestFactory(clientHttp);
+                    factory.setHttpContextFactory((methode, uri) -> contexteEcheance(prop));
+                    return factory;
+                })
+                .additionalInterceptors(protectionAppels, appelsDirects)
+                .build();
+    }
+
+    /**
+     * Crée le contexte d'un appel HTTP dont le délai de réponse est réduit au temps restant avant l'échéance
+     * de la requête en cours ; sans échéance, la configuration par défaut du client HTTP s'applique.
+     */
+    private static HttpContext contexteEcheance(CustomProperties prop) {
+        Long echeance = Echeance.courante();
+        if (echeance == null) {
+            return null;
+        }
+        HttpClientContext contexte = HttpClientContext.create();
+        contexte.setRequestConfig(configRequete(prop, Math.max(1, Math.min(prop.getHttpLectureTimeout(), Echeance.restante(echeance)))));
+        return contexte;
+    }
+
+    private static RequestConfig configRequete(CustomProperties prop, long delaiReponse) {
+        return RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(prop.getHttpAttenteConnexionTimeout()))
+                .setResponseTimeout(Timeout.ofMilliseconds(delaiReponse))
+                .setDefaultKeepAlive(prop.getHttpKeepAlive(), TimeUnit.MILLISECONDS)
+                .build();
     }
 }
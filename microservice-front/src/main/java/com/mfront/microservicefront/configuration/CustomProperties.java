@@ -5,9 +5,13 @@ package com.mfront.microservicefront.configuration;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  * Classe de configuration pour les propriétés personnalisées du microservice front.
   * Cette classe est utilisée pour lier les propriétés spécifiées dans les fichiers de configuration
@@ -32,6 +36,69 @@ public class CustomProperties {
 
     private String gatewayPathRedirect;
 
+    /**
+     * Secret partagé avec le gateway, utilisé pour vérifier la signature des jetons qu'il transmet.
+     */
+    private String jwtSecret;
+
+    /**
+     * Cache des authentifications HTTP Basic réussies : durée de conservation en secondes et nombre maximal d'entrées.
+     */
+    private long authCacheDuree = 60;
+    private long authCacheTailleMax = 1000;
+
+    /**
+     * Pool de connexions HTTP vers le gateway : nombre maximal de connexions, au total et par hôte.
+     */
+    private int httpConnexionsMax = 100;
+    private int httpConnexionsMaxParRoute = 50;
+
+    /**
+     * Délais des appels HTTP en millisecondes : établissement de la connexion, attente de la réponse
+     * et attente d'une connexion libre lorsque le pool est saturé.
+     */
+    private long httpConnexionTimeout = 2000;
+    private long httpLectureTimeout = 10000;
+    private long httpAttenteConnexionTimeout = 1000;
+
+    /**
+     * Durée de conservation d'une connexion inutilisée lorsque le serveur ne l'indique pas,
+     * et durée d'inactivité au-delà de laquelle le pool la ferme, en millisecondes.
+     */
+    private long httpKeepAlive = 30000;
+    private long httpInactiviteMax = 60000;
+
+    /**
+     * Délai accordé aux appels effectués pour afficher une page, en millisecondes,
+     * transmis aux microservices appelés comme échéance de leur réponse.
+     */
+    private long delaiRequete = 3000;
+
+    /**
+     * Délai accordé à l'appel de repli d'une page, effectué une fois l'appel principal en échec, en millisecondes.
+     */
+    private long delaiRepli = 1000;
+
+    /**
+     * Nombre de patients affichés par page de la liste des patients.
+     */
+    private int taillePagePatients = 20;
+
+    /**
+     * Envoi direct des lectures aux autres microservices, sans passer par le gateway ; désactivé par défaut.
+     */
+    private boolean appelsDirects = false;
+
+    /**
+     * Adresses des instances de chaque microservice appelé directement, séparées par des virgules.
+     */
+    private Map<String, String> servicesDirects = new LinkedHashMap<>();
+
+    /**
+     * Durée d'éviction d'une instance appelée directement et en échec, en millisecondes.
+     */
+    private long appelsDirectsEjection = 30000;
+
     /**
      * Récupère le chemin du gateway.
      *
@@ -68,4 +135,308 @@ public class CustomProperties {
     public void setGatewayPathRedirect(String gatewayPathRedirect) {
         this.gatewayPathRedirect = gatewayPathRedirect;
     }
+
+    /**
+     * Récupère le nombre maximal de connexions HTTP du pool.
+     *
+     * @return le nombre maximal de connexions.
+     */
+    public int getHttpConnexionsMax() {
+        return httpConnexionsMax;
+    }
+
+    /**
+     * Définit le nombre maximal de connexions HTTP du pool.
+     *
+     * @param httpConnexionsMax le nombre maximal de connexions.
+     */
+    public void setHttpConnexionsMax(int httpConnexionsMax) {
+        logger.info("Mise à jour du nombre maximal de connexions HTTP : {}", httpConnexionsMax);
+        this.httpConnexionsMax = httpConnexionsMax;
+    }
+
+    /**
+     * Récupère le nombre maximal de connexions HTTP vers un même hôte.
+     *
+     * @return le nombre maximal de connexions par route.
+     */
+    public int getHttpConnexionsMaxParRoute() {
+        return httpConnexionsMaxParRoute;
+    }
+
+    /**
+     * Définit le nombre maximal de connexions HTTP vers un même hôte.
+     *
+     * @param httpConnexionsMaxParRoute le nombre maximal de connexions par route.
+     */
+    public void setHttpConnexionsMaxParRoute(int httpConnexionsMaxParRoute) {
+        logger.info("Mise à jour du nombre maximal de connexions HTTP par route : {}", httpConnexionsMaxParRoute);
+        this.httpConnexionsMaxParRoute = httpConnexionsMaxParRoute;
+    }
+
+    /**
+     * Récupère le délai d'établissement d'une connexion HTTP.
+     *
+     * @return le délai en millisecondes.
+     */
+    public long getHttpConnexionTimeout() {
+        return httpConnexionTimeout;
+    }
+
+    /**
+     * Définit le délai d'établissement d'une connexion HTTP.
+     *
+     * @param httpConnexionTimeout le délai en millisecondes.
+     */
+    public void setHttpConnexionTimeout(long httpConnexionTimeout) {
+        logger.info("Mise à jour du délai de connexion HTTP : {} ms", httpConnexionTimeout);
+        this.httpConnexionTimeout = httpConnexionTimeout;
+    }
+
+    /**
+     * Récupère le délai d'attente de la réponse à une requête HTTP.
+     *
+     * @return le délai en millisecondes.
+     */
+    public long getHttpLectureTimeout() {
+        return httpLectureTimeout;
+    }
+
+    /**
+     * Définit le délai d'attente de la réponse à une requête HTTP.
+     *
+     * @param httpLectureTimeout le délai en millisecondes.
+     */
+    public void setHttpLectureTimeout(long httpLectureTimeout) {
+        logger.info("Mise à jour du délai de lecture HTTP : {} ms", httpLectureTimeout);
+        this.httpLectureTimeout = httpLectureTimeout;
+    }
+
+    /**
+     * Récupère le délai d'attente d'une connexion libre.
+     *
+     * @return le délai en millisecondes.
+     */
+    public long getHttpAttenteConnexionTimeout() {
+        return httpAttenteConnexionTimeout;
+    }
+
+    /**
+     * Définit le délai d'attente d'une connexion libre.
+     *
+     * @param httpAttenteConnexionTimeout le délai en millisecondes.
+     */
+    public void setHttpAttenteConnexionTimeout(long httpAttenteConnexionTimeout) {
+        logger.info("Mise à jour du délai d'attente d'une connexion HTTP : {} ms", httpAttenteConnexionTimeout);
+        this.httpAttenteConnexionTimeout = httpAttenteConnexionTimeout;
+    }
+
+    /**
+     * Récupère la durée de keep-alive par défaut des connexions HTTP.
+     *
+     * @return la durée en millisecondes.
+     */
+    public long getHttpKeepAlive() {
+        return httpKeepAlive;
+    }
+
+    /**
+     * Définit la durée de keep-alive par défaut des connexions HTTP.
+     *
+     * @param httpKeepAlive la durée en millisecondes.
+     */
+    public void setHttpKeepAlive(long httpKeepAlive) {
+        logger.info("Mise à jour du keep-alive HTTP : {} ms", httpKeepAlive);
+        this.httpKeepAlive = httpKeepAlive;
+    }
+
+    /**
+     * Récupère la durée d'inactivité au-delà de laquelle une connexion HTTP est fermée.
+     *
+     * @return la durée en millisecondes.
+     */
+    public long getHttpInactiviteMax() {
+        return httpInactiviteMax;
+    }
+
+    /**
+     * Définit la durée d'inactivité au-delà de laquelle une connexion HTTP est fermée.
+     *
+     * @param httpInactiviteMax la durée en millisecondes.
+     */
+    public void setHttpInactiviteMax(long httpInactiviteMax) {
+        logger.info("Mise à jour de la durée d'inactivité maximale des connexions HTTP : {} ms", httpInactiviteMax);
+        this.httpInactiviteMax = httpInactiviteMax;
+    }
+
+    /**
+     * Récupère le secret de vérification des jetons émis par le gateway.
+     *
+     * @return le secret partagé.
+     */
+    public String getJwtSecret() {
+        return jwtSecret;
+    }
+
+    /**
+     * Définit le secret de vérification des jetons émis par le gateway.
+     *
+     * @param jwtSecret le secret partagé.
+     */
+    public void setJwtSecret(String jwtSecret) {
+        logger.info("Mise à jour du secret de vérification des jetons");
+        this.jwtSecret = jwtSecret;
+    }
+
+    /**
+     * Récupère la durée de conservation d'une authentification réussie.
+     *
+     * @return la durée en secondes.
+     */
+    public long getAuthCacheDuree() {
+        return authCacheDuree;
+    }
+
+    /**
+     * Définit la durée de conservation d'une authentification réussie.
+     *
+     * @param authCacheDuree la durée en secondes.
+     */
+    public void setAuthCacheDuree(long authCacheDuree) {
+        logger.info("Mise à jour de la durée du cache d'authentification : {} s", authCacheDuree);
+        this.authCacheDuree = authCacheDuree;
+    }
+
+    /**
+     * Récupère le nombre maximal d'authentifications conservées.
+     *
+     * @return la taille maximale du cache.
+     */
+    public long getAuthCacheTailleMax() {
+        return authCacheTailleMax;
+    }
+
+    /**
+     * Définit le nombre maximal d'authentifications conservées.
+     *
+     * @param authCacheTailleMax la taille maximale du cache.
+     */
+    public void setAuthCacheTailleMax(long authCacheTailleMax) {
+        logger.info("Mise à jour de la taille maximale du cache d'authentification : {}", authCacheTailleMax);
+        this.authCacheTailleMax = authCacheTailleMax;
+    }
+
+    /**
+     * Récupère le délai accordé aux appels effectués pour afficher une page.
+     *
+     * @return le délai en millisecondes.
+     */
+    public long getDelaiRequete() {
+        return delaiRequete;
+    }
+
+    /**
+     * Définit le délai accordé aux appels effectués pour afficher une page.
+     *
+     * @param delaiRequete le délai en millisecondes.
+     */
+    public void setDelaiRequete(long delaiRequete) {
+        logger.info("Mise à jour du délai accordé aux appels d'une page : {} ms", delaiRequete);
+        this.delaiRequete = delaiRequete;
+    }
+
+    /**
+     * Récupère le délai accordé à l'appel de repli d'une page.
+     *
+     * @return le délai en millisecondes.
+     */
+    public long getDelaiRepli() {
+        return delaiRepli;
+    }
+
+    /**
+     * Définit le délai accordé à l'appel de repli d'une page.
+     *
+     * @param delaiRepli le délai en millisecondes.
+     */
+    public void setDelaiRepli(long delaiRepli) {
+        logger.info("Mise à jour du délai accordé aux appels de repli : {} ms", delaiRepli);
+        this.delaiRepli = delaiRepli;
+    }
+
+    /**
+     * Récupère le nombre de patients affichés par page de la liste des patients.
+     *
+     * @return le nombre de patients par page.
+     */
+    public int getTaillePagePatients() {
+        return taillePagePatients;
+    }
+
+    /**
+     * Définit le nombre de patients affichés par page de la liste des patients.
+     *
+     * @param taillePagePatients le nombre de patients par page.
+     */
+    public void setTaillePagePatients(int taillePagePatients) {
+        logger.info("Mise à jour du nombre de patients par page : {}", taillePagePatients);
+        this.taillePagePatients = taillePagePatients;
+    }
+
+    /**
+     * Indique si les lectures adressées aux autres microservices leur sont envoyées directement, sans passer par le gateway.
+     *
+     * @return boolean - true si les appels directs sont activés.
+     */
+    public boolean isAppelsDirects() {
+        return appelsDirects;
+    }
+
+    /**
+     * Active ou désactive les appels directs aux autres microservices.
+     *
+     * @param appelsDirects true pour envoyer les lectures directement aux instances configurées.
+     */
+    public void setAppelsDirects(boolean appelsDirects) {
+        logger.info("Mise à jour de l'activation des appels directs : {}", appelsDirects);
+        this.appelsDirects = appelsDirects;
+    }
+
+    /**
+     * Obtient les instances de chaque microservice appelé directement.
+     *
+     * @return Map - Les adresses des instances, séparées par des virgules, par nom de microservice (ex. "patientBack").
+     */
+    public Map<String, String> getServicesDirects() {
+        return servicesDirects;
+    }
+
+    /**
+     * Définit les instances de chaque microservice appelé directement.
+     *
+     * @param servicesDirects Les adresses des instances par nom de microservice.
+     */
+    public void setServicesDirects(Map<String, String> servicesDirects) {
+        logger.info("Mise à jour des instances appelées directement : {}", servicesDirects);
+        this.servicesDirects = servicesDirects;
+    }
+
+    /**
+     * Obtient la durée d'éviction d'une instance appelée directement et en échec.
+     *
+     * @return long - La durée en millisecondes.
+     */
+    public long getAppelsDirectsEjection() {
+        return appelsDirectsEjection;
+    }
+
+    /**
+     * Définit la durée d'éviction d'une instance appelée directement et en échec.
+     *
+     * @param appelsDirectsEjection La durée en millisecondes.
+     */
+    public void setAppelsDirectsEjection(long appelsDirectsEjection) {
+        logger.info("Mise à jour de la durée d'éviction des instances appelées directement : {} ms", appelsDirectsEjection);
+        this.appelsDirectsEjection = appelsDirectsEjection;
+    }
 }
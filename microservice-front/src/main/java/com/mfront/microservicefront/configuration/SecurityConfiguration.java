@@ -3,10 +3,13 @@
  */
 package com.mfront.microservicefront.configuration;
 
+import com.mcommun.microservicecommun.configuration.CacheAuthentificationProvider;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -17,10 +20,20 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
 import org.springframework.security.web.SecurityFilterChain;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
 /**
  * Classe de configuration pour la sécurité web du microservice front.
  * Cette classe configure la sécurité web en utilisant Spring Security.
@@ -38,6 +51,8 @@ public class SecurityConfiguration {
     private static final Logger logger = LoggerFactory.getLogger(SecurityConfiguration.class);
     /**
      * Configure et retourne un {@code SecurityFilterChain} pour la sécurité HTTP.
+     * Les requêtes routées par le gateway portent un jeton signé, vérifié sans hachage du mot de passe ;
+     * l'authentification HTTP Basic reste possible pour les appels directs.
      *
      * @param http l'objet {@code HttpSecurity} pour configurer la sécurité web.
      * @return le {@code SecurityFilterChain} configuré.
@@ -49,6 +64,7 @@ public class SecurityConfiguration {
         http.authorizeHttpRequests((authorizeHttpRequests) -> authorizeHttpRequests
                         .anyRequest().authenticated())
                 .httpBasic(Customizer.withDefaults())
+                .oauth2ResourceServer(oauth2 -> oauth2.jwt(Customizer.withDefaults()))
                 .csrf().disable();
         return http.build();
     }
@@ -94,4 +110,52 @@ public class SecurityConfiguration {
         logger.info("Configuration de l'encodeur de mot de passe BCrypt.");
         return new BCryptPasswordEncoder();
     }
+
+    /**
+     * Fournit le fournisseur d'authentification HTTP Basic : les identifiants sont vérifiés par BCrypt
+     * auprès des utilisateurs en mémoire, puis la vérification réussie est conservée brièvement en cache.
+     *
+     * @param users Le service des utilisateurs en mémoire.
+     * @param prop  Les propriétés personnalisées du microservice.
+     * @return AuthenticationProvider configuré.
+     */
+    @Bean
+    public AuthenticationProvider authenticationProvider(UserDetailsService users, CustomProperties prop) {
+        DaoAuthenticationProvider verification = new DaoAuthenticationProvider(passwordEncoder());
+        verification.setUserDetailsService(users);
+        return new CacheAuthentificationProvider(verification, Duration.ofSeconds(prop.getAuthCacheDuree()), prop.getAuthCacheTailleMax());
+    }
+
+    /**
+     * Fournit le décodeur vérifiant la signature HMAC-SHA256, l'émetteur et l'expiration des jetons émis par le gateway.
+     *
+     * @param prop Les propriétés personnalisées du microservice.
+     * @return JwtDecoder configuré.
+     */
+    @Bean
+    public JwtDecoder jwtDecoder(CustomProperties prop) {
+        if (prop.getJwtSecret() == null || prop.getJwtSecret().getBytes(StandardCharsets.UTF_8).length < 32) {
+            throw new IllegalStateException("Le secret de vérification des jetons doit comporter au moins 32 octets (variable JWT_SECRET)");
+        }
+        NimbusJwtDecoder decoder = NimbusJwtDecoder.withSecretKey(new SecretKeySpec(prop.getJwtSecret().getBytes(StandardCharsets.UTF_8), "HmacSHA256"))
+                .macAlgorithm(MacAlgorithm.HS256)
+                .build();
+        decoder.setJwtValidator(JwtValidators.createDefaultWithIssuer("microservice-gateway"));
+        return decoder;
+    }
+
+    /**
+     * Convertit les rôles portés par le jeton en autorités ROLE_*, comme pour un utilisateur authentifié en HTTP Basic.
+     *
+     * @return JwtAuthenticationConverter configuré.
+     */
+    @Bean
+    public JwtAuthenticationConverter jwtAuthenticationConverter() {
+        JwtGrantedAuthoritiesConverter roles = new JwtGrantedAuthoritiesConverter();
+        roles.setAuthoritiesClaimName("roles");
+        roles.setAuthorityPrefix("ROLE_");
+        JwtAuthenticationConverter converter = new JwtAuthenticationConverter();
+        converter.setJwtGrantedAuthoritiesConverter(roles);
+        return converter;
+    }
 }
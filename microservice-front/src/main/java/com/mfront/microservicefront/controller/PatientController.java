@@ -4,8 +4,11 @@
 package com.mfront.microservicefront.controller;
 
 import com.mfront.microservicefront.configuration.CustomProperties;
+import com.mfront.microservicefront.model.FichePatientModel;
+import com.mfront.microservicefront.model.PagePatientsModel;
 import com.mfront.microservicefront.model.PatientModel;
 import com.mfront.microservicefront.service.DateService;
+import com.mcommun.microservicecommun.configuration.Echeance;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpEntity;
@@ -17,9 +20,11 @@ import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -55,34 +60,46 @@ public class PatientController {
     }
 
     /**
-     * Affiche la liste des patients.
+     * Affiche une page de la liste des patients, triée par identifiant ou par nom.
+     * La page suivante est affichée en repassant le jeton de suite reçu du microservice back-patient.
      *
      * @param model      Modèle Spring pour passer des données à la vue.
      * @param authHeader En-tête d'autorisation pour la requête.
+     * @param tri        Tri de la liste : "id" (par défaut) ou "nom".
+     * @param suite      Jeton de la page à afficher, absent pour la première page.
      * @return Le nom de la vue pour afficher la liste des patients.
      */
     @GetMapping("/list")
-    public String listPatient(Model model, @RequestHeader("Authorization") String authHeader) {
-        logger.info("Récupération de la liste des patients.");
-        String url = prop.getGatewayPath() + "/patientBack/list";
+    public String listPatient(Model model, @RequestHeader("Authorization") String authHeader,
+                              @RequestParam(defaultValue = "id") String tri, @RequestParam(required = false) String suite) {
+        logger.info("Récupération d'une page de la liste des patients triée par {}.", tri);
+        String url = UriComponentsBuilder.fromUriString(prop.getGatewayPath() + "/patientBack/page")
+                .queryParam("tri", tri)
+                .queryParam("taille", prop.getTaillePagePatients())
+                .queryParamIfPresent("suite", Optional.ofNullable(suite))
+                .encode().toUriString();
         HttpHeaders headers = new HttpHeaders();
         headers.set("Authorization", authHeader);
         HttpEntity<String> entity = new HttpEntity<>("body", headers);
-        ResponseEntity<PatientModel[]> response;
-        try{response = restTemplate.exchange(url, HttpMethod.GET, entity, PatientModel[].class);
+        ResponseEntity<PagePatientsModel> response;
+        try{response = restTemplate.exchange(url, HttpMethod.GET, entity, PagePatientsModel.class);
         }catch (
         RestClientException e) {
             logger.error("Erreur de connexion au microservice : " + e.getMessage());
             model.addAttribute("errorMessage", "Impossible de se connecter au service de patients.");
             return "error/errorPage";
         }
-        List<PatientModel> patients = Arrays.asList(response.getBody());
-        model.addAttribute("patients", patients);
+        model.addAttribute("patients", response.getBody().getPatients());
+        model.addAttribute("suite", response.getBody().getSuite());
+        model.addAttribute("tri", tri);
+        model.addAttribute("premierePage", suite == null);
         return "patient/list";
     }
 
     /**
      * Affiche le formulaire de mise à jour pour un patient donné.
+     * Si le microservice back-diabete est indisponible, la fiche du patient est demandée directement au microservice
+     * back-patient et la page est affichée sans le risque de diabète.
      *
      * @param id         ID du patient à mettre à jour.
      * @param model      Modèle Spring pour passer des données à la vue.
@@ -92,37 +109,51 @@ public class PatientController {
     @GetMapping("/updateForm/{id}")
     public String updatePatientForm(@PathVariable String id, Model model, @RequestHeader("Authorization") String authHeader) {
         logger.info("Récupération du formulaire de mise à jour pour le patient avec l'ID: {}", id);
-        String url = prop.getGatewayPath() + "/patientBack/updateForm/" + id;
+        // Fiche, notes et risque de diabète récupérés en un seul appel
+        String url = prop.getGatewayPath() + "/diabeteBack/fichePatient/" + id;
         HttpHeaders headers = new HttpHeaders();
         headers.set("Authorization", authHeader);
         HttpEntity<String> entity = new HttpEntity<>("body", headers);
-        ResponseEntity<PatientModel> response;
-        try{response = restTemplate.exchange(url, HttpMethod.GET, entity, PatientModel.class);
+        ResponseEntity<FichePatientModel> response;
+        try{response = restTemplate.exchange(url, HttpMethod.GET, entity, FichePatientModel.class);
         }catch (
         RestClientException e) {
-            logger.error("Erreur de connexion au microservice : " + e.getMessage());
-            model.addAttribute("errorMessage", "Impossible de se connecter au service de patients.");
-            return "error/errorPage";
+            logger.warn("Fiche complète indisponible, affichage du patient sans le risque : " + e.getMessage());
+            // L'échéance de la page peut être épuisée par l'appel en échec : le repli dispose de son propre délai
+            response = Echeance.executer(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(prop.getDelaiRepli()),
+                    () -> fichePatientPartielle(id, entity));
         }
-
-        logger.info("Récupération du apport de diabète pour le patient avec l'ID: {}", id);
-        url = prop.getGatewayPath() + "/diabeteBack/risque/" + id;
-        ResponseEntity<String> responseString;
-        try{ responseString = restTemplate.exchange(url, HttpMethod.GET, entity, String.class);
-        }catch (
-        RestClientException e) {
-            logger.error("Erreur de connexion au microservice : " + e.getMessage());
-            model.addAttribute("errorMessage", "Impossible de se connecter au service de diabete ou notes.");
+        if (response == null || response.getBody() == null) {
+            model.addAttribute("errorMessage", "Impossible de se connecter au service de patients.");
             return "error/errorPage";
         }
-        String rapportDiabete =responseString.getBody();
+        FichePatientModel fichePatient = response.getBody();
 
-        model.addAttribute("patient", response.getBody());
+        model.addAttribute("patient", fichePatient.getPatient());
         model.addAttribute("dateDuJour", dateService.dateDuJour());
-        model.addAttribute("rapportDiabete", rapportDiabete);
+        model.addAttribute("rapportDiabete", fichePatient.getRisque());
         return "patient/update";
     }
 
+    /**
+     * Récupère la seule fiche du patient auprès du microservice back-patient, sans ses notes ni son risque de diabète.
+     *
+     * @return la fiche partielle, ou null si le microservice back-patient est lui aussi indisponible.
+     */
+    private ResponseEntity<FichePatientModel> fichePatientPartielle(String id, HttpEntity<String> entity) {
+        String url = prop.getGatewayPath() + "/patientBack/updateForm/" + id;
+        try {
+            ResponseEntity<PatientModel> response = restTemplate.exchange(url, HttpMethod.GET, entity, PatientModel.class);
+            if (response == null || response.getBody() == null) {
+                return null;
+            }
+            return ResponseEntity.ok(new FichePatientModel(response.getBody(), null, null));
+        } catch (RestClientException e) {
+            logger.error("Erreur de connexion au microservice : " + e.getMessage());
+            return null;
+        }
+    }
+
     /**
      * Met à jour les informations d'un patient.
      *
@@ -0,0 +1,52 @@
+/**
+ * Package dédié aux contrôleurs du microservice front.
+ */
+package com.mfront.microservicefront.controller;
+
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.core5.pool.PoolStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Contrôleur exposant l'état technique du microservice front.
+ *
+ * @author mickael hayé
+ * @version 1.0
+ */
+@RestController
+@RequestMapping("supervision")
+public class SupervisionController {
+    private final PoolingHttpClientConnectionManager poolConnexionsHttp;
+
+    /**
+     * Constructeur permettant l'injection des dépendances.
+     *
+     * @param poolConnexionsHttp Le pool de connexions HTTP vers le gateway.
+     */
+    @Autowired
+    public SupervisionController(PoolingHttpClientConnectionManager poolConnexionsHttp) {
+        this.poolConnexionsHttp = poolConnexionsHttp;
+    }
+
+    /**
+     * Renvoie l'état du pool de connexions HTTP vers le gateway.
+     *
+     * @return Map de l'état du pool (connexions utilisées, requêtes en attente, connexions libres, maximum).
+     */
+    @GetMapping("/httpPool/stats")
+    public Map<String, Object> statistiquesPoolHttp() {
+        PoolStats stats = poolConnexionsHttp.getTotalStats();
+        Map<String, Object> statistiques = new LinkedHashMap<>();
+        statistiques.put("leased", stats.getLeased());
+        statistiques.put("pending", stats.getPending());
+        statistiques.put("available", stats.getAvailable());
+        statistiques.put("max", stats.getMax());
+        return statistiques;
+    }
+}
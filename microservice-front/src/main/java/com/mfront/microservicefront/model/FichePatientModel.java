@@ -0,0 +1,39 @@
+/**
+ * Package contenant les modèles utilisés par le microservice front.
+ */
+package com.mfront.microservicefront.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Modèle représentant la fiche complète d'un patient, renvoyée en un seul appel par le microservice back-diabete.
+ * Cette classe regroupe les informations du patient, ses notes médicales
+ * et son niveau de risque de diabète.
+ *
+ * @author mickael hayé
+ * @version 1.0
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FichePatientModel {
+
+    /**
+     * Les informations du patient.
+     */
+    private PatientModel patient;
+
+    /**
+     * Les notes médicales du patient.
+     */
+    private List<NoteModel> notes;
+
+    /**
+     * Le niveau de risque de diabète du patient.
+     */
+    private String risque;
+}
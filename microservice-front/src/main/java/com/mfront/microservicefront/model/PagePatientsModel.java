@@ -0,0 +1,33 @@
+/**
+ * Package contenant les modèles utilisés par le microservice front.
+ */
+package com.mfront.microservicefront.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Modèle représentant une page de la liste des patients, renvoyée par le microservice back-patient.
+ * Cette classe contient les patients de la page et le jeton permettant d'obtenir la page suivante.
+ *
+ * @author mickael hayé
+ * @version 1.0
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PagePatientsModel {
+
+    /**
+     * Les patients de la page.
+     */
+    private List<PatientModel> patients;
+
+    /**
+     * Le jeton de la page suivante, null sur la dernière page.
+     */
+    private String suite;
+}
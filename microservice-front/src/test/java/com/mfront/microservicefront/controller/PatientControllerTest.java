@@ -1,5 +1,8 @@
 package com.mfront.microservicefront.controller;
 
+import com.mcommun.microservicecommun.configuration.Echeance;
+import com.mfront.microservicefront.model.FichePatientModel;
+import com.mfront.microservicefront.model.PagePatientsModel;
 import com.mfront.microservicefront.model.PatientModel;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,8 +17,15 @@ import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
 import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
@@ -49,8 +59,8 @@ public class PatientControllerTest {
     }
 
     /**
-     * Teste le endpoint '/patientFront/list' pour vérifier la récupération et l'affichage de la liste des patients.
-     * Simule deux cas : un cas réussi et un cas où une exception est levée.
+     * Teste le endpoint '/patientFront/list' pour vérifier la récupération et l'affichage d'une page de la liste des patients.
+     * Simule trois cas : une première page suivie d'une autre, la demande de la page suivante et un cas où une exception est levée.
      */
     @Test
     public void listPatientTest() throws Exception {
@@ -60,14 +70,18 @@ public class PatientControllerTest {
         PatientModel patient2 = new PatientModel();
         patient2.setNom("patientTest2");
 
-        PatientModel[] patients = {patient1, patient2};
-        //cas ok
-        when(restTemplate.exchange(any(String.class), any(HttpMethod.class), any(HttpEntity.class), eq(PatientModel[].class))).thenReturn(new ResponseEntity<>(patients, HttpStatus.OK));
+        //cas ok, première page
+        when(restTemplate.exchange(eq("http://localhost:9000/patientBack/page?tri=id&taille=20"), any(HttpMethod.class), any(HttpEntity.class), eq(PagePatientsModel.class))).thenReturn(new ResponseEntity<>(new PagePatientsModel(List.of(patient1, patient2), "jetonSuite"), HttpStatus.OK));
+
+        mockMvc.perform(get("/patientFront/list").with(user("user1")).header("Authorization", "")).andExpect(status().isOk()).andExpect(model().attributeExists("patients")).andExpect(model().attribute("suite", "jetonSuite")).andExpect(view().name("patient/list")).andExpect(MockMvcResultMatchers.content().string(containsString("patientTest1"))).andExpect(MockMvcResultMatchers.content().string(containsString("/patientFront/list?tri=id&amp;suite=jetonSuite"))).andDo(print());
 
-        mockMvc.perform(get("/patientFront/list").with(user("user1")).header("Authorization", "")).andExpect(status().isOk()).andExpect(model().attributeExists("patients")).andExpect(view().name("patient/list")).andExpect(MockMvcResultMatchers.content().string(containsString("patientTest1"))).andDo(print());
+        //cas ok, dernière page triée par nom
+        when(restTemplate.exchange(eq("http://localhost:9000/patientBack/page?tri=nom&taille=20&suite=jetonSuite"), any(HttpMethod.class), any(HttpEntity.class), eq(PagePatientsModel.class))).thenReturn(new ResponseEntity<>(new PagePatientsModel(List.of(patient2), null), HttpStatus.OK));
+
+        mockMvc.perform(get("/patientFront/list").param("tri", "nom").param("suite", "jetonSuite").with(user("user1")).header("Authorization", "")).andExpect(status().isOk()).andExpect(model().attribute("suite", nullValue())).andExpect(MockMvcResultMatchers.content().string(containsString("Première page"))).andExpect(MockMvcResultMatchers.content().string(not(containsString("Page suivante")))).andDo(print());
 
         //cas Nok
-        when(restTemplate.exchange(any(String.class), any(HttpMethod.class), any(HttpEntity.class), eq(PatientModel[].class))).thenThrow(new RestClientException("Failed to connect"));
+        when(restTemplate.exchange(any(String.class), any(HttpMethod.class), any(HttpEntity.class), eq(PagePatientsModel.class))).thenThrow(new RestClientException("Failed to connect"));
 
         mockMvc.perform(get("/patientFront/list").with(user("user1")).header("Authorization", "")).andExpect(status().isOk()).andExpect(model().attributeExists("errorMessage")).andExpect(model().attribute("errorMessage", "Impossible de se connecter au service de patients.")).andExpect(view().name("error/errorPage")).andDo(print());
 
@@ -85,15 +99,39 @@ public class PatientControllerTest {
         patientModel.setId("1");
 
         //cas ok
-        when(restTemplate.exchange(any(String.class), any(HttpMethod.class), any(HttpEntity.class), eq(PatientModel.class))).thenReturn(new ResponseEntity<>(patientModel, HttpStatus.OK));
-        when(restTemplate.exchange(any(String.class), any(HttpMethod.class), any(HttpEntity.class), eq(String.class))).thenReturn(new ResponseEntity<>("Rapport de diabète", HttpStatus.OK));
-        mockMvc.perform(get("/patientFront/updateForm/1").with(user("user1")).header("Authorization", "")).andExpect(status().isOk()).andExpect(model().attributeExists("patient")).andExpect(view().name("patient/update")).andDo(print());
+        FichePatientModel fichePatient = new FichePatientModel(patientModel, List.of(), "Borderline");
+        when(restTemplate.exchange(contains("/diabeteBack/fichePatient/1"), any(HttpMethod.class), any(HttpEntity.class), eq(FichePatientModel.class))).thenReturn(new ResponseEntity<>(fichePatient, HttpStatus.OK));
+        mockMvc.perform(get("/patientFront/updateForm/1").with(user("user1")).header("Authorization", "")).andExpect(status().isOk()).andExpect(model().attribute("patient", patientModel)).andExpect(model().attribute("rapportDiabete", "Borderline")).andExpect(view().name("patient/update")).andDo(print());
 
         //cas Nok
-        when(restTemplate.exchange(any(String.class), any(HttpMethod.class), any(HttpEntity.class), eq(PatientModel.class))).thenThrow(new RestClientException("Failed to connect"));
+        when(restTemplate.exchange(any(String.class), any(HttpMethod.class), any(HttpEntity.class), eq(FichePatientModel.class))).thenThrow(new RestClientException("Failed to connect"));
         mockMvc.perform(get("/patientFront/updateForm/1").with(user("user1")).header("Authorization", "")).andExpect(status().isOk()).andExpect(model().attributeExists("errorMessage")).andExpect(model().attribute("errorMessage", "Impossible de se connecter au service de patients.")).andExpect(view().name("error/errorPage")).andDo(print());
     }
 
+    /**
+     * Teste le endpoint '/patientFront/updateForm/{id}' lorsque le microservice back-diabete est indisponible.
+     * Vérifie que la fiche du patient est demandée au microservice back-patient, avec son propre délai même lorsque
+     * l'échéance de la page est dépassée, et affichée sans le risque de diabète.
+     */
+    @Test
+    public void updatePatientFormPartielTest() throws Exception {
+        PatientModel patientModel = new PatientModel();
+        patientModel.setNom("patientTest1");
+        patientModel.setId("1");
+
+        AtomicLong restantRepli = new AtomicLong();
+        when(restTemplate.exchange(contains("/diabeteBack/fichePatient/1"), any(HttpMethod.class), any(HttpEntity.class), eq(FichePatientModel.class))).thenAnswer(invocation -> {
+            Echeance.definir(0);
+            throw new RestClientException("Délai dépassé");
+        });
+        when(restTemplate.exchange(contains("/patientBack/updateForm/1"), any(HttpMethod.class), any(HttpEntity.class), eq(PatientModel.class))).thenAnswer(invocation -> {
+            restantRepli.set(Echeance.restante(Echeance.courante()));
+            return new ResponseEntity<>(patientModel, HttpStatus.OK);
+        });
+        mockMvc.perform(get("/patientFront/updateForm/1").with(user("user1")).header("Authorization", "")).andExpect(status().isOk()).andExpect(model().attribute("patient", patientModel)).andExpect(model().attribute("rapportDiabete", nullValue())).andExpect(content().string(containsString("Indisponible"))).andExpect(view().name("patient/update")).andDo(print());
+        assertTrue(restantRepli.get() > 0);
+    }
+
     /**
      * Teste le endpoint '/patientFront/update/{id}' pour vérifier la mise à jour d'un patient.
      * Simule deux cas : un cas réussi et un cas où une exception est levée lors de la mise à jour.
@@ -0,0 +1,36 @@
+package com.mfront.microservicefront.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Classe de test pour SupervisionController.
+ * Vérifie l'exposition de l'état du pool de connexions HTTP.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class SupervisionControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    /**
+     * Teste le endpoint '/supervision/httpPool/stats' : aucune connexion n'est utilisée au repos.
+     */
+    @Test
+    public void statistiquesPoolHttpTest() throws Exception {
+        mockMvc.perform(get("/supervision/httpPool/stats").with(user("user1")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.leased").value(0))
+                .andExpect(jsonPath("$.pending").value(0))
+                .andExpect(jsonPath("$.max").value(100));
+    }
+}
@@ -0,0 +1,44 @@
+/**
+ * Package contenant les configurations pour le microservice gateway.
+ */
+package com.mgateway.microservicegateway.configuration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.netty.http.HttpProtocol;
+
+/**
+ * Classe AppConfig pour configurer les beans nécessaires au fonctionnement du gateway.
+ * Les routes "lb://" sont réparties entre les instances de chaque microservice selon {@link RepartitionChargeConfiguration}.
+ *
+ * @author mickael hayé
+ * @version 1.0
+ */
+@Configuration
+@LoadBalancerClients(defaultConfiguration = RepartitionChargeConfiguration.class)
+public class AppConfig {
+    private static final Logger logger = LoggerFactory.getLogger(AppConfig.class);
+
+    /**
+     * Configure le client HTTP du gateway vers les microservices.
+     * En HTTP/2 en clair (h2c), les requêtes routées sont multiplexées sur quelques connexions par microservice,
+     * au lieu d'une connexion par requête en cours ; les microservices acceptent h2c (server.http2.enabled).
+     *
+     * @param prop Les propriétés personnalisées du gateway.
+     * @return HttpClientCustomizer - la personnalisation du client HTTP du gateway.
+     */
+    @Bean
+    public HttpClientCustomizer protocoleMicroservices(CustomProperties prop) {
+        return httpClient -> {
+            if (!prop.isH2cMicroservices()) {
+                return httpClient;
+            }
+            logger.info("Connexions vers les microservices en HTTP/2 en clair (h2c).");
+            return httpClient.protocol(HttpProtocol.H2C);
+        };
+    }
+}
@@ -0,0 +1,328 @@
+/**
+ * Package contenant les configurations pour le microservice gateway.
+ */
+package com.mgateway.microservicegateway.configuration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Classe CustomProperties pour gérer les propriétés personnalisées du microservice gateway.
+ * Elle est annotée avec {@link Configuration} et {@link ConfigurationProperties}
+ * pour lier les propriétés de configuration externes.
+ *
+ * @author mickael hayé
+ * @version 1.0
+ */
+@Configuration
+@ConfigurationProperties(prefix = "com.mgateway.microservicegateway")
+public class CustomProperties {
+    private static final Logger logger = LoggerFactory.getLogger(CustomProperties.class);
+    private String jwtSecret;
+    private long jwtDuree = 300;
+    private long authCacheDuree = 60;
+    private long authCacheTailleMax = 1000;
+    private List<String> coalescenceChemins = new ArrayList<>();
+    private List<String> coalescenceCheminsExclus = new ArrayList<>();
+    private long coalescenceMicroCache = 0;
+    private boolean h2cMicroservices = true;
+    private int repartitionEchecsEjection = 5;
+    private long repartitionDureeEjection = 30000;
+    private Map<String, Long> cacheReponsesDurees = new LinkedHashMap<>();
+    private Map<String, List<String>> cacheReponsesPurges = new LinkedHashMap<>();
+    private long cacheReponsesTailleMax = 10_000_000;
+    private Map<String, String> diffusionChemins = new LinkedHashMap<>();
+    private long diffusionTimeout = 2000;
+
+    /**
+     * Obtient le secret partagé utilisé pour signer les jetons transmis aux microservices.
+     *
+     * @return String - Le secret de signature.
+     */
+    public String getJwtSecret() {
+        return jwtSecret;
+    }
+
+    /**
+     * Définit le secret partagé utilisé pour signer les jetons transmis aux microservices.
+     *
+     * @param jwtSecret Le secret de signature.
+     */
+    public void setJwtSecret(String jwtSecret) {
+        logger.info("Mise à jour du secret de signature des jetons");
+        this.jwtSecret = jwtSecret;
+    }
+
+    /**
+     * Obtient la durée de validité d'un jeton émis par le gateway.
+     *
+     * @return long - La durée en secondes.
+     */
+    public long getJwtDuree() {
+        return jwtDuree;
+    }
+
+    /**
+     * Définit la durée de validité d'un jeton émis par le gateway.
+     *
+     * @param jwtDuree La durée en secondes.
+     */
+    public void setJwtDuree(long jwtDuree) {
+        logger.info("Mise à jour de la durée de validité des jetons : {} s", jwtDuree);
+        this.jwtDuree = jwtDuree;
+    }
+
+    /**
+     * Obtient la durée de conservation d'une authentification HTTP Basic réussie.
+     *
+     * @return long - La durée en secondes.
+     */
+    public long getAuthCacheDuree() {
+        return authCacheDuree;
+    }
+
+    /**
+     * Définit la durée de conservation d'une authentification HTTP Basic réussie.
+     *
+     * @param authCacheDuree La durée en secondes.
+     */
+    public void setAuthCacheDuree(long authCacheDuree) {
+        logger.info("Mise à jour de la durée du cache d'authentification : {} s", authCacheDuree);
+        this.authCacheDuree = authCacheDuree;
+    }
+
+    /**
+     * Obtient le nombre maximal d'authentifications HTTP Basic réussies conservées.
+     *
+     * @return long - La taille maximale du cache.
+     */
+    public long getAuthCacheTailleMax() {
+        return authCacheTailleMax;
+    }
+
+    /**
+     * Définit le nombre maximal d'authentifications HTTP Basic réussies conservées.
+     *
+     * @param authCacheTailleMax La taille maximale du cache.
+     */
+    public void setAuthCacheTailleMax(long authCacheTailleMax) {
+        logger.info("Mise à jour de la taille maximale du cache d'authentification : {}", authCacheTailleMax);
+        this.authCacheTailleMax = authCacheTailleMax;
+    }
+
+    /**
+     * Obtient les chemins dont les requêtes GET identiques simultanées sont regroupées en un seul appel au microservice.
+     *
+     * @return List - Les motifs de chemins (ex. "/patientBack/list", "/noteBack/list/*").
+     */
+    public List<String> getCoalescenceChemins() {
+        return coalescenceChemins;
+    }
+
+    /**
+     * Définit les chemins dont les requêtes GET identiques simultanées sont regroupées en un seul appel au microservice.
+     *
+     * @param coalescenceChemins Les motifs de chemins.
+     */
+    public void setCoalescenceChemins(List<String> coalescenceChemins) {
+        logger.info("Mise à jour des chemins des requêtes regroupées : {}", coalescenceChemins);
+        this.coalescenceChemins = coalescenceChemins;
+    }
+
+    /**
+     * Obtient les chemins exclus du regroupement, bien que couverts par un motif de {@link #getCoalescenceChemins()}.
+     *
+     * @return List - Les motifs de chemins exclus.
+     */
+    public List<String> getCoalescenceCheminsExclus() {
+        return coalescenceCheminsExclus;
+    }
+
+    /**
+     * Définit les chemins exclus du regroupement, bien que couverts par un motif de {@link #getCoalescenceChemins()}.
+     *
+     * @param coalescenceCheminsExclus Les motifs de chemins exclus.
+     */
+    public void setCoalescenceCheminsExclus(List<String> coalescenceCheminsExclus) {
+        logger.info("Mise à jour des chemins exclus du regroupement des requêtes : {}", coalescenceCheminsExclus);
+        this.coalescenceCheminsExclus = coalescenceCheminsExclus;
+    }
+
+    /**
+     * Obtient la durée pendant laquelle une réponse regroupée est encore servie aux requêtes identiques suivantes.
+     *
+     * @return long - La durée en millisecondes, 0 pour ne regrouper que les requêtes simultanées.
+     */
+    public long getCoalescenceMicroCache() {
+        return coalescenceMicroCache;
+    }
+
+    /**
+     * Définit la durée pendant laquelle une réponse regroupée est encore servie aux requêtes identiques suivantes.
+     *
+     * @param coalescenceMicroCache La durée en millisecondes, 0 pour ne regrouper que les requêtes simultanées.
+     */
+    public void setCoalescenceMicroCache(long coalescenceMicroCache) {
+        logger.info("Mise à jour de la durée du micro-cache des requêtes regroupées : {}", coalescenceMicroCache);
+        this.coalescenceMicroCache = coalescenceMicroCache;
+    }
+
+    /**
+     * Indique si les connexions vers les microservices utilisent HTTP/2 en clair (h2c).
+     *
+     * @return boolean - true pour h2c, false pour HTTP/1.1.
+     */
+    public boolean isH2cMicroservices() {
+        return h2cMicroservices;
+    }
+
+    /**
+     * Définit si les connexions vers les microservices utilisent HTTP/2 en clair (h2c).
+     *
+     * @param h2cMicroservices true pour h2c, false pour HTTP/1.1.
+     */
+    public void setH2cMicroservices(boolean h2cMicroservices) {
+        logger.info("Mise à jour de l'utilisation de h2c vers les microservices : {}", h2cMicroservices);
+        this.h2cMicroservices = h2cMicroservices;
+    }
+
+    /**
+     * Obtient le nombre d'échecs consécutifs au-delà duquel une instance de microservice est écartée.
+     *
+     * @return int - Le nombre d'échecs consécutifs, 0 pour ne jamais écarter d'instance.
+     */
+    public int getRepartitionEchecsEjection() {
+        return repartitionEchecsEjection;
+    }
+
+    /**
+     * Définit le nombre d'échecs consécutifs au-delà duquel une instance de microservice est écartée.
+     *
+     * @param repartitionEchecsEjection Le nombre d'échecs consécutifs, 0 pour ne jamais écarter d'instance.
+     */
+    public void setRepartitionEchecsEjection(int repartitionEchecsEjection) {
+        logger.info("Mise à jour du nombre d'échecs avant éjection d'une instance : {}", repartitionEchecsEjection);
+        this.repartitionEchecsEjection = repartitionEchecsEjection;
+    }
+
+    /**
+     * Obtient la durée pendant laquelle une instance en échec est écartée.
+     *
+     * @return long - La durée en millisecondes.
+     */
+    public long getRepartitionDureeEjection() {
+        return repartitionDureeEjection;
+    }
+
+    /**
+     * Définit la durée pendant laquelle une instance en échec est écartée.
+     *
+     * @param repartitionDureeEjection La durée en millisecondes.
+     */
+    public void setRepartitionDureeEjection(long repartitionDureeEjection) {
+        logger.info("Mise à jour de la durée d'éjection d'une instance : {} ms", repartitionDureeEjection);
+        this.repartitionDureeEjection = repartitionDureeEjection;
+    }
+
+    /**
+     * Obtient les chemins dont les réponses GET sont mises en cache par le gateway, avec leur durée de fraîcheur.
+     *
+     * @return Map - Les motifs de chemins (ex. "/noteBack/list/*") et leur durée en millisecondes.
+     */
+    public Map<String, Long> getCacheReponsesDurees() {
+        return cacheReponsesDurees;
+    }
+
+    /**
+     * Définit les chemins dont les réponses GET sont mises en cache par le gateway, avec leur durée de fraîcheur.
+     *
+     * @param cacheReponsesDurees Les motifs de chemins et leur durée en millisecondes.
+     */
+    public void setCacheReponsesDurees(Map<String, Long> cacheReponsesDurees) {
+        logger.info("Mise à jour des durées du cache des réponses : {}", cacheReponsesDurees);
+        this.cacheReponsesDurees = cacheReponsesDurees;
+    }
+
+    /**
+     * Obtient, pour chaque chemin d'écriture, les préfixes des chemins dont les réponses en cache sont purgées.
+     *
+     * @return Map - Les motifs des chemins d'écriture (ex. "/noteBack/add") et les préfixes purgés.
+     */
+    public Map<String, List<String>> getCacheReponsesPurges() {
+        return cacheReponsesPurges;
+    }
+
+    /**
+     * Définit, pour chaque chemin d'écriture, les préfixes des chemins dont les réponses en cache sont purgées.
+     *
+     * @param cacheReponsesPurges Les motifs des chemins d'écriture et les préfixes purgés.
+     */
+    public void setCacheReponsesPurges(Map<String, List<String>> cacheReponsesPurges) {
+        logger.info("Mise à jour des purges du cache des réponses : {}", cacheReponsesPurges);
+        this.cacheReponsesPurges = cacheReponsesPurges;
+    }
+
+    /**
+     * Obtient la taille maximale du cache des réponses.
+     *
+     * @return long - La taille maximale cumulée des corps en cache, en octets.
+     */
+    public long getCacheReponsesTailleMax() {
+        return cacheReponsesTailleMax;
+    }
+
+    /**
+     * Définit la taille maximale du cache des réponses.
+     *
+     * @param cacheReponsesTailleMax La taille maximale cumulée des corps en cache, en octets.
+     */
+    public void setCacheReponsesTailleMax(long cacheReponsesTailleMax) {
+        logger.info("Mise à jour de la taille maximale du cache des réponses : {} octets", cacheReponsesTailleMax);
+        this.cacheReponsesTailleMax = cacheReponsesTailleMax;
+    }
+
+    /**
+     * Obtient les chemins d'écriture diffusés à toutes les instances d'un microservice, plutôt qu'à une seule.
+     *
+     * @return Map - Les motifs de chemins (ex. "/diabeteBack/cache/*") et le nom du microservice dont les instances sont appelées.
+     */
+    public Map<String, String> getDiffusionChemins() {
+        return diffusionChemins;
+    }
+
+    /**
+     * Définit les chemins d'écriture diffusés à toutes les instances d'un microservice, plutôt qu'à une seule.
+     *
+     * @param diffusionChemins Les motifs de chemins et le nom du microservice dont les instances sont appelées.
+     */
+    public void setDiffusionChemins(Map<String, String> diffusionChemins) {
+        logger.info("Mise à jour des chemins diffusés à toutes les instances : {}", diffusionChemins);
+        this.diffusionChemins = diffusionChemins;
+    }
+
+    /**
+     * Obtient le délai maximal de l'appel diffusé à chaque instance.
+     *
+     * @return long - Le délai en millisecondes.
+     */
+    public long getDiffusionTimeout() {
+        return diffusionTimeout;
+    }
+
+    /**
+     * Définit le délai maximal de l'appel diffusé à chaque instance.
+     *
+     * @param diffusionTimeout Le délai en millisecondes.
+     */
+    public void setDiffusionTimeout(long diffusionTimeout) {
+        logger.info("Mise à jour du délai des appels diffusés : {} ms", diffusionTimeout);
+        this.diffusionTimeout = diffusionTimeout;
+    }
+}
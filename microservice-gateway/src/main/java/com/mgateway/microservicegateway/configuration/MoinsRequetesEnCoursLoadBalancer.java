@@ -0,0 +1,86 @@
+/**
+ * Package contenant les configurations pour le microservice gateway.
+ */
+package com.mgateway.microservicegateway.configuration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Répartiteur de charge choisissant, parmi les instances saines d'un microservice, celle qui a le moins de requêtes
+ * en cours.
+ * <p>
+ * Les instances proviennent de la liste statique de la configuration, filtrée par les vérifications de santé
+ * périodiques. Les instances écartées suite à des échecs consécutifs sont ignorées, sauf si toutes le sont.
+ * À égalité, l'instance est tirée au hasard pour ne pas toujours solliciter la première.
+ * </p>
+ *
+ * @author mickael hayé
+ * @version 1.0
+ */
+public class MoinsRequetesEnCoursLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+    private static final Logger logger = LoggerFactory.getLogger(MoinsRequetesEnCoursLoadBalancer.class);
+
+    private final ObjectProvider<ServiceInstanceListSupplier> instances;
+    private final String serviceId;
+    private final SuiviInstances suivi;
+
+    /**
+     * Constructeur du répartiteur d'un microservice.
+     *
+     * @param instances Le fournisseur de la liste des instances saines.
+     * @param serviceId L'identifiant du microservice.
+     * @param suivi     Le suivi des requêtes en cours et des éjections.
+     */
+    public MoinsRequetesEnCoursLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> instances, String serviceId, SuiviInstances suivi) {
+        this.instances = instances;
+        this.serviceId = serviceId;
+        this.suivi = suivi;
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier fournisseur = instances.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return fournisseur.get(request).next().map(this::choisir);
+    }
+
+    private Response<ServiceInstance> choisir(List<ServiceInstance> saines) {
+        if (saines.isEmpty()) {
+            logger.warn("Aucune instance disponible pour {}", serviceId);
+            return new EmptyResponse();
+        }
+        List<ServiceInstance> candidates = saines.stream().filter(instance -> !suivi.isEjectee(instance)).toList();
+        if (candidates.isEmpty()) {
+            // Toutes les instances sont écartées : mieux vaut les solliciter que refuser toutes les requêtes
+            candidates = saines;
+        }
+        List<ServiceInstance> moinsChargees = new ArrayList<>();
+        int minimum = Integer.MAX_VALUE;
+        for (ServiceInstance instance : candidates) {
+            int enCours = suivi.getEnCours(instance);
+            if (enCours < minimum) {
+                minimum = enCours;
+                moinsChargees.clear();
+            }
+            if (enCours == minimum) {
+                moinsChargees.add(instance);
+            }
+        }
+        return new DefaultResponse(moinsChargees.get(ThreadLocalRandom.current().nextInt(moinsChargees.size())));
+    }
+}
@@ -0,0 +1,57 @@
+/**
+ * Package contenant les configurations pour le microservice gateway.
+ */
+package com.mgateway.microservicegateway.configuration;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * Configuration de la répartition de charge, appliquée à chaque microservice routé en "lb://".
+ * <p>
+ * Non annotée {@code @Configuration} : elle est instanciée dans le contexte propre à chaque microservice,
+ * via {@code @LoadBalancerClients} dans {@link AppConfig}.
+ * Les instances sont lues dans "spring.cloud.discovery.client.simple.instances.*" puis filtrées par les vérifications
+ * de santé "spring.cloud.loadbalancer.health-check.*", sans cache supplémentaire.
+ * </p>
+ *
+ * @author mickael hayé
+ * @version 1.0
+ */
+public class RepartitionChargeConfiguration {
+
+    /**
+     * Fournit la liste des instances saines du microservice.
+     *
+     * @param context Le contexte du microservice.
+     * @return ServiceInstanceListSupplier - les instances configurées ayant répondu à la dernière vérification de santé.
+     */
+    @Bean
+    public ServiceInstanceListSupplier instancesSaines(ConfigurableApplicationContext context) {
+        return ServiceInstanceListSupplier.builder()
+                .withDiscoveryClient()
+                .withHealthChecks()
+                .build(context);
+    }
+
+    /**
+     * Fournit le répartiteur du microservice, choisissant l'instance ayant le moins de requêtes en cours.
+     *
+     * @param environment Les propriétés du contexte, portant le nom du microservice.
+     * @param instances   Le fournisseur des instances saines.
+     * @param suivi       Le suivi des requêtes en cours et des éjections.
+     * @return ReactorLoadBalancer - le répartiteur du microservice.
+     */
+    @Bean
+    public ReactorLoadBalancer<ServiceInstance> moinsRequetesEnCours(Environment environment,
+                                                                     ObjectProvider<ServiceInstanceListSupplier> instances,
+                                                                     SuiviInstances suivi) {
+        return new MoinsRequetesEnCoursLoadBalancer(instances, environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME), suivi);
+    }
+}
@@ -3,8 +3,12 @@
  */
 package com.mgateway.microservicegateway.configuration;
 
+import com.mgateway.microservicegateway.filtre.EmissionJetonFilter;
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UserDetailsRepositoryReactiveAuthenticationManager;
 import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
 import org.springframework.security.core.userdetails.MapReactiveUserDetailsService;
@@ -12,10 +16,21 @@ import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
 import org.springframework.security.web.server.SecurityWebFilterChain;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
 /**
  * Configuration de sécurité pour le microservice gateway.
  * <p>
@@ -33,6 +48,8 @@ public class SecurityConfiguration {
     private static final Logger logger = LoggerFactory.getLogger(SecurityConfiguration.class);
     /**
      * Configure les règles d'accès pour les différentes URL de l'application.
+     * Les utilisateurs s'authentifient en HTTP Basic ; les microservices qui rappellent le gateway
+     * présentent le jeton signé qu'il leur a transmis.
      *
      * @param http Une instance de {@link ServerHttpSecurity} utilisée pour configurer la sécurité.
      * @return La chaîne de filtres de sécurité configurée.
@@ -45,6 +62,7 @@ public class SecurityConfiguration {
                 .and()
                 .httpBasic()
                 .and()
+                .oauth2ResourceServer(oauth2 -> oauth2.jwt())
                 .csrf().disable();
         return http.build();
     }
@@ -65,6 +83,21 @@ public class SecurityConfiguration {
         return new MapReactiveUserDetailsService(user);
     }
 
+    /**
+     * Fournit le gestionnaire d'authentification HTTP Basic : les identifiants sont vérifiés par BCrypt,
+     * puis la vérification réussie est conservée brièvement en cache.
+     *
+     * @param userDetailsService Le service des utilisateurs en mémoire.
+     * @param prop               Les propriétés personnalisées du gateway.
+     * @return Une instance de {@link ReactiveAuthenticationManager}.
+     */
+    @Bean
+    public ReactiveAuthenticationManager authenticationManager(MapReactiveUserDetailsService userDetailsService, CustomProperties prop) {
+        UserDetailsRepositoryReactiveAuthenticationManager verification = new UserDetailsRepositoryReactiveAuthenticationManager(userDetailsService);
+        verification.setPasswordEncoder(passwordEncoder());
+        return new CacheAuthentificationManager(verification, Duration.ofSeconds(prop.getAuthCacheDuree()), prop.getAuthCacheTailleMax());
+    }
+
     /**
      * Fournit une instance de l'encodeur de mot de passe pour la sécurité.
      *
@@ -75,4 +108,42 @@ public class SecurityConfiguration {
         logger.info("Configuration de l'encodeur de mot de passe.");
         return new BCryptPasswordEncoder();
     }
-}
\ No newline at end of file
+
+    /**
+     * Fournit la clé HMAC partagée avec les microservices pour signer et vérifier les jetons.
+     *
+     * @param prop Les propriétés personnalisées du gateway.
+     * @return La clé secrète HMAC-SHA256.
+     */
+    @Bean
+    SecretKey cleJeton(CustomProperties prop) {
+        if (prop.getJwtSecret() == null || prop.getJwtSecret().getBytes(StandardCharsets.UTF_8).length < 32) {
+            throw new IllegalStateException("Le secret de signature des jetons doit comporter au moins 32 octets (variable JWT_SECRET)");
+        }
+        return new SecretKeySpec(prop.getJwtSecret().getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+    }
+
+    /**
+     * Fournit l'encodeur signant les jetons transmis aux microservices.
+     *
+     * @param cleJeton La clé HMAC partagée.
+     * @return Une instance de {@link JwtEncoder}.
+     */
+    @Bean
+    public JwtEncoder jwtEncoder(SecretKey cleJeton) {
+        return new NimbusJwtEncoder(new ImmutableSecret<>(cleJeton));
+    }
+
+    /**
+     * Fournit le décodeur vérifiant la signature, l'émetteur et l'expiration des jetons présentés au gateway.
+     *
+     * @param cleJeton La clé HMAC partagée.
+     * @return Une instance de {@link ReactiveJwtDecoder}.
+     */
+    @Bean
+    public ReactiveJwtDecoder jwtDecoder(SecretKey cleJeton) {
+        NimbusReactiveJwtDecoder decoder = NimbusReactiveJwtDecoder.withSecretKey(cleJeton).macAlgorithm(MacAlgorithm.HS256).build();
+        decoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(EmissionJetonFilter.EMETTEUR));
+        return decoder;
+    }
+}
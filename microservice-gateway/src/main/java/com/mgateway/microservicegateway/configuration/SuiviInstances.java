@@ -0,0 +1,126 @@
+/**
+ * Package contenant les configurations pour le microservice gateway.
+ */
+package com.mgateway.microservicegateway.configuration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Suivi, par instance de microservice, des requêtes routées en cours et des échecs consécutifs.
+ * <p>
+ * Le nombre de requêtes en cours sert à choisir l'instance la moins chargée. Une instance qui enchaîne le nombre
+ * d'échecs configuré (erreur de connexion ou réponse 5xx) est écartée pendant la durée d'éjection, puis à nouveau
+ * sollicitée ; une réponse réussie remet son compteur d'échecs à zéro.
+ * </p>
+ *
+ * @author mickael hayé
+ * @version 1.0
+ */
+@Component
+public class SuiviInstances {
+
+    private static final Logger logger = LoggerFactory.getLogger(SuiviInstances.class);
+
+    private final CustomProperties prop;
+    private final ConcurrentMap<String, EtatInstance> etats = new ConcurrentHashMap<>();
+
+    /**
+     * Constructeur pour injecter les propriétés d'éjection des instances.
+     *
+     * @param prop Les propriétés personnalisées du gateway.
+     */
+    public SuiviInstances(CustomProperties prop) {
+        this.prop = prop;
+    }
+
+    /**
+     * Enregistre le début d'une requête routée vers l'instance.
+     *
+     * @param instance L'instance choisie.
+     */
+    public void debuter(ServiceInstance instance) {
+        etat(instance).debuter();
+    }
+
+    /**
+     * Enregistre la fin d'une requête routée vers l'instance.
+     *
+     * @param instance L'instance choisie.
+     * @param abandon  true si la requête a été abandonnée par le client, sans information sur la santé de l'instance.
+     * @param echec    true si l'appel a échoué ou si l'instance a répondu une erreur 5xx.
+     */
+    public void terminer(ServiceInstance instance, boolean abandon, boolean echec) {
+        etat(instance).terminer(abandon, echec, prop.getRepartitionEchecsEjection(), prop.getRepartitionDureeEjection(), instance);
+    }
+
+    /**
+     * Obtient le nombre de requêtes en cours vers l'instance.
+     *
+     * @param instance L'instance.
+     * @return int - Le nombre de requêtes routées sans réponse.
+     */
+    public int getEnCours(ServiceInstance instance) {
+        return etat(instance).enCours;
+    }
+
+    /**
+     * Indique si l'instance est écartée suite à des échecs consécutifs.
+     *
+     * @param instance L'instance.
+     * @return boolean - true tant que la durée d'éjection n'est pas écoulée.
+     */
+    public boolean isEjectee(ServiceInstance instance) {
+        return etat(instance).isEjectee(System.nanoTime());
+    }
+
+    private EtatInstance etat(ServiceInstance instance) {
+        return etats.computeIfAbsent(instance.getServiceId() + '|' + instance.getUri(), cle -> new EtatInstance());
+    }
+
+    /**
+     * État d'une instance : requêtes en cours, échecs consécutifs et fin d'éjection.
+     */
+    private static final class EtatInstance {
+        private volatile int enCours;
+        private int echecsConsecutifs;
+        private volatile long finEjection;
+        private volatile boolean ejectee;
+
+        private synchronized void debuter() {
+            enCours++;
+        }
+
+        private synchronized void terminer(boolean abandon, boolean echec, int echecsEjection, long dureeEjection, ServiceInstance instance) {
+            enCours = Math.max(0, enCours - 1);
+            if (abandon) {
+                return;
+            }
+            if (!echec) {
+                echecsConsecutifs = 0;
+                return;
+            }
+            echecsConsecutifs++;
+            if (echecsEjection > 0 && echecsConsecutifs >= echecsEjection) {
+                // L'instance est écartée, puis de nouveau sollicitée avec un compteur remis à zéro
+                echecsConsecutifs = 0;
+                finEjection = System.nanoTime() + dureeEjection * 1_000_000;
+                ejectee = true;
+                logger.warn("Instance {} de {} écartée pendant {} ms après {} échecs consécutifs",
+                        instance.getUri(), instance.getServiceId(), dureeEjection, echecsEjection);
+            }
+        }
+
+        private boolean isEjectee(long maintenant) {
+            if (ejectee && maintenant - finEjection >= 0) {
+                ejectee = false;
+            }
+            return ejectee;
+        }
+    }
+}
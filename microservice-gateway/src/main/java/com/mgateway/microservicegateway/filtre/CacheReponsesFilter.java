@@ -0,0 +1,265 @@
+/**
+ * Package contenant les filtres du microservice gateway.
+ */
+package com.mgateway.microservicegateway.filtre;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mgateway.microservicegateway.configuration.CustomProperties;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Filtre global mettant en cache, par utilisateur, les réponses des requêtes GET de lecture fréquente.
+ * <p>
+ * Une réponse 200 d'un chemin configuré est conservée en mémoire pendant sa durée de fraîcheur et servie sans appel
+ * au microservice. Passé ce délai, la requête est transmise avec l'ETag de la réponse en cache (If-None-Match) :
+ * si le microservice répond 304, la réponse en cache est renouvelée sans transférer de nouveau le corps.
+ * Le client qui présente l'ETag courant reçoit lui aussi une réponse 304 sans corps.
+ * Une écriture (méthode autre que GET) sur un chemin configuré purge, pour tous les utilisateurs, les réponses dont
+ * le chemin commence par l'un des préfixes associés. Tant que l'écriture est en cours (y compris l'invalidation du
+ * niveau de risque qu'elle déclenche), aucune réponse sous ces préfixes n'est conservée, et les réponses obtenues
+ * pendant l'écriture ne le sont pas davantage après elle.
+ * Les réponses streamées ne sont pas mises en cache. Le cache est borné par la taille cumulée des corps ;
+ * l'en-tête X-Cache indique l'origine de la réponse.
+ * </p>
+ *
+ * @author mickael hayé
+ * @version 1.0
+ */
+@Component
+public class CacheReponsesFilter implements GlobalFilter, Ordered {
+
+    /**
+     * En-tête indiquant si la réponse provient du cache (HIT), du microservice (MISS)
+     * ou du cache après revalidation auprès du microservice (REVALIDATED).
+     */
+    public static final String ENTETE_CACHE = "X-Cache";
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheReponsesFilter.class);
+
+    private final Map<PathPattern, Long> durees = new LinkedHashMap<>();
+    private final Map<PathPattern, List<String>> purges = new LinkedHashMap<>();
+    private final Cache<String, ReponseEnCache> cache;
+    private final AtomicLong generation = new AtomicLong();
+    private final ConcurrentMap<String, Integer> ecrituresEnCours = new ConcurrentHashMap<>();
+
+    /**
+     * Constructeur initialisant les chemins concernés et le cache selon les propriétés du gateway.
+     *
+     * @param prop Les propriétés personnalisées du gateway.
+     */
+    public CacheReponsesFilter(CustomProperties prop) {
+        prop.getCacheReponsesDurees().forEach((chemin, duree) -> durees.put(PathPatternParser.defaultInstance.parse(chemin.trim()), duree));
+        prop.getCacheReponsesPurges().forEach((chemin, prefixes) -> purges.put(PathPatternParser.defaultInstance.parse(chemin.trim()),
+                prefixes.stream().map(String::trim).filter(prefixe -> !prefixe.isEmpty()).toList()));
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(prop.getCacheReponsesTailleMax())
+                .weigher((String cle, ReponseEnCache reponse) -> cle.length() + reponse.contenu().length)
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .build();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        PathContainer chemin = exchange.getRequest().getPath().pathWithinApplication();
+        if (HttpMethod.GET.equals(exchange.getRequest().getMethod())) {
+            Long duree = trouver(durees, chemin);
+            if (duree == null || duree <= 0) {
+                return chain.filter(exchange);
+            }
+            return ReactiveSecurityContextHolder.getContext()
+                    .map(contexte -> contexte.getAuthentication() == null ? "" : contexte.getAuthentication().getName())
+                    .defaultIfEmpty("")
+                    .flatMap(utilisateur -> servir(cle(exchange, utilisateur), duree, exchange, chain));
+        }
+        List<String> prefixes = trouver(purges, chemin);
+        if (prefixes == null) {
+            return chain.filter(exchange);
+        }
+        return Mono.defer(() -> {
+            prefixes.forEach(prefixe -> ecrituresEnCours.merge(prefixe, 1, Integer::sum));
+            return chain.filter(exchange).doFinally(signal -> {
+                purger(prefixes);
+                prefixes.forEach(prefixe -> ecrituresEnCours.computeIfPresent(prefixe, (cle, nombre) -> nombre > 1 ? nombre - 1 : null));
+            });
+        });
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 1;
+    }
+
+    /**
+     * Sert la réponse en cache si elle est fraîche, sinon route la requête (revalidée par l'ETag en cache s'il existe)
+     * et conserve la réponse obtenue.
+     */
+    private Mono<Void> servir(String cle, long duree, ServerWebExchange exchange, GatewayFilterChain chain) {
+        List<String> etagsClient = exchange.getRequest().getHeaders().getIfNoneMatch();
+        ReponseEnCache enCache = cache.getIfPresent(cle);
+        if (enCache != null && enCache.isFraiche(System.nanoTime())) {
+            return enCache.ecrire(exchange.getResponse(), etagsClient, "HIT");
+        }
+
+        // Les validateurs du client sont remplacés par ceux du cache : un 304 du microservice porte toujours
+        // sur la réponse en cache, seule connue du gateway
+        ServerHttpRequest requete = exchange.getRequest().mutate().headers(entetes -> {
+            entetes.remove(HttpHeaders.IF_NONE_MATCH);
+            entetes.remove(HttpHeaders.IF_MODIFIED_SINCE);
+            if (enCache != null && enCache.etag() != null) {
+                entetes.setIfNoneMatch(enCache.etag());
+            }
+        }).build();
+        long generationDebut = generation.get();
+        ServerHttpResponseDecorator capture = new ServerHttpResponseDecorator(exchange.getResponse()) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                HttpStatusCode statut = getStatusCode();
+                if (enCache != null && statut != null && statut.value() == HttpStatus.NOT_MODIFIED.value()) {
+                    ReponseEnCache renouvelee = enCache.renouveler(duree);
+                    stocker(cle, renouvelee, generationDebut);
+                    return Flux.from(body).doOnNext(DataBufferUtils::release).then(Mono.defer(() -> {
+                        getHeaders().clear();
+                        return renouvelee.ecrire(getDelegate(), etagsClient, "REVALIDATED");
+                    }));
+                }
+                if (statut == null || statut.value() != HttpStatus.OK.value() || getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)
+                        || estStreamee(getHeaders().getContentType())) {
+                    return super.writeWith(body);
+                }
+                return DataBufferUtils.join(Flux.from(body)).defaultIfEmpty(bufferFactory().wrap(new byte[0])).flatMap(tampon -> {
+                    byte[] contenu = new byte[tampon.readableByteCount()];
+                    tampon.read(contenu);
+                    DataBufferUtils.release(tampon);
+                    ReponseEnCache reponse = new ReponseEnCache(getHeaders(), contenu, duree);
+                    stocker(cle, reponse, generationDebut);
+                    getHeaders().clear();
+                    return reponse.ecrire(getDelegate(), etagsClient, "MISS");
+                });
+            }
+        };
+        return chain.filter(exchange.mutate().request(requete).response(capture).build());
+    }
+
+    /**
+     * Conserve la réponse, sauf si une écriture la concernant est en cours ou si une purge a eu lieu depuis le début
+     * de la requête : la réponse pourrait alors précéder l'écriture.
+     */
+    private void stocker(String cle, ReponseEnCache reponse, long generationDebut) {
+        if (!conservable(cle, generationDebut)) {
+            return;
+        }
+        cache.put(cle, reponse);
+        if (!conservable(cle, generationDebut)) {
+            cache.asMap().remove(cle, reponse);
+        }
+    }
+
+    private boolean conservable(String cle, long generationDebut) {
+        return generation.get() == generationDebut && ecrituresEnCours.keySet().stream().noneMatch(cle::startsWith);
+    }
+
+    private void purger(List<String> prefixes) {
+        generation.incrementAndGet();
+        cache.asMap().keySet().removeIf(cle -> prefixes.stream().anyMatch(cle::startsWith));
+        logger.debug("Réponses en cache purgées : {}", prefixes);
+    }
+
+    /**
+     * Indique si la réponse est streamée (NDJSON, SSE) : elle est alors transmise au fil de l'eau, sans mise en cache.
+     */
+    private static boolean estStreamee(MediaType type) {
+        return type != null && (MediaType.APPLICATION_NDJSON.isCompatibleWith(type) || MediaType.TEXT_EVENT_STREAM.isCompatibleWith(type));
+    }
+
+    private static <T> T trouver(Map<PathPattern, T> configuration, PathContainer chemin) {
+        for (Map.Entry<PathPattern, T> entree : configuration.entrySet()) {
+            if (entree.getKey().matches(chemin)) {
+                return entree.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static String cle(ServerWebExchange exchange, String utilisateur) {
+        return exchange.getRequest().getURI().getRawPath() + '?' + exchange.getRequest().getURI().getRawQuery() + '|' + utilisateur;
+    }
+
+    /**
+     * Réponse 200 d'un microservice conservée dans le cache, avec son ETag et la fin de sa fraîcheur.
+     */
+    private record ReponseEnCache(HttpHeaders entetes, byte[] contenu, String etag, long finFraicheur) {
+
+        private ReponseEnCache(HttpHeaders entetes, byte[] contenu, long duree) {
+            this(HttpHeaders.readOnlyHttpHeaders(copier(entetes)), contenu, entetes.getETag(), System.nanoTime() + duree * 1_000_000);
+        }
+
+        private static HttpHeaders copier(HttpHeaders entetes) {
+            HttpHeaders copie = new HttpHeaders();
+            copie.addAll(entetes);
+            copie.remove(HttpHeaders.SET_COOKIE);
+            copie.remove(HttpHeaders.TRANSFER_ENCODING);
+            copie.remove(HttpHeaders.CONTENT_LENGTH);
+            copie.remove(HttpHeaders.PRAGMA);
+            copie.remove(HttpHeaders.EXPIRES);
+            // Le navigateur peut conserver la réponse, mais doit la revalider (If-None-Match) avant chaque utilisation
+            copie.setCacheControl("private, no-cache");
+            return copie;
+        }
+
+        private boolean isFraiche(long maintenant) {
+            return maintenant - finFraicheur < 0;
+        }
+
+        private ReponseEnCache renouveler(long duree) {
+            return new ReponseEnCache(entetes, contenu, etag, System.nanoTime() + duree * 1_000_000);
+        }
+
+        private Mono<Void> ecrire(ServerHttpResponse reponse, List<String> etagsClient, String origine) {
+            reponse.getHeaders().putAll(entetes);
+            reponse.getHeaders().set(ENTETE_CACHE, origine);
+            if (etag != null && etagsClient.stream().anyMatch(etagClient -> "*".equals(etagClient) || sansPrefixeFaible(etagClient).equals(sansPrefixeFaible(etag)))) {
+                reponse.setStatusCode(HttpStatus.NOT_MODIFIED);
+                return reponse.setComplete();
+            }
+            reponse.setStatusCode(HttpStatus.OK);
+            reponse.getHeaders().setContentLength(contenu.length);
+            return reponse.writeWith(Mono.just(reponse.bufferFactory().wrap(contenu)));
+        }
+
+        private static String sansPrefixeFaible(String etag) {
+            return etag.startsWith("W/") ? etag.substring(2) : etag;
+        }
+    }
+}
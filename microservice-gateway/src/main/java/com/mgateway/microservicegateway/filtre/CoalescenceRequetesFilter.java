@@ -0,0 +1,225 @@
+/**
+ * Package contenant les filtres du microservice gateway.
+ */
+package com.mgateway.microservicegateway.filtre;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mgateway.microservicegateway.configuration.CustomProperties;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Filtre global regroupant les requêtes GET identiques simultanées en un seul appel au microservice.
+ * <p>
+ * Deux requêtes sont identiques lorsqu'elles visent la même route, le même chemin (paramètres compris), portent le même
+ * ETag de revalidation (If-None-Match) et sont émises par le même utilisateur. La première est routée normalement
+ * et sa réponse, mise en mémoire, est renvoyée à toutes les requêtes identiques arrivées entre-temps. Si la première requête échoue ou est abandonnée par son client,
+ * les requêtes en attente sont routées chacune de leur côté.
+ * Une réponse réussie peut en outre être conservée quelques millisecondes (micro-cache) pour les requêtes identiques suivantes.
+ * Seuls les chemins configurés, hors chemins exclus, sont concernés. Une réponse streamée (NDJSON, flux d'événements,
+ * ou sans longueur annoncée) n'est jamais mise en mémoire : elle est transmise telle quelle et les requêtes identiques
+ * en attente sont routées chacune de leur côté.
+ * </p>
+ *
+ * @author mickael hayé
+ * @version 1.0
+ */
+@Component
+public class CoalescenceRequetesFilter implements GlobalFilter, Ordered {
+
+    private static final Logger logger = LoggerFactory.getLogger(CoalescenceRequetesFilter.class);
+
+    private final List<PathPattern> chemins;
+    private final List<PathPattern> cheminsExclus;
+    private final ConcurrentMap<String, Sinks.One<ReponseCapturee>> enCours = new ConcurrentHashMap<>();
+    private final Cache<String, ReponseCapturee> microCache;
+
+    /**
+     * Constructeur initialisant les chemins concernés et le micro-cache selon les propriétés du gateway.
+     *
+     * @param prop Les propriétés personnalisées du gateway.
+     */
+    public CoalescenceRequetesFilter(CustomProperties prop) {
+        this.chemins = motifs(prop.getCoalescenceChemins());
+        this.cheminsExclus = motifs(prop.getCoalescenceCheminsExclus());
+        this.microCache = prop.getCoalescenceMicroCache() > 0
+                ? Caffeine.newBuilder().expireAfterWrite(Duration.ofMillis(prop.getCoalescenceMicroCache())).maximumSize(1000).build()
+                : null;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        PathContainer chemin = exchange.getRequest().getPath().pathWithinApplication();
+        if (!HttpMethod.GET.equals(exchange.getRequest().getMethod())
+                || chemins.stream().noneMatch(motif -> motif.matches(chemin))
+                || cheminsExclus.stream().anyMatch(motif -> motif.matches(chemin))) {
+            return chain.filter(exchange);
+        }
+        return ReactiveSecurityContextHolder.getContext()
+                .map(contexte -> contexte.getAuthentication() == null ? "" : contexte.getAuthentication().getName())
+                .defaultIfEmpty("")
+                .flatMap(utilisateur -> regrouper(cle(exchange, utilisateur), exchange, chain));
+    }
+
+    @Override
+    public int getOrder() {
+        // Après le cache des réponses : seules les requêtes absentes du cache sont regroupées
+        return Ordered.HIGHEST_PRECEDENCE + 2;
+    }
+
+    /**
+     * Sert la réponse du micro-cache, attend l'appel identique en cours, ou route la requête en la rendant visible
+     * aux requêtes identiques suivantes.
+     */
+    private Mono<Void> regrouper(String cle, ServerWebExchange exchange, GatewayFilterChain chain) {
+        ReponseCapturee enCache = microCache == null ? null : microCache.getIfPresent(cle);
+        if (enCache != null) {
+            return enCache.ecrire(exchange.getResponse());
+        }
+        Sinks.One<ReponseCapturee> vol = Sinks.one();
+        Sinks.One<ReponseCapturee> existant = enCours.putIfAbsent(cle, vol);
+        if (existant != null) {
+            logger.debug("Requête regroupée avec l'appel en cours : {}", cle);
+            return existant.asMono()
+                    .flatMap(reponse -> reponse.ecrire(exchange.getResponse()))
+                    .onErrorResume(e -> chain.filter(exchange));
+        }
+
+        AtomicBoolean publiee = new AtomicBoolean();
+        ServerHttpResponseDecorator capture = new ServerHttpResponseDecorator(exchange.getResponse()) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                if (estStreamee(getHeaders())) {
+                    // Réponse streamée : transmise sans mise en mémoire, les requêtes en attente sont routées séparément
+                    abandonner();
+                    return super.writeWith(body);
+                }
+                return DataBufferUtils.join(Flux.from(body)).defaultIfEmpty(bufferFactory().wrap(new byte[0])).flatMap(tampon -> {
+                    byte[] contenu = new byte[tampon.readableByteCount()];
+                    tampon.read(contenu);
+                    DataBufferUtils.release(tampon);
+                    publier(new ReponseCapturee(getStatusCode(), getHeaders(), contenu));
+                    return super.writeWith(Mono.just(bufferFactory().wrap(contenu)));
+                });
+            }
+
+            @Override
+            public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+                if (estStreamee(getHeaders())) {
+                    abandonner();
+                    return super.writeAndFlushWith(body);
+                }
+                return writeWith(Flux.from(body).flatMapSequential(partie -> partie));
+            }
+
+            private void abandonner() {
+                CoalescenceRequetesFilter.this.abandonner(cle, vol, publiee);
+            }
+
+            private void publier(ReponseCapturee reponse) {
+                if (publiee.compareAndSet(false, true)) {
+                    enCours.remove(cle, vol);
+                    if (microCache != null && reponse.statut() != null && reponse.statut().is2xxSuccessful()) {
+                        microCache.put(cle, reponse);
+                    }
+                    vol.tryEmitValue(reponse);
+                }
+            }
+        };
+        return chain.filter(exchange.mutate().response(capture).build())
+                // Aucune réponse capturée (erreur ou abandon) : les requêtes en attente sont routées séparément
+                .doFinally(signal -> abandonner(cle, vol, publiee));
+    }
+
+    private void abandonner(String cle, Sinks.One<ReponseCapturee> vol, AtomicBoolean publiee) {
+        if (publiee.compareAndSet(false, true)) {
+            enCours.remove(cle, vol);
+            vol.tryEmitError(new IllegalStateException("Réponse non capturée pour " + cle));
+        }
+    }
+
+    /**
+     * Indique si une réponse est streamée : format de flux (NDJSON, événements) ou longueur non annoncée.
+     */
+    private static boolean estStreamee(HttpHeaders entetes) {
+        MediaType type = entetes.getContentType();
+        if (type != null && (MediaType.APPLICATION_NDJSON.isCompatibleWith(type) || MediaType.TEXT_EVENT_STREAM.isCompatibleWith(type))) {
+            return true;
+        }
+        return entetes.getContentLength() < 0;
+    }
+
+    private static List<PathPattern> motifs(List<String> chemins) {
+        return chemins.stream()
+                .map(String::trim)
+                .filter(chemin -> !chemin.isEmpty())
+                .map(PathPatternParser.defaultInstance::parse)
+                .toList();
+    }
+
+    private static String cle(ServerWebExchange exchange, String utilisateur) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        return (route == null ? "" : route.getId()) + '|' + exchange.getRequest().getURI().getRawPath()
+                + '?' + exchange.getRequest().getURI().getRawQuery() + '|' + utilisateur
+                + '|' + exchange.getRequest().getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH);
+    }
+
+    /**
+     * Réponse d'un microservice mise en mémoire pour être renvoyée aux requêtes identiques.
+     */
+    private record ReponseCapturee(HttpStatusCode statut, HttpHeaders entetes, byte[] contenu) {
+
+        private ReponseCapturee(HttpStatusCode statut, HttpHeaders entetes, byte[] contenu) {
+            this.statut = statut;
+            this.entetes = HttpHeaders.readOnlyHttpHeaders(copier(entetes));
+            this.contenu = contenu;
+        }
+
+        private static HttpHeaders copier(HttpHeaders entetes) {
+            HttpHeaders copie = new HttpHeaders();
+            copie.addAll(entetes);
+            // Les cookies et l'encodage du transfert propres à la première réponse ne sont pas repris
+            copie.remove(HttpHeaders.SET_COOKIE);
+            copie.remove(HttpHeaders.TRANSFER_ENCODING);
+            copie.remove(HttpHeaders.CONTENT_LENGTH);
+            return copie;
+        }
+
+        private Mono<Void> ecrire(ServerHttpResponse reponse) {
+            reponse.setStatusCode(statut);
+            reponse.getHeaders().putAll(entetes);
+            reponse.getHeaders().setContentLength(contenu.length);
+            return reponse.writeWith(Mono.just(reponse.bufferFactory().wrap(contenu)));
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/**
+ * Package contenant les filtres du microservice gateway.
+ */
+package com.mgateway.microservicegateway.filtre;
+
+import com.mgateway.microservicegateway.configuration.CustomProperties;
+import com.mgateway.microservicegateway.configuration.SuiviInstances;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.ReactiveDiscoveryClient;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Filtre global diffusant certaines écritures à toutes les instances d'un microservice, au lieu de les router vers une seule.
+ * <p>
+ * Chaque instance du Microservice Back Diabete conserve son propre cache des niveaux de risque : une invalidation
+ * routée vers une seule instance laisserait l'ancien risque dans les autres. Une requête autre que GET sur un chemin
+ * configuré est donc transmise, avec son en-tête d'autorisation, à chacune des instances du microservice.
+ * La réponse est 200 si toutes les instances l'ont acceptée, 502 si l'une d'elles a échoué ou n'a pas répondu à temps,
+ * 503 si aucune instance n'est déclarée.
+ * </p>
+ * <p>
+ * Comme pour le routage, seules les instances saines (vérifications de santé du répartiteur) et non écartées
+ * ({@link SuiviInstances}) sont appelées : une instance déclarée mais arrêtée ne fait ni attendre ni échouer
+ * chaque écriture. Si aucune instance n'est saine, la diffusion est tentée auprès de toutes les instances déclarées.
+ * Le résultat de chaque appel alimente le suivi des instances, comme une requête routée.
+ * </p>
+ *
+ * @author mickael hayé
+ * @version 1.0
+ */
+@Component
+public class DiffusionInstancesFilter implements GlobalFilter, Ordered {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiffusionInstancesFilter.class);
+
+    private final Map<PathPattern, String> chemins = new LinkedHashMap<>();
+    private final ReactiveDiscoveryClient discoveryClient;
+    private final LoadBalancerClientFactory repartiteurs;
+    private final SuiviInstances suivi;
+    private final WebClient webClient;
+    private final Duration timeout;
+
+    /**
+     * Constructeur initialisant les chemins diffusés selon les propriétés du gateway.
+     *
+     * @param discoveryClient Le registre des instances déclarées des microservices.
+     * @param repartiteurs    Les contextes des répartiteurs de charge, fournissant les instances saines de chaque microservice.
+     * @param suivi           Le suivi des requêtes en cours et des éjections des instances.
+     * @param builder         Le constructeur de WebClient fourni par Spring Boot (appels mesurés et tracés).
+     * @param prop            Les propriétés personnalisées du gateway.
+     */
+    public DiffusionInstancesFilter(ReactiveDiscoveryClient discoveryClient, LoadBalancerClientFactory repartiteurs, SuiviInstances suivi,
+                                    WebClient.Builder builder, CustomProperties prop) {
+        prop.getDiffusionChemins().forEach((chemin, service) -> chemins.put(PathPatternParser.defaultInstance.parse(chemin.trim()), service.trim()));
+        this.discoveryClient = discoveryClient;
+        this.repartiteurs = repartiteurs;
+        this.suivi = suivi;
+        this.webClient = builder.build();
+        this.timeout = Duration.ofMillis(prop.getDiffusionTimeout());
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest requete = exchange.getRequest();
+        String service = HttpMethod.GET.equals(requete.getMethod()) ? null : trouver(requete);
+        if (service == null) {
+            return chain.filter(exchange);
+        }
+        return instances(service).flatMap(instances -> {
+            if (instances.isEmpty()) {
+                logger.error("Aucune instance du microservice {} pour diffuser {} {}", service, requete.getMethod(), requete.getPath());
+                exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+                return exchange.getResponse().setComplete();
+            }
+            return Flux.fromIterable(instances)
+                    .flatMap(instance -> appeler(instance, requete))
+                    .all(reussi -> reussi)
+                    .flatMap(tousReussis -> {
+                        exchange.getResponse().setStatusCode(tousReussis ? HttpStatus.OK : HttpStatus.BAD_GATEWAY);
+                        return exchange.getResponse().setComplete();
+                    });
+        });
+    }
+
+    /**
+     * S'exécute après l'émission du jeton, afin de transmettre aux instances le jeton signé plutôt que les identifiants,
+     * et à l'intérieur du cache des réponses, qui purge ses entrées une fois la diffusion terminée.
+     */
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 3;
+    }
+
+    /**
+     * Renvoie les instances du microservice à appeler : les instances saines non écartées, ou les instances saines
+     * si toutes sont écartées, ou les instances déclarées si aucune n'est saine.
+     */
+    private Mono<List<ServiceInstance>> instances(String service) {
+        ServiceInstanceListSupplier fournisseur = repartiteurs.getInstance(service, ServiceInstanceListSupplier.class);
+        Mono<List<ServiceInstance>> saines = fournisseur == null ? Mono.just(List.of()) : fournisseur.get().next().defaultIfEmpty(List.of());
+        return saines.flatMap(instances -> {
+            if (instances.isEmpty()) {
+                logger.warn("Aucune instance saine du microservice {}, diffusion à toutes les instances déclarées", service);
+                return discoveryClient.getInstances(service).collectList();
+            }
+            List<ServiceInstance> candidates = instances.stream().filter(instance -> !suivi.isEjectee(instance)).toList();
+            return Mono.just(candidates.isEmpty() ? instances : candidates);
+        });
+    }
+
+    /**
+     * Transmet la requête à une instance, en enregistrant le résultat dans le suivi des instances.
+     *
+     * @return Mono - true si l'instance a répondu avec succès.
+     */
+    private Mono<Boolean> appeler(ServiceInstance instance, ServerHttpRequest requete) {
+        URI uri = UriComponentsBuilder.fromUri(instance.getUri())
+                .path(requete.getURI().getRawPath())
+                .query(requete.getURI().getRawQuery())
+                .build(true)
+                .toUri();
+        suivi.debuter(instance);
+        return webClient.method(requete.getMethod())
+                .uri(uri)
+                .headers(entetes -> {
+                    String autorisation = requete.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+                    if (autorisation != null) {
+                        entetes.set(HttpHeaders.AUTHORIZATION, autorisation);
+                    }
+                })
+                .retrieve()
+                .toBodilessEntity()
+                .timeout(timeout)
+                .thenReturn(true)
+                .doOnNext(reussi -> suivi.terminer(instance, false, false))
+                .onErrorResume(e -> {
+                    logger.error("Échec de la diffusion de {} {} à l'instance {} : {}", requete.getMethod(), requete.getPath(), instance.getUri(), e.getMessage());
+                    // Une erreur 4xx concerne la requête et non la santé de l'instance
+                    boolean echec = !(e instanceof WebClientResponseException reponse && reponse.getStatusCode().is4xxClientError());
+                    suivi.terminer(instance, false, echec);
+                    return Mono.just(false);
+                });
+    }
+
+    private String trouver(ServerHttpRequest requete) {
+        for (Map.Entry<PathPattern, String> entree : chemins.entrySet()) {
+            if (entree.getKey().matches(requete.getPath().pathWithinApplication())) {
+                return entree.getValue();
+            }
+        }
+        return null;
+    }
+}
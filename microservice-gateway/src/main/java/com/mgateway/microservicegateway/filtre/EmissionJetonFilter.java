@@ -0,0 +1,96 @@
+/**
+ * Package contenant les filtres du microservice gateway.
+ */
+package com.mgateway.microservicegateway.filtre;
+
+import com.mgateway.microservicegateway.configuration.CustomProperties;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Filtre global remplaçant les identifiants HTTP Basic par un jeton signé avant de router la requête.
+ * <p>
+ * Le gateway vérifie le mot de passe (BCrypt) une seule fois, puis transmet au microservice un jeton JWT
+ * HMAC-SHA256 de courte durée, que les microservices vérifient sans hachage et renvoient tel quel
+ * lors de leurs propres appels au gateway. Une requête déjà authentifiée par un jeton est routée sans nouvelle émission.
+ * </p>
+ *
+ * @author mickael hayé
+ * @version 1.0
+ */
+@Component
+public class EmissionJetonFilter implements GlobalFilter, Ordered {
+
+    /**
+     * Émetteur des jetons, vérifié par les microservices.
+     */
+    public static final String EMETTEUR = "microservice-gateway";
+
+    private final JwtEncoder jwtEncoder;
+    private final CustomProperties prop;
+
+    /**
+     * Constructeur pour injecter l'encodeur de jetons et les propriétés du gateway.
+     *
+     * @param jwtEncoder L'encodeur signant les jetons.
+     * @param prop       Les propriétés personnalisées du gateway.
+     */
+    public EmissionJetonFilter(JwtEncoder jwtEncoder, CustomProperties prop) {
+        this.jwtEncoder = jwtEncoder;
+        this.prop = prop;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        return ReactiveSecurityContextHolder.getContext()
+                .map(SecurityContext::getAuthentication)
+                .filter(authentication -> authentication.isAuthenticated() && !(authentication instanceof JwtAuthenticationToken))
+                .map(authentication -> exchange.mutate()
+                        .request(requete -> requete.headers(entetes -> entetes.setBearerAuth(emettre(authentication))))
+                        .build())
+                .defaultIfEmpty(exchange)
+                .flatMap(chain::filter);
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    /**
+     * Émet un jeton signé pour l'utilisateur authentifié, portant ses rôles.
+     */
+    private String emettre(Authentication authentication) {
+        Instant maintenant = Instant.now();
+        List<String> roles = authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .map(role -> role.startsWith("ROLE_") ? role.substring(5) : role)
+                .toList();
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .issuer(EMETTEUR)
+                .subject(authentication.getName())
+                .issuedAt(maintenant)
+                .expiresAt(maintenant.plusSeconds(prop.getJwtDuree()))
+                .claim("roles", roles)
+                .build();
+        JwsHeader entete = JwsHeader.with(MacAlgorithm.HS256).build();
+        return jwtEncoder.encode(JwtEncoderParameters.from(entete, claims)).getTokenValue();
+    }
+}
@@ -0,0 +1,211 @@
+/**
+ * Package contenant les filtres du microservice gateway.
+ */
+package com.mgateway.microservicegateway.filtre;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Fabrique du filtre de route "LimiteConcurrence", limitant le nombre de requêtes simultanées vers un microservice.
+ * <p>
+ * La limite s'adapte à la santé du microservice (AIMD) : elle augmente d'une unité après chaque réponse rapide
+ * obtenue alors que la limite est au moins à moitié utilisée, et est multipliée par le facteur de réduction
+ * après une réponse plus lente que la latence maximale, une erreur 5xx ou un échec d'appel.
+ * Au-delà de la limite, la requête est rejetée immédiatement (503 avec Retry-After) au lieu d'attendre
+ * et d'aggraver la saturation du microservice et de sa base de données.
+ * </p>
+ *
+ * @author mickael hayé
+ * @version 1.0
+ */
+@Component
+public class LimiteConcurrenceGatewayFilterFactory extends AbstractGatewayFilterFactory<LimiteConcurrenceGatewayFilterFactory.Config> {
+
+    private static final Logger logger = LoggerFactory.getLogger(LimiteConcurrenceGatewayFilterFactory.class);
+
+    /**
+     * Constructeur déclarant la classe de configuration du filtre.
+     */
+    public LimiteConcurrenceGatewayFilterFactory() {
+        super(Config.class);
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        LimiteAdaptative limite = new LimiteAdaptative(config);
+        return (exchange, chain) -> {
+            if (!limite.acquerir()) {
+                logger.debug("Requête rejetée sur la route {} : limite de concurrence atteinte", config.getRouteId());
+                exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+                exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+                return exchange.getResponse().setComplete();
+            }
+            long debut = System.nanoTime();
+            return chain.filter(exchange).doFinally(signal -> {
+                HttpStatusCode statut = exchange.getResponse().getStatusCode();
+                boolean echec = signal == SignalType.ON_ERROR || (statut != null && statut.is5xxServerError());
+                limite.liberer(signal == SignalType.CANCEL, echec, (System.nanoTime() - debut) / 1_000_000);
+            });
+        };
+    }
+
+    /**
+     * Limite de concurrence d'une route, ajustée à chaque réponse.
+     */
+    private static final class LimiteAdaptative {
+        private final Config config;
+        private double limite;
+        private int enCours;
+
+        private LimiteAdaptative(Config config) {
+            this.config = config;
+            this.limite = config.getLimiteInitiale();
+        }
+
+        private synchronized boolean acquerir() {
+            if (enCours >= (int) limite) {
+                return false;
+            }
+            enCours++;
+            return true;
+        }
+
+        private synchronized void liberer(boolean abandon, boolean echec, long latence) {
+            int utilisees = enCours--;
+            if (abandon) {
+                // Requête abandonnée par le client : aucune information sur la santé du microservice
+                return;
+            }
+            double precedente = limite;
+            if (echec || latence > config.getLatenceMax()) {
+                limite = Math.max(config.getLimiteMin(), limite * config.getReduction());
+            } else if (utilisees * 2 >= limite) {
+                limite = Math.min(config.getLimiteMax(), limite + 1);
+            }
+            if ((int) limite != (int) precedente) {
+                logger.debug("Limite de concurrence de la route {} : {}", config.getRouteId(), (int) limite);
+            }
+        }
+    }
+
+    /**
+     * Configuration du filtre pour une route.
+     */
+    public static class Config implements HasRouteId {
+        private String routeId;
+        private int limiteInitiale = 20;
+        private int limiteMin = 2;
+        private int limiteMax = 200;
+        private long latenceMax = 1000;
+        private double reduction = 0.9;
+
+        @Override
+        public void setRouteId(String routeId) {
+            this.routeId = routeId;
+        }
+
+        @Override
+        public String getRouteId() {
+            return routeId;
+        }
+
+        /**
+         * Obtient le nombre de requêtes simultanées autorisées au démarrage.
+         *
+         * @return int - La limite initiale.
+         */
+        public int getLimiteInitiale() {
+            return limiteInitiale;
+        }
+
+        /**
+         * Définit le nombre de requêtes simultanées autorisées au démarrage.
+         *
+         * @param limiteInitiale La limite initiale.
+         */
+        public void setLimiteInitiale(int limiteInitiale) {
+            this.limiteInitiale = limiteInitiale;
+        }
+
+        /**
+         * Obtient la limite en dessous de laquelle la concurrence n'est jamais réduite.
+         *
+         * @return int - La limite minimale.
+         */
+        public int getLimiteMin() {
+            return limiteMin;
+        }
+
+        /**
+         * Définit la limite en dessous de laquelle la concurrence n'est jamais réduite.
+         *
+         * @param limiteMin La limite minimale.
+         */
+        public void setLimiteMin(int limiteMin) {
+            this.limiteMin = limiteMin;
+        }
+
+        /**
+         * Obtient la limite au-delà de laquelle la concurrence n'est jamais augmentée.
+         *
+         * @return int - La limite maximale.
+         */
+        public int getLimiteMax() {
+            return limiteMax;
+        }
+
+        /**
+         * Définit la limite au-delà de laquelle la concurrence n'est jamais augmentée.
+         *
+         * @param limiteMax La limite maximale.
+         */
+        public void setLimiteMax(int limiteMax) {
+            this.limiteMax = limiteMax;
+        }
+
+        /**
+         * Obtient la latence au-delà de laquelle une réponse est considérée comme un signe de saturation.
+         *
+         * @return long - La latence maximale en millisecondes.
+         */
+        public long getLatenceMax() {
+            return latenceMax;
+        }
+
+        /**
+         * Définit la latence au-delà de laquelle une réponse est considérée comme un signe de saturation.
+         *
+         * @param latenceMax La latence maximale en millisecondes.
+         */
+        public void setLatenceMax(long latenceMax) {
+            this.latenceMax = latenceMax;
+        }
+
+        /**
+         * Obtient le facteur appliqué à la limite après une réponse lente ou en échec.
+         *
+         * @return double - Le facteur de réduction, entre 0 et 1.
+         */
+        public double getReduction() {
+            return reduction;
+        }
+
+        /**
+         * Définit le facteur appliqué à la limite après une réponse lente ou en échec.
+         *
+         * @param reduction Le facteur de réduction, entre 0 et 1.
+         */
+        public void setReduction(double reduction) {
+            this.reduction = reduction;
+        }
+    }
+}
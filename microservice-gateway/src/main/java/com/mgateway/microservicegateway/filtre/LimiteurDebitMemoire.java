@@ -0,0 +1,144 @@
+/**
+ * Package contenant les filtres du microservice gateway.
+ */
+package com.mgateway.microservicegateway.filtre;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Limiteur de débit en mémoire, par utilisateur et par route, utilisé par le filtre RequestRateLimiter des routes.
+ * <p>
+ * Chaque couple (route, utilisateur) dispose d'un seau de jetons rempli en continu au débit configuré, dans la limite
+ * de sa capacité : une requête consomme un jeton, et est refusée (429) lorsque le seau est vide. Les seaux sont
+ * conservés dans le gateway, sans stockage externe ; ceux inutilisés depuis dix minutes sont oubliés.
+ * Le débit et la capacité sont définis par route, dans les arguments "limiteur-debit-memoire.*" du filtre.
+ * </p>
+ *
+ * @author mickael hayé
+ * @version 1.0
+ */
+@Component
+public class LimiteurDebitMemoire extends AbstractRateLimiter<LimiteurDebitMemoire.Config> {
+
+    /**
+     * Préfixe des arguments du filtre RequestRateLimiter propres à ce limiteur.
+     */
+    public static final String NOM_CONFIGURATION = "limiteur-debit-memoire";
+
+    /**
+     * En-tête indiquant le nombre de jetons restant à l'utilisateur sur la route.
+     */
+    public static final String ENTETE_JETONS_RESTANTS = "X-RateLimit-Remaining";
+
+    private static final Logger logger = LoggerFactory.getLogger(LimiteurDebitMemoire.class);
+
+    private final Config configParDefaut = new Config();
+    private final Cache<String, SeauJetons> seaux = Caffeine.newBuilder()
+            .expireAfterAccess(Duration.ofMinutes(10))
+            .maximumSize(100_000)
+            .build();
+
+    /**
+     * Constructeur pour injecter le service liant les arguments des routes à la configuration du limiteur.
+     *
+     * @param configurationService Le service de configuration du gateway.
+     */
+    public LimiteurDebitMemoire(ConfigurationService configurationService) {
+        super(Config.class, NOM_CONFIGURATION, configurationService);
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        Config config = getConfig().getOrDefault(routeId, configParDefaut);
+        SeauJetons seau = seaux.get(routeId + '|' + id, cle -> new SeauJetons(config.getCapacite()));
+        long restants = seau.consommer(config.getDebit(), config.getCapacite(), System.nanoTime());
+        if (restants < 0) {
+            logger.debug("Débit dépassé pour {} sur la route {}", id, routeId);
+            long attente = Math.max(1, (long) Math.ceil(1.0 / config.getDebit()));
+            return Mono.just(new Response(false, Map.of(ENTETE_JETONS_RESTANTS, "0", HttpHeaders.RETRY_AFTER, String.valueOf(attente))));
+        }
+        return Mono.just(new Response(true, Map.of(ENTETE_JETONS_RESTANTS, String.valueOf(restants))));
+    }
+
+    /**
+     * Seau de jetons d'un utilisateur sur une route.
+     */
+    private static final class SeauJetons {
+        private double jetons;
+        private long derniereRecharge = System.nanoTime();
+
+        private SeauJetons(int capacite) {
+            this.jetons = capacite;
+        }
+
+        /**
+         * Recharge le seau selon le temps écoulé puis consomme un jeton s'il y en a un.
+         *
+         * @return long Le nombre de jetons restants, -1 si la requête est refusée.
+         */
+        private synchronized long consommer(double debit, int capacite, long maintenant) {
+            jetons = Math.min(capacite, jetons + (maintenant - derniereRecharge) * debit / 1_000_000_000d);
+            derniereRecharge = maintenant;
+            if (jetons < 1) {
+                return -1;
+            }
+            jetons--;
+            return (long) jetons;
+        }
+    }
+
+    /**
+     * Configuration du limiteur pour une route.
+     */
+    public static class Config {
+        private double debit = 50;
+        private int capacite = 100;
+
+        /**
+         * Obtient le nombre de jetons ajoutés au seau de chaque utilisateur par seconde.
+         *
+         * @return double - Le débit soutenu autorisé, en requêtes par seconde.
+         */
+        public double getDebit() {
+            return debit;
+        }
+
+        /**
+         * Définit le nombre de jetons ajoutés au seau de chaque utilisateur par seconde.
+         *
+         * @param debit Le débit soutenu autorisé, en requêtes par seconde.
+         */
+        public void setDebit(double debit) {
+            this.debit = debit;
+        }
+
+        /**
+         * Obtient le nombre maximal de jetons d'un seau, soit la rafale autorisée.
+         *
+         * @return int - La capacité du seau.
+         */
+        public int getCapacite() {
+            return capacite;
+        }
+
+        /**
+         * Définit le nombre maximal de jetons d'un seau, soit la rafale autorisée.
+         *
+         * @param capacite La capacité du seau.
+         */
+        public void setCapacite(int capacite) {
+            this.capacite = capacite;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/**
+ * Package contenant les filtres du microservice gateway.
+ */
+package com.mgateway.microservicegateway.filtre;
+
+import com.mgateway.microservicegateway.configuration.SuiviInstances;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Filtre global comptant les requêtes en cours et les échecs de chaque instance choisie par la répartition de charge.
+ * <p>
+ * Placé juste après le choix de l'instance, il alimente {@link SuiviInstances} : la requête est comptée jusqu'à
+ * sa fin, y compris lorsqu'elle est abandonnée par le client, et une erreur d'appel ou une réponse 5xx compte
+ * comme un échec de l'instance. Les routes sans répartition de charge ne sont pas concernées.
+ * </p>
+ *
+ * @author mickael hayé
+ * @version 1.0
+ */
+@Component
+public class SuiviInstancesFilter implements GlobalFilter, Ordered {
+
+    private final SuiviInstances suivi;
+
+    /**
+     * Constructeur pour injecter le suivi des instances.
+     *
+     * @param suivi Le suivi des requêtes en cours et des éjections.
+     */
+    public SuiviInstancesFilter(SuiviInstances suivi) {
+        this.suivi = suivi;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Response<ServiceInstance> choix = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+        if (choix == null || !choix.hasServer()) {
+            return chain.filter(exchange);
+        }
+        ServiceInstance instance = choix.getServer();
+        suivi.debuter(instance);
+        return chain.filter(exchange).doFinally(signal -> {
+            HttpStatusCode statut = exchange.getResponse().getStatusCode();
+            boolean echec = signal == SignalType.ON_ERROR || (statut != null && statut.is5xxServerError());
+            suivi.terminer(instance, signal == SignalType.CANCEL, echec);
+        });
+    }
+
+    @Override
+    public int getOrder() {
+        return ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER + 1;
+    }
+}
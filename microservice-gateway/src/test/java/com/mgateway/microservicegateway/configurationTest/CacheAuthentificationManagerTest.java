@@ -0,0 +1,80 @@
+package com.mgateway.microservicegateway.configurationTest;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.mgateway.microservicegateway.configuration.CacheAuthentificationManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UserDetailsRepositoryReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.MapReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe de test pour CacheAuthentificationManager.
+ * Vérifie que BCrypt n'est exécuté qu'une fois par identifiants pendant la durée du cache.
+ *
+ * @author mickael hayé
+ * @version 1.0
+ */
+public class CacheAuthentificationManagerTest {
+
+    private final AtomicInteger nbVerifications = new AtomicInteger();
+    private final AtomicLong temps = new AtomicLong();
+    private CacheAuthentificationManager manager;
+
+    @BeforeEach
+    void setup() {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(4) {
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                nbVerifications.incrementAndGet();
+                return super.matches(rawPassword, encodedPassword);
+            }
+        };
+        UserDetailsRepositoryReactiveAuthenticationManager verification = new UserDetailsRepositoryReactiveAuthenticationManager(
+                new MapReactiveUserDetailsService(User.builder().username("user1").password(bcrypt.encode("0241585915")).roles("USER").build()));
+        verification.setPasswordEncoder(bcrypt);
+        Ticker ticker = temps::get;
+        manager = new CacheAuthentificationManager(verification, Duration.ofSeconds(60), 100, ticker);
+    }
+
+    /**
+     * Teste qu'une vérification réussie est réutilisée jusqu'à son expiration.
+     */
+    @Test
+    void verificationMemoriseeTest() {
+        Authentication premiere = manager.authenticate(identifiants("user1", "0241585915")).block();
+        Authentication seconde = manager.authenticate(identifiants("user1", "0241585915")).block();
+        assertTrue(seconde.isAuthenticated());
+        assertSame(premiere, seconde);
+        assertEquals(1, nbVerifications.get());
+
+        temps.addAndGet(Duration.ofSeconds(61).toNanos());
+        manager.authenticate(identifiants("user1", "0241585915")).block();
+        assertEquals(2, nbVerifications.get());
+    }
+
+    /**
+     * Teste qu'un mauvais mot de passe est toujours vérifié et jamais mémorisé.
+     */
+    @Test
+    void echecNonMemoriseTest() {
+        manager.authenticate(identifiants("user1", "0241585915")).block();
+        assertThrows(BadCredentialsException.class, () -> manager.authenticate(identifiants("user1", "mauvais")).block());
+        assertThrows(BadCredentialsException.class, () -> manager.authenticate(identifiants("user1", "mauvais")).block());
+        assertEquals(3, nbVerifications.get());
+    }
+
+    private static UsernamePasswordAuthenticationToken identifiants(String utilisateur, String motDePasse) {
+        return UsernamePasswordAuthenticationToken.unauthenticated(utilisateur, motDePasse);
+    }
+}
@@ -0,0 +1,72 @@
+package com.mgateway.microservicegateway.configurationTest;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.client.HttpClientResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe de test des protocoles HTTP du gateway.
+ * Vérifie la compression des réponses envoyées aux clients et l'utilisation de h2c vers les microservices.
+ *
+ * @author mickael hayé
+ * @version 1.0
+ */
+@AutoConfigureObservability
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class ProtocolesHttpTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private HttpClient httpClient;
+
+    /**
+     * Teste qu'une réponse est compressée lorsque le client l'accepte, et ne l'est pas sinon.
+     */
+    @Test
+    void compressionTest() {
+        assertEquals("gzip", appelPrometheus("gzip").responseHeaders().get(HttpHeaderNames.CONTENT_ENCODING));
+        assertNull(appelPrometheus(null).responseHeaders().get(HttpHeaderNames.CONTENT_ENCODING));
+    }
+
+    /**
+     * Teste que le client HTTP du gateway se connecte aux microservices en HTTP/2 en clair.
+     */
+    @Test
+    void h2cMicroservicesTest() {
+        assertArrayEquals(new HttpProtocol[]{HttpProtocol.H2C}, httpClient.configuration().protocols());
+    }
+
+    /**
+     * Appelle le endpoint Prometheus du gateway sans décompression côté client, afin de lire l'en-tête Content-Encoding.
+     */
+    private HttpClientResponse appelPrometheus(String acceptEncoding) {
+        String authentification = Base64.getEncoder().encodeToString("user1:0241585915".getBytes(StandardCharsets.UTF_8));
+        return HttpClient.create()
+                .headers(entetes -> {
+                    entetes.set(HttpHeaderNames.AUTHORIZATION, "Basic " + authentification);
+                    if (acceptEncoding != null) {
+                        entetes.set(HttpHeaderNames.ACCEPT_ENCODING, acceptEncoding);
+                    }
+                })
+                .get()
+                .uri("http://localhost:" + port + "/actuator/prometheus")
+                .responseSingle((reponse, contenu) -> {
+                    assertEquals(200, reponse.status().code());
+                    return contenu.thenReturn(reponse);
+                })
+                .block();
+    }
+}
@@ -0,0 +1,131 @@
+package com.mgateway.microservicegateway.configurationTest;
+
+import com.mgateway.microservicegateway.configuration.CustomProperties;
+import com.mgateway.microservicegateway.configuration.MoinsRequetesEnCoursLoadBalancer;
+import com.mgateway.microservicegateway.configuration.SuiviInstances;
+import com.mgateway.microservicegateway.filtre.SuiviInstancesFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.ServiceInstanceListSuppliers;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Classe de test pour la répartition de charge du gateway.
+ * Vérifie le choix de l'instance la moins chargée, le décompte des requêtes en cours par SuiviInstancesFilter
+ * et l'éjection temporaire des instances en échec.
+ *
+ * @author mickael hayé
+ * @version 1.0
+ */
+public class RepartitionChargeTest {
+
+    private final ServiceInstance instance1 = new DefaultServiceInstance("i1", "microservice-test", "localhost", 9101, false);
+    private final ServiceInstance instance2 = new DefaultServiceInstance("i2", "microservice-test", "localhost", 9102, false);
+    private final ServiceInstance instance3 = new DefaultServiceInstance("i3", "microservice-test", "localhost", 9103, false);
+
+    private SuiviInstances suivi;
+    private SuiviInstancesFilter filtre;
+    private MoinsRequetesEnCoursLoadBalancer repartiteur;
+
+    @BeforeEach
+    void setUp() {
+        CustomProperties prop = new CustomProperties();
+        prop.setRepartitionEchecsEjection(2);
+        prop.setRepartitionDureeEjection(300);
+        suivi = new SuiviInstances(prop);
+        filtre = new SuiviInstancesFilter(suivi);
+        ServiceInstanceListSupplier instances = ServiceInstanceListSuppliers.from("microservice-test", instance1, instance2, instance3);
+        repartiteur = new MoinsRequetesEnCoursLoadBalancer(
+                new StaticListableBeanFactory(Map.of("instances", instances)).getBeanProvider(ServiceInstanceListSupplier.class),
+                "microservice-test", suivi);
+    }
+
+    /**
+     * Teste que l'instance choisie est celle ayant le moins de requêtes en cours,
+     * et qu'une requête abandonnée par le client n'est plus comptée.
+     */
+    @Test
+    void moinsRequetesEnCoursTest() {
+        Disposable requete1 = router(instance1, Mono.never());
+        Disposable requete2 = router(instance1, Mono.never());
+        Disposable requete3 = router(instance2, Mono.never());
+        assertEquals(2, suivi.getEnCours(instance1));
+        assertEquals(instance3, choisir());
+
+        router(instance3, Mono.never());
+        router(instance3, Mono.never());
+        assertEquals(instance2, choisir());
+
+        requete1.dispose();
+        requete2.dispose();
+        requete3.dispose();
+        assertEquals(0, suivi.getEnCours(instance1));
+        assertTrue(IntStream.range(0, 20).mapToObj(i -> choisir()).allMatch(instance -> instance != instance3));
+    }
+
+    /**
+     * Teste qu'une instance enchaînant les réponses 5xx est écartée pendant la durée d'éjection,
+     * qu'une réponse réussie remet son compteur d'échecs à zéro, et que toutes les instances restent utilisables
+     * lorsqu'elles sont toutes écartées.
+     */
+    @Test
+    void ejectionInstanceEnEchecTest() throws InterruptedException {
+        router(instance1, HttpStatus.INTERNAL_SERVER_ERROR);
+        router(instance1, HttpStatus.OK);
+        router(instance1, HttpStatus.BAD_GATEWAY);
+        assertFalse(suivi.isEjectee(instance1));
+
+        router(instance1, HttpStatus.SERVICE_UNAVAILABLE);
+        assertTrue(suivi.isEjectee(instance1));
+        assertTrue(IntStream.range(0, 20).mapToObj(i -> choisir()).allMatch(instance -> instance != instance1));
+
+        for (ServiceInstance instance : new ServiceInstance[]{instance2, instance3}) {
+            router(instance, HttpStatus.INTERNAL_SERVER_ERROR);
+            router(instance, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+        assertTrue(IntStream.range(0, 30).mapToObj(i -> choisir()).anyMatch(instance -> instance == instance1));
+
+        Thread.sleep(400);
+        assertFalse(suivi.isEjectee(instance1));
+    }
+
+    private ServiceInstance choisir() {
+        return repartiteur.choose(new DefaultRequest<>()).block().getServer();
+    }
+
+    private void router(ServiceInstance instance, HttpStatus statut) {
+        MockServerWebExchange echange = echange(instance);
+        filtre.filter(echange, e -> {
+            e.getResponse().setStatusCode(statut);
+            return Mono.empty();
+        }).block();
+    }
+
+    private Disposable router(ServiceInstance instance, Mono<Void> microservice) {
+        return filtre.filter(echange(instance), e -> microservice).subscribe();
+    }
+
+    private static MockServerWebExchange echange(ServiceInstance instance) {
+        MockServerWebExchange echange = MockServerWebExchange.from(MockServerHttpRequest.get("/noteBack/list/1"));
+        echange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR, new DefaultResponse(instance));
+        return echange;
+    }
+}
@@ -0,0 +1,161 @@
+package com.mgateway.microservicegateway.filtreTest;
+
+import com.mgateway.microservicegateway.configuration.CustomProperties;
+import com.mgateway.microservicegateway.filtre.CacheReponsesFilter;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Classe de test pour CacheReponsesFilter.
+ * Vérifie le service des réponses en cache, la revalidation par ETag et la purge du cache après une écriture.
+ *
+ * @author mickael hayé
+ * @version 1.0
+ */
+public class CacheReponsesFilterTest {
+
+    private final AtomicInteger appels = new AtomicInteger();
+    private final AtomicInteger version = new AtomicInteger(1);
+    private final AtomicReference<String> etagRecu = new AtomicReference<>();
+
+    /**
+     * Microservice simulé renvoyant la version courante de ses données avec un ETag, ou 304 si l'ETag reçu est à jour.
+     */
+    private final GatewayFilterChain microservice = echange -> {
+        appels.incrementAndGet();
+        if (!HttpMethod.GET.equals(echange.getRequest().getMethod())) {
+            version.incrementAndGet();
+            echange.getResponse().setStatusCode(HttpStatus.OK);
+            return echange.getResponse().setComplete();
+        }
+        String etag = "\"v" + version.get() + "\"";
+        etagRecu.set(echange.getRequest().getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH));
+        echange.getResponse().getHeaders().setETag(etag);
+        echange.getResponse().getHeaders().setCacheControl("no-cache, no-store, max-age=0, must-revalidate");
+        if (etag.equals(etagRecu.get())) {
+            echange.getResponse().setStatusCode(HttpStatus.NOT_MODIFIED);
+            return echange.getResponse().writeWith(Mono.empty());
+        }
+        echange.getResponse().setStatusCode(HttpStatus.OK);
+        echange.getResponse().getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        byte[] corps = ("[" + version.get() + "]").getBytes(StandardCharsets.UTF_8);
+        return echange.getResponse().writeWith(Mono.just(echange.getResponse().bufferFactory().wrap(corps)));
+    };
+
+    /**
+     * Teste qu'une réponse fraîche est servie depuis le cache, que le client présentant l'ETag courant reçoit un 304,
+     * qu'une réponse périmée est revalidée auprès du microservice avec son ETag, et que le cache est propre à chaque utilisateur.
+     */
+    @Test
+    void cacheEtRevalidationTest() throws InterruptedException {
+        CacheReponsesFilter filter = filtre(200);
+
+        MockServerWebExchange premiere = router(filter, MockServerHttpRequest.get("/patientBack/list"), "user1");
+        assertEquals("MISS", premiere.getResponse().getHeaders().getFirst(CacheReponsesFilter.ENTETE_CACHE));
+        assertEquals("[1]", premiere.getResponse().getBodyAsString().block());
+        assertEquals("\"v1\"", premiere.getResponse().getHeaders().getETag());
+        assertEquals("private, no-cache", premiere.getResponse().getHeaders().getCacheControl());
+
+        MockServerWebExchange enCache = router(filter, MockServerHttpRequest.get("/patientBack/list"), "user1");
+        assertEquals("HIT", enCache.getResponse().getHeaders().getFirst(CacheReponsesFilter.ENTETE_CACHE));
+        assertEquals("[1]", enCache.getResponse().getBodyAsString().block());
+        MockServerWebExchange valide = router(filter, MockServerHttpRequest.get("/patientBack/list").ifNoneMatch("\"v1\""), "user1");
+        assertEquals(HttpStatus.NOT_MODIFIED, valide.getResponse().getStatusCode());
+        assertEquals(1, appels.get());
+
+        Thread.sleep(300);
+        MockServerWebExchange revalidee = router(filter, MockServerHttpRequest.get("/patientBack/list"), "user1");
+        assertEquals("\"v1\"", etagRecu.get());
+        assertEquals("REVALIDATED", revalidee.getResponse().getHeaders().getFirst(CacheReponsesFilter.ENTETE_CACHE));
+        assertEquals(HttpStatus.OK, revalidee.getResponse().getStatusCode());
+        assertEquals("[1]", revalidee.getResponse().getBodyAsString().block());
+        assertEquals(2, appels.get());
+
+        MockServerWebExchange autreUtilisateur = router(filter, MockServerHttpRequest.get("/patientBack/list").ifNoneMatch("\"v1\""), "user2");
+        assertEquals(null, etagRecu.get());
+        assertEquals("MISS", autreUtilisateur.getResponse().getHeaders().getFirst(CacheReponsesFilter.ENTETE_CACHE));
+        assertEquals(HttpStatus.NOT_MODIFIED, autreUtilisateur.getResponse().getStatusCode());
+        assertEquals(3, appels.get());
+    }
+
+    /**
+     * Teste qu'une écriture sur un chemin configuré purge les réponses en cache associées,
+     * et qu'une requête POST de lecture ne purge rien.
+     */
+    @Test
+    void purgeEcritureTest() {
+        CacheReponsesFilter filter = filtre(60_000);
+        router(filter, MockServerHttpRequest.get("/noteBack/list/1"), "user1");
+        router(filter, MockServerHttpRequest.post("/noteBack/getListeNotes/batch"), "user1");
+        MockServerWebExchange enCache = router(filter, MockServerHttpRequest.get("/noteBack/list/1"), "user1");
+        assertEquals("[1]", enCache.getResponse().getBodyAsString().block());
+
+        router(filter, MockServerHttpRequest.post("/noteBack/add"), "user2");
+        MockServerWebExchange purgee = router(filter, MockServerHttpRequest.get("/noteBack/list/1"), "user1");
+        assertEquals("MISS", purgee.getResponse().getHeaders().getFirst(CacheReponsesFilter.ENTETE_CACHE));
+        assertEquals("[3]", purgee.getResponse().getBodyAsString().block());
+        assertEquals(4, appels.get());
+    }
+
+    /**
+     * Teste qu'aucune réponse n'est conservée tant qu'une écriture la concernant est en cours,
+     * puis que la mise en cache reprend une fois l'écriture terminée.
+     */
+    @Test
+    void ecritureEnCoursTest() {
+        CacheReponsesFilter filter = filtre(60_000);
+        Sinks.Empty<Void> finEcriture = Sinks.empty();
+        MockServerWebExchange ecriture = MockServerWebExchange.from(MockServerHttpRequest.post("/noteBack/add"));
+        Disposable enCours = filter.filter(ecriture, echange -> finEcriture.asMono().then(microservice.filter(echange))).subscribe();
+
+        router(filter, MockServerHttpRequest.get("/noteBack/list/1"), "user1");
+        MockServerWebExchange pendantEcriture = router(filter, MockServerHttpRequest.get("/noteBack/list/1"), "user1");
+        assertEquals("MISS", pendantEcriture.getResponse().getHeaders().getFirst(CacheReponsesFilter.ENTETE_CACHE));
+        router(filter, MockServerHttpRequest.get("/patientBack/list"), "user1");
+        MockServerWebExchange autreChemin = router(filter, MockServerHttpRequest.get("/patientBack/list"), "user1");
+        assertEquals("HIT", autreChemin.getResponse().getHeaders().getFirst(CacheReponsesFilter.ENTETE_CACHE));
+
+        finEcriture.tryEmitEmpty();
+        assertEquals(true, enCours.isDisposed());
+        router(filter, MockServerHttpRequest.get("/noteBack/list/1"), "user1");
+        MockServerWebExchange apresEcriture = router(filter, MockServerHttpRequest.get("/noteBack/list/1"), "user1");
+        assertEquals("HIT", apresEcriture.getResponse().getHeaders().getFirst(CacheReponsesFilter.ENTETE_CACHE));
+        assertEquals("[2]", apresEcriture.getResponse().getBodyAsString().block());
+    }
+
+    private static CacheReponsesFilter filtre(long duree) {
+        CustomProperties prop = new CustomProperties();
+        prop.setCacheReponsesDurees(Map.of("/patientBack/list", duree, "/noteBack/list/*", duree));
+        prop.setCacheReponsesPurges(Map.of("/noteBack/add", List.of("/noteBack/", "/diabeteBack/")));
+        return new CacheReponsesFilter(prop);
+    }
+
+    private MockServerWebExchange router(CacheReponsesFilter filter, MockServerHttpRequest.BaseBuilder<?> requete, String utilisateur) {
+        MockServerWebExchange echange = MockServerWebExchange.from(requete);
+        filter.filter(echange, microservice)
+                .contextWrite(ReactiveSecurityContextHolder.withAuthentication(
+                        UsernamePasswordAuthenticationToken.authenticated(utilisateur, null, AuthorityUtils.createAuthorityList("ROLE_USER"))))
+                .block();
+        return echange;
+    }
+}
@@ -0,0 +1,135 @@
+package com.mgateway.microservicegateway.filtreTest;
+
+import com.mgateway.microservicegateway.configuration.CustomProperties;
+import com.mgateway.microservicegateway.filtre.CoalescenceRequetesFilter;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Classe de test pour CoalescenceRequetesFilter.
+ * Vérifie le regroupement des requêtes GET identiques simultanées, la séparation des requêtes différentes
+ * et le passage sans mise en mémoire des réponses streamées.
+ *
+ * @author mickael hayé
+ * @version 1.0
+ */
+public class CoalescenceRequetesFilterTest {
+
+    private final AtomicInteger appels = new AtomicInteger();
+
+    /**
+     * Microservice simulé répondant après un court délai, avec le numéro de l'appel dans le corps.
+     */
+    private final GatewayFilterChain microservice = echange -> Mono.delay(Duration.ofMillis(200)).flatMap(t -> {
+        echange.getResponse().setStatusCode(HttpStatus.OK);
+        echange.getResponse().getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        byte[] corps = ("[" + appels.incrementAndGet() + "]").getBytes(StandardCharsets.UTF_8);
+        echange.getResponse().getHeaders().setContentLength(corps.length);
+        return echange.getResponse().writeWith(Mono.just(echange.getResponse().bufferFactory().wrap(corps)));
+    });
+
+    /**
+     * Microservice simulé répondant par un flux NDJSON, sans longueur annoncée, en plusieurs parties.
+     */
+    private final GatewayFilterChain microserviceStreame = echange -> Mono.delay(Duration.ofMillis(200)).flatMap(t -> {
+        echange.getResponse().setStatusCode(HttpStatus.OK);
+        echange.getResponse().getHeaders().setContentType(MediaType.APPLICATION_NDJSON);
+        int appel = appels.incrementAndGet();
+        return echange.getResponse().writeWith(Flux.range(1, 3).map(ligne -> echange.getResponse().bufferFactory()
+                .wrap(("{\"appel\":" + appel + ",\"ligne\":" + ligne + "}\n").getBytes(StandardCharsets.UTF_8))));
+    });
+
+    /**
+     * Teste que des requêtes identiques simultanées d'un même utilisateur ne donnent lieu qu'à un appel,
+     * dont la réponse est renvoyée à chacune, et qu'un autre utilisateur ou une requête ultérieure déclenche un nouvel appel.
+     */
+    @Test
+    void regroupementTest() {
+        CoalescenceRequetesFilter filter = filtre(0);
+        List<MockServerWebExchange> echanges = List.of(echange(), echange(), echange());
+        Mono.when(echanges.stream().map(echange -> router(filter, echange, "user1")).toList()).block();
+
+        assertEquals(1, appels.get());
+        for (MockServerWebExchange echange : echanges) {
+            assertEquals(HttpStatus.OK, echange.getResponse().getStatusCode());
+            assertEquals(MediaType.APPLICATION_JSON, echange.getResponse().getHeaders().getContentType());
+            assertEquals("[1]", echange.getResponse().getBodyAsString().block());
+        }
+
+        MockServerWebExchange autreUtilisateur = echange();
+        router(filter, autreUtilisateur, "user2").block();
+        assertEquals("[2]", autreUtilisateur.getResponse().getBodyAsString().block());
+        MockServerWebExchange suivante = echange();
+        router(filter, suivante, "user1").block();
+        assertEquals("[3]", suivante.getResponse().getBodyAsString().block());
+    }
+
+    /**
+     * Teste qu'une réponse streamée n'est pas mise en mémoire : chaque requête identique simultanée est routée
+     * séparément et reçoit le flux complet.
+     */
+    @Test
+    void reponseStreameeTest() {
+        CoalescenceRequetesFilter filter = filtre(60_000);
+        List<MockServerWebExchange> echanges = List.of(echange(), echange());
+        Mono.when(echanges.stream().map(echange -> filter.filter(echange, microserviceStreame)
+                .contextWrite(ReactiveSecurityContextHolder.withAuthentication(
+                        UsernamePasswordAuthenticationToken.authenticated("user1", null, AuthorityUtils.createAuthorityList("ROLE_USER"))))).toList()).block();
+
+        assertEquals(2, appels.get());
+        for (MockServerWebExchange echange : echanges) {
+            assertEquals(3, echange.getResponse().getBodyAsString().block().split("\n").length);
+        }
+    }
+
+    /**
+     * Teste qu'une réponse est encore servie pendant le micro-cache, et que les chemins exclus ne sont pas regroupés.
+     */
+    @Test
+    void microCacheTest() {
+        CoalescenceRequetesFilter filter = filtre(60_000);
+        router(filter, echange(), "user1").block();
+        MockServerWebExchange suivante = echange();
+        router(filter, suivante, "user1").block();
+        assertEquals(1, appels.get());
+        assertEquals("[1]", suivante.getResponse().getBodyAsString().block());
+
+        MockServerWebExchange nonConfiguree = MockServerWebExchange.from(MockServerHttpRequest.get("/diabeteBack/risque/scan"));
+        Mono.when(router(filter, nonConfiguree, "user1"), router(filter, MockServerWebExchange.from(MockServerHttpRequest.get("/diabeteBack/risque/scan")), "user1")).block();
+        assertEquals(3, appels.get());
+    }
+
+    private static CoalescenceRequetesFilter filtre(long microCache) {
+        CustomProperties prop = new CustomProperties();
+        prop.setCoalescenceChemins(List.of("/patientBack/list", "/noteBack/list/*", "/diabeteBack/risque/*"));
+        prop.setCoalescenceCheminsExclus(List.of("/diabeteBack/risque/scan"));
+        prop.setCoalescenceMicroCache(microCache);
+        return new CoalescenceRequetesFilter(prop);
+    }
+
+    private static MockServerWebExchange echange() {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/patientBack/list"));
+    }
+
+    private Mono<Void> router(CoalescenceRequetesFilter filter, MockServerWebExchange echange, String utilisateur) {
+        return filter.filter(echange, microservice)
+                .contextWrite(ReactiveSecurityContextHolder.withAuthentication(
+                        UsernamePasswordAuthenticationToken.authenticated(utilisateur, null, AuthorityUtils.createAuthorityList("ROLE_USER"))));
+    }
+}
@@ -0,0 +1,193 @@
+package com.mgateway.microservicegateway.filtreTest;
+
+import com.mgateway.microservicegateway.configuration.CustomProperties;
+import com.mgateway.microservicegateway.configuration.SuiviInstances;
+import com.mgateway.microservicegateway.filtre.DiffusionInstancesFilter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.ReactiveDiscoveryClient;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClientsProperties;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.cloud.loadbalancer.support.ServiceInstanceListSuppliers;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Classe de test pour DiffusionInstancesFilter.
+ * Vérifie que l'invalidation du risque atteint chaque instance saine du microservice et que l'échec d'une instance est signalé.
+ *
+ * @author mickael hayé
+ * @version 1.0
+ */
+public class DiffusionInstancesFilterTest {
+
+    private final List<DisposableServer> serveurs = new ArrayList<>();
+    private final List<String> autorisationsRecues = new CopyOnWriteArrayList<>();
+    private final AtomicInteger routages = new AtomicInteger();
+    private final SuiviInstances suivi = new SuiviInstances(new CustomProperties());
+
+    private final GatewayFilterChain routage = echange -> {
+        routages.incrementAndGet();
+        return echange.getResponse().setComplete();
+    };
+
+    @AfterEach
+    void tearDown() {
+        serveurs.forEach(DisposableServer::disposeNow);
+    }
+
+    /**
+     * Teste que l'invalidation est transmise, avec l'autorisation, à toutes les instances et non routée vers une seule.
+     */
+    @Test
+    void diffusionToutesInstancesTest() {
+        List<ServiceInstance> instances = List.of(instance(200), instance(200));
+        DiffusionInstancesFilter filter = filtre(instances, instances);
+
+        MockServerWebExchange echange = router(filter, MockServerHttpRequest.delete("/diabeteBack/cache/1").header(HttpHeaders.AUTHORIZATION, "Bearer jeton"));
+
+        assertEquals(HttpStatus.OK, echange.getResponse().getStatusCode());
+        assertEquals(List.of("Bearer jeton", "Bearer jeton"), autorisationsRecues);
+        assertEquals(0, routages.get());
+    }
+
+    /**
+     * Teste qu'une instance en échec fait échouer la diffusion (502), les autres instances étant tout de même appelées.
+     */
+    @Test
+    void diffusionInstanceEnEchecTest() {
+        List<ServiceInstance> instances = List.of(instance(500), instance(200));
+        DiffusionInstancesFilter filter = filtre(instances, instances);
+
+        MockServerWebExchange echange = router(filter, MockServerHttpRequest.delete("/diabeteBack/cache/1").header(HttpHeaders.AUTHORIZATION, "Bearer jeton"));
+
+        assertEquals(HttpStatus.BAD_GATEWAY, echange.getResponse().getStatusCode());
+        assertEquals(2, autorisationsRecues.size());
+    }
+
+    /**
+     * Teste que les lectures et les chemins non configurés sont routés normalement.
+     */
+    @Test
+    void routageNormalTest() {
+        List<ServiceInstance> instances = List.of(instance(200));
+        DiffusionInstancesFilter filter = filtre(instances, instances);
+
+        router(filter, MockServerHttpRequest.get("/diabeteBack/cache/1"));
+        router(filter, MockServerHttpRequest.delete("/noteBack/delete/1"));
+
+        assertEquals(2, routages.get());
+        assertEquals(0, autorisationsRecues.size());
+    }
+
+    /**
+     * Teste qu'une instance déclarée mais arrêtée, écartée par les vérifications de santé, n'est pas appelée :
+     * la diffusion réussit sans attendre le délai d'appel.
+     */
+    @Test
+    void instanceNonSaineIgnoreeTest() {
+        ServiceInstance saine = instance(200);
+        ServiceInstance arretee = new DefaultServiceInstance("arretee", "microservice-test", "10.255.255.1", 9014, false);
+        DiffusionInstancesFilter filter = filtre(List.of(saine, arretee), List.of(saine));
+
+        long debut = System.nanoTime();
+        MockServerWebExchange echange = router(filter, MockServerHttpRequest.delete("/diabeteBack/cache/1").header(HttpHeaders.AUTHORIZATION, "Bearer jeton"));
+
+        assertEquals(HttpStatus.OK, echange.getResponse().getStatusCode());
+        assertEquals(1, autorisationsRecues.size());
+        assertTrue(System.nanoTime() - debut < 1_000_000_000L);
+    }
+
+    /**
+     * Teste qu'une instance écartée après des échecs consécutifs n'est plus appelée, puis que toutes les instances
+     * déclarées sont appelées lorsqu'aucune n'est saine.
+     */
+    @Test
+    void instanceEcarteeIgnoreeTest() {
+        ServiceInstance ecartee = instance(200);
+        ServiceInstance disponible = instance(200);
+        for (int i = 0; i < new CustomProperties().getRepartitionEchecsEjection(); i++) {
+            suivi.debuter(ecartee);
+            suivi.terminer(ecartee, false, true);
+        }
+
+        router(filtre(List.of(ecartee, disponible), List.of(ecartee, disponible)), MockServerHttpRequest.delete("/diabeteBack/cache/1"));
+        assertEquals(1, autorisationsRecues.size());
+
+        autorisationsRecues.clear();
+        router(filtre(List.of(ecartee, disponible), List.of()), MockServerHttpRequest.delete("/diabeteBack/cache/1"));
+        assertEquals(2, autorisationsRecues.size());
+    }
+
+    /**
+     * Démarre une instance simulée du microservice répondant le statut indiqué aux invalidations.
+     */
+    private ServiceInstance instance(int statut) {
+        DisposableServer serveur = HttpServer.create()
+                .port(0)
+                .route(routes -> routes.delete("/diabeteBack/cache/{id}", (requete, reponse) -> {
+                    autorisationsRecues.add(requete.requestHeaders().get(HttpHeaders.AUTHORIZATION));
+                    return reponse.status(statut).send();
+                }))
+                .bindNow();
+        serveurs.add(serveur);
+        return new DefaultServiceInstance("i" + serveur.port(), "microservice-test", "localhost", serveur.port(), false);
+    }
+
+    /**
+     * Construit le filtre, les instances déclarées étant fournies par le registre et les instances saines par le répartiteur.
+     */
+    private DiffusionInstancesFilter filtre(List<ServiceInstance> declarees, List<ServiceInstance> saines) {
+        CustomProperties prop = new CustomProperties();
+        prop.setDiffusionChemins(Map.of("/diabeteBack/cache/*", "microservice-test"));
+        ReactiveDiscoveryClient discoveryClient = new ReactiveDiscoveryClient() {
+            @Override
+            public String description() {
+                return "instances de test";
+            }
+
+            @Override
+            public Flux<ServiceInstance> getInstances(String serviceId) {
+                return "microservice-test".equals(serviceId) ? Flux.fromIterable(declarees) : Flux.empty();
+            }
+
+            @Override
+            public Flux<String> getServices() {
+                return Flux.just("microservice-test");
+            }
+        };
+        LoadBalancerClientFactory repartiteurs = new LoadBalancerClientFactory(new LoadBalancerClientsProperties()) {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T getInstance(String name, Class<T> type) {
+                return (T) ServiceInstanceListSuppliers.from(name, saines.toArray(new ServiceInstance[0]));
+            }
+        };
+        return new DiffusionInstancesFilter(discoveryClient, repartiteurs, suivi, WebClient.builder(), prop);
+    }
+
+    private MockServerWebExchange router(DiffusionInstancesFilter filter, MockServerHttpRequest.BaseBuilder<?> requete) {
+        MockServerWebExchange echange = MockServerWebExchange.from(requete);
+        filter.filter(echange, routage).block();
+        return echange;
+    }
+}
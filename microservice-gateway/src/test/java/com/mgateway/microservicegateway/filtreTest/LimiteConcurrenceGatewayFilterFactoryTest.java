@@ -0,0 +1,103 @@
+package com.mgateway.microservicegateway.filtreTest;
+
+import com.mgateway.microservicegateway.filtre.LimiteConcurrenceGatewayFilterFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Classe de test pour LimiteConcurrenceGatewayFilterFactory.
+ * Vérifie le rejet des requêtes au-delà de la limite et l'adaptation de la limite à la latence du microservice.
+ *
+ * @author mickael hayé
+ * @version 1.0
+ */
+public class LimiteConcurrenceGatewayFilterFactoryTest {
+
+    private final LimiteConcurrenceGatewayFilterFactory factory = new LimiteConcurrenceGatewayFilterFactory();
+
+    /**
+     * Teste que les requêtes simultanées au-delà de la limite sont rejetées avec un 503 et un en-tête Retry-After.
+     */
+    @Test
+    void rejetAuDelaLimiteTest() {
+        GatewayFilter filtre = factory.apply(config(2, 1000));
+        List<MockServerWebExchange> echanges = router(filtre, 3, microservice(Duration.ofMillis(200), HttpStatus.OK));
+
+        assertEquals(2, echanges.stream().filter(echange -> echange.getResponse().getStatusCode() == HttpStatus.OK).count());
+        MockServerWebExchange rejete = echanges.stream()
+                .filter(echange -> echange.getResponse().getStatusCode() == HttpStatus.SERVICE_UNAVAILABLE)
+                .findFirst().orElseThrow();
+        assertEquals("1", rejete.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+
+    /**
+     * Teste que la limite diminue après des réponses lentes ou en erreur, jusqu'à la limite minimale,
+     * puis augmente de nouveau lorsque le microservice répond rapidement.
+     */
+    @Test
+    void adaptationLimiteTest() {
+        LimiteConcurrenceGatewayFilterFactory.Config config = config(4, 50);
+        config.setReduction(0.5);
+        GatewayFilter filtre = factory.apply(config);
+
+        // Réponses lentes : la limite passe de 4 à 2 puis reste à la limite minimale
+        router(filtre, 1, microservice(Duration.ofMillis(100), HttpStatus.OK));
+        router(filtre, 1, microservice(Duration.ZERO, HttpStatus.INTERNAL_SERVER_ERROR));
+        assertEquals(1, compterAcceptees(filtre));
+
+        // Réponses rapides avec la limite utilisée : la limite augmente d'une unité par réponse
+        router(filtre, 1, microservice(Duration.ZERO, HttpStatus.OK));
+        router(filtre, 2, microservice(Duration.ZERO, HttpStatus.OK));
+        assertEquals(3, compterAcceptees(filtre));
+    }
+
+    private static LimiteConcurrenceGatewayFilterFactory.Config config(int limiteInitiale, long latenceMax) {
+        LimiteConcurrenceGatewayFilterFactory.Config config = new LimiteConcurrenceGatewayFilterFactory.Config();
+        config.setRouteId("routeTest");
+        config.setLimiteInitiale(limiteInitiale);
+        config.setLimiteMin(1);
+        config.setLatenceMax(latenceMax);
+        return config;
+    }
+
+    /**
+     * Compte les requêtes acceptées parmi dix requêtes simultanées, puis les abandonne afin de ne pas modifier la limite.
+     */
+    private static long compterAcceptees(GatewayFilter filtre) {
+        List<MockServerWebExchange> echanges = IntStream.range(0, 10)
+                .mapToObj(i -> MockServerWebExchange.from(MockServerHttpRequest.get("/patientBack/list")))
+                .toList();
+        List<Disposable> appels = echanges.stream().map(echange -> filtre.filter(echange, e -> Mono.never()).subscribe()).toList();
+        long acceptees = echanges.stream().filter(echange -> echange.getResponse().getStatusCode() != HttpStatus.SERVICE_UNAVAILABLE).count();
+        appels.forEach(Disposable::dispose);
+        return acceptees;
+    }
+
+    /**
+     * Microservice simulé répondant avec le statut donné après le délai donné.
+     */
+    private static GatewayFilterChain microservice(Duration delai, HttpStatus statut) {
+        return echange -> Mono.delay(delai).then(Mono.fromRunnable(() -> echange.getResponse().setStatusCode(statut)));
+    }
+
+    private static List<MockServerWebExchange> router(GatewayFilter filtre, int nombre, GatewayFilterChain chain) {
+        List<MockServerWebExchange> echanges = IntStream.range(0, nombre)
+                .mapToObj(i -> MockServerWebExchange.from(MockServerHttpRequest.get("/patientBack/list")))
+                .toList();
+        Mono.when(echanges.stream().map(echange -> filtre.filter(echange, chain).onErrorResume(e -> Mono.empty())).toList()).block();
+        return echanges;
+    }
+}
@@ -0,0 +1,88 @@
+package com.mgateway.microservicegateway.filtreTest;
+
+import com.mgateway.microservicegateway.filtre.LimiteurDebitMemoire;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Classe de test pour LimiteurDebitMemoire.
+ * Vérifie la lecture de la configuration des routes et la limitation du débit par utilisateur et par route.
+ *
+ * @author mickael hayé
+ * @version 1.0
+ */
+@SpringBootTest
+public class LimiteurDebitMemoireTest {
+
+    @Autowired
+    private LimiteurDebitMemoire limiteur;
+
+    @Autowired
+    private RouteLocator routeLocator;
+
+    /**
+     * Teste que le débit et la capacité définis dans les arguments des routes sont appliqués au limiteur.
+     */
+    @Test
+    void configurationRoutesTest() {
+        routeLocator.getRoutes().collectList().block();
+        LimiteurDebitMemoire.Config config = limiteur.getConfig().get("microservice-back-patient");
+        assertNotNull(config);
+        assertEquals(20, config.getDebit());
+        assertEquals(40, config.getCapacite());
+        assertEquals(10, limiteur.getConfig().get("microservice-front").getDebit());
+    }
+
+    /**
+     * Teste que le risque d'une population (scan, lot) est routé vers sa propre route, prioritaire sur /diabeteBack/**,
+     * afin que sa latence n'ajuste pas la limite de concurrence des requêtes interactives.
+     */
+    @Test
+    void routeLotsTest() {
+        assertEquals("microservice-back-diabete-lots", route(MockServerHttpRequest.get("/diabeteBack/risque/scan").build()));
+        assertEquals("microservice-back-diabete-lots", route(MockServerHttpRequest.post("/diabeteBack/risque/batch").build()));
+        assertEquals("microservice-back-diabete", route(MockServerHttpRequest.get("/diabeteBack/risque/1").build()));
+        assertEquals(20, limiteur.getConfig().get("microservice-back-diabete-lots").getDebit());
+    }
+
+    /**
+     * Renvoie l'identifiant de la première route, dans l'ordre du gateway, correspondant à la requête.
+     */
+    private String route(MockServerHttpRequest requete) {
+        MockServerWebExchange echange = MockServerWebExchange.from(requete);
+        return routeLocator.getRoutes()
+                .concatMap(route -> Mono.from(route.getPredicate().apply(echange)).filter(Boolean::booleanValue).map(correspond -> route))
+                .next().map(Route::getId).block();
+    }
+
+    /**
+     * Teste qu'une rafale au-delà de la capacité est refusée, sans affecter les autres utilisateurs ni les autres routes.
+     */
+    @Test
+    void seauJetonsTest() {
+        LimiteurDebitMemoire.Config config = new LimiteurDebitMemoire.Config();
+        config.setDebit(0.1);
+        config.setCapacite(2);
+        limiteur.getConfig().put("routeTest", config);
+        limiteur.getConfig().put("autreRouteTest", config);
+
+        assertEquals("1", limiteur.isAllowed("routeTest", "user1").block().getHeaders().get(LimiteurDebitMemoire.ENTETE_JETONS_RESTANTS));
+        assertTrue(limiteur.isAllowed("routeTest", "user1").block().isAllowed());
+        RateLimiter.Response refus = limiteur.isAllowed("routeTest", "user1").block();
+        assertFalse(refus.isAllowed());
+        assertEquals("10", refus.getHeaders().get(HttpHeaders.RETRY_AFTER));
+
+        assertTrue(limiteur.isAllowed("routeTest", "user2").block().isAllowed());
+        assertTrue(limiteur.isAllowed("autreRouteTest", "user1").block().isAllowed());
+    }
+}